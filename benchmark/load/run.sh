@@ -0,0 +1,26 @@
+#!/usr/bin/env sh
+# Runs LoadTest against a running instance, over the catalog loaded by
+# seed.sql, whose size is read from the database, and prints the
+# throughput, errors and p50/p99/p999 latency of each operation.
+#   ./run.sh [url] [clients] [seconds] [write ratio] [requests/s]
+# Without a rate, each client sends its next request when the previous one
+# completes; with one, requests are sent at that rate (open loop).
+# Connection settings are taken from the usual PG* environment variables.
+set -eu
+
+URL=${1:-http://localhost:8080}
+CLIENTS=${2:-64}
+DURATION=${3:-60}
+WRITE_RATIO=${4:-0.1}
+RATE=${5:-0}
+DIR=$(dirname "$0")
+
+FRANCHISES=$(psql -Atc "SELECT COALESCE(max(id), 0) FROM franchise")
+OFFICES=$(psql -Atc "SELECT COALESCE(max(id), 0) FROM office")
+PRODUCTS=$(psql -Atc "SELECT COALESCE(max(id), 0) FROM product")
+
+cd "$DIR/../.."
+mvn -q test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+    -Dexec.args="-Dload.url=$URL -Dload.concurrency=$CLIENTS -Dload.duration=$DURATION \
+-Dload.writeRatio=$WRITE_RATIO -Dload.rate=$RATE -Dload.franchises=$FRANCHISES -Dload.offices=$OFFICES \
+-Dload.products=$PRODUCTS -cp %classpath com.seti.technical_test.benchmark.LoadTest"
@@ -0,0 +1,78 @@
+-- Replaces the catalog of the application database with a synthetic one:
+-- :franchises franchises of :offices offices each, with a skewed number of
+-- products per office (Pareto, :products on average, shape :skew, so a few
+-- offices hold far more products than the rest) and a skewed stock (most
+-- products low, a few high, under 1000). Identifiers are contiguous from 1,
+-- as on a single shard. Stock summaries are maintained by the triggers;
+-- the change log, the stock history and the low stock alerts are emptied
+-- once the catalog is written, so the seed leaves no events to replay.
+-- Restart the application afterwards so its in-memory indexes reload.
+--   psql -v franchises=100 -v offices=50 -v products=200 -v skew=2 -f seed.sql
+
+\set ON_ERROR_STOP on
+
+\if :{?franchises}
+\else
+    \set franchises 100
+\endif
+\if :{?offices}
+\else
+    \set offices 50
+\endif
+\if :{?products}
+\else
+    \set products 200
+\endif
+\if :{?skew}
+\else
+    \set skew 2
+\endif
+
+TRUNCATE franchise, office, product, office_stock_summary CASCADE;
+
+INSERT INTO franchise (id, name)
+SELECT id, 'FRANCHISE ' || id
+FROM generate_series(1, :franchises) AS id;
+
+INSERT INTO office (id, name, franchise_id)
+SELECT id, 'OFFICE ' || id, (id - 1) / :offices + 1
+FROM generate_series(1, :franchises * :offices) AS id;
+
+-- Product count of each office, capped at fifty times the average, and
+-- the first product id of the office.
+CREATE TEMP TABLE seed_office AS
+SELECT id,
+       LEAST(ceil(:products * (:skew - 1.0) / :skew * power(1 - random(), -1.0 / :skew)), :products * 50)::INTEGER
+           AS products
+FROM office;
+
+WITH words AS (
+    SELECT ARRAY['ACEITE', 'ARROZ', 'AZUCAR', 'CAFE', 'CHOCOLATE', 'FRIJOL', 'GALLETA', 'HARINA', 'JABON', 'LECHE',
+                 'MANTEQUILLA', 'PAN', 'PASTA', 'QUESO', 'SAL', 'SALSA', 'TE', 'VINAGRE', 'YOGUR', 'ATUN'] AS w
+), ranges AS (
+    SELECT id, products, sum(products) OVER (ORDER BY id) - products AS first
+    FROM seed_office
+)
+INSERT INTO product (id, name, stock, office_id)
+SELECT r.first + n,
+       w[1 + floor(random() * 20)::INTEGER] || ' ' || w[1 + floor(random() * 20)::INTEGER] || ' ' || (r.first + n),
+       floor(1000 * power(random(), :skew))::INTEGER,
+       r.id
+FROM words, ranges r, generate_series(1, r.products) AS n;
+
+-- Whatever wrote events for the rows above (triggers, or an instance
+-- running during the seed) is discarded, and the history restarts from
+-- the beginning of the emptied outbox.
+TRUNCATE outbox, stock_history, stock_history_hourly, low_stock_alert;
+UPDATE stock_history_position SET last_txid = '0', last_id = 0, updated_at = now();
+
+SELECT setval(pg_get_serial_sequence('franchise', 'id'), :franchises + 1, false);
+SELECT setval(pg_get_serial_sequence('office', 'id'), :franchises * :offices + 1, false);
+SELECT setval(pg_get_serial_sequence('product', 'id'), COALESCE(max(id), 0) + 1, false) FROM product;
+
+ANALYZE franchise, office, product, office_stock_summary;
+
+SELECT (SELECT count(*) FROM franchise) AS franchises,
+       (SELECT count(*) FROM office) AS offices,
+       (SELECT count(*) FROM product) AS products,
+       (SELECT max(products) FROM seed_office) AS largest_office;
@@ -0,0 +1,18 @@
+#!/usr/bin/env sh
+# Runs the stock update with and without the outbox insert and prints
+# pgbench's latency and throughput summary for each, so the overhead of the
+# outbox on the write path can be compared directly.
+#   ./run.sh [clients] [seconds]
+# Connection settings are taken from the usual PG* environment variables.
+set -eu
+
+CLIENTS=${1:-16}
+DURATION=${2:-60}
+DIR=$(dirname "$0")
+
+for workload in update update_outbox; do
+    echo "== $workload"
+    pgbench --no-vacuum --protocol=prepared --client="$CLIENTS" --jobs="$CLIENTS" --time="$DURATION" \
+        --file="$DIR/$workload.sql" \
+        | grep -E 'latency average|latency stddev|tps'
+done
@@ -0,0 +1,30 @@
+-- Builds a 1M row product table and an empty outbox shaped like the
+-- application ones, to measure the cost the outbox adds to each write.
+-- Run against a scratch database:
+--   psql -f setup.sql
+
+\set ON_ERROR_STOP on
+
+DROP TABLE IF EXISTS bench_outbox, bench_outbox_product;
+
+CREATE TABLE bench_outbox_product (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(150) NOT NULL,
+    stock INTEGER NOT NULL,
+    office_id BIGINT NOT NULL
+);
+
+INSERT INTO bench_outbox_product (id, name, stock, office_id)
+SELECT id, 'PRODUCT ' || id, (random() * 10000)::INTEGER, (id - 1) / 100 + 1
+FROM generate_series(1, 1000000) AS id;
+
+CREATE TABLE bench_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(10) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+VACUUM ANALYZE bench_outbox_product;
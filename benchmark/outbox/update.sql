@@ -0,0 +1,7 @@
+-- Stock update of a random product in its own transaction, without an
+-- outbox event.
+\set id random(1, 1000000)
+\set stock random(0, 10000)
+BEGIN;
+UPDATE bench_outbox_product SET stock = :stock WHERE id = :id;
+COMMIT;
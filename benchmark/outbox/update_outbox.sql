@@ -0,0 +1,10 @@
+-- The same update followed by the outbox insert ProductRepositoryAdapter
+-- issues: one extra statement in the same transaction.
+\set id random(1, 1000000)
+\set stock random(0, 10000)
+BEGIN;
+UPDATE bench_outbox_product SET stock = :stock WHERE id = :id;
+INSERT INTO bench_outbox (aggregate_type, aggregate_id, event_type, payload)
+VALUES ('product', :id, 'UPDATED',
+        jsonb_build_object('id', :id, 'name', 'PRODUCT ' || :id, 'stock', :stock, 'officeId', (:id - 1) / 100 + 1));
+COMMIT;
@@ -0,0 +1,10 @@
+-- ProductRepository.adjustStock of a random product: addressed by id and
+-- office, so the partitioned table prunes to a single partition.
+\set id random(1, 50000000)
+\set delta random(-5, 5)
+UPDATE :table
+SET stock = stock + :delta
+WHERE id = :id
+  AND office_id = (:id - 1) / 500 + 1
+  AND stock + :delta >= 0
+RETURNING id, name, stock, office_id;
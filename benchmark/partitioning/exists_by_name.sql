@@ -0,0 +1,3 @@
+-- ProductRepository.existsByName for a random product.
+\set id random(1, 50000000)
+SELECT EXISTS (SELECT 1 FROM :table WHERE name = 'PRODUCT ' || :id);
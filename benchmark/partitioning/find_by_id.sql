@@ -0,0 +1,4 @@
+-- ProductRepositoryAdapter.findById of a random product: Spring Data selects
+-- by id alone, so the partitioned table probes every partition.
+\set id random(1, 50000000)
+SELECT id, name, stock, office_id FROM :table WHERE id = :id;
@@ -0,0 +1,21 @@
+#!/usr/bin/env sh
+# Runs every workload against the plain and the partitioned table and prints
+# pgbench's latency and throughput summary for each combination. The simple
+# protocol is required because the table name is substituted as text.
+#   ./run.sh [clients] [seconds] [k]
+# Connection settings are taken from the usual PG* environment variables.
+set -eu
+
+CLIENTS=${1:-16}
+DURATION=${2:-60}
+K=${3:-5}
+DIR=$(dirname "$0")
+
+for workload in top_stock top_k_lateral top_k_window exists_by_name find_by_id update_stock adjust_stock; do
+    for table in bench_product_heap bench_product_hash; do
+        echo "== $workload on $table"
+        pgbench --no-vacuum --protocol=simple --client="$CLIENTS" --jobs="$CLIENTS" --time="$DURATION" \
+            --define=table="$table" --define=k="$K" --file="$DIR/$workload.sql" \
+            | grep -E 'latency average|latency stddev|tps'
+    done
+done
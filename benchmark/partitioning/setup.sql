@@ -0,0 +1,52 @@
+-- Builds two copies of a 50M row product table, one plain and one
+-- hash-partitioned on office_id, over 1,000 franchises and 100,000 offices.
+-- Run against a scratch database:
+--   psql -v partitions=16 -f setup.sql
+
+\set ON_ERROR_STOP on
+
+DROP TABLE IF EXISTS bench_product_heap, bench_product_hash, bench_office;
+
+CREATE TABLE bench_office (
+    id BIGINT PRIMARY KEY,
+    franchise_id BIGINT NOT NULL
+);
+
+INSERT INTO bench_office (id, franchise_id)
+SELECT id, (id - 1) / 100 + 1
+FROM generate_series(1, 100000) AS id;
+
+CREATE INDEX ON bench_office (franchise_id);
+
+CREATE TABLE bench_product_heap (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(150) NOT NULL,
+    stock INTEGER NOT NULL,
+    office_id BIGINT NOT NULL
+);
+
+CREATE TABLE bench_product_hash (
+    id BIGINT NOT NULL,
+    name VARCHAR(150) NOT NULL,
+    stock INTEGER NOT NULL,
+    office_id BIGINT NOT NULL,
+    PRIMARY KEY (id, office_id)
+) PARTITION BY HASH (office_id);
+
+SELECT format('CREATE TABLE bench_product_hash_p%s PARTITION OF bench_product_hash FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+              remainder, :partitions, remainder)
+FROM generate_series(0, :partitions - 1) AS remainder
+\gexec
+
+INSERT INTO bench_product_heap (id, name, stock, office_id)
+SELECT id, 'PRODUCT ' || id, (random() * 10000)::INTEGER, (id - 1) / 500 + 1
+FROM generate_series(1, 50000000) AS id;
+
+INSERT INTO bench_product_hash SELECT * FROM bench_product_heap;
+
+CREATE INDEX ON bench_product_heap (office_id, stock DESC);
+CREATE INDEX ON bench_product_heap (name);
+CREATE INDEX ON bench_product_hash (office_id, stock DESC);
+CREATE INDEX ON bench_product_hash (name);
+
+VACUUM ANALYZE bench_office, bench_product_heap, bench_product_hash;
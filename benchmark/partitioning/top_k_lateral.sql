@@ -0,0 +1,14 @@
+-- ProductRepository.findTopStockByOffice for a random franchise: k index
+-- probes per office through a lateral subquery.
+\set franchise_id random(1, 1000)
+SELECT p.id, p.name, p.stock, p.office_id
+FROM bench_office o
+CROSS JOIN LATERAL (
+    SELECT id, name, stock, office_id
+    FROM :table
+    WHERE office_id = o.id
+    ORDER BY stock DESC, id
+    LIMIT :k
+) p
+WHERE o.franchise_id = :franchise_id
+ORDER BY o.id, p.stock DESC, p.id;
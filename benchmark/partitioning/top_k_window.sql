@@ -0,0 +1,11 @@
+-- The same top-k ranking written with row_number(), for comparison with the
+-- lateral query: every product of the franchise offices is numbered.
+\set franchise_id random(1, 1000)
+SELECT id, name, stock, office_id
+FROM (SELECT p.id, p.name, p.stock, p.office_id,
+             row_number() OVER (PARTITION BY p.office_id ORDER BY p.stock DESC, p.id) AS rank
+      FROM :table p
+      JOIN bench_office o ON o.id = p.office_id
+      WHERE o.franchise_id = :franchise_id) ranked
+WHERE rank <= :k
+ORDER BY office_id, stock DESC, id;
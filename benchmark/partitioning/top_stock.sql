@@ -0,0 +1,8 @@
+-- The former single-top query of ProductRepository.findTopStockByOffice for a
+-- random franchise, kept as the baseline of the top-k queries.
+\set franchise_id random(1, 1000)
+SELECT DISTINCT ON (o.id) p.id, p.name, p.stock, p.office_id
+FROM :table p
+JOIN bench_office o ON o.id = p.office_id
+WHERE o.franchise_id = :franchise_id
+ORDER BY o.id, p.stock DESC;
@@ -0,0 +1,5 @@
+-- ProductRepositoryAdapter.save of an existing product: Spring Data updates
+-- every column by id alone, so the partitioned table probes every partition.
+\set id random(1, 50000000)
+\set stock random(0, 10000)
+UPDATE :table SET name = 'PRODUCT ' || :id, stock = :stock, office_id = (:id - 1) / 500 + 1 WHERE id = :id;
@@ -0,0 +1,35 @@
+-- Builds the one million row product table of StockRankingIndexBenchmark:
+-- 100 franchises of 100 offices of 100 products, stock between 0 and 9,999,
+-- with the (office_id, stock DESC) index of the product table.
+-- Run against a scratch database:
+--   psql -f setup.sql
+
+\set ON_ERROR_STOP on
+
+DROP TABLE IF EXISTS bench_ranking_product, bench_ranking_office;
+
+CREATE TABLE bench_ranking_office (
+    id BIGINT PRIMARY KEY,
+    franchise_id BIGINT NOT NULL
+);
+
+INSERT INTO bench_ranking_office (id, franchise_id)
+SELECT id, (id - 1) / 100 + 1
+FROM generate_series(1, 10000) AS id;
+
+CREATE INDEX ON bench_ranking_office (franchise_id);
+
+CREATE TABLE bench_ranking_product (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(150) NOT NULL,
+    stock INTEGER NOT NULL,
+    office_id BIGINT NOT NULL
+);
+
+INSERT INTO bench_ranking_product (id, name, stock, office_id)
+SELECT id, 'PRODUCT ' || id, (random() * 9999)::INTEGER, (id - 1) % 10000 + 1
+FROM generate_series(1, 1000000) AS id;
+
+CREATE INDEX ON bench_ranking_product (office_id, stock DESC);
+
+VACUUM ANALYZE bench_ranking_office, bench_ranking_product;
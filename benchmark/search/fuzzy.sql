@@ -0,0 +1,10 @@
+-- Typo branch of ProductRepositoryAdapter.searchByName: the prefix of a
+-- random name with its second character replaced, ranked by trigram distance.
+\set id random(1, 1000000)
+SELECT p.id, p.name, p.stock, p.office_id, p.name <-> q.text AS distance
+FROM (SELECT overlay(left(name, :length) PLACING 'X' FROM 2 FOR 1) AS text
+      FROM bench_search_product WHERE id = :id) q,
+     bench_search_product p
+WHERE p.name % q.text
+ORDER BY distance
+LIMIT 20;
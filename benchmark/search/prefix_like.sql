@@ -0,0 +1,7 @@
+-- Prefix search as a LIKE pattern, the baseline of prefix_range.sql.
+\set id random(1, 1000000)
+SELECT id, name, stock, office_id
+FROM bench_search_product
+WHERE name LIKE (SELECT left(name, :length) FROM bench_search_product WHERE id = :id) || '%'
+ORDER BY name
+LIMIT 20;
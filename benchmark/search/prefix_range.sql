@@ -0,0 +1,10 @@
+-- Prefix branch of ProductRepositoryAdapter.searchByName: the prefix as a
+-- text_pattern_ops range, usable by a generic plan.
+\set id random(1, 1000000)
+SELECT p.id, p.name, p.stock, p.office_id
+FROM (SELECT left(name, :length) AS prefix FROM bench_search_product WHERE id = :id) q,
+     bench_search_product p
+WHERE p.name ~>=~ q.prefix
+  AND p.name ~<~ left(q.prefix, -1) || chr(ascii(right(q.prefix, 1)) + 1)
+ORDER BY p.name
+LIMIT 20;
@@ -0,0 +1,21 @@
+#!/usr/bin/env sh
+# Runs the prefix and typo searches against the one million row table of
+# setup.sql for a short and a long search text, and prints pgbench's
+# latency and throughput summary for each. Compare with
+# ProductNameIndexBenchmark for the in-memory index.
+#   ./run.sh [clients] [seconds]
+# Connection settings are taken from the usual PG* environment variables.
+set -eu
+
+CLIENTS=${1:-16}
+DURATION=${2:-60}
+DIR=$(dirname "$0")
+
+for workload in prefix_like prefix_range fuzzy; do
+    for length in 4 12; do
+        echo "== $workload with $length characters"
+        pgbench --no-vacuum --protocol=prepared --client="$CLIENTS" --jobs="$CLIENTS" --time="$DURATION" \
+            --define=length="$length" --file="$DIR/$workload.sql" \
+            | grep -E 'latency average|latency stddev|tps'
+    done
+done
@@ -0,0 +1,36 @@
+-- Builds a one million row product table with the indexes of the name
+-- search, over 10,000 offices. Names combine two words of the vocabulary
+-- of ProductNameIndexBenchmark with the product id.
+-- Run against a scratch database:
+--   psql -f setup.sql
+
+\set ON_ERROR_STOP on
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP TABLE IF EXISTS bench_search_product;
+
+CREATE TABLE bench_search_product (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(150) NOT NULL,
+    stock INTEGER NOT NULL,
+    office_id BIGINT NOT NULL
+);
+
+WITH words AS (
+    SELECT ARRAY['ACEITE', 'ARROZ', 'AZUCAR', 'CAFE', 'CHOCOLATE', 'FRIJOL', 'GALLETA', 'HARINA', 'JABON', 'LECHE',
+                 'MANTEQUILLA', 'PAN', 'PASTA', 'QUESO', 'SAL', 'SALSA', 'TE', 'VINAGRE', 'YOGUR', 'ATUN'] AS w
+)
+INSERT INTO bench_search_product (id, name, stock, office_id)
+SELECT id,
+       w[1 + floor(random() * 20)::INTEGER] || ' ' || w[1 + floor(random() * 20)::INTEGER] || ' ' || id,
+       (random() * 1000)::INTEGER,
+       id % 10000 + 1
+FROM words, generate_series(1, 1000000) AS id;
+
+CREATE INDEX ON bench_search_product (name);
+CREATE INDEX ON bench_search_product (name text_pattern_ops);
+CREATE INDEX ON bench_search_product USING gin (name gin_trgm_ops);
+CREATE INDEX ON bench_search_product (office_id);
+
+VACUUM ANALYZE bench_search_product;
@@ -1,13 +1,20 @@
 package com.seti.technical_test;
 
+import com.seti.technical_test.infrastructure.persistance.dataset.DatasetCommand;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class TechnicalTestApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(TechnicalTestApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(TechnicalTestApplication.class, args);
+
+		// a dataset command has run: exit with its outcome instead of serving
+		if (context.getBeanProvider(DatasetCommand.class).getIfAvailable() != null) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
@@ -0,0 +1,46 @@
+package com.seti.technical_test.application.port.in;
+
+import com.seti.technical_test.domain.model.ChangeEvent;
+import com.seti.technical_test.domain.model.FranchiseChanges;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for following the changes of franchises, offices and
+ * products.
+ * <p>
+ * Consumers stream the changes from their last acknowledged position and
+ * acknowledge them once processed, so a reconnecting consumer resumes
+ * where it stopped.
+ */
+public interface ChangeEventUseCase {
+
+    /**
+     * Streams the changes after the last position acknowledged by a consumer.
+     *
+     * @param consumer the consumer name
+     * @return an endless {@link Flux} of changes
+     */
+    Flux<ChangeEvent> streamChanges(String consumer);
+
+    /**
+     * Acknowledges the changes processed by a consumer on a shard.
+     *
+     * @param consumer the consumer name
+     * @param shard the shard of the processed changes
+     * @param txid the transaction of the last processed change
+     * @param offset the identifier of the last processed change
+     * @return a {@link Mono} signaling completion of the operation
+     */
+    Mono<Void> acknowledge(String consumer, Integer shard, Long txid, Long offset);
+
+    /**
+     * Retrieves the changes of a franchise, its offices and its products
+     * since a previous synchronization.
+     *
+     * @param franchiseId the franchise identifier
+     * @param since the version returned by the previous synchronization, or {@code 0} for all the changes
+     * @return a {@link Mono} containing the new version and the changes
+     */
+    Mono<FranchiseChanges> getFranchiseChanges(Long franchiseId, Long since);
+}
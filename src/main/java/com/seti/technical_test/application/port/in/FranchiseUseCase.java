@@ -19,7 +19,7 @@ public interface FranchiseUseCase {
      * @param id the franchise identifier
      * @return a {@link Mono} containing the franchise data
      */
-    Mono<Franchise> getFranchise(Integer id);
+    Mono<Franchise> getFranchise(Long id);
 
     /**
      * Creates a new franchise.
@@ -36,7 +36,7 @@ public interface FranchiseUseCase {
      * @param franchise the updated franchise data
      * @return a {@link Mono} containing the updated franchise
      */
-    Mono<Franchise> updateFranchise(Integer id, Franchise franchise);
+    Mono<Franchise> updateFranchise(Long id, Franchise franchise);
 
     /**
      * Retrieves all offices associated with a given franchise.
@@ -44,5 +44,5 @@ public interface FranchiseUseCase {
      * @param franchiseId the franchise identifier
      * @return a {@link Flux} containing the franchise offices
      */
-    Flux<Office> findByFranchiseId(Integer franchiseId);
+    Flux<Office> findByFranchiseId(Long franchiseId);
 }
@@ -0,0 +1,48 @@
+package com.seti.technical_test.application.port.in;
+
+import com.seti.technical_test.domain.model.FranchiseStockTotal;
+import com.seti.technical_test.domain.model.InventoryFootprint;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.StockPercentiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for the analytical reports over the whole inventory.
+ * <p>
+ * Reports are answered from an in-memory snapshot, so they reflect the
+ * writes of other instances with a delay.
+ */
+public interface InventoryAnalyticsUseCase {
+
+    /**
+     * Retrieves the total stock of every franchise.
+     *
+     * @return a {@link Flux} emitting one total per franchise, highest stock first
+     */
+    Flux<FranchiseStockTotal> getStockByFranchise();
+
+    /**
+     * Retrieves the stock distribution of an office.
+     *
+     * @param officeId the office identifier
+     * @return a {@link Mono} containing the stock percentiles of the office
+     */
+    Mono<StockPercentiles> getStockPercentiles(Long officeId);
+
+    /**
+     * Retrieves products without stock.
+     *
+     * @param franchiseId the franchise the products belong to, or {@code null} for any franchise
+     * @param limit       the maximum number of products
+     * @return a {@link Flux} emitting the products without stock
+     */
+    Flux<Product> getOutOfStockProducts(Long franchiseId, Integer limit);
+
+    /**
+     * Reports the memory held by the inventory snapshot.
+     *
+     * @return a {@link Mono} containing the memory footprint
+     */
+    Mono<InventoryFootprint> getFootprint();
+}
@@ -0,0 +1,19 @@
+package com.seti.technical_test.application.port.in;
+
+import com.seti.technical_test.domain.model.LowStockAlert;
+import reactor.core.publisher.Flux;
+
+/**
+ * Service interface for following the low-stock alerts of the products.
+ */
+public interface LowStockAlertUseCase {
+
+    /**
+     * Streams the low-stock alerts raised from now on, optionally limited
+     * to one office.
+     *
+     * @param officeId the office identifier, or {@code null} for every office
+     * @return an endless {@link Flux} of alerts
+     */
+    Flux<LowStockAlert> streamAlerts(Long officeId);
+}
@@ -17,7 +17,7 @@ public interface OfficeUseCase {
      * @param id the office identifier
      * @return a {@link Mono} containing the office data
      */
-    Mono<Office> getOffice(Integer id);
+    Mono<Office> getOffice(Long id);
 
     /**
      * Creates a new office.
@@ -34,5 +34,14 @@ public interface OfficeUseCase {
      * @param office the updated office data
      * @return a {@link Mono} containing the updated office
      */
-    Mono<Office> updateOffice(Integer id, Office office);
+    Mono<Office> updateOffice(Long id, Office office);
+
+    /**
+     * Sets the low-stock threshold of an office.
+     *
+     * @param id the office identifier
+     * @param threshold the new threshold, or {@code null} to use the default one
+     * @return a {@link Mono} signaling completion of the operation
+     */
+    Mono<Void> setLowStockThreshold(Long id, Integer threshold);
 }
@@ -1,9 +1,13 @@
 package com.seti.technical_test.application.port.in;
 
 import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+import com.seti.technical_test.domain.model.StockAdjustment;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Service interface for managing products.
  * <p>
@@ -18,7 +22,7 @@ public interface ProductUseCase {
      * @param id the product identifier
      * @return a {@link Mono} containing the product data
      */
-    Mono<Product> getProduct(Integer id);
+    Mono<Product> getProduct(Long id);
 
     /**
      * Creates a new product.
@@ -28,6 +32,14 @@ public interface ProductUseCase {
      */
     Mono<Product> createProduct(Product product);
 
+    /**
+     * Creates several products at once.
+     *
+     * @param products the products data to be created
+     * @return a {@link Flux} containing the created products
+     */
+    Flux<Product> createProducts(List<Product> products);
+
     /**
      * Updates an existing product.
      *
@@ -35,7 +47,17 @@ public interface ProductUseCase {
      * @param product the updated product data
      * @return a {@link Mono} containing the updated product
      */
-    Mono<Product> updateProduct(Integer id, Product product);
+    Mono<Product> updateProduct(Long id, Product product);
+
+    /**
+     * Adds a delta to the stock of a product, for instance a sale or a
+     * replenishment.
+     *
+     * @param id the product identifier
+     * @param adjustment the stock change
+     * @return a {@link Mono} containing the product with its adjusted stock
+     */
+    Mono<Product> adjustStock(Long id, StockAdjustment adjustment);
 
     /**
      * Deletes a product by its identifier.
@@ -43,14 +65,46 @@ public interface ProductUseCase {
      * @param id the product identifier
      * @return a {@link Mono} signaling completion of the operation
      */
-    Mono<Void> deleteProduct(Integer id);
+    Mono<Void> deleteProduct(Long id);
 
     /**
      * Retrieves the products with the highest stock per office
      * for a given franchise.
      *
      * @param franchiseId the franchise identifier
+     * @param k the number of products per office
      * @return a {@link Flux} containing the top products per office
      */
-    Flux<Product> getTopProductsOfficeByFranchise(Integer franchiseId);
+    Flux<Product> getTopProductsOfficeByFranchise(Long franchiseId, Integer k);
+
+    /**
+     * Retrieves the position of a product in the stock ranking of its office.
+     *
+     * @param id the product identifier
+     * @return a {@link Mono} containing the rank of the product
+     */
+    Mono<ProductRank> getStockRank(Long id);
+
+    /**
+     * Retrieves the products of an office whose stock is within a range.
+     *
+     * @param officeId the office identifier
+     * @param minStock the lowest stock, inclusive
+     * @param maxStock the highest stock, inclusive
+     * @param limit the maximum number of products
+     * @return a {@link Flux} containing the products, by descending stock
+     */
+    Flux<Product> getProductsByStock(Long officeId, Integer minStock, Integer maxStock, Integer limit);
+
+    /**
+     * Searches products by a partial or misspelled name, optionally within
+     * an office or a franchise.
+     *
+     * @param query the search text
+     * @param officeId the office to search in, or {@code null}
+     * @param franchiseId the franchise to search in, or {@code null}
+     * @param limit the maximum number of products
+     * @return a {@link Flux} containing the best matches
+     */
+    Flux<Product> searchProducts(String query, Long officeId, Long franchiseId, Integer limit);
 }
@@ -0,0 +1,37 @@
+package com.seti.technical_test.application.port.in;
+
+import com.seti.technical_test.domain.model.StockHistoryPoint;
+import com.seti.technical_test.domain.model.StockHistoryResolution;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+/**
+ * Service interface for the stock history of products and offices.
+ */
+public interface StockHistoryUseCase {
+
+    /**
+     * Retrieves the stock of a product over a period, downsampled to the
+     * given resolution.
+     *
+     * @param productId the product identifier
+     * @param from the start of the period, inclusive
+     * @param to the end of the period, exclusive
+     * @param resolution the length of each interval
+     * @return a {@link Flux} containing the min, max and last stock of each interval
+     */
+    Flux<StockHistoryPoint> getProductHistory(Long productId, Instant from, Instant to, StockHistoryResolution resolution);
+
+    /**
+     * Retrieves the stock of every product of an office over a period,
+     * downsampled to the given resolution.
+     *
+     * @param officeId the office identifier
+     * @param from the start of the period, inclusive
+     * @param to the end of the period, exclusive
+     * @param resolution the length of each interval
+     * @return a {@link Flux} containing the min, max and last stock of each product and interval
+     */
+    Flux<StockHistoryPoint> getOfficeHistory(Long officeId, Instant from, Instant to, StockHistoryResolution resolution);
+}
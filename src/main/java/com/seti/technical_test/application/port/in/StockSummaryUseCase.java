@@ -0,0 +1,30 @@
+package com.seti.technical_test.application.port.in;
+
+import com.seti.technical_test.domain.model.FranchiseStockSummary;
+import com.seti.technical_test.domain.model.OfficeStockSummary;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for the stock reports of offices and franchises.
+ * <p>
+ * Reports are answered from precomputed aggregates instead of reading the
+ * products.
+ */
+public interface StockSummaryUseCase {
+
+    /**
+     * Retrieves the stock aggregates of an office.
+     *
+     * @param officeId the office identifier
+     * @return a {@link Mono} containing the office aggregates
+     */
+    Mono<OfficeStockSummary> getOfficeSummary(Long officeId);
+
+    /**
+     * Retrieves the stock aggregates of a franchise and its offices.
+     *
+     * @param franchiseId the franchise identifier
+     * @return a {@link Mono} containing the franchise aggregates
+     */
+    Mono<FranchiseStockSummary> getFranchiseSummary(Long franchiseId);
+}
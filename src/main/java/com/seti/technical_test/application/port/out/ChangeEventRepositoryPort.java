@@ -0,0 +1,71 @@
+package com.seti.technical_test.application.port.out;
+
+import com.seti.technical_test.domain.model.ChangeEvent;
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Output port giving access to the feed of {@link ChangeEvent}s and to
+ * the positions consumers have reached in it.
+ *
+ * <p>
+ * The feed is split per shard and positions are only comparable within a
+ * shard, so offsets are kept per consumer and shard. Within a shard the
+ * feed is ordered by {@link ChangeEventPosition}, and only holds the events
+ * of transactions older than every transaction still running, so an event
+ * committed late is never behind a position already reached.
+ * </p>
+ */
+public interface ChangeEventRepositoryPort {
+
+    /**
+     * Retrieves the last acknowledged position of a consumer on every shard.
+     *
+     * @param consumer the consumer name
+     * @return a {@link Mono} emitting the offset of each shard, {@link ChangeEventPosition#START} when the
+     *         consumer never acknowledged
+     */
+    Mono<Map<Integer, ChangeEventPosition>> findOffsets(String consumer);
+
+    /**
+     * Streams the events recorded after the given positions, then keeps
+     * streaming new events as they are recorded.
+     *
+     * @param offsets the position to start after, per shard
+     * @return an endless {@link Flux} of events, ordered within each shard
+     */
+    Flux<ChangeEvent> streamAfter(Map<Integer, ChangeEventPosition> offsets);
+
+    /**
+     * Stores the position a consumer has processed on a shard. Positions
+     * never move backwards.
+     *
+     * @param consumer the consumer name
+     * @param shard    the shard
+     * @param offset   the position of the last processed event
+     * @return a {@link Mono} that completes once the offset is stored
+     */
+    Mono<Void> saveOffset(String consumer, Integer shard, ChangeEventPosition offset);
+
+    /**
+     * Retrieves the current version of the feed of a franchise: every
+     * event written before this version is already visible.
+     *
+     * @param franchiseId the franchise identifier
+     * @return a {@link Mono} emitting the version
+     */
+    Mono<Long> findVersion(Long franchiseId);
+
+    /**
+     * Retrieves the latest event of every aggregate of a franchise changed
+     * since the given version.
+     *
+     * @param franchiseId the franchise identifier
+     * @param since       a version previously returned by {@link #findVersion(Long)}, or {@code 0}
+     * @return a {@link Flux} of events, in the order they were recorded
+     */
+    Flux<ChangeEvent> findByFranchiseSince(Long franchiseId, Long since);
+}
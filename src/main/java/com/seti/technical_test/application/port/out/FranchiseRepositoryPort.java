@@ -27,7 +27,7 @@ public interface FranchiseRepositoryPort {
      * @param id the unique identifier of the franchise
      * @return a {@link Mono} emitting the franchise if found, or empty if not found
      */
-    Mono<Franchise> findById(Integer id);
+    Mono<Franchise> findById(Long id);
 
     /**
      * Checks whether a franchise with the given name already exists.
@@ -0,0 +1,76 @@
+package com.seti.technical_test.application.port.out;
+
+import com.seti.technical_test.domain.model.FranchiseStockTotal;
+import com.seti.technical_test.domain.model.InventoryFootprint;
+import com.seti.technical_test.domain.model.Office;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.StockPercentiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Output port answering analytical questions over every product from an
+ * in-memory copy of the inventory.
+ *
+ * <p>
+ * The copy is rebuilt from the database periodically and kept current in
+ * between by the writes of this instance, notified through
+ * {@link #productSaved(Product)}, {@link #productDeleted(Product)} and
+ * {@link #officeSaved(Office)}. Writes of other instances appear at the
+ * next rebuild.
+ * </p>
+ */
+public interface InventorySnapshotPort {
+
+    /**
+     * Notifies that a product was created or updated. Never blocks nor fails.
+     *
+     * @param product the product as written
+     */
+    void productSaved(Product product);
+
+    /**
+     * Notifies that a product was deleted. Never blocks nor fails.
+     *
+     * @param product the deleted product
+     */
+    void productDeleted(Product product);
+
+    /**
+     * Notifies that an office was created or updated. Never blocks nor fails.
+     *
+     * @param office the office as written
+     */
+    void officeSaved(Office office);
+
+    /**
+     * Retrieves the total stock of every franchise.
+     *
+     * @return a {@link Flux} emitting one total per franchise, highest stock first
+     */
+    Flux<FranchiseStockTotal> totalStockByFranchise();
+
+    /**
+     * Retrieves the stock distribution of an office.
+     *
+     * @param officeId the office identifier
+     * @return a {@link Mono} emitting the distribution, or empty if the office has no products
+     */
+    Mono<StockPercentiles> stockPercentiles(Long officeId);
+
+    /**
+     * Retrieves products without stock.
+     *
+     * @param franchiseId the franchise the products belong to, or {@code null} for any franchise
+     * @param limit       the maximum number of products
+     * @return a {@link Flux} emitting the products without stock
+     */
+    Flux<Product> findOutOfStock(Long franchiseId, int limit);
+
+    /**
+     * Reports the memory held by the snapshot.
+     *
+     * @return a {@link Mono} emitting the memory footprint
+     */
+    Mono<InventoryFootprint> footprint();
+}
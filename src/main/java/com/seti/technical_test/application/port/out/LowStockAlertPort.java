@@ -0,0 +1,34 @@
+package com.seti.technical_test.application.port.out;
+
+import com.seti.technical_test.domain.model.LowStockAlert;
+import com.seti.technical_test.domain.model.Product;
+import reactor.core.publisher.Flux;
+
+/**
+ * Output port detecting the products whose stock dropped under the
+ * low-stock threshold of their office.
+ *
+ * <p>
+ * Products are checked continuously in the background; a product notified
+ * through {@link #stockDecreased(Product)} is checked right away instead
+ * of waiting for its turn. An alert is raised once per drop: it is raised
+ * again only after the stock recovered.
+ * </p>
+ */
+public interface LowStockAlertPort {
+
+    /**
+     * Notifies that the stock of a product was decreased. Never blocks nor
+     * fails; the product is checked shortly after.
+     *
+     * @param product the product as written
+     */
+    void stockDecreased(Product product);
+
+    /**
+     * Streams the alerts raised from now on.
+     *
+     * @return an endless {@link Flux} of alerts
+     */
+    Flux<LowStockAlert> alerts();
+}
@@ -27,7 +27,7 @@ public interface OfficeRepositoryPort {
      * @param id the unique identifier of the office
      * @return a {@link Mono} emitting the office if found, or empty if not found
      */
-    Mono<Office> findById(Integer id);
+    Mono<Office> findById(Long id);
 
     /**
      * Checks whether an office with the given name already exists.
@@ -70,5 +70,15 @@ public interface OfficeRepositoryPort {
      * @param franchiseId the unique identifier of the franchise
      * @return a {@link Flux} emitting the offices belonging to the specified franchise
      */
-    Flux<Office> findByFranchiseId(Integer franchiseId);
+    Flux<Office> findByFranchiseId(Long franchiseId);
+
+    /**
+     * Sets the stock under which the products of an office raise a
+     * low-stock alert.
+     *
+     * @param id        the unique identifier of the office
+     * @param threshold the new threshold, or {@code null} to use the default one
+     * @return a {@link Mono} that completes once the threshold is stored
+     */
+    Mono<Void> updateLowStockThreshold(Long id, Integer threshold);
 }
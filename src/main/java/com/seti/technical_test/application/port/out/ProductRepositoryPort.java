@@ -1,9 +1,12 @@
 package com.seti.technical_test.application.port.out;
 
 import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Output port that defines the persistence operations required by the
  * application layer for managing {@link Product} aggregates.
@@ -27,7 +30,7 @@ public interface ProductRepositoryPort {
      * @param id the unique identifier of the product
      * @return a {@link Mono} emitting the product if found, or empty if not found
      */
-    Mono<Product> findById(Integer id);
+    Mono<Product> findById(Long id);
 
     /**
      * Checks whether a product with the given name already exists.
@@ -64,6 +67,37 @@ public interface ProductRepositoryPort {
      */
     Mono<Product> save(Product product);
 
+    /**
+     * Persists a batch of new {@link Product} aggregates.
+     *
+     * <p>
+     * Identifiers are assigned by the implementation, so the products are
+     * expected to have none, and are written in as few round trips as the
+     * persistence technology allows.
+     * </p>
+     *
+     * @param products the new products
+     * @return a {@link Flux} emitting the persisted products with their identifiers
+     */
+    Flux<Product> saveAll(List<Product> products);
+
+    /**
+     * Adds a delta to the stock of a product.
+     *
+     * <p>
+     * Unlike {@link #save(Product)}, concurrent adjustments of the same
+     * product are never lost. Implementations may apply the change
+     * asynchronously, as long as it is durable and visible through
+     * {@link #findById(Long)} when the returned {@link Mono} completes.
+     * </p>
+     *
+     * @param product the product, as currently stored
+     * @param delta   the change applied to the stock
+     * @return a {@link Mono} emitting the product with its adjusted stock,
+     *         or empty if the stock would become negative
+     */
+    Mono<Product> adjustStock(Product product, int delta);
+
     /**
      * Deletes the given {@link Product} aggregate.
      *
@@ -78,15 +112,56 @@ public interface ProductRepositoryPort {
     Mono<Void> delete(Product product);
 
     /**
-     * Retrieves the products with the highest stock for a given office or franchise.
+     * Retrieves the products with the highest stock of each office of a
+     * franchise.
      *
      * <p>
      * This method is typically used for reporting or inventory-related
      * use cases.
      * </p>
      *
-     * @param franchiseId the unique identifier of the franchise or office
-     * @return a {@link Flux} emitting the products with the highest stock
+     * @param franchiseId the unique identifier of the franchise
+     * @param k           the number of products returned per office
+     * @return a {@link Flux} emitting the products with the highest stock,
+     *         by office and then by descending stock
+     */
+    Flux<Product> findTopStockByOffice(Long franchiseId, int k);
+
+    /**
+     * Retrieves the position of a product in the stock ranking of its
+     * office, in the order of {@link #findTopStockByOffice(Long, int)}.
+     *
+     * @param product the product, as currently stored
+     * @return a {@link Mono} emitting the rank of the product
+     */
+    Mono<ProductRank> findStockRank(Product product);
+
+    /**
+     * Retrieves the products of an office whose stock is within a range.
+     *
+     * @param officeId the unique identifier of the office
+     * @param minStock the lowest stock, inclusive
+     * @param maxStock the highest stock, inclusive
+     * @param limit    the maximum number of products
+     * @return a {@link Flux} emitting the products, by descending stock and then by id
+     */
+    Flux<Product> findByStockRange(Long officeId, int minStock, int maxStock, int limit);
+
+    /**
+     * Retrieves the products whose name starts with, or is close to, a
+     * search text.
+     *
+     * <p>
+     * Names starting with the text come first, in name order, followed by
+     * the names that only resemble it, the closest first, so that a typo
+     * still finds the product.
+     * </p>
+     *
+     * @param query       the upper-case search text
+     * @param officeId    the office to search in, or {@code null}
+     * @param franchiseId the franchise to search in, or {@code null}
+     * @param limit       the maximum number of products
+     * @return a {@link Flux} emitting the best matches, at most {@code limit}
      */
-    Flux<Product> findTopStockByOffice(Integer franchiseId);
+    Flux<Product> searchByName(String query, Long officeId, Long franchiseId, int limit);
 }
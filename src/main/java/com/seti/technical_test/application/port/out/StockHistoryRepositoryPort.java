@@ -0,0 +1,43 @@
+package com.seti.technical_test.application.port.out;
+
+import com.seti.technical_test.domain.model.StockHistoryPoint;
+import com.seti.technical_test.domain.model.StockHistoryResolution;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+/**
+ * Output port giving access to the recorded stock values of the products.
+ *
+ * <p>
+ * Every stock change is recorded by the persistence layer after it is
+ * committed; recent changes are kept one by one and older ones as hourly
+ * aggregates, so histories are only available at hourly resolution or
+ * coarser.
+ * </p>
+ */
+public interface StockHistoryRepositoryPort {
+
+    /**
+     * Retrieves the stock of a product over a period.
+     *
+     * @param productId  the identifier of the product
+     * @param from       the start of the period, inclusive
+     * @param to         the end of the period, exclusive
+     * @param resolution the length of each interval
+     * @return a {@link Flux} emitting one point per interval with changes, in time order
+     */
+    Flux<StockHistoryPoint> findByProductId(Long productId, Instant from, Instant to, StockHistoryResolution resolution);
+
+    /**
+     * Retrieves the stock of the products of an office over a period.
+     *
+     * @param officeId   the identifier of the office
+     * @param from       the start of the period, inclusive
+     * @param to         the end of the period, exclusive
+     * @param resolution the length of each interval
+     * @return a {@link Flux} emitting one point per product and interval with changes,
+     *         by product and then in time order
+     */
+    Flux<StockHistoryPoint> findByOfficeId(Long officeId, Instant from, Instant to, StockHistoryResolution resolution);
+}
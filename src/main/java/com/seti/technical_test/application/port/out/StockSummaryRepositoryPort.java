@@ -0,0 +1,34 @@
+package com.seti.technical_test.application.port.out;
+
+import com.seti.technical_test.domain.model.OfficeStockSummary;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Output port giving access to the stock aggregates maintained for each
+ * office.
+ *
+ * <p>
+ * Aggregates are kept up to date by the persistence layer on every
+ * product change, so reading them never depends on the size of the
+ * catalog.
+ * </p>
+ */
+public interface StockSummaryRepositoryPort {
+
+    /**
+     * Retrieves the aggregates of an office.
+     *
+     * @param officeId the identifier of the office
+     * @return a {@link Mono} emitting the aggregates, or empty if the office never held products
+     */
+    Mono<OfficeStockSummary> findByOfficeId(Long officeId);
+
+    /**
+     * Retrieves the aggregates of every office of a franchise.
+     *
+     * @param franchiseId the identifier of the franchise
+     * @return a {@link Flux} emitting the aggregates of the offices that ever held products
+     */
+    Flux<OfficeStockSummary> findByFranchiseId(Long franchiseId);
+}
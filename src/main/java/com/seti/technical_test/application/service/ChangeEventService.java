@@ -0,0 +1,67 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.in.ChangeEventUseCase;
+import com.seti.technical_test.application.port.out.ChangeEventRepositoryPort;
+import com.seti.technical_test.application.port.out.FranchiseRepositoryPort;
+import com.seti.technical_test.domain.model.ChangeEvent;
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import com.seti.technical_test.domain.model.FranchiseChanges;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service implementation for following changes.
+ * <p>
+ * Resolves the position of each consumer and delegates the streaming to
+ * the change feed. Franchise synchronizations read the version before the
+ * changes, so a change committed in between is returned again next time
+ * rather than missed.
+ */
+@Service
+@AllArgsConstructor
+@Slf4j
+public class ChangeEventService implements ChangeEventUseCase {
+
+    private final ChangeEventRepositoryPort changeEventRepositoryPort;
+    private final FranchiseRepositoryPort franchiseRepositoryPort;
+
+    @Override
+    public Flux<ChangeEvent> streamChanges(String consumer) {
+        log.info(LogOperations.CHANGES_STREAM, "Consumer {} is streaming changes", consumer);
+
+        return changeEventRepositoryPort.findOffsets(consumer)
+                .flatMapMany(changeEventRepositoryPort::streamAfter);
+    }
+
+    @Override
+    public Mono<Void> acknowledge(String consumer, Integer shard, Long txid, Long offset) {
+        if (txid == null || txid < 0 || offset == null || offset < 0) {
+            return Mono.error(new GeneralException("The offset must be a non negative position"));
+        }
+
+        log.info(LogOperations.CHANGES_ACKNOWLEDGE, "Consumer {} acknowledged position {}/{} of shard {}",
+                consumer, txid, offset, shard);
+
+        return changeEventRepositoryPort.saveOffset(consumer, shard, new ChangeEventPosition(txid, offset));
+    }
+
+    @Override
+    public Mono<FranchiseChanges> getFranchiseChanges(Long franchiseId, Long since) {
+        if (since == null || since < 0) {
+            return Mono.error(new GeneralException("The version must be a non negative number"));
+        }
+
+        log.info(LogOperations.CHANGES_SYNC, "Franchise {} is synchronizing from version {}", franchiseId, since);
+
+        return franchiseRepositoryPort.findById(franchiseId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Not found franchise")))
+                .then(Mono.defer(() -> changeEventRepositoryPort.findVersion(franchiseId)))
+                .map(version -> new FranchiseChanges(version,
+                        changeEventRepositoryPort.findByFranchiseSince(franchiseId, since)));
+    }
+}
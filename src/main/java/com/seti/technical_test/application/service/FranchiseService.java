@@ -21,32 +21,44 @@ import java.util.Objects;
  * Service implementation for managing franchises.
  * <p>
  * This class contains the business logic related to franchises,
- * using reactive programming with Project Reactor.
+ * using reactive programming with Project Reactor. Identical franchise
+ * reads in flight at the same time are coalesced into one.
  */
 @Service
 @AllArgsConstructor
 @Slf4j
 public class FranchiseService implements FranchiseUseCase {
 
+    /**
+     * Error emitted when the franchise does not exist. The exception is only
+     * created when the error is actually signalled.
+     */
+    private static final Mono<Franchise> FRANCHISE_NOT_FOUND = Mono.error(() -> new NotFoundException("Not found franchise"));
+
     private final FranchiseRepositoryPort franchiseRepositoryPort;
     private final OfficeRepositoryPort officeRepositoryPort;
 
+    /**
+     * Concurrent reads of the same franchise share one database round trip.
+     */
+    private final SingleFlight singleFlight = new SingleFlight();
+
     @Override
-    public Mono<Franchise> getFranchise(Integer id) {
-        log.info("Franchise will be consulted by id {}", id);
+    public Mono<Franchise> getFranchise(Long id) {
+        log.info(LogOperations.FRANCHISE_GET, "Franchise will be consulted by id {}", id);
 
-        return franchiseRepositoryPort.findById(id)
-                .switchIfEmpty(Mono.error(new NotFoundException("Not found franchise")))
+        return singleFlight.mono(List.of("getFranchise", id), () -> franchiseRepositoryPort.findById(id)
+                .switchIfEmpty(FRANCHISE_NOT_FOUND)
                 .flatMap(franchise ->
                         findByFranchiseId(id)
                                 .collectList()
                                 .map(offices -> addOfficesToFranchise(franchise, offices))
-                        );
+                        ));
     }
 
     @Override
     public Mono<Franchise> createFranchise(Franchise franchise) {
-        log.info("Creating franchise with the following features {}", franchise);
+        log.info(LogOperations.FRANCHISE_CREATE, "Creating franchise with the following features {}", franchise);
 
         return franchiseRepositoryPort.existsByName(franchise.name())
                 .flatMap(exists -> {
@@ -59,8 +71,8 @@ public class FranchiseService implements FranchiseUseCase {
     }
 
     @Override
-    public Mono<Franchise> updateFranchise(Integer id, Franchise franchise) {
-        log.info("Updating franchise with the following features {}", franchise);
+    public Mono<Franchise> updateFranchise(Long id, Franchise franchise) {
+        log.info(LogOperations.FRANCHISE_UPDATE, "Updating franchise with the following features {}", franchise);
 
         if(!Objects.equals(id, franchise.id())) {
             log.error("IDs do not match");
@@ -79,8 +91,8 @@ public class FranchiseService implements FranchiseUseCase {
     }
 
     @Override
-    public Flux<Office> findByFranchiseId(Integer franchiseId) {
-        log.info("Checking offices for the franchise {}", franchiseId);
+    public Flux<Office> findByFranchiseId(Long franchiseId) {
+        log.info(LogOperations.FRANCHISE_OFFICES, "Checking offices for the franchise {}", franchiseId);
 
         return officeRepositoryPort.findByFranchiseId(franchiseId);
     }
@@ -0,0 +1,79 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.in.InventoryAnalyticsUseCase;
+import com.seti.technical_test.application.port.out.FranchiseRepositoryPort;
+import com.seti.technical_test.application.port.out.InventorySnapshotPort;
+import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
+import com.seti.technical_test.domain.model.FranchiseStockTotal;
+import com.seti.technical_test.domain.model.InventoryFootprint;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.StockPercentiles;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service implementation for the analytical reports.
+ * <p>
+ * Checks that the office or franchise exists and scans the in-memory
+ * inventory snapshot; offices without products report no percentiles.
+ */
+@Service
+@AllArgsConstructor
+@Slf4j
+public class InventoryAnalyticsService implements InventoryAnalyticsUseCase {
+
+    /**
+     * Largest number of products a report may return.
+     */
+    private static final int MAX_OUT_OF_STOCK_RESULTS = 1_000;
+
+    private final InventorySnapshotPort inventorySnapshotPort;
+    private final OfficeRepositoryPort officeRepositoryPort;
+    private final FranchiseRepositoryPort franchiseRepositoryPort;
+
+    @Override
+    public Flux<FranchiseStockTotal> getStockByFranchise() {
+        log.info(LogOperations.INVENTORY_ANALYTICS, "Total stock will be computed for every franchise");
+
+        return inventorySnapshotPort.totalStockByFranchise();
+    }
+
+    @Override
+    public Mono<StockPercentiles> getStockPercentiles(Long officeId) {
+        log.info(LogOperations.INVENTORY_ANALYTICS, "Stock percentiles will be computed for the office {}", officeId);
+
+        return officeRepositoryPort.findById(officeId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Not found office")))
+                .flatMap(office -> inventorySnapshotPort.stockPercentiles(officeId))
+                .defaultIfEmpty(StockPercentiles.empty(officeId));
+    }
+
+    @Override
+    public Flux<Product> getOutOfStockProducts(Long franchiseId, Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_OUT_OF_STOCK_RESULTS) {
+            return Flux.error(new GeneralException("The number of products must be between 1 and " + MAX_OUT_OF_STOCK_RESULTS));
+        }
+
+        log.info(LogOperations.INVENTORY_ANALYTICS, "Products without stock will be listed for the franchise {}", franchiseId);
+
+        if (franchiseId == null) {
+            return inventorySnapshotPort.findOutOfStock(null, limit);
+        }
+
+        return franchiseRepositoryPort.findById(franchiseId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Not found franchise")))
+                .flatMapMany(franchise -> inventorySnapshotPort.findOutOfStock(franchiseId, limit));
+    }
+
+    @Override
+    public Mono<InventoryFootprint> getFootprint() {
+        log.info(LogOperations.INVENTORY_ANALYTICS, "Memory footprint of the inventory snapshot will be reported");
+
+        return inventorySnapshotPort.footprint();
+    }
+}
@@ -0,0 +1,46 @@
+package com.seti.technical_test.application.service;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Markers identifying the operation that emits a log statement.
+ * <p>
+ * Informational logs on the request path are tagged with one of these
+ * markers so that their sampling rate can be tuned per operation at runtime.
+ * Warnings and errors are never sampled.
+ */
+public final class LogOperations {
+
+    public static final Marker FRANCHISE_GET = MarkerFactory.getMarker("franchise.get");
+    public static final Marker FRANCHISE_CREATE = MarkerFactory.getMarker("franchise.create");
+    public static final Marker FRANCHISE_UPDATE = MarkerFactory.getMarker("franchise.update");
+    public static final Marker FRANCHISE_OFFICES = MarkerFactory.getMarker("franchise.offices");
+    public static final Marker FRANCHISE_SUMMARY = MarkerFactory.getMarker("franchise.summary");
+
+    public static final Marker OFFICE_GET = MarkerFactory.getMarker("office.get");
+    public static final Marker OFFICE_CREATE = MarkerFactory.getMarker("office.create");
+    public static final Marker OFFICE_UPDATE = MarkerFactory.getMarker("office.update");
+    public static final Marker OFFICE_SUMMARY = MarkerFactory.getMarker("office.summary");
+    public static final Marker OFFICE_HISTORY = MarkerFactory.getMarker("office.history");
+
+    public static final Marker PRODUCT_GET = MarkerFactory.getMarker("product.get");
+    public static final Marker PRODUCT_CREATE = MarkerFactory.getMarker("product.create");
+    public static final Marker PRODUCT_UPDATE = MarkerFactory.getMarker("product.update");
+    public static final Marker PRODUCT_STOCK = MarkerFactory.getMarker("product.stock");
+    public static final Marker PRODUCT_DELETE = MarkerFactory.getMarker("product.delete");
+    public static final Marker PRODUCT_TOP = MarkerFactory.getMarker("product.top");
+    public static final Marker PRODUCT_SEARCH = MarkerFactory.getMarker("product.search");
+    public static final Marker PRODUCT_HISTORY = MarkerFactory.getMarker("product.history");
+
+    public static final Marker CHANGES_STREAM = MarkerFactory.getMarker("changes.stream");
+    public static final Marker CHANGES_ACKNOWLEDGE = MarkerFactory.getMarker("changes.acknowledge");
+    public static final Marker CHANGES_SYNC = MarkerFactory.getMarker("changes.sync");
+
+    public static final Marker ALERTS_STREAM = MarkerFactory.getMarker("alerts.stream");
+
+    public static final Marker INVENTORY_ANALYTICS = MarkerFactory.getMarker("inventory.analytics");
+
+    private LogOperations() {
+    }
+}
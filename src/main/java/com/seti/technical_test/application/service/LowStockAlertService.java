@@ -0,0 +1,37 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.in.LowStockAlertUseCase;
+import com.seti.technical_test.application.port.out.LowStockAlertPort;
+import com.seti.technical_test.domain.model.LowStockAlert;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.Objects;
+
+/**
+ * Service implementation for following low-stock alerts.
+ * <p>
+ * Alerts are shared by every subscriber; a subscriber only receives the
+ * alerts raised while it is subscribed.
+ */
+@Service
+@AllArgsConstructor
+@Slf4j
+public class LowStockAlertService implements LowStockAlertUseCase {
+
+    private final LowStockAlertPort lowStockAlertPort;
+
+    @Override
+    public Flux<LowStockAlert> streamAlerts(Long officeId) {
+        log.info(LogOperations.ALERTS_STREAM, "Streaming low-stock alerts of office {}", officeId);
+
+        Flux<LowStockAlert> alerts = lowStockAlertPort.alerts();
+        if (officeId == null) {
+            return alerts;
+        }
+
+        return alerts.filter(alert -> Objects.equals(alert.officeId(), officeId));
+    }
+}
@@ -1,6 +1,7 @@
 package com.seti.technical_test.application.service;
 
 import com.seti.technical_test.application.port.in.OfficeUseCase;
+import com.seti.technical_test.application.port.out.InventorySnapshotPort;
 import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
 import com.seti.technical_test.domain.model.Office;
 import com.seti.technical_test.infrastructure.exception.GeneralException;
@@ -17,27 +18,36 @@ import java.util.Objects;
  * Service implementation for managing offices.
  * <p>
  * Contains the business logic related to office operations,
- * implemented using reactive programming.
+ * implemented using reactive programming. Written offices are applied to
+ * the in-memory inventory snapshot, which groups products by franchise
+ * through their office.
  */
 @Service
 @AllArgsConstructor
 @Slf4j
 public class OfficeService implements OfficeUseCase {
 
+    /**
+     * Error emitted when the office does not exist. The exception is only
+     * created when the error is actually signalled.
+     */
+    private static final Mono<Office> OFFICE_NOT_FOUND = Mono.error(() -> new NotFoundException("Not found office"));
+
     private final OfficeRepositoryPort officeRepositoryPort;
     private final FranchiseUseCase franchiseUseCase;
+    private final InventorySnapshotPort inventorySnapshotPort;
 
     @Override
-    public Mono<Office> getOffice(Integer id) {
-        log.info("Office will be consulted by id {}", id);
+    public Mono<Office> getOffice(Long id) {
+        log.info(LogOperations.OFFICE_GET, "Office will be consulted by id {}", id);
 
         return officeRepositoryPort.findById(id)
-                .switchIfEmpty(Mono.error(new NotFoundException("Not found office")));
+                .switchIfEmpty(OFFICE_NOT_FOUND);
     }
 
     @Override
     public Mono<Office> createOffice(Office office) {
-        log.info("Creating office with the following features {}", office);
+        log.info(LogOperations.OFFICE_CREATE, "Creating office with the following features {}", office);
 
         return officeRepositoryPort.existsByName(office.name())
                     .flatMap(exists -> {
@@ -47,18 +57,19 @@ public class OfficeService implements OfficeUseCase {
 
                         return franchiseUseCase.getFranchise(office.franchiseId()) // check if franchise exists
                                 .then(officeRepositoryPort.save(office));
-                    });
+                    })
+                    .doOnNext(inventorySnapshotPort::officeSaved);
 
     }
 
     @Override
-    public Mono<Office> updateOffice(Integer id, Office office) {
+    public Mono<Office> updateOffice(Long id, Office office) {
         if(!Objects.equals(id, office.id())) {
             log.error("IDs do not match");
             throw new GeneralException("IDs do not match");
         }
 
-        log.info("Updating office with the following features {}", office);
+        log.info(LogOperations.OFFICE_UPDATE, "Updating office with the following features {}", office);
 
         return getOffice(id) // check if office exists
                 .then(officeRepositoryPort.findByName(office.name())
@@ -68,6 +79,19 @@ public class OfficeService implements OfficeUseCase {
                             }
 
                             return officeRepositoryPort.save(office);
-                        }));
+                        }))
+                .doOnNext(inventorySnapshotPort::officeSaved);
+    }
+
+    @Override
+    public Mono<Void> setLowStockThreshold(Long id, Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            return Mono.error(new GeneralException("The low-stock threshold cannot be negative"));
+        }
+
+        log.info(LogOperations.OFFICE_UPDATE, "Setting the low-stock threshold of office {} to {}", id, threshold);
+
+        return getOffice(id) // check if office exists
+                .then(officeRepositoryPort.updateLowStockThreshold(id, threshold));
     }
 }
@@ -1,7 +1,11 @@
 package com.seti.technical_test.application.service;
 
+import com.seti.technical_test.application.port.out.InventorySnapshotPort;
+import com.seti.technical_test.application.port.out.LowStockAlertPort;
 import com.seti.technical_test.application.port.out.ProductRepositoryPort;
 import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+import com.seti.technical_test.domain.model.StockAdjustment;
 import com.seti.technical_test.infrastructure.exception.GeneralException;
 import com.seti.technical_test.infrastructure.exception.NotFoundException;
 import com.seti.technical_test.application.port.in.OfficeUseCase;
@@ -12,33 +16,68 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Service implementation for managing products.
  * <p>
  * Contains the business logic related to product operations,
- * implemented using reactive programming.
+ * implemented using reactive programming. Writes that decrease the stock
+ * of a product notify the low-stock alerts, so the product is checked
+ * without waiting for the background scan, and every write is applied to
+ * the in-memory inventory snapshot. Identical top-product rankings in
+ * flight at the same time are coalesced into one.
  */
 @Service
 @AllArgsConstructor
 @Slf4j
 public class ProductService implements ProductUseCase {
 
+    /**
+     * Error emitted when the product does not exist. The exception is only
+     * created when the error is actually signalled.
+     */
+    private static final Mono<Product> PRODUCT_NOT_FOUND = Mono.error(() -> new NotFoundException("Not found Product"));
+
+    /**
+     * Largest number of products per office a ranking may return.
+     */
+    private static final int MAX_TOP_PRODUCTS = 100;
+
+    /**
+     * Largest number of products a stock range may return.
+     */
+    private static final int MAX_STOCK_RANGE_RESULTS = 100;
+
+    /**
+     * Largest number of products a search may return.
+     */
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     private final ProductRepositoryPort productRepositoryPort;
     private final OfficeUseCase officeUseCase;
+    private final LowStockAlertPort lowStockAlertPort;
+    private final InventorySnapshotPort inventorySnapshotPort;
+
+    /**
+     * Concurrent identical rankings share one database round trip.
+     */
+    private final SingleFlight singleFlight = new SingleFlight();
 
     @Override
-    public Mono<Product> getProduct(Integer id) {
-        log.info("Product will be consulted by id {}", id);
+    public Mono<Product> getProduct(Long id) {
+        log.info(LogOperations.PRODUCT_GET, "Product will be consulted by id {}", id);
 
         return productRepositoryPort.findById(id)
-                .switchIfEmpty(Mono.error(new NotFoundException("Not found Product")));
+                .switchIfEmpty(PRODUCT_NOT_FOUND);
     }
 
     @Override
     public Mono<Product> createProduct(Product product) {
-        log.info("Creating product with the following features {}", product);
+        log.info(LogOperations.PRODUCT_CREATE, "Creating product with the following features {}", product);
 
         return productRepositoryPort.existsByName(product.name())
                 .flatMap(exists -> {
@@ -48,41 +87,144 @@ public class ProductService implements ProductUseCase {
 
                     return officeUseCase.getOffice(product.officeId())
                             .then(productRepositoryPort.save(product));
-                });
+                })
+                .doOnNext(inventorySnapshotPort::productSaved);
+    }
+
+    @Override
+    public Flux<Product> createProducts(List<Product> products) {
+        log.info(LogOperations.PRODUCT_CREATE, "Creating {} products", products.size());
+
+        Set<String> names = new HashSet<>();
+        for (Product product : products) {
+            if (!names.add(product.name())) {
+                return Flux.error(new GeneralException("The product name [" + product.name() + "] is repeated in the request"));
+            }
+        }
+
+        return Flux.fromIterable(products)
+                .flatMap(product -> productRepositoryPort.existsByName(product.name())
+                        .flatMap(exists -> exists
+                                ? Mono.error(new GeneralException("The product with the name [" + product.name() + "] already exists"))
+                                : Mono.empty()))
+                .thenMany(Flux.fromIterable(products)
+                        .map(Product::officeId)
+                        .distinct()
+                        .flatMap(officeUseCase::getOffice))
+                .thenMany(Flux.defer(() -> productRepositoryPort.saveAll(products)))
+                .doOnNext(inventorySnapshotPort::productSaved);
     }
 
     @Override
-    public Mono<Product> updateProduct(Integer id, Product product) {
+    public Mono<Product> updateProduct(Long id, Product product) {
         if(!Objects.equals(id, product.id())) {
             log.error("IDs do not match");
             throw new GeneralException("IDs do not match");
         }
 
-        log.info("Updating product with the following features {}", product);
+        log.info(LogOperations.PRODUCT_UPDATE, "Updating product with the following features {}", product);
 
         return getProduct(id) // check if product exists
-                .then(productRepositoryPort.findByName(product.name()) // the product is searched by name.
+                .flatMap(currentProduct -> productRepositoryPort.findByName(product.name()) // the product is searched by name.
                         .flatMap(consultedProduct -> {
                             if(!Objects.equals(consultedProduct.id(), product.id())) { // It is validated that the current database consultedProduct will be updated
                                 return Mono.error(new GeneralException("You are trying to update the consultedProduct name to an existing one"));
                             }
 
                             return productRepositoryPort.save(product);
+                        })
+                        .doOnNext(updatedProduct -> {
+                            inventorySnapshotPort.productSaved(updatedProduct);
+                            if (isDecreased(currentProduct, updatedProduct)) {
+                                lowStockAlertPort.stockDecreased(updatedProduct);
+                            }
                         }));
     }
 
     @Override
-    public Mono<Void> deleteProduct(Integer id) {
-        log.info("Deleting product by id {}", id);
+    public Mono<Product> adjustStock(Long id, StockAdjustment adjustment) {
+        log.info(LogOperations.PRODUCT_STOCK, "Adjusting stock of product {} by {}", id, adjustment.delta());
+
+        return getProduct(id)
+                .flatMap(product -> productRepositoryPort.adjustStock(product, adjustment.delta())
+                        .switchIfEmpty(Mono.error(() -> new GeneralException("Not enough stock of product [" + product.name() + "]"))))
+                .doOnNext(adjustedProduct -> {
+                    inventorySnapshotPort.productSaved(adjustedProduct);
+                    if (adjustment.delta() < 0) {
+                        lowStockAlertPort.stockDecreased(adjustedProduct);
+                    }
+                });
+    }
+
+    @Override
+    public Mono<Void> deleteProduct(Long id) {
+        log.info(LogOperations.PRODUCT_DELETE, "Deleting product by id {}", id);
 
         return getProduct(id)// check if product exists
-                .flatMap(productRepositoryPort::delete);
+                .flatMap(product -> productRepositoryPort.delete(product)
+                        .doOnSuccess(deleted -> inventorySnapshotPort.productDeleted(product)));
+    }
+
+    @Override
+    public Flux<Product> getTopProductsOfficeByFranchise(Long franchiseId, Integer k) {
+        if (k == null || k < 1 || k > MAX_TOP_PRODUCTS) {
+            return Flux.error(new GeneralException("The number of products per office must be between 1 and " + MAX_TOP_PRODUCTS));
+        }
+
+        log.info(LogOperations.PRODUCT_TOP, "Checking the {} products with more stock for the franchise {}", k, franchiseId);
+
+        return singleFlight.flux(List.of("getTopProductsOfficeByFranchise", franchiseId, k),
+                () -> productRepositoryPort.findTopStockByOffice(franchiseId, k));
+    }
+
+    @Override
+    public Mono<ProductRank> getStockRank(Long id) {
+        log.info(LogOperations.PRODUCT_TOP, "Checking the stock rank of the product {}", id);
+
+        return getProduct(id)
+                .flatMap(productRepositoryPort::findStockRank);
+    }
+
+    @Override
+    public Flux<Product> getProductsByStock(Long officeId, Integer minStock, Integer maxStock, Integer limit) {
+        if (minStock == null || maxStock == null || minStock < 0 || minStock > maxStock) {
+            return Flux.error(new GeneralException("The stock range must go from a non-negative stock to a higher or equal one"));
+        }
+
+        if (limit == null || limit < 1 || limit > MAX_STOCK_RANGE_RESULTS) {
+            return Flux.error(new GeneralException("The number of products must be between 1 and " + MAX_STOCK_RANGE_RESULTS));
+        }
+
+        log.info(LogOperations.PRODUCT_TOP, "Checking the products of the office {} with a stock between {} and {}",
+                officeId, minStock, maxStock);
+
+        return officeUseCase.getOffice(officeId) // check if office exists
+                .flatMapMany(office -> productRepositoryPort.findByStockRange(officeId, minStock, maxStock, limit));
     }
 
     @Override
-    public Flux<Product> getTopProductsOfficeByFranchise(Integer franchiseId) {
-        log.info("Checking products with more stock for the franchise {}", franchiseId);
+    public Flux<Product> searchProducts(String query, Long officeId, Long franchiseId, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return Flux.error(new GeneralException("The search text cannot be empty"));
+        }
+
+        if (officeId != null && franchiseId != null) {
+            return Flux.error(new GeneralException("The search can be scoped to an office or a franchise, not both"));
+        }
+
+        if (limit == null || limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            return Flux.error(new GeneralException("The number of results must be between 1 and " + MAX_SEARCH_RESULTS));
+        }
+
+        String normalized = query.trim().toUpperCase(); // names are stored in upper case
+
+        log.info(LogOperations.PRODUCT_SEARCH, "Searching products matching [{}] in office {} or franchise {}",
+                normalized, officeId, franchiseId);
+
+        return productRepositoryPort.searchByName(normalized, officeId, franchiseId, limit);
+    }
 
-        return productRepositoryPort.findTopStockByOffice(franchiseId);
+    private static boolean isDecreased(Product before, Product after) {
+        return before.stock() != null && after.stock() != null && after.stock() < before.stock();
     }
 }
@@ -0,0 +1,63 @@
+package com.seti.technical_test.application.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical reads in flight: while a read of a key is running,
+ * later subscribers to the same key join it instead of starting their own.
+ *
+ * <p>
+ * A read starts with its first subscriber and runs in that subscriber's
+ * context. Subscribers joining it late get the elements already emitted
+ * again, then the rest as they come. When every subscriber cancelled, the
+ * read is cancelled too. Once it completes, fails or is cancelled, the key
+ * is forgotten with everything the read emitted, so the next subscriber
+ * starts a new read: results are never kept past the read that produced
+ * them. A subscriber may therefore get the result of a read started
+ * shortly before it, never an older one.
+ * </p>
+ */
+final class SingleFlight {
+
+    private final Map<Object, Flux<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Shares a {@link Mono} among the concurrent subscribers of a key.
+     *
+     * @param key  the operation and its arguments
+     * @param read the read, called once per flight
+     * @param <T>  the type of the result
+     * @return a {@link Mono} joining the read of the key in flight, or starting it
+     */
+    <T> Mono<T> mono(Object key, Supplier<Mono<T>> read) {
+        return flux(key, () -> read.get().flux()).singleOrEmpty();
+    }
+
+    /**
+     * Shares a {@link Flux} among the concurrent subscribers of a key.
+     *
+     * @param key  the operation and its arguments
+     * @param read the read, called once per flight
+     * @param <T>  the type of the elements
+     * @return a {@link Flux} joining the read of the key in flight, or starting it
+     */
+    @SuppressWarnings("unchecked")
+    <T> Flux<T> flux(Object key, Supplier<Flux<T>> read) {
+        return Flux.defer(() -> (Flux<T>) inFlight.computeIfAbsent(key, k -> share(k, read)));
+    }
+
+    private <T> Flux<T> share(Object key, Supplier<Flux<T>> read) {
+        AtomicReference<Flux<T>> shared = new AtomicReference<>();
+        shared.set(Flux.defer(read)
+                .doFinally(signal -> inFlight.remove(key, shared.get()))
+                .replay()
+                .refCount());
+        return shared.get();
+    }
+}
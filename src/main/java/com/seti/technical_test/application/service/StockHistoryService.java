@@ -0,0 +1,88 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.in.StockHistoryUseCase;
+import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
+import com.seti.technical_test.application.port.out.ProductRepositoryPort;
+import com.seti.technical_test.application.port.out.StockHistoryRepositoryPort;
+import com.seti.technical_test.domain.model.StockHistoryPoint;
+import com.seti.technical_test.domain.model.StockHistoryResolution;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Service implementation for the stock history.
+ * <p>
+ * Validates the requested period, whose length bounds the cost of a
+ * query, and checks that the product or office exists. Products deleted
+ * since keep their history in the office report only.
+ */
+@Service
+@AllArgsConstructor
+@Slf4j
+public class StockHistoryService implements StockHistoryUseCase {
+
+    /**
+     * Longest period a history may cover.
+     */
+    private static final Duration MAX_PERIOD = Duration.ofDays(366);
+
+    private final StockHistoryRepositoryPort stockHistoryRepositoryPort;
+    private final ProductRepositoryPort productRepositoryPort;
+    private final OfficeRepositoryPort officeRepositoryPort;
+
+    @Override
+    public Flux<StockHistoryPoint> getProductHistory(Long productId, Instant from, Instant to,
+                                                     StockHistoryResolution resolution) {
+        GeneralException invalid = validate(from, to, resolution);
+        if (invalid != null) {
+            return Flux.error(invalid);
+        }
+
+        log.info(LogOperations.PRODUCT_HISTORY, "Stock history of product {} will be consulted from {} to {} by {}",
+                productId, from, to, resolution);
+
+        return productRepositoryPort.findById(productId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Not found Product")))
+                .thenMany(stockHistoryRepositoryPort.findByProductId(productId, from, to, resolution));
+    }
+
+    @Override
+    public Flux<StockHistoryPoint> getOfficeHistory(Long officeId, Instant from, Instant to,
+                                                    StockHistoryResolution resolution) {
+        GeneralException invalid = validate(from, to, resolution);
+        if (invalid != null) {
+            return Flux.error(invalid);
+        }
+
+        log.info(LogOperations.OFFICE_HISTORY, "Stock history of office {} will be consulted from {} to {} by {}",
+                officeId, from, to, resolution);
+
+        return officeRepositoryPort.findById(officeId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Not found office")))
+                .thenMany(stockHistoryRepositoryPort.findByOfficeId(officeId, from, to, resolution));
+    }
+
+    private static GeneralException validate(Instant from, Instant to, StockHistoryResolution resolution) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            return new GeneralException("The period must start before it ends");
+        }
+
+        if (Duration.between(from, to).compareTo(MAX_PERIOD) > 0) {
+            return new GeneralException("The period cannot be longer than " + MAX_PERIOD.toDays() + " days");
+        }
+
+        if (resolution == null) {
+            return new GeneralException("The resolution is required");
+        }
+
+        return null;
+    }
+}
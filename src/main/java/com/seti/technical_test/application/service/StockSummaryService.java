@@ -0,0 +1,49 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.in.StockSummaryUseCase;
+import com.seti.technical_test.application.port.out.FranchiseRepositoryPort;
+import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
+import com.seti.technical_test.application.port.out.StockSummaryRepositoryPort;
+import com.seti.technical_test.domain.model.FranchiseStockSummary;
+import com.seti.technical_test.domain.model.OfficeStockSummary;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service implementation for the stock reports.
+ * <p>
+ * Checks that the office or franchise exists and reads its precomputed
+ * aggregates; offices that never held products report zeros.
+ */
+@Service
+@AllArgsConstructor
+@Slf4j
+public class StockSummaryService implements StockSummaryUseCase {
+
+    private final StockSummaryRepositoryPort stockSummaryRepositoryPort;
+    private final OfficeRepositoryPort officeRepositoryPort;
+    private final FranchiseRepositoryPort franchiseRepositoryPort;
+
+    @Override
+    public Mono<OfficeStockSummary> getOfficeSummary(Long officeId) {
+        log.info(LogOperations.OFFICE_SUMMARY, "Stock summary will be consulted for the office {}", officeId);
+
+        return officeRepositoryPort.findById(officeId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Not found office")))
+                .flatMap(office -> stockSummaryRepositoryPort.findByOfficeId(officeId)
+                        .defaultIfEmpty(OfficeStockSummary.empty(officeId, office.franchiseId())));
+    }
+
+    @Override
+    public Mono<FranchiseStockSummary> getFranchiseSummary(Long franchiseId) {
+        log.info(LogOperations.FRANCHISE_SUMMARY, "Stock summary will be consulted for the franchise {}", franchiseId);
+
+        return franchiseRepositoryPort.findById(franchiseId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Not found franchise")))
+                .then(stockSummaryRepositoryPort.findByFranchiseId(franchiseId).collectList())
+                .map(offices -> FranchiseStockSummary.of(franchiseId, offices));
+    }
+}
@@ -0,0 +1,36 @@
+package com.seti.technical_test.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Change of a franchise, office or product, as published to downstream
+ * consumers.
+ *
+ * @param id            identifier of the event in the outbox of its shard
+ * @param txid          transaction that wrote the event; with the id, the position of the event in the feed
+ * @param shard         shard the event was recorded on; positions are only ordered within a shard
+ * @param aggregateType the kind of aggregate that changed: {@code franchise}, {@code office} or {@code product}
+ * @param aggregateId   the identifier of the aggregate that changed
+ * @param type          the kind of change
+ * @param payload       JSON snapshot of the aggregate after the change, or before it for deletions
+ * @param createdAt     the time the change was committed
+ */
+public record ChangeEvent(Long id,
+                          Long txid,
+                          Integer shard,
+                          String aggregateType,
+                          Long aggregateId,
+                          ChangeType type,
+                          String payload,
+                          Instant createdAt) {
+
+    /**
+     * Position of the event in the feed of its shard, to acknowledge once
+     * it is processed.
+     *
+     * @return the position
+     */
+    public ChangeEventPosition position() {
+        return new ChangeEventPosition(txid, id);
+    }
+}
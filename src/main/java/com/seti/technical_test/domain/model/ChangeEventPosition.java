@@ -0,0 +1,46 @@
+package com.seti.technical_test.domain.model;
+
+/**
+ * Position in the feed of a shard: events are ordered by the transaction
+ * that wrote them and then by their identifier.
+ *
+ * <p>
+ * Identifiers are assigned before the transactions commit, so they are
+ * not a safe position on their own: a transaction committing after a
+ * higher identifier was read would be skipped. Events are only read once
+ * every older transaction has finished, so nothing can appear before a
+ * position already reached.
+ * </p>
+ *
+ * @param txid the transaction that wrote the last event reached
+ * @param id   the identifier of the last event reached
+ */
+public record ChangeEventPosition(Long txid, Long id) implements Comparable<ChangeEventPosition> {
+
+    /**
+     * Position before every event.
+     */
+    public static final ChangeEventPosition START = new ChangeEventPosition(0L, 0L);
+
+    public ChangeEventPosition {
+        if (txid == null || txid < 0 || id == null || id < 0) {
+            throw new IllegalArgumentException("A position must be a non negative transaction and event");
+        }
+    }
+
+    /**
+     * Position before every event of a transaction and of the ones after it.
+     *
+     * @param txid the transaction
+     * @return the position
+     */
+    public static ChangeEventPosition before(long txid) {
+        return new ChangeEventPosition(txid, 0L);
+    }
+
+    @Override
+    public int compareTo(ChangeEventPosition other) {
+        int byTransaction = Long.compare(txid, other.txid);
+        return byTransaction != 0 ? byTransaction : Long.compare(id, other.id);
+    }
+}
@@ -0,0 +1,10 @@
+package com.seti.technical_test.domain.model;
+
+/**
+ * Kind of change recorded for a franchise, office or product.
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -10,7 +10,7 @@ import java.util.List;
  * @param name     the name of the franchise
  * @param offices  the list of offices that belong to the franchise
  */
-public record Franchise(Integer id, String name, List<Office> offices) {
+public record Franchise(Long id, String name, List<Office> offices) {
 
     public Franchise {
         if (name == null || name.isBlank()) {
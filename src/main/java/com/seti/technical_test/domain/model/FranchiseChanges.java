@@ -0,0 +1,14 @@
+package com.seti.technical_test.domain.model;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Changes of a franchise, its offices and its products since a previous
+ * synchronization.
+ *
+ * @param version the version to synchronize from next time
+ * @param changes the latest change of every franchise, office or product changed since the requested
+ *                version, read lazily; a change may repeat one already received in the previous sync
+ */
+public record FranchiseChanges(Long version, Flux<ChangeEvent> changes) {
+}
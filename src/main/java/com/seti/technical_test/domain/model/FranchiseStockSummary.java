@@ -0,0 +1,38 @@
+package com.seti.technical_test.domain.model;
+
+import java.util.List;
+
+/**
+ * Stock aggregates of a franchise and of each of its offices.
+ *
+ * @param franchiseId   the identifier of the franchise
+ * @param totalStock    the sum of the stock of the franchise products
+ * @param productCount  the number of products of the franchise
+ * @param lowStockCount the number of products whose stock is under the low-stock threshold
+ * @param offices       the aggregates of each office holding products
+ */
+public record FranchiseStockSummary(Long franchiseId,
+                                    Long totalStock,
+                                    Long productCount,
+                                    Long lowStockCount,
+                                    List<OfficeStockSummary> offices) {
+
+    /**
+     * Adds up the aggregates of the offices of a franchise.
+     *
+     * @param franchiseId the identifier of the franchise
+     * @param offices     the aggregates of each office
+     * @return the franchise aggregates
+     */
+    public static FranchiseStockSummary of(Long franchiseId, List<OfficeStockSummary> offices) {
+        long totalStock = 0;
+        long productCount = 0;
+        long lowStockCount = 0;
+        for (OfficeStockSummary office : offices) {
+            totalStock += office.totalStock();
+            productCount += office.productCount();
+            lowStockCount += office.lowStockCount();
+        }
+        return new FranchiseStockSummary(franchiseId, totalStock, productCount, lowStockCount, offices);
+    }
+}
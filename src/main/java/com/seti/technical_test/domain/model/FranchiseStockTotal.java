@@ -0,0 +1,13 @@
+package com.seti.technical_test.domain.model;
+
+/**
+ * Total stock of a franchise, over the products of all its offices.
+ *
+ * @param franchiseId  the identifier of the franchise
+ * @param totalStock   the sum of the stock of the franchise products
+ * @param productCount the number of products of the franchise
+ */
+public record FranchiseStockTotal(Long franchiseId,
+                                  Long totalStock,
+                                  Long productCount) {
+}
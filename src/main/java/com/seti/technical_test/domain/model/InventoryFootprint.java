@@ -0,0 +1,17 @@
+package com.seti.technical_test.domain.model;
+
+/**
+ * Memory held by the in-memory inventory snapshot.
+ *
+ * @param products                the number of products in the snapshot
+ * @param offices                 the number of offices in the snapshot
+ * @param franchises              the number of franchises in the snapshot
+ * @param bytes                   the bytes allocated by the columns and their lookup tables
+ * @param bytesPerMillionProducts the allocated bytes scaled to a million products
+ */
+public record InventoryFootprint(Long products,
+                                 Long offices,
+                                 Long franchises,
+                                 Long bytes,
+                                 Long bytesPerMillionProducts) {
+}
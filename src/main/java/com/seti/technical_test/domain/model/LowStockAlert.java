@@ -0,0 +1,22 @@
+package com.seti.technical_test.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Alert raised when the stock of a product drops under the low-stock
+ * threshold of its office.
+ *
+ * @param productId the identifier of the product
+ * @param name      the name of the product
+ * @param stock     the stock of the product when the alert was raised
+ * @param officeId  the identifier of the office of the product
+ * @param threshold the threshold the stock dropped under
+ * @param raisedAt  the moment the alert was raised
+ */
+public record LowStockAlert(Long productId,
+                            String name,
+                            Integer stock,
+                            Long officeId,
+                            Integer threshold,
+                            Instant raisedAt) {
+}
@@ -8,7 +8,7 @@ package com.seti.technical_test.domain.model;
  * @param name         the name of the office
  * @param franchiseId  the identifier of the franchise to which the office belongs
  */
-public record Office(Integer id, String name, Integer franchiseId) {
+public record Office(Long id, String name, Long franchiseId) {
 
     public Office {
         if (name == null || name.isBlank()) {
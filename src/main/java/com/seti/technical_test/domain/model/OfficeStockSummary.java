@@ -0,0 +1,28 @@
+package com.seti.technical_test.domain.model;
+
+/**
+ * Stock aggregates of an office.
+ *
+ * @param officeId      the identifier of the office
+ * @param franchiseId   the identifier of the franchise the office belongs to
+ * @param totalStock    the sum of the stock of the office products
+ * @param productCount  the number of products of the office
+ * @param lowStockCount the number of products whose stock is under the low-stock threshold
+ */
+public record OfficeStockSummary(Long officeId,
+                                 Long franchiseId,
+                                 Long totalStock,
+                                 Long productCount,
+                                 Long lowStockCount) {
+
+    /**
+     * Summary of an office without products.
+     *
+     * @param officeId    the identifier of the office
+     * @param franchiseId the identifier of the franchise the office belongs to
+     * @return a summary with every aggregate at zero
+     */
+    public static OfficeStockSummary empty(Long officeId, Long franchiseId) {
+        return new OfficeStockSummary(officeId, franchiseId, 0L, 0L, 0L);
+    }
+}
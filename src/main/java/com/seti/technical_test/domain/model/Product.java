@@ -9,7 +9,7 @@ package com.seti.technical_test.domain.model;
  * @param stock     the available stock of the product
  * @param officeId  the identifier of the office to which the product belongs
  */
-public record Product(Integer id, String name, Integer stock, Integer officeId) {
+public record Product(Long id, String name, Integer stock, Long officeId) {
 
     public Product {
         if (name == null || name.isBlank()) {
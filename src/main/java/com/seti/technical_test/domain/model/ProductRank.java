@@ -0,0 +1,17 @@
+package com.seti.technical_test.domain.model;
+
+/**
+ * Position of a product in the stock ranking of its office.
+ *
+ * @param productId      the identifier of the product
+ * @param officeId       the identifier of the office the product belongs to
+ * @param stock          the stock of the product
+ * @param rank           the position of the product, one for the highest stock; ties are ordered by id
+ * @param officeProducts the number of products of the office
+ */
+public record ProductRank(Long productId,
+                          Long officeId,
+                          Integer stock,
+                          Long rank,
+                          Long officeProducts) {
+}
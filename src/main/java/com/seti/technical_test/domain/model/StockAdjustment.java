@@ -0,0 +1,15 @@
+package com.seti.technical_test.domain.model;
+
+/**
+ * Change applied to the stock of a product.
+ *
+ * @param delta the units added to the stock, negative when they are removed
+ */
+public record StockAdjustment(Integer delta) {
+
+    public StockAdjustment {
+        if (delta == null) {
+            throw new IllegalArgumentException("Stock delta cannot be null");
+        }
+    }
+}
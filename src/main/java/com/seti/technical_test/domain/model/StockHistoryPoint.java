@@ -0,0 +1,21 @@
+package com.seti.technical_test.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Stock of a product over one interval of its history.
+ *
+ * @param productId the identifier of the product
+ * @param at        the start of the interval
+ * @param minStock  the lowest stock recorded in the interval
+ * @param maxStock  the highest stock recorded in the interval
+ * @param lastStock the stock at the end of the interval
+ * @param changes   the number of stock changes recorded in the interval
+ */
+public record StockHistoryPoint(Long productId,
+                                Instant at,
+                                Integer minStock,
+                                Integer maxStock,
+                                Integer lastStock,
+                                Long changes) {
+}
@@ -0,0 +1,10 @@
+package com.seti.technical_test.domain.model;
+
+/**
+ * Length of the intervals a stock history is downsampled to.
+ */
+public enum StockHistoryResolution {
+
+    HOUR,
+    DAY
+}
@@ -0,0 +1,32 @@
+package com.seti.technical_test.domain.model;
+
+/**
+ * Distribution of the stock of the products of an office. Percentiles use
+ * the nearest-rank method, so each one is the stock of an actual product.
+ *
+ * @param officeId     the identifier of the office
+ * @param productCount the number of products of the office
+ * @param min          the lowest stock, or {@code null} without products
+ * @param p50          the median stock, or {@code null} without products
+ * @param p90          the 90th percentile of the stock, or {@code null} without products
+ * @param p99          the 99th percentile of the stock, or {@code null} without products
+ * @param max          the highest stock, or {@code null} without products
+ */
+public record StockPercentiles(Long officeId,
+                               Long productCount,
+                               Integer min,
+                               Integer p50,
+                               Integer p90,
+                               Integer p99,
+                               Integer max) {
+
+    /**
+     * Distribution of an office without products.
+     *
+     * @param officeId the identifier of the office
+     * @return a distribution without values
+     */
+    public static StockPercentiles empty(Long officeId) {
+        return new StockPercentiles(officeId, 0L, null, null, null, null, null);
+    }
+}
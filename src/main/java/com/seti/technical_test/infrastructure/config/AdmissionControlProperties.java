@@ -0,0 +1,68 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the admission control applied in front of the API.
+ *
+ * @param ratePerSecond  sustained requests per second allowed per client
+ * @param burst          requests a client may issue at once above its sustained rate
+ * @param maxClients     number of tracked clients, above which the least recently seen one is forgotten
+ * @param idleTimeout    inactivity after which a client bucket is forgotten
+ * @param initialLimit   initial number of concurrent requests allowed to reach the database
+ * @param minLimit       lower bound of the adaptive concurrency limit
+ * @param maxLimit       upper bound of the adaptive concurrency limit
+ * @param rttTolerance   ratio between the observed and the minimum latency tolerated before shrinking the limit
+ * @param smoothing      weight given to each new limit estimate, between 0 and 1
+ */
+@ConfigurationProperties(prefix = "app.admission")
+public record AdmissionControlProperties(Integer ratePerSecond,
+                                         Integer burst,
+                                         Integer maxClients,
+                                         Duration idleTimeout,
+                                         Integer initialLimit,
+                                         Integer minLimit,
+                                         Integer maxLimit,
+                                         Double rttTolerance,
+                                         Double smoothing) {
+
+    public AdmissionControlProperties {
+        if (ratePerSecond == null) {
+            ratePerSecond = 100;
+        }
+
+        if (burst == null) {
+            burst = 200;
+        }
+
+        if (maxClients == null) {
+            maxClients = 10_000;
+        }
+
+        if (idleTimeout == null) {
+            idleTimeout = Duration.ofMinutes(5);
+        }
+
+        if (minLimit == null) {
+            minLimit = 4;
+        }
+
+        if (maxLimit == null) {
+            maxLimit = 200;
+        }
+
+        if (initialLimit == null) {
+            initialLimit = 20;
+        }
+
+        if (rttTolerance == null) {
+            rttTolerance = 1.5;
+        }
+
+        if (smoothing == null) {
+            smoothing = 0.2;
+        }
+    }
+}
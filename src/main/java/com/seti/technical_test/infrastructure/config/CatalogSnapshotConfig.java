@@ -0,0 +1,60 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshotFile;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshotWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the local catalog snapshot.
+ *
+ * <p>
+ * The beans always exist, as the in-memory indexes look for a snapshot on
+ * start; when disabled no snapshot is written and none is restored, so the
+ * indexes load from the database.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(CatalogSnapshotProperties.class)
+public class CatalogSnapshotConfig {
+
+    /**
+     * File of the catalog snapshot.
+     *
+     * @param properties the snapshot configuration
+     * @return the snapshot file
+     */
+    @Bean
+    CatalogSnapshotFile catalogSnapshotFile(CatalogSnapshotProperties properties) {
+        return new CatalogSnapshotFile(properties.directory(), properties.enabled(), properties.maxAge());
+    }
+
+    /**
+     * Job writing the catalog snapshot.
+     *
+     * @param databaseClient      the client used to read the catalog
+     * @param shardResolver       the shard resolver
+     * @param meterRegistry       the registry of the write timer
+     * @param catalogSnapshotFile the snapshot file
+     * @param properties          the snapshot configuration
+     * @return the snapshot writer
+     */
+    @Bean
+    CatalogSnapshotWriter catalogSnapshotWriter(DatabaseClient databaseClient,
+                                                ShardResolver shardResolver,
+                                                MeterRegistry meterRegistry,
+                                                CatalogSnapshotFile catalogSnapshotFile,
+                                                CatalogSnapshotProperties properties) {
+        return new CatalogSnapshotWriter(
+                databaseClient,
+                shardResolver,
+                meterRegistry,
+                catalogSnapshotFile,
+                properties.interval(),
+                properties.batchSize());
+    }
+}
@@ -0,0 +1,45 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the local catalog snapshot.
+ *
+ * @param enabled   whether the snapshot is written and the in-memory indexes are restored from it on start
+ * @param directory directory of the snapshot file; must survive restarts to be of any use
+ * @param interval  time between two snapshots; bounds how many outbox events a restart replays
+ * @param maxAge    age past which a snapshot is ignored and the indexes are loaded from the database
+ * @param batchSize number of rows read by one statement
+ */
+@ConfigurationProperties(prefix = "app.persistence.catalog-snapshot")
+public record CatalogSnapshotProperties(Boolean enabled,
+                                        Path directory,
+                                        Duration interval,
+                                        Duration maxAge,
+                                        Integer batchSize) {
+
+    public CatalogSnapshotProperties {
+        if (enabled == null) {
+            enabled = false;
+        }
+
+        if (directory == null) {
+            directory = Path.of("data", "catalog-snapshot");
+        }
+
+        if (interval == null) {
+            interval = Duration.ofMinutes(15);
+        }
+
+        if (maxAge == null) {
+            maxAge = Duration.ofHours(24);
+        }
+
+        if (batchSize == null) {
+            batchSize = 5_000;
+        }
+    }
+}
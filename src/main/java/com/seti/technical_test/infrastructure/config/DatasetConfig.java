@@ -0,0 +1,75 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.dataset.DatasetCommand;
+import com.seti.technical_test.infrastructure.persistance.dataset.DatasetExporter;
+import com.seti.technical_test.infrastructure.persistance.dataset.DatasetImporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Configuration of the dataset export and import commands.
+ *
+ * <p>
+ * Only active when a command is given, typically on the command line
+ * along with {@code --spring.main.web-application-type=none}; the
+ * application then runs the command and exits with its exit code.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DatasetProperties.class)
+@ConditionalOnProperty(prefix = "app.persistence.dataset", name = "command")
+public class DatasetConfig {
+
+    /**
+     * Exporter of the dataset.
+     *
+     * @param databaseClient        the client used to read the catalog
+     * @param shardResolver         the shard resolver
+     * @param transactionalOperator the snapshot transaction of each shard
+     * @param properties            the dataset configuration
+     * @return the exporter
+     */
+    @Bean
+    DatasetExporter datasetExporter(DatabaseClient databaseClient,
+                                    ShardResolver shardResolver,
+                                    TransactionalOperator transactionalOperator,
+                                    DatasetProperties properties) {
+        return new DatasetExporter(databaseClient, shardResolver, transactionalOperator, properties.batchSize());
+    }
+
+    /**
+     * Importer of the dataset.
+     *
+     * @param databaseClient the client used to write the catalog
+     * @param shardResolver  the shard resolver
+     * @param properties     the dataset configuration
+     * @return the importer
+     */
+    @Bean
+    DatasetImporter datasetImporter(DatabaseClient databaseClient,
+                                    ShardResolver shardResolver,
+                                    DatasetProperties properties) {
+        return new DatasetImporter(databaseClient, shardResolver, properties.concurrency());
+    }
+
+    /**
+     * Runner of the configured command.
+     *
+     * @param datasetExporter the exporter
+     * @param datasetImporter the importer
+     * @param properties      the dataset configuration
+     * @return the command
+     */
+    @Bean
+    DatasetCommand datasetCommand(DatasetExporter datasetExporter,
+                                  DatasetImporter datasetImporter,
+                                  DatasetProperties properties) {
+        return new DatasetCommand(datasetExporter, datasetImporter,
+                properties.command() == DatasetProperties.Command.EXPORT, properties.file());
+    }
+}
@@ -0,0 +1,42 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the dataset export and import commands.
+ *
+ * @param command     the command to run instead of serving requests; none by default
+ * @param file        the dataset file written by an export or read by an import
+ * @param batchSize   number of rows of a block, fetched by one cursor round trip or inserted by one statement
+ * @param concurrency number of blocks inserted at once by an import
+ */
+@ConfigurationProperties(prefix = "app.persistence.dataset")
+public record DatasetProperties(Command command,
+                                Path file,
+                                Integer batchSize,
+                                Integer concurrency) {
+
+    public DatasetProperties {
+        if (file == null) {
+            file = Path.of("data", "dataset.bin");
+        }
+
+        if (batchSize == null) {
+            batchSize = 5_000;
+        }
+
+        if (concurrency == null) {
+            concurrency = 4;
+        }
+    }
+
+    /**
+     * Commands run from the command line.
+     */
+    public enum Command {
+        EXPORT,
+        IMPORT
+    }
+}
@@ -0,0 +1,34 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.id.HiLoIdAllocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the client-side identifier allocation.
+ *
+ * <p>
+ * Product identifiers are allocated in blocks reserved on
+ * {@code product_id_seq}, whose increment is set by migration {@code V7}
+ * from the {@code id_block_size} Flyway placeholder. Changing the block size
+ * of an existing database requires a new migration altering the sequence;
+ * the allocator picks up the new increment on its next reservation.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+public class IdAllocationConfig {
+
+    /**
+     * Allocator of product identifiers.
+     *
+     * @param databaseClient the client used to reserve blocks
+     * @param shardResolver  the shard resolver
+     * @return the product identifier allocator
+     */
+    @Bean
+    HiLoIdAllocator productIdAllocator(DatabaseClient databaseClient, ShardResolver shardResolver) {
+        return HiLoIdAllocator.forSequence(databaseClient, shardResolver, "product_id_seq");
+    }
+}
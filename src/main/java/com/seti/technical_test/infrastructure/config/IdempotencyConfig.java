@@ -0,0 +1,62 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.idempotency.DatabaseIdempotencyStore;
+import com.seti.technical_test.infrastructure.web.InMemoryIdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the {@code Idempotency-Key} support of the API writes.
+ *
+ * <p>
+ * Keys are kept in memory by default, which deduplicates the retries
+ * reaching the same instance; behind a load balancer spreading them over
+ * several instances, the database store shares the keys between them.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    /**
+     * Idempotency keys kept in the memory of this instance.
+     *
+     * @param properties    the idempotency configuration
+     * @param meterRegistry the registry of the key count gauge
+     * @return the in-memory store
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+    InMemoryIdempotencyStore inMemoryIdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        return new InMemoryIdempotencyStore(
+                properties.ttl(),
+                properties.maxEntries(),
+                properties.waitTimeout(),
+                properties.cleanupInterval(),
+                meterRegistry);
+    }
+
+    /**
+     * Idempotency keys kept in the database, shared by every instance.
+     *
+     * @param databaseClient the client of the default shard
+     * @param properties     the idempotency configuration
+     * @return the database store
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "database")
+    DatabaseIdempotencyStore databaseIdempotencyStore(DatabaseClient databaseClient,
+                                                      IdempotencyProperties properties) {
+        return new DatabaseIdempotencyStore(
+                databaseClient,
+                properties.ttl(),
+                properties.lockTimeout(),
+                properties.waitTimeout(),
+                properties.cleanupInterval());
+    }
+}
@@ -0,0 +1,65 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@code Idempotency-Key} support of the API writes.
+ *
+ * @param store           where the keys are kept: in memory, per instance, or in the database, shared by all
+ * @param ttl             time a completed response is returned to the retries of its key
+ * @param maxEntries      keys kept in memory, past which the oldest completed ones are forgotten
+ * @param maxBodySize     largest request and response body; larger requests are rejected, larger responses not kept
+ * @param waitTimeout     time a retry waits for the request holding its key before being answered with a conflict
+ * @param lockTimeout     time after which a key in flight in the database is taken over by another request
+ * @param cleanupInterval time between two deletions of the expired keys
+ */
+@ConfigurationProperties(prefix = "app.idempotency")
+public record IdempotencyProperties(Store store,
+                                    Duration ttl,
+                                    Integer maxEntries,
+                                    DataSize maxBodySize,
+                                    Duration waitTimeout,
+                                    Duration lockTimeout,
+                                    Duration cleanupInterval) {
+
+    public IdempotencyProperties {
+        if (store == null) {
+            store = Store.MEMORY;
+        }
+
+        if (ttl == null) {
+            ttl = Duration.ofHours(24);
+        }
+
+        if (maxEntries == null) {
+            maxEntries = 100_000;
+        }
+
+        if (maxBodySize == null) {
+            maxBodySize = DataSize.ofKilobytes(64);
+        }
+
+        if (waitTimeout == null) {
+            waitTimeout = Duration.ofSeconds(10);
+        }
+
+        if (lockTimeout == null) {
+            lockTimeout = Duration.ofMinutes(1);
+        }
+
+        if (cleanupInterval == null) {
+            cleanupInterval = Duration.ofMinutes(10);
+        }
+    }
+
+    /**
+     * Stores of the idempotency keys.
+     */
+    public enum Store {
+        MEMORY,
+        DATABASE
+    }
+}
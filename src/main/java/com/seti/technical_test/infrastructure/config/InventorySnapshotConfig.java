@@ -0,0 +1,52 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.analytics.InventorySnapshot;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshotFile;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the in-memory inventory snapshot.
+ *
+ * <p>
+ * The snapshot holds every product of every shard, about a hundred bytes
+ * per product, so it is disabled by default. The bean always exists, as the
+ * write paths notify it; when disabled the notifications are ignored and
+ * the analytical reports are rejected.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(InventorySnapshotProperties.class)
+public class InventorySnapshotConfig {
+
+    /**
+     * Snapshot of the inventory.
+     *
+     * @param databaseClient      the client used to load the products and offices
+     * @param shardResolver       the shard resolver
+     * @param meterRegistry       the registry of the rebuild timer
+     * @param catalogSnapshotFile the local catalog snapshot, restored on start when available
+     * @param properties          the snapshot configuration
+     * @return the inventory snapshot
+     */
+    @Bean
+    InventorySnapshot inventorySnapshot(DatabaseClient databaseClient,
+                                        ShardResolver shardResolver,
+                                        MeterRegistry meterRegistry,
+                                        CatalogSnapshotFile catalogSnapshotFile,
+                                        InventorySnapshotProperties properties) {
+        return new InventorySnapshot(
+                databaseClient,
+                shardResolver,
+                meterRegistry,
+                catalogSnapshotFile,
+                properties.enabled(),
+                properties.refreshInterval(),
+                properties.batchSize(),
+                properties.parallelism());
+    }
+}
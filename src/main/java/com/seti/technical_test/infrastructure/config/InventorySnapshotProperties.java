@@ -0,0 +1,38 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-memory inventory snapshot.
+ *
+ * @param enabled         whether the snapshot is loaded and the analytical reports are available
+ * @param refreshInterval time between two rebuilds from the database; bounds how stale the writes of other instances are
+ * @param batchSize       number of products or offices read by one statement
+ * @param parallelism     number of threads scanning the snapshot; zero uses one per processor
+ */
+@ConfigurationProperties(prefix = "app.persistence.inventory-snapshot")
+public record InventorySnapshotProperties(Boolean enabled,
+                                          Duration refreshInterval,
+                                          Integer batchSize,
+                                          Integer parallelism) {
+
+    public InventorySnapshotProperties {
+        if (enabled == null) {
+            enabled = false;
+        }
+
+        if (refreshInterval == null) {
+            refreshInterval = Duration.ofMinutes(10);
+        }
+
+        if (batchSize == null) {
+            batchSize = 5_000;
+        }
+
+        if (parallelism == null || parallelism < 1) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+    }
+}
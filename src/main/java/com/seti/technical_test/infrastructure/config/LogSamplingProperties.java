@@ -0,0 +1,31 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration of the request path logging.
+ *
+ * @param defaultRate          sampling rate of informational logs without an explicit rate
+ * @param rates                sampling rates per operation (e.g. {@code product.get})
+ * @param slowRequestThreshold duration above which a request is always logged
+ */
+@ConfigurationProperties(prefix = "app.logging.sampling")
+public record LogSamplingProperties(Double defaultRate, Map<String, Double> rates, Duration slowRequestThreshold) {
+
+    public LogSamplingProperties {
+        if (defaultRate == null) {
+            defaultRate = 1.0;
+        }
+
+        if (rates == null) {
+            rates = Map.of();
+        }
+
+        if (slowRequestThreshold == null) {
+            slowRequestThreshold = Duration.ofMillis(500);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.logging.LogSamplingEndpoint;
+import com.seti.technical_test.infrastructure.logging.LogSamplingRates;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the sampled request path logging.
+ *
+ * <p>
+ * Seeds {@link LogSamplingRates} from {@link LogSamplingProperties} and
+ * exposes the endpoint used to tune the rates at runtime.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(LogSamplingProperties.class)
+public class LoggingConfig {
+
+    public LoggingConfig(LogSamplingProperties properties) {
+        LogSamplingRates.setDefaultRate(properties.defaultRate());
+        properties.rates().forEach(LogSamplingRates::setRate);
+    }
+
+    /**
+     * Endpoint used to read and change the sampling rates.
+     *
+     * @return the log sampling endpoint
+     */
+    @Bean
+    LogSamplingEndpoint logSamplingEndpoint() {
+        return new LogSamplingEndpoint();
+    }
+}
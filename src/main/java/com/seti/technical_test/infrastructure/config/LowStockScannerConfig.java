@@ -0,0 +1,41 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.alert.LowStockScanner;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the low-stock scanner.
+ *
+ * <p>
+ * The scanner is always created, as it checks the products notified by the
+ * stock writes; disabling it only stops the periodic scan. Several
+ * instances may scan at once: each batch claims the scan position of its
+ * shard, and an instance finding it claimed skips the cycle.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(LowStockScannerProperties.class)
+public class LowStockScannerConfig {
+
+    /**
+     * Scanner raising the low-stock alerts.
+     *
+     * @param databaseClient the client used to check the products
+     * @param shardResolver  the shard resolver
+     * @param meterRegistry  the registry of the scan metrics
+     * @param properties     the scanner configuration
+     * @return the low-stock scanner
+     */
+    @Bean
+    LowStockScanner lowStockScanner(DatabaseClient databaseClient,
+                                    ShardResolver shardResolver,
+                                    MeterRegistry meterRegistry,
+                                    LowStockScannerProperties properties) {
+        return new LowStockScanner(databaseClient, shardResolver, meterRegistry, properties);
+    }
+}
@@ -0,0 +1,56 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the low-stock scanner.
+ *
+ * @param enabled            whether the products are scanned periodically; notified products are checked regardless
+ * @param interval           time between two scan cycles
+ * @param batchSize          number of products checked by one statement
+ * @param maxBatchesPerCycle maximum number of batches per shard in one cycle
+ * @param cycleBudget        time after which a cycle stops starting new batches
+ * @param hintBuffer         maximum number of notified products waiting to be checked
+ * @param hintWindow         time during which notified products are gathered before being checked together
+ */
+@ConfigurationProperties(prefix = "app.persistence.low-stock-scanner")
+public record LowStockScannerProperties(Boolean enabled,
+                                        Duration interval,
+                                        Integer batchSize,
+                                        Integer maxBatchesPerCycle,
+                                        Duration cycleBudget,
+                                        Integer hintBuffer,
+                                        Duration hintWindow) {
+
+    public LowStockScannerProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+
+        if (interval == null) {
+            interval = Duration.ofMinutes(1);
+        }
+
+        if (batchSize == null) {
+            batchSize = 1_000;
+        }
+
+        if (maxBatchesPerCycle == null) {
+            maxBatchesPerCycle = 20;
+        }
+
+        if (cycleBudget == null) {
+            cycleBudget = Duration.ofSeconds(2);
+        }
+
+        if (hintBuffer == null) {
+            hintBuffer = 10_000;
+        }
+
+        if (hintWindow == null) {
+            hintWindow = Duration.ofMillis(100);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.application.port.in.FranchiseUseCase;
+import com.seti.technical_test.application.port.in.OfficeUseCase;
+import com.seti.technical_test.application.port.in.ProductUseCase;
+import com.seti.technical_test.application.port.out.FranchiseRepositoryPort;
+import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
+import com.seti.technical_test.application.port.out.ProductRepositoryPort;
+import com.seti.technical_test.infrastructure.metrics.ConnectionFactoryMetricsBeanPostProcessor;
+import com.seti.technical_test.infrastructure.metrics.LatencyMetricsBeanPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configuration of the latency instrumentation.
+ *
+ * <p>
+ * Registers the post-processors that time every output port, every use
+ * case and the R2DBC connection acquisition. The resulting meters are
+ * exposed through the actuator {@code /actuator/prometheus} endpoint.
+ * </p>
+ *
+ * <p>
+ * The instrumentation can be switched off with
+ * {@code app.metrics.latency.enabled=false}.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "app.metrics.latency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    /**
+     * Times every method of the output ports.
+     *
+     * @param meterRegistry the lazily resolved meter registry
+     * @return the post-processor decorating the persistence adapters
+     */
+    @Bean
+    static LatencyMetricsBeanPostProcessor portLatencyMetricsBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new LatencyMetricsBeanPostProcessor(meterRegistry, "app.port.latency", List.of(
+                ProductRepositoryPort.class,
+                OfficeRepositoryPort.class,
+                FranchiseRepositoryPort.class
+        ));
+    }
+
+    /**
+     * Times every method of the use cases.
+     *
+     * @param meterRegistry the lazily resolved meter registry
+     * @return the post-processor decorating the application services
+     */
+    @Bean
+    static LatencyMetricsBeanPostProcessor useCaseLatencyMetricsBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new LatencyMetricsBeanPostProcessor(meterRegistry, "app.usecase.latency", List.of(
+                ProductUseCase.class,
+                OfficeUseCase.class,
+                FranchiseUseCase.class
+        ));
+    }
+
+    /**
+     * Records connection acquire time and pool occupancy.
+     *
+     * @param meterRegistry the lazily resolved meter registry
+     * @return the post-processor decorating the connection factory
+     */
+    @Bean
+    static ConnectionFactoryMetricsBeanPostProcessor connectionFactoryMetricsBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ConnectionFactoryMetricsBeanPostProcessor(meterRegistry);
+    }
+}
@@ -0,0 +1,32 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.outbox.OutboxRecorder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the transactional outbox.
+ *
+ * <p>
+ * The adapters record every change of a franchise, office or product in
+ * the {@code outbox} table within the transaction of the change, and the
+ * change feed relays the table to consumers.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+
+    /**
+     * Writer of the outbox events.
+     *
+     * @param databaseClient the client joining the transaction of each change
+     * @return the outbox recorder
+     */
+    @Bean
+    OutboxRecorder outboxRecorder(DatabaseClient databaseClient) {
+        return new OutboxRecorder(databaseClient);
+    }
+}
@@ -0,0 +1,25 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the change event outbox relay.
+ *
+ * @param pollInterval interval between two reads of the outbox once a stream has caught up
+ * @param batchSize    maximum number of events read from the outbox at once
+ */
+@ConfigurationProperties(prefix = "app.outbox")
+public record OutboxProperties(Duration pollInterval, Integer batchSize) {
+
+    public OutboxProperties {
+        if (pollInterval == null) {
+            pollInterval = Duration.ofMillis(500);
+        }
+
+        if (batchSize == null) {
+            batchSize = 500;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.search.ProductNameIndex;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshotFile;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the in-memory product name index.
+ *
+ * <p>
+ * The index holds every product of every shard, about a hundred bytes per
+ * product, so it is disabled by default. When disabled, or while loading,
+ * every search is answered by the trigram and prefix indexes of the
+ * database.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ProductNameIndexProperties.class)
+public class ProductNameIndexConfig {
+
+    /**
+     * Index of the product names.
+     *
+     * @param databaseClient      the client used to load the products and follow the outbox
+     * @param shardResolver       the shard resolver
+     * @param catalogSnapshotFile the local catalog snapshot, restored on start when available
+     * @param properties          the index configuration
+     * @return the product name index
+     */
+    @Bean
+    ProductNameIndex productNameIndex(DatabaseClient databaseClient,
+                                      ShardResolver shardResolver,
+                                      CatalogSnapshotFile catalogSnapshotFile,
+                                      ProductNameIndexProperties properties) {
+        return new ProductNameIndex(
+                databaseClient,
+                shardResolver,
+                catalogSnapshotFile,
+                properties.enabled(),
+                properties.pollInterval(),
+                properties.batchSize());
+    }
+}
@@ -0,0 +1,30 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-memory product name index.
+ *
+ * @param enabled      whether prefix searches are answered from memory
+ * @param pollInterval time between two reads of the outbox; bounds how stale the index is
+ * @param batchSize    number of products or events read by one statement
+ */
+@ConfigurationProperties(prefix = "app.persistence.product-name-index")
+public record ProductNameIndexProperties(Boolean enabled, Duration pollInterval, Integer batchSize) {
+
+    public ProductNameIndexProperties {
+        if (enabled == null) {
+            enabled = false;
+        }
+
+        if (pollInterval == null) {
+            pollInterval = Duration.ofMillis(500);
+        }
+
+        if (batchSize == null) {
+            batchSize = 5_000;
+        }
+    }
+}
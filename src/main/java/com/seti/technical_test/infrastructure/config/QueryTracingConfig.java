@@ -0,0 +1,37 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.tracing.QueryTracingBeanPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the query-level tracing.
+ *
+ * <p>
+ * Decorates the connection factory with the listener that times every
+ * statement and reports the slow ones. It can be switched off with
+ * {@code app.persistence.query-tracing.enabled=false}.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(QueryTracingProperties.class)
+@ConditionalOnProperty(prefix = "app.persistence.query-tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryTracingConfig {
+
+    /**
+     * Decorates the connection factory with the query tracing listener.
+     *
+     * @param meterRegistry the lazily resolved meter registry
+     * @param properties the lazily resolved tracing configuration
+     * @return the post-processor decorating the connection factory
+     */
+    @Bean
+    static QueryTracingBeanPostProcessor queryTracingBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                       ObjectProvider<QueryTracingProperties> properties) {
+        return new QueryTracingBeanPostProcessor(meterRegistry, properties);
+    }
+}
@@ -0,0 +1,22 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the query-level tracing of the persistence adapters.
+ *
+ * @param slowThreshold      duration above which a statement is logged as slow
+ * @param explainSlowQueries whether the plan of slow statements is captured
+ *                           asynchronously with {@code EXPLAIN}
+ */
+@ConfigurationProperties(prefix = "app.persistence.query-tracing")
+public record QueryTracingProperties(Duration slowThreshold, boolean explainSlowQueries) {
+
+    public QueryTracingProperties {
+        if (slowThreshold == null) {
+            slowThreshold = Duration.ofMillis(200);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ReadWriteRoutingConnectionFactory;
+import com.seti.technical_test.infrastructure.persistance.connection.ReplicaHealthMonitor;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the read replica routing, enabled with
+ * {@code app.persistence.replicas.enabled=true} when sharding is disabled;
+ * {@link ShardingConfig} refuses to start with both enabled.
+ *
+ * <p>
+ * Replaces the auto-configured connection factory with a
+ * {@link ReadWriteRoutingConnectionFactory} over one pool for the primary
+ * (configured with the standard {@code spring.r2dbc.*} properties) and one
+ * pool per replica.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@ConditionalOnProperty(prefix = "app.persistence.replicas", name = "enabled", havingValue = "true")
+@ConditionalOnProperty(prefix = "app.persistence.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class ReadReplicaConfig {
+
+    /**
+     * Connection pools of the primary and of each replica, disposed with
+     * the context. They are kept out of the {@link ConnectionFactory} beans
+     * so that only the routing factory is injected and instrumented.
+     *
+     * @param properties the replica configuration
+     * @param url        the R2DBC URL of the primary
+     * @param username   the user shared by all the databases
+     * @param password   the password shared by all the databases
+     * @return the connection pools
+     */
+    @Bean(destroyMethod = "dispose")
+    ReadReplicaPools readReplicaPools(ReadReplicaProperties properties,
+                                      @Value("${spring.r2dbc.url}") String url,
+                                      @Value("${spring.r2dbc.username}") String username,
+                                      @Value("${spring.r2dbc.password}") String password) {
+        Map<String, ConnectionPool> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.urls().size(); i++) {
+            replicas.put("replica-" + i, pool(properties.urls().get(i), username, password, properties.poolSize()));
+        }
+
+        return new ReadReplicaPools(pool(url, username, password, properties.poolSize()), replicas);
+    }
+
+    /**
+     * Monitor deciding which replicas may serve reads.
+     *
+     * @param properties the replica configuration
+     * @param pools      the connection pools
+     * @return the replica health monitor
+     */
+    @Bean
+    ReplicaHealthMonitor replicaHealthMonitor(ReadReplicaProperties properties, ReadReplicaPools pools) {
+        return new ReplicaHealthMonitor(pools.primary(), new LinkedHashMap<>(pools.replicas()),
+                properties.healthCheckInterval(), properties.maxLagBytes());
+    }
+
+    /**
+     * Application connection factory routing between primary and replicas.
+     *
+     * @param pools                the connection pools
+     * @param replicaHealthMonitor the replica health monitor
+     * @return the routing connection factory
+     */
+    @Bean
+    ConnectionFactory connectionFactory(ReadReplicaPools pools, ReplicaHealthMonitor replicaHealthMonitor) {
+        Map<String, ConnectionFactory> targets = new LinkedHashMap<>(pools.replicas());
+        targets.put(ReadWriteRoutingConnectionFactory.PRIMARY, pools.primary());
+
+        ReadWriteRoutingConnectionFactory routing = new ReadWriteRoutingConnectionFactory(replicaHealthMonitor);
+        routing.setTargetConnectionFactories(targets);
+        routing.setDefaultTargetConnectionFactory(pools.primary());
+        return routing;
+    }
+
+    /**
+     * Creates a connection pool for the given URL.
+     *
+     * @param url      the R2DBC URL
+     * @param username the user
+     * @param password the password
+     * @param poolSize the maximum number of connections
+     * @return the pooled connection factory
+     */
+    private static ConnectionPool pool(String url, String username, String password, int poolSize) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .maxSize(poolSize)
+                .build());
+    }
+
+    /**
+     * Connection pools of the primary and of the replicas, by lookup key.
+     *
+     * @param primary  the pool of the primary
+     * @param replicas the pools of the replicas
+     */
+    record ReadReplicaPools(ConnectionPool primary, Map<String, ConnectionPool> replicas) {
+
+        /**
+         * Closes every pool and its idle connections.
+         */
+        void dispose() {
+            replicas.values().forEach(ConnectionPool::dispose);
+            primary.dispose();
+        }
+    }
+}
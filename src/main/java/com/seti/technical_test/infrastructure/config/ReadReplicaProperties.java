@@ -0,0 +1,45 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the read replica routing.
+ *
+ * @param urls                R2DBC URLs of the read replicas; credentials are shared with the primary
+ * @param poolSize            maximum connections of each pool (primary and replicas)
+ * @param healthCheckInterval interval between two replica health checks
+ * @param maxLagBytes         WAL bytes a replica may lag behind the primary and still serve reads
+ * @param stickiness          time during which a client that wrote keeps reading from the primary
+ */
+@ConfigurationProperties(prefix = "app.persistence.replicas")
+public record ReadReplicaProperties(List<String> urls,
+                                    Integer poolSize,
+                                    Duration healthCheckInterval,
+                                    Long maxLagBytes,
+                                    Duration stickiness) {
+
+    public ReadReplicaProperties {
+        if (urls == null) {
+            urls = List.of();
+        }
+
+        if (poolSize == null) {
+            poolSize = 10;
+        }
+
+        if (healthCheckInterval == null) {
+            healthCheckInterval = Duration.ofSeconds(5);
+        }
+
+        if (maxLagBytes == null) {
+            maxLagBytes = 16L * 1024 * 1024;
+        }
+
+        if (stickiness == null) {
+            stickiness = Duration.ofSeconds(5);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardRoutingConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the franchise-based sharding.
+ *
+ * <p>
+ * The {@link ShardResolver} is always registered; it is a no-op with a
+ * single shard. When {@code app.persistence.sharding.enabled=true}, every
+ * shard is migrated on startup with its own sequence interleaving and the
+ * application connection factory is replaced by a
+ * {@link ShardRoutingConnectionFactory} over one pool per shard.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    /**
+     * Resolver used by the adapters to scope operations to a shard.
+     *
+     * @param properties the sharding configuration
+     * @return the shard resolver
+     */
+    @Bean
+    ShardResolver shardResolver(ShardingProperties properties) {
+        return new ShardResolver(properties.shardCount());
+    }
+
+    /**
+     * Sharded connection factory, active only when sharding is enabled.
+     * The standard Flyway migration must be disabled in this mode
+     * ({@code SPRING_FLYWAY_ENABLED=false}) as each shard is migrated here.
+     * Read replicas are not supported on shards, so enabling both fails
+     * the startup instead of leaving one of the two factories unused.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "app.persistence.sharding", name = "enabled", havingValue = "true")
+    static class ShardedConnectionFactoryConfig {
+
+        /**
+         * Connection pools of every shard, by shard index, disposed with
+         * the context. Each shard is migrated before its pool is created.
+         *
+         * @param properties  the sharding configuration
+         * @param username    the user shared by all the shards
+         * @param password    the password shared by all the shards
+         * @param replicas    whether read replicas are enabled as well
+         * @param environment the environment holding the Flyway placeholders
+         * @return the connection pools
+         */
+        @Bean(destroyMethod = "dispose")
+        ShardPools shardPools(ShardingProperties properties,
+                              @Value("${spring.r2dbc.username}") String username,
+                              @Value("${spring.r2dbc.password}") String password,
+                              @Value("${app.persistence.replicas.enabled:false}") boolean replicas,
+                              Environment environment) {
+            if (replicas) {
+                throw new IllegalStateException("Read replicas cannot be combined with sharding");
+            }
+
+            int shardCount = properties.shardCount();
+            Map<String, String> placeholders = Binder.get(environment)
+                    .bind("spring.flyway.placeholders", Bindable.mapOf(String.class, String.class))
+                    .orElseGet(Map::of);
+            Map<Integer, ConnectionPool> pools = new HashMap<>();
+
+            for (int shard = 0; shard < shardCount; shard++) {
+                ShardingProperties.Shard settings = properties.shards().get(shard);
+
+                migrate(settings.jdbcUrl(), username, password, placeholders, shard, shardCount);
+                pools.put(shard, pool(settings.r2dbcUrl(), username, password, properties.poolSize()));
+            }
+
+            return new ShardPools(pools);
+        }
+
+        /**
+         * Connection factory routing every operation to the pool of its
+         * shard.
+         *
+         * @param pools the connection pools of the shards
+         * @return the routing connection factory
+         */
+        @Bean
+        ConnectionFactory connectionFactory(ShardPools pools) {
+            ShardRoutingConnectionFactory routing = new ShardRoutingConnectionFactory();
+            routing.setTargetConnectionFactories(new HashMap<>(pools.shards()));
+            routing.setDefaultTargetConnectionFactory(pools.shards().get(0));
+            return routing;
+        }
+
+        /**
+         * Applies the migrations to one shard, with the configured Flyway
+         * placeholders and the shard position.
+         */
+        private static void migrate(String jdbcUrl, String username, String password,
+                                    Map<String, String> placeholders, int shard, int shardCount) {
+            Map<String, String> shardPlaceholders = new HashMap<>(placeholders);
+            shardPlaceholders.put("shard_index", Integer.toString(shard));
+            shardPlaceholders.put("shard_count", Integer.toString(shardCount));
+
+            Flyway.configure()
+                    .dataSource(jdbcUrl, username, password)
+                    .locations("classpath:db/migration")
+                    .placeholders(shardPlaceholders)
+                    .load()
+                    .migrate();
+        }
+
+        /**
+         * Creates the connection pool of one shard.
+         */
+        private static ConnectionPool pool(String url, String username, String password, int poolSize) {
+            ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                    .option(ConnectionFactoryOptions.USER, username)
+                    .option(ConnectionFactoryOptions.PASSWORD, password)
+                    .build());
+
+            return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                    .maxSize(poolSize)
+                    .build());
+        }
+    }
+
+    /**
+     * Connection pools of the shards, by shard index. They are kept out of
+     * the {@link ConnectionFactory} beans so that only the routing factory
+     * is injected and instrumented.
+     *
+     * @param shards the pool of each shard
+     */
+    record ShardPools(Map<Integer, ConnectionPool> shards) {
+
+        /**
+         * Closes every pool and its idle connections.
+         */
+        void dispose() {
+            shards.values().forEach(ConnectionPool::dispose);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Configuration of the franchise-based sharding.
+ *
+ * @param enabled  whether the persistence layer is sharded
+ * @param poolSize maximum connections of each shard pool
+ * @param shards   the shard databases, in shard index order; the order must never change
+ */
+@ConfigurationProperties(prefix = "app.persistence.sharding")
+public record ShardingProperties(boolean enabled, Integer poolSize, List<Shard> shards) {
+
+    public ShardingProperties {
+        if (poolSize == null) {
+            poolSize = 10;
+        }
+
+        if (shards == null) {
+            shards = List.of();
+        }
+    }
+
+    /**
+     * Returns the number of shards in use.
+     *
+     * @return the shard count, {@code 1} when sharding is disabled
+     */
+    public int shardCount() {
+        return enabled ? Math.max(1, shards.size()) : 1;
+    }
+
+    /**
+     * Connection settings of one shard.
+     *
+     * @param r2dbcUrl R2DBC URL used by the application
+     * @param jdbcUrl  JDBC URL used to migrate the shard
+     */
+    public record Shard(String r2dbcUrl, String jdbcUrl) {
+    }
+}
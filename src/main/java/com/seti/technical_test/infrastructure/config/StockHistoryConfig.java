@@ -0,0 +1,53 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.history.StockHistoryRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the stock history recorder.
+ *
+ * <p>
+ * Stock changes reach the history a moment after they are committed,
+ * through the outbox, so recording them adds nothing to the write path.
+ * Several instances may run the recorder at once: each batch claims the
+ * position of its shard and an instance finding it claimed waits for the
+ * next tick.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(StockHistoryProperties.class)
+@ConditionalOnProperty(prefix = "app.persistence.stock-history", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StockHistoryConfig {
+
+    /**
+     * Recorder of the stock history.
+     *
+     * @param databaseClient the client used to record and maintain the history
+     * @param shardResolver  the shard resolver
+     * @param meterRegistry  the registry of the recorded changes counter
+     * @param properties     the history configuration
+     * @return the stock history recorder
+     */
+    @Bean
+    StockHistoryRecorder stockHistoryRecorder(DatabaseClient databaseClient,
+                                              ShardResolver shardResolver,
+                                              MeterRegistry meterRegistry,
+                                              StockHistoryProperties properties) {
+        return new StockHistoryRecorder(
+                databaseClient,
+                shardResolver,
+                meterRegistry,
+                properties.interval(),
+                properties.maintenanceInterval(),
+                properties.batchSize(),
+                properties.rawRetentionDays(),
+                properties.hourlyRetentionMonths(),
+                properties.daysAhead());
+    }
+}
@@ -0,0 +1,56 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the stock history.
+ *
+ * @param enabled               whether stock changes are recorded
+ * @param interval              time between two reads of the outbox
+ * @param batchSize             number of outbox events recorded by one statement
+ * @param maintenanceInterval   time between two partition maintenances
+ * @param rawRetentionDays      days every change is kept before being compacted into hourly rows
+ * @param hourlyRetentionMonths months the hourly rows are kept
+ * @param daysAhead             days whose partitions are created in advance
+ */
+@ConfigurationProperties(prefix = "app.persistence.stock-history")
+public record StockHistoryProperties(Boolean enabled,
+                                     Duration interval,
+                                     Integer batchSize,
+                                     Duration maintenanceInterval,
+                                     Integer rawRetentionDays,
+                                     Integer hourlyRetentionMonths,
+                                     Integer daysAhead) {
+
+    public StockHistoryProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+
+        if (interval == null) {
+            interval = Duration.ofSeconds(1);
+        }
+
+        if (batchSize == null) {
+            batchSize = 5_000;
+        }
+
+        if (maintenanceInterval == null) {
+            maintenanceInterval = Duration.ofHours(1);
+        }
+
+        if (rawRetentionDays == null) {
+            rawRetentionDays = 7;
+        }
+
+        if (hourlyRetentionMonths == null) {
+            hourlyRetentionMonths = 13;
+        }
+
+        if (daysAhead == null) {
+            daysAhead = 3;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.analytics.StockRankingIndex;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshotFile;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration of the in-memory stock ranking index.
+ *
+ * <p>
+ * The index holds every product of every shard, about a hundred bytes per
+ * product plus its name, so it is disabled by default. When disabled, or
+ * while loading, rankings, ranks and stock ranges are read from the
+ * {@code (office_id, stock DESC)} index of the database.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(StockRankingIndexProperties.class)
+public class StockRankingIndexConfig {
+
+    /**
+     * Index of the stock rankings.
+     *
+     * @param databaseClient      the client used to load the products and follow the outbox
+     * @param shardResolver       the shard resolver
+     * @param catalogSnapshotFile the local catalog snapshot, restored on start when available
+     * @param properties          the index configuration
+     * @return the stock ranking index
+     */
+    @Bean
+    StockRankingIndex stockRankingIndex(DatabaseClient databaseClient,
+                                        ShardResolver shardResolver,
+                                        CatalogSnapshotFile catalogSnapshotFile,
+                                        StockRankingIndexProperties properties) {
+        return new StockRankingIndex(
+                databaseClient,
+                shardResolver,
+                catalogSnapshotFile,
+                properties.enabled(),
+                properties.pollInterval(),
+                properties.batchSize());
+    }
+}
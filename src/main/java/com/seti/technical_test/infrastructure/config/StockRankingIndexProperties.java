@@ -0,0 +1,30 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-memory stock ranking index.
+ *
+ * @param enabled      whether rankings, ranks and stock ranges are answered from memory
+ * @param pollInterval time between two reads of the outbox; bounds how stale the writes of other instances are
+ * @param batchSize    number of products, offices or events read by one statement
+ */
+@ConfigurationProperties(prefix = "app.persistence.stock-ranking-index")
+public record StockRankingIndexProperties(Boolean enabled, Duration pollInterval, Integer batchSize) {
+
+    public StockRankingIndexProperties {
+        if (enabled == null) {
+            enabled = false;
+        }
+
+        if (pollInterval == null) {
+            pollInterval = Duration.ofMillis(500);
+        }
+
+        if (batchSize == null) {
+            batchSize = 5_000;
+        }
+    }
+}
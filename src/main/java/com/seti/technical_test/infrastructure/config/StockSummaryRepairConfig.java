@@ -0,0 +1,53 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.summary.StockSummaryRepairJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Configuration of the office stock summary repair job.
+ *
+ * <p>
+ * The summary is maintained by triggers and should never drift; the job
+ * recomputes it from the products on a fixed interval and corrects any
+ * office that differs, for instance after a manual fix bypassing the
+ * triggers. Several instances may run it at once, as every batch is
+ * repaired under row locks.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(StockSummaryRepairProperties.class)
+@ConditionalOnProperty(prefix = "app.persistence.stock-summary-repair", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StockSummaryRepairConfig {
+
+    /**
+     * Repair job of the office stock summary.
+     *
+     * @param databaseClient        the client used to verify and repair the summary
+     * @param shardResolver         the shard resolver
+     * @param transactionalOperator the transaction of each batch
+     * @param meterRegistry         the registry of the repair counter
+     * @param properties            the repair configuration
+     * @return the repair job
+     */
+    @Bean
+    StockSummaryRepairJob stockSummaryRepairJob(DatabaseClient databaseClient,
+                                                ShardResolver shardResolver,
+                                                TransactionalOperator transactionalOperator,
+                                                MeterRegistry meterRegistry,
+                                                StockSummaryRepairProperties properties) {
+        return new StockSummaryRepairJob(
+                databaseClient,
+                shardResolver,
+                transactionalOperator,
+                meterRegistry,
+                properties.interval(),
+                properties.batchSize());
+    }
+}
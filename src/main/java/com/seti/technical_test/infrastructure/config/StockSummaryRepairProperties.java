@@ -0,0 +1,25 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the office stock summary repair job.
+ *
+ * @param interval  time between two verifications of every office
+ * @param batchSize number of offices verified and locked in one transaction
+ */
+@ConfigurationProperties(prefix = "app.persistence.stock-summary-repair")
+public record StockSummaryRepairProperties(Duration interval, Integer batchSize) {
+
+    public StockSummaryRepairProperties {
+        if (interval == null) {
+            interval = Duration.ofHours(1);
+        }
+
+        if (batchSize == null) {
+            batchSize = 500;
+        }
+    }
+}
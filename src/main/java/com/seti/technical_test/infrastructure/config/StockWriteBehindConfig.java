@@ -0,0 +1,52 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.writebehind.StockChangeLog;
+import com.seti.technical_test.infrastructure.persistance.writebehind.StockWriteBehindBuffer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Configuration of the stock write-behind mode.
+ *
+ * <p>
+ * When {@code app.persistence.stock-write-behind.enabled=true}, stock
+ * adjustments are acknowledged once written to a local log and are applied
+ * to the database in coalesced batches. Reads of a single product include
+ * the buffered changes; top-stock queries see them after the next flush.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(StockWriteBehindProperties.class)
+@ConditionalOnProperty(prefix = "app.persistence.stock-write-behind", name = "enabled", havingValue = "true")
+public class StockWriteBehindConfig {
+
+    /**
+     * Buffer of the stock changes, started before the web server and
+     * flushed after it stops.
+     *
+     * @param databaseClient        the client used to flush the changes
+     * @param shardResolver         the shard resolver
+     * @param transactionalOperator the operator wrapping each flush in a transaction
+     * @param properties            the write-behind configuration
+     * @return the write-behind buffer
+     */
+    @Bean
+    StockWriteBehindBuffer stockWriteBehindBuffer(DatabaseClient databaseClient,
+                                                  ShardResolver shardResolver,
+                                                  TransactionalOperator transactionalOperator,
+                                                  StockWriteBehindProperties properties) {
+        return new StockWriteBehindBuffer(
+                databaseClient,
+                shardResolver,
+                transactionalOperator,
+                new StockChangeLog(properties.logDirectory()),
+                properties.nodeId(),
+                properties.flushInterval(),
+                properties.maxLag());
+    }
+}
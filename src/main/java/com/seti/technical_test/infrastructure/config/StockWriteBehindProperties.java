@@ -0,0 +1,40 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the stock write-behind buffer.
+ *
+ * @param flushInterval maximum time a stock change stays buffered before being written to the database
+ * @param maxLag        number of buffered changes that triggers a flush before the interval elapses
+ * @param logDirectory  directory of the local log making buffered changes durable; must survive restarts
+ * @param nodeId        identifier of this instance, unique among the instances sharing the database;
+ *                      when unset, one is generated and stored in the log directory
+ */
+@ConfigurationProperties(prefix = "app.persistence.stock-write-behind")
+public record StockWriteBehindProperties(Duration flushInterval,
+                                         Long maxLag,
+                                         Path logDirectory,
+                                         String nodeId) {
+
+    public StockWriteBehindProperties {
+        if (flushInterval == null) {
+            flushInterval = Duration.ofMillis(200);
+        }
+
+        if (maxLag == null) {
+            maxLag = 10_000L;
+        }
+
+        if (logDirectory == null) {
+            logDirectory = Path.of("data", "stock-log");
+        }
+
+        if (nodeId != null && nodeId.isBlank()) {
+            nodeId = null;
+        }
+    }
+}
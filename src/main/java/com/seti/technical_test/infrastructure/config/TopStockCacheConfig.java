@@ -0,0 +1,31 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.persistance.cache.TopStockCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the top-stock ranking cache.
+ *
+ * <p>
+ * The cache is local to each instance: product and office writes of this
+ * instance invalidate it immediately, writes of other instances once the
+ * time to live expires.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TopStockCacheProperties.class)
+public class TopStockCacheConfig {
+
+    /**
+     * Cache of the top-stock ranking per franchise.
+     *
+     * @param properties the cache configuration
+     * @return the ranking cache
+     */
+    @Bean
+    TopStockCache topStockCache(TopStockCacheProperties properties) {
+        return new TopStockCache(properties.enabled(), properties.ttl(), properties.maxFranchises());
+    }
+}
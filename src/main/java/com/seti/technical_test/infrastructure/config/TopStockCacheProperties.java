@@ -0,0 +1,30 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the top-stock ranking cache.
+ *
+ * @param enabled       whether rankings are cached
+ * @param ttl           maximum age of a cached ranking; bounds the staleness caused by other instances
+ * @param maxFranchises maximum number of franchises whose ranking is cached
+ */
+@ConfigurationProperties(prefix = "app.persistence.top-stock-cache")
+public record TopStockCacheProperties(Boolean enabled, Duration ttl, Integer maxFranchises) {
+
+    public TopStockCacheProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+
+        if (ttl == null) {
+            ttl = Duration.ofSeconds(5);
+        }
+
+        if (maxFranchises == null) {
+            maxFranchises = 10_000;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.tracing.TraceIdThreadLocalAccessor;
+import io.micrometer.context.ContextRegistry;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the request trace id propagation.
+ *
+ * <p>
+ * Registers the trace id in the context-propagation registry so that,
+ * with {@code spring.reactor.context-propagation=auto}, it is restored
+ * from the Reactor context into the thread-local and the logging MDC on
+ * every thread that processes the request.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+public class TracingConfig {
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new TraceIdThreadLocalAccessor());
+    }
+}
@@ -0,0 +1,37 @@
+package com.seti.technical_test.infrastructure.config;
+
+import com.seti.technical_test.infrastructure.web.TrafficRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the capture of sampled API requests, replayed against a
+ * test instance to compare the latency of two builds.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TrafficCaptureProperties.class)
+@ConditionalOnProperty(prefix = "app.traffic-capture", name = "enabled", havingValue = "true")
+public class TrafficCaptureConfig {
+
+    /**
+     * Writer of the captured requests.
+     *
+     * @param properties    the capture configuration
+     * @param meterRegistry the registry of the capture counters
+     * @return the recorder
+     */
+    @Bean
+    TrafficRecorder trafficRecorder(TrafficCaptureProperties properties, MeterRegistry meterRegistry) {
+        return new TrafficRecorder(
+                properties.directory(),
+                properties.maxFileSize().toBytes(),
+                properties.queueSize(),
+                properties.flushInterval(),
+                properties.reorderWindow(),
+                properties.pseudonymKey(),
+                meterRegistry);
+    }
+}
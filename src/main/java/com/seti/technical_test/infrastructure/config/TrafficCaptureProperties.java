@@ -0,0 +1,60 @@
+package com.seti.technical_test.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the capture of sampled API requests.
+ *
+ * @param sampleRate    fraction of the API requests captured, between 0 and 1
+ * @param directory     directory of the capture files, one per start
+ * @param maxBodySize   largest request body captured; requests with a larger body are skipped
+ * @param maxFileSize   size of a capture file past which capturing stops until the next start
+ * @param queueSize     captured requests waiting to be written, past which new ones are dropped
+ * @param flushInterval time between two writes of the waiting requests
+ * @param reorderWindow time a request is held to be written in arrival order with the slower ones
+ * @param pseudonymKey  key of the pseudonyms replacing names; a random one per start when empty
+ */
+@ConfigurationProperties(prefix = "app.traffic-capture")
+public record TrafficCaptureProperties(Double sampleRate,
+                                       Path directory,
+                                       DataSize maxBodySize,
+                                       DataSize maxFileSize,
+                                       Integer queueSize,
+                                       Duration flushInterval,
+                                       Duration reorderWindow,
+                                       String pseudonymKey) {
+
+    public TrafficCaptureProperties {
+        if (sampleRate == null) {
+            sampleRate = 0.01;
+        }
+
+        if (directory == null) {
+            directory = Path.of("data", "traffic-capture");
+        }
+
+        if (maxBodySize == null) {
+            maxBodySize = DataSize.ofKilobytes(16);
+        }
+
+        if (maxFileSize == null) {
+            maxFileSize = DataSize.ofMegabytes(256);
+        }
+
+        if (queueSize == null) {
+            queueSize = 10_000;
+        }
+
+        if (flushInterval == null) {
+            flushInterval = Duration.ofSeconds(1);
+        }
+
+        if (reorderWindow == null) {
+            reorderWindow = Duration.ofSeconds(5);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.seti.technical_test.infrastructure.controller;
+
+import com.seti.technical_test.application.port.in.ChangeEventUseCase;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller that publishes the change feed of franchises, offices
+ * and products. Changes are streamed as newline-delimited JSON, one event
+ * per line, and consumers acknowledge their position per shard.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/v1/changes")
+public class ChangeEventController {
+
+    /**
+     * Service layer that follows the change feed.
+     */
+    private final ChangeEventUseCase changeEventUseCase;
+
+    /**
+     * Streams the changes after the acknowledged position of a consumer.
+     * The stream never completes on its own.
+     *
+     * @param consumer the consumer name
+     * @return a Flux emitting the changes as they are committed
+     */
+    @GetMapping(value = "/{consumer}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<ChangeEventLine> streamChanges(@PathVariable String consumer) {
+        return changeEventUseCase.streamChanges(consumer)
+                .map(ChangeEventLine::of);
+    }
+
+    /**
+     * Acknowledges the changes of a shard up to the given position.
+     *
+     * @param consumer the consumer name
+     * @param shard the shard the position belongs to
+     * @param txid the transaction of the last processed change
+     * @param offset the identifier of the last processed change
+     * @return a Mono that completes when the position is stored
+     */
+    @PutMapping("/{consumer}/offsets/{shard}")
+    Mono<Void> acknowledge(@PathVariable String consumer, @PathVariable Integer shard, @RequestParam Long txid,
+                           @RequestParam Long offset) {
+        return changeEventUseCase.acknowledge(consumer, shard, txid, offset);
+    }
+}
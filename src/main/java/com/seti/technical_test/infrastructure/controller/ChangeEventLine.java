@@ -0,0 +1,26 @@
+package com.seti.technical_test.infrastructure.controller;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.seti.technical_test.domain.model.ChangeEvent;
+import com.seti.technical_test.domain.model.ChangeType;
+
+import java.time.Instant;
+
+/**
+ * A change as written to the HTTP responses; the payload is written as
+ * JSON, not as a string.
+ */
+record ChangeEventLine(Long id,
+                       Long txid,
+                       Integer shard,
+                       String aggregateType,
+                       Long aggregateId,
+                       ChangeType type,
+                       @JsonRawValue String payload,
+                       Instant createdAt) {
+
+    static ChangeEventLine of(ChangeEvent event) {
+        return new ChangeEventLine(event.id(), event.txid(), event.shard(), event.aggregateType(), event.aggregateId(),
+                event.type(), event.payload(), event.createdAt());
+    }
+}
@@ -1,9 +1,14 @@
 package com.seti.technical_test.infrastructure.controller;
 
 import com.seti.technical_test.domain.model.Franchise;
+import com.seti.technical_test.domain.model.FranchiseStockSummary;
+import com.seti.technical_test.application.port.in.ChangeEventUseCase;
 import com.seti.technical_test.application.port.in.FranchiseUseCase;
+import com.seti.technical_test.application.port.in.StockSummaryUseCase;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -15,11 +20,26 @@ import reactor.core.publisher.Mono;
 @RequestMapping("/api/v1/franchise")
 public class FranchiseController {
 
+    /**
+     * Header carrying the version to synchronize from next time.
+     */
+    static final String CHANGE_VERSION_HEADER = "X-Change-Version";
+
     /**
      * Service layer that contains the business logic for franchises.
      */
     private final FranchiseUseCase franchiseUseCase;
 
+    /**
+     * Service layer that reads the changes of franchises.
+     */
+    private final ChangeEventUseCase changeEventUseCase;
+
+    /**
+     * Service layer that reads the stock aggregates.
+     */
+    private final StockSummaryUseCase stockSummaryUseCase;
+
     /**
      * Retrieves a franchise by its identifier.
      *
@@ -27,7 +47,7 @@ public class FranchiseController {
      * @return a Mono emitting the FranchiseDto if found, or an error if not
      */
     @GetMapping("/{id}")
-    public Mono<Franchise> getFranchise(@PathVariable Integer id) {
+    public Mono<Franchise> getFranchise(@PathVariable Long id) {
         return franchiseUseCase.getFranchise(id);
     }
 
@@ -50,7 +70,36 @@ public class FranchiseController {
      * @return a Mono emitting the updated FranchiseDto
      */
     @PutMapping("/{id}")
-    public Mono<Franchise> updateFranchise(@PathVariable Integer id, @RequestBody Franchise franchise) {
+    public Mono<Franchise> updateFranchise(@PathVariable Long id, @RequestBody Franchise franchise) {
         return franchiseUseCase.updateFranchise(id, franchise);
     }
+
+    /**
+     * Retrieves the stock aggregates of a franchise and of each of its offices.
+     *
+     * @param id the unique identifier of the franchise
+     * @return a Mono emitting the total stock, product count and low-stock count of the franchise
+     */
+    @GetMapping("/{id}/stock-summary")
+    public Mono<FranchiseStockSummary> getStockSummary(@PathVariable Long id) {
+        return stockSummaryUseCase.getFranchiseSummary(id);
+    }
+
+    /**
+     * Streams the franchise, office and product changes of a franchise
+     * since a previous synchronization. The version to send next time is
+     * returned in the {@code X-Change-Version} header.
+     *
+     * @param id the unique identifier of the franchise
+     * @param since the version returned by the previous synchronization, {@code 0} for a full one
+     * @return a Mono emitting the response streaming the latest change of each changed row
+     */
+    @GetMapping("/{id}/changes")
+    public Mono<ResponseEntity<Flux<ChangeEventLine>>> getChanges(@PathVariable Long id,
+                                                                  @RequestParam(defaultValue = "0") Long since) {
+        return changeEventUseCase.getFranchiseChanges(id, since)
+                .map(changes -> ResponseEntity.ok()
+                        .header(CHANGE_VERSION_HEADER, changes.version().toString())
+                        .body(changes.changes().map(ChangeEventLine::of)));
+    }
 }
@@ -0,0 +1,70 @@
+package com.seti.technical_test.infrastructure.controller;
+
+import com.seti.technical_test.application.port.in.InventoryAnalyticsUseCase;
+import com.seti.technical_test.domain.model.FranchiseStockTotal;
+import com.seti.technical_test.domain.model.InventoryFootprint;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.StockPercentiles;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller exposing the analytical reports over the whole
+ * inventory, answered from the in-memory snapshot.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/v1/inventory")
+public class InventoryController {
+
+    /**
+     * Service layer that scans the inventory snapshot.
+     */
+    private final InventoryAnalyticsUseCase inventoryAnalyticsUseCase;
+
+    /**
+     * Retrieves the total stock of every franchise.
+     *
+     * @return a Flux emitting one total per franchise, highest stock first
+     */
+    @GetMapping("/franchise-stock")
+    Flux<FranchiseStockTotal> getStockByFranchise() {
+        return inventoryAnalyticsUseCase.getStockByFranchise();
+    }
+
+    /**
+     * Retrieves the stock distribution of an office.
+     *
+     * @param id the unique identifier of the office
+     * @return a Mono emitting the minimum, median, 90th and 99th percentile and maximum stock
+     */
+    @GetMapping("/office/{id}/stock-percentiles")
+    Mono<StockPercentiles> getStockPercentiles(@PathVariable Long id) {
+        return inventoryAnalyticsUseCase.getStockPercentiles(id);
+    }
+
+    /**
+     * Retrieves products without stock.
+     *
+     * @param franchiseId the franchise to look in; omitted to look in every franchise
+     * @param limit the maximum number of products, a hundred by default
+     * @return a Flux emitting the products without stock
+     */
+    @GetMapping("/out-of-stock")
+    Flux<Product> getOutOfStockProducts(@RequestParam(required = false) Long franchiseId,
+                                        @RequestParam(defaultValue = "100") Integer limit) {
+        return inventoryAnalyticsUseCase.getOutOfStockProducts(franchiseId, limit);
+    }
+
+    /**
+     * Reports the memory held by the inventory snapshot.
+     *
+     * @return a Mono emitting the allocated bytes, in total and per million products
+     */
+    @GetMapping("/footprint")
+    Mono<InventoryFootprint> getFootprint() {
+        return inventoryAnalyticsUseCase.getFootprint();
+    }
+}
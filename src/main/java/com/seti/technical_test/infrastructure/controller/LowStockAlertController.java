@@ -0,0 +1,38 @@
+package com.seti.technical_test.infrastructure.controller;
+
+import com.seti.technical_test.application.port.in.LowStockAlertUseCase;
+import com.seti.technical_test.domain.model.LowStockAlert;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * REST controller that publishes the low-stock alerts as server-sent
+ * events, one event per alert.
+ */
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/v1/low-stock-alerts")
+public class LowStockAlertController {
+
+    /**
+     * Service layer that follows the low-stock alerts.
+     */
+    private final LowStockAlertUseCase lowStockAlertUseCase;
+
+    /**
+     * Streams the low-stock alerts raised from now on. The stream never
+     * completes on its own.
+     *
+     * @param officeId the office to follow; omitted to follow every office
+     * @return a Flux emitting the alerts as they are raised
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    Flux<LowStockAlert> streamAlerts(@RequestParam(required = false) Long officeId) {
+        return lowStockAlertUseCase.streamAlerts(officeId);
+    }
+}
@@ -1,11 +1,20 @@
 package com.seti.technical_test.infrastructure.controller;
 
 import com.seti.technical_test.domain.model.Office;
+import com.seti.technical_test.domain.model.OfficeStockSummary;
+import com.seti.technical_test.domain.model.StockHistoryPoint;
+import com.seti.technical_test.domain.model.StockHistoryResolution;
 import com.seti.technical_test.application.port.in.OfficeUseCase;
+import com.seti.technical_test.application.port.in.StockHistoryUseCase;
+import com.seti.technical_test.application.port.in.StockSummaryUseCase;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+
 /**
  * REST controller responsible for handling office-related HTTP requests.
  * Provides reactive endpoints for creating, retrieving and updating offices.
@@ -20,6 +29,16 @@ public class OfficeController {
      */
     private final OfficeUseCase officeUseCase;
 
+    /**
+     * Service layer that reads the stock aggregates.
+     */
+    private final StockSummaryUseCase stockSummaryUseCase;
+
+    /**
+     * Service layer that reads the stock history.
+     */
+    private final StockHistoryUseCase stockHistoryUseCase;
+
     /**
      * Retrieves an office by its identifier.
      *
@@ -27,7 +46,7 @@ public class OfficeController {
      * @return a Mono emitting the OfficeDto if found, or an error if not
      */
     @GetMapping("/{id}")
-    Mono<Office> getOffice(@PathVariable Integer id) {
+    Mono<Office> getOffice(@PathVariable Long id) {
         return officeUseCase.getOffice(id);
     }
 
@@ -50,9 +69,48 @@ public class OfficeController {
      * @return a Mono emitting the updated OfficeDto
      */
     @PutMapping("/{id}")
-    Mono<Office> updateOffice(@PathVariable Integer id, @RequestBody Office office) {
+    Mono<Office> updateOffice(@PathVariable Long id, @RequestBody Office office) {
         return officeUseCase.updateOffice(id, office);
     }
 
+    /**
+     * Sets the stock under which the products of an office raise a low-stock alert.
+     *
+     * @param id the unique identifier of the office
+     * @param threshold the new threshold; omitted to use the default one
+     * @return a Mono that completes when the threshold is stored
+     */
+    @PutMapping("/{id}/low-stock-threshold")
+    Mono<Void> setLowStockThreshold(@PathVariable Long id, @RequestParam(required = false) Integer threshold) {
+        return officeUseCase.setLowStockThreshold(id, threshold);
+    }
+
+    /**
+     * Retrieves the stock aggregates of an office.
+     *
+     * @param id the unique identifier of the office
+     * @return a Mono emitting the total stock, product count and low-stock count of the office
+     */
+    @GetMapping("/{id}/stock-summary")
+    Mono<OfficeStockSummary> getStockSummary(@PathVariable Long id) {
+        return stockSummaryUseCase.getOfficeSummary(id);
+    }
+
+    /**
+     * Retrieves the stock of every product of an office over a period.
+     *
+     * @param id the unique identifier of the office
+     * @param from the start of the period, inclusive, as an ISO-8601 instant
+     * @param to the end of the period, exclusive, as an ISO-8601 instant
+     * @param resolution the length of each interval, hourly by default
+     * @return a Flux emitting the min, max and last stock of each product and interval
+     */
+    @GetMapping("/{id}/stock-history")
+    Flux<StockHistoryPoint> getStockHistory(@PathVariable Long id,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                            @RequestParam(defaultValue = "HOUR") StockHistoryResolution resolution) {
+        return stockHistoryUseCase.getOfficeHistory(id, from, to, resolution);
+    }
 
 }
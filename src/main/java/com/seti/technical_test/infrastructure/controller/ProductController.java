@@ -1,12 +1,21 @@
 package com.seti.technical_test.infrastructure.controller;
 
 import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+import com.seti.technical_test.domain.model.StockAdjustment;
+import com.seti.technical_test.domain.model.StockHistoryPoint;
+import com.seti.technical_test.domain.model.StockHistoryResolution;
 import com.seti.technical_test.application.port.in.ProductUseCase;
+import com.seti.technical_test.application.port.in.StockHistoryUseCase;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.List;
+
 /**
  * REST controller responsible for handling product-related HTTP requests.
  * Exposes reactive endpoints for managing products and querying stock information.
@@ -21,6 +30,45 @@ public class ProductController {
      */
     private final ProductUseCase productUseCase;
 
+    /**
+     * Service layer that reads the stock history.
+     */
+    private final StockHistoryUseCase stockHistoryUseCase;
+
+    /**
+     * Searches products by a partial or misspelled name.
+     *
+     * @param q the search text
+     * @param officeId the office to search in; omitted to search every office
+     * @param franchiseId the franchise to search in; omitted to search every franchise
+     * @param limit the maximum number of products, twenty by default
+     * @return a Flux emitting the products starting with the text, then the closest ones
+     */
+    @GetMapping("/search")
+    Flux<Product> searchProducts(@RequestParam String q,
+                                 @RequestParam(required = false) Long officeId,
+                                 @RequestParam(required = false) Long franchiseId,
+                                 @RequestParam(defaultValue = "20") Integer limit) {
+        return productUseCase.searchProducts(q, officeId, franchiseId, limit);
+    }
+
+    /**
+     * Retrieves the products of an office whose stock is within a range.
+     *
+     * @param officeId the unique identifier of the office
+     * @param minStock the lowest stock, inclusive, zero by default
+     * @param maxStock the highest stock, inclusive
+     * @param limit the maximum number of products, twenty by default
+     * @return a Flux emitting the products, by descending stock
+     */
+    @GetMapping("/by-stock")
+    Flux<Product> getProductsByStock(@RequestParam Long officeId,
+                                     @RequestParam(defaultValue = "0") Integer minStock,
+                                     @RequestParam Integer maxStock,
+                                     @RequestParam(defaultValue = "20") Integer limit) {
+        return productUseCase.getProductsByStock(officeId, minStock, maxStock, limit);
+    }
+
     /**
      * Retrieves a product by its identifier.
      *
@@ -28,7 +76,7 @@ public class ProductController {
      * @return a Mono emitting the ProductDto if found, or an error if not
      */
     @GetMapping("/{id}")
-    Mono<Product> getProduct(@PathVariable Integer id) {
+    Mono<Product> getProduct(@PathVariable Long id) {
         return productUseCase.getProduct(id);
     }
 
@@ -43,6 +91,17 @@ public class ProductController {
         return productUseCase.createProduct(product);
     }
 
+    /**
+     * Creates several products in a single batch.
+     *
+     * @param products the products data to be created
+     * @return a Flux emitting the created products
+     */
+    @PostMapping("/batch")
+    Flux<Product> createProducts(@RequestBody List<Product> products) {
+        return productUseCase.createProducts(products);
+    }
+
     /**
      * Updates an existing product by its identifier.
      *
@@ -51,10 +110,50 @@ public class ProductController {
      * @return a Mono emitting the updated ProductDto
      */
     @PutMapping("/{id}")
-    Mono<Product> updateProduct(@PathVariable Integer id, @RequestBody Product product) {
+    Mono<Product> updateProduct(@PathVariable Long id, @RequestBody Product product) {
         return productUseCase.updateProduct(id, product);
     }
 
+    /**
+     * Adds a delta to the stock of a product.
+     *
+     * @param id the unique identifier of the product
+     * @param adjustment the stock change
+     * @return a Mono emitting the product with its adjusted stock
+     */
+    @PatchMapping("/{id}/stock")
+    Mono<Product> adjustStock(@PathVariable Long id, @RequestBody StockAdjustment adjustment) {
+        return productUseCase.adjustStock(id, adjustment);
+    }
+
+    /**
+     * Retrieves the position of a product in the stock ranking of its office.
+     *
+     * @param id the unique identifier of the product
+     * @return a Mono emitting the rank of the product, one for the highest stock
+     */
+    @GetMapping("/{id}/stock-rank")
+    Mono<ProductRank> getStockRank(@PathVariable Long id) {
+        return productUseCase.getStockRank(id);
+    }
+
+    /**
+     * Retrieves the stock of a product over a period.
+     *
+     * @param id the unique identifier of the product
+     * @param from the start of the period, inclusive, as an ISO-8601 instant
+     * @param to the end of the period, exclusive, as an ISO-8601 instant
+     * @param resolution the length of each interval, hourly by default
+     * @return a Flux emitting the min, max and last stock of each interval
+     */
+    @GetMapping("/{id}/stock-history")
+    Flux<StockHistoryPoint> getStockHistory(@PathVariable Long id,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                            @RequestParam(defaultValue = "HOUR") StockHistoryResolution resolution) {
+        return stockHistoryUseCase.getProductHistory(id, from, to, resolution);
+    }
+
     /**
      * Deletes a product by its identifier.
      *
@@ -62,7 +161,7 @@ public class ProductController {
      * @return a Mono that completes when the product is deleted
      */
     @DeleteMapping("/{id}")
-    Mono<Void> deleteProduct(@PathVariable Integer id) {
+    Mono<Void> deleteProduct(@PathVariable Long id) {
         return productUseCase.deleteProduct(id);
     }
 
@@ -71,10 +170,12 @@ public class ProductController {
      * for a specific franchise.
      *
      * @param franchiseId the unique identifier of the franchise
+     * @param k the number of products per office, one by default
      * @return a Flux emitting the top-stock ProductDto per office
      */
     @GetMapping("/top-products/{franchiseId}")
-    Flux<Product> getTopProductsOfficeByFranchise(@PathVariable Integer franchiseId) {
-        return productUseCase.getTopProductsOfficeByFranchise(franchiseId);
+    Flux<Product> getTopProductsOfficeByFranchise(@PathVariable Long franchiseId,
+                                                  @RequestParam(defaultValue = "1") Integer k) {
+        return productUseCase.getTopProductsOfficeByFranchise(franchiseId, k);
     }
 }
@@ -7,6 +7,10 @@ package com.seti.technical_test.infrastructure.exception;
  * This exception allows services or controllers to signal that an operation
  * has failed for a reason that does not fall under more specific exception
  * types, providing a flexible way to handle unforeseen cases.
+ * <p>
+ * It is used for expected business outcomes that are mapped to a client
+ * error, so it neither captures a stack trace nor supports suppressed
+ * exceptions, which keeps its creation cheap.
  */
 public class GeneralException extends RuntimeException {
 
@@ -16,6 +20,6 @@ public class GeneralException extends RuntimeException {
      * @param message a descriptive message explaining the cause of the exception
      */
     public GeneralException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
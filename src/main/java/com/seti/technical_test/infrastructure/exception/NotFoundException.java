@@ -6,6 +6,10 @@ package com.seti.technical_test.infrastructure.exception;
  * Typically used to indicate that an entity or record with the specified
  * identifier does not exist, allowing services and controllers to communicate
  * clear error conditions.
+ * <p>
+ * Not-found is an expected outcome under normal traffic, so this exception
+ * neither captures a stack trace nor supports suppressed exceptions, which
+ * keeps its creation cheap.
  */
 public class NotFoundException extends RuntimeException {
 
@@ -15,7 +19,7 @@ public class NotFoundException extends RuntimeException {
      * @param message a descriptive message explaining the reason for the exception
      */
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
 
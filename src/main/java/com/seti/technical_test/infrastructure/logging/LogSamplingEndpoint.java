@@ -0,0 +1,63 @@
+package com.seti.technical_test.infrastructure.logging;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the log sampling rates at
+ * {@code /actuator/logsampling}.
+ *
+ * <p>
+ * A {@code POST /actuator/logsampling/{operation}} with a {@code rate}
+ * between {@code 0.0} and {@code 1.0} changes the rate of an operation
+ * without restarting the application; the special operation
+ * {@value #DEFAULT_OPERATION} changes the default rate.
+ * </p>
+ *
+ * <p>
+ * As the other actuator endpoints, it is served on the management port,
+ * bound to the loopback interface by default, and never on the
+ * application port.
+ * </p>
+ */
+@Endpoint(id = "logsampling")
+public class LogSamplingEndpoint {
+
+    /**
+     * Operation name used to address the default rate.
+     */
+    static final String DEFAULT_OPERATION = "default";
+
+    /**
+     * Returns the current sampling configuration.
+     *
+     * @return the default rate and the explicit rates per operation
+     */
+    @ReadOperation
+    public Map<String, Object> rates() {
+        return Map.of(
+                DEFAULT_OPERATION, LogSamplingRates.defaultRate(),
+                "operations", LogSamplingRates.rates()
+        );
+    }
+
+    /**
+     * Changes the sampling rate of an operation.
+     *
+     * @param operation the operation name
+     * @param rate the new rate
+     */
+    @WriteOperation
+    public void updateRate(@Selector String operation, double rate) {
+        if (DEFAULT_OPERATION.equals(operation)) {
+            LogSamplingRates.setDefaultRate(rate);
+            return;
+        }
+
+        LogSamplingRates.setRate(operation, rate);
+    }
+}
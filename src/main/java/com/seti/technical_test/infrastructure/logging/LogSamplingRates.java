@@ -0,0 +1,81 @@
+package com.seti.technical_test.infrastructure.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the sampling rates applied to informational logs, per operation.
+ *
+ * <p>
+ * Logback instantiates its filters outside of the Spring context, so the
+ * rates live in this process-wide registry. The Spring side seeds it from
+ * the configuration and updates it at runtime through the actuator
+ * {@code logsampling} endpoint; the {@link SamplingTurboFilter} reads it on
+ * every log call without locking.
+ * </p>
+ */
+public final class LogSamplingRates {
+
+    private static final Map<String, Double> RATES = new ConcurrentHashMap<>();
+
+    private static volatile double defaultRate = 1.0;
+
+    private LogSamplingRates() {
+    }
+
+    /**
+     * Returns the sampling rate of the given operation.
+     *
+     * @param operation the operation name, may be {@code null}
+     * @return a rate between {@code 0.0} (drop all) and {@code 1.0} (keep all)
+     */
+    public static double rate(String operation) {
+        if (operation == null) {
+            return defaultRate;
+        }
+
+        Double rate = RATES.get(operation);
+        return rate != null ? rate : defaultRate;
+    }
+
+    /**
+     * Sets the sampling rate of an operation.
+     *
+     * @param operation the operation name
+     * @param rate a rate between {@code 0.0} and {@code 1.0}
+     */
+    public static void setRate(String operation, double rate) {
+        RATES.put(operation, clamp(rate));
+    }
+
+    /**
+     * Sets the rate applied to operations without an explicit rate.
+     *
+     * @param rate a rate between {@code 0.0} and {@code 1.0}
+     */
+    public static void setDefaultRate(double rate) {
+        defaultRate = clamp(rate);
+    }
+
+    /**
+     * Returns the rate applied to operations without an explicit rate.
+     *
+     * @return the default rate
+     */
+    public static double defaultRate() {
+        return defaultRate;
+    }
+
+    /**
+     * Returns a snapshot of the explicit rates.
+     *
+     * @return the rates indexed by operation
+     */
+    public static Map<String, Double> rates() {
+        return Map.copyOf(RATES);
+    }
+
+    private static double clamp(double rate) {
+        return Math.max(0.0, Math.min(1.0, rate));
+    }
+}
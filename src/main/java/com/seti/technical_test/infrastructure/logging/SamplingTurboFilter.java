@@ -0,0 +1,59 @@
+package com.seti.technical_test.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logback {@link TurboFilter} that samples informational logs per operation.
+ *
+ * <p>
+ * Turbo filters run before the logging event is created, so a dropped
+ * statement costs neither the event allocation nor the formatting of its
+ * arguments. The operation is identified by the marker of the statement
+ * and its rate is read from {@link LogSamplingRates}. Warnings and errors
+ * are always kept.
+ * </p>
+ *
+ * <p>
+ * Only the loggers under {@link #setLoggerPrefix(String) the logger
+ * prefix}, the application packages by default, are sampled; the logs of
+ * the frameworks and libraries keep their own levels.
+ * </p>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String loggerPrefix = "com.seti.technical_test.";
+
+    /**
+     * Sets the prefix of the names of the sampled loggers.
+     *
+     * @param loggerPrefix the logger name prefix
+     */
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN)
+                || logger == null || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        double rate = LogSamplingRates.rate(marker != null ? marker.getName() : null);
+        if (rate >= 1.0) {
+            return FilterReply.NEUTRAL;
+        }
+
+        if (rate <= 0.0) {
+            return FilterReply.DENY;
+        }
+
+        return ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,77 @@
+package com.seti.technical_test.infrastructure.metrics;
+
+import com.seti.technical_test.infrastructure.persistance.connection.WrappedConnectionFactories;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * {@link BeanPostProcessor} that instruments the R2DBC {@link ConnectionFactory}.
+ *
+ * <p>
+ * The factory is wrapped in an {@link InstrumentedConnectionFactory} to
+ * record acquire time and, when it is backed by a {@link ConnectionPool},
+ * gauges for the pending acquisitions and acquired connections are
+ * registered against the pool metrics.
+ * </p>
+ */
+public class ConnectionFactoryMetricsBeanPostProcessor implements BeanPostProcessor {
+
+    /**
+     * Lazily resolved registry, so this post-processor does not force the
+     * early initialization of the metrics infrastructure.
+     */
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ConnectionFactoryMetricsBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof ConnectionFactory connectionFactory) || bean instanceof InstrumentedConnectionFactory) {
+            return bean;
+        }
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return bean;
+        }
+
+        if (WrappedConnectionFactories.innermost(connectionFactory) instanceof ConnectionPool pool) {
+            pool.getMetrics().ifPresent(metrics -> registerPoolGauges(registry, beanName, metrics));
+        }
+
+        Timer acquireTimer = Timer.builder("app.r2dbc.connection.acquire")
+                .description("Time spent waiting for an R2DBC connection")
+                .tag("name", beanName)
+                .publishPercentileHistogram()
+                .register(registry);
+
+        return new InstrumentedConnectionFactory(connectionFactory, acquireTimer);
+    }
+
+    /**
+     * Registers the pool occupancy gauges.
+     *
+     * @param registry the meter registry
+     * @param beanName the connection factory bean name, used as tag
+     * @param metrics the pool metrics source
+     */
+    private void registerPoolGauges(MeterRegistry registry, String beanName, PoolMetrics metrics) {
+        Gauge.builder("app.r2dbc.pool.pending", metrics, PoolMetrics::pendingAcquireSize)
+                .description("Number of callers waiting for a pooled connection")
+                .tag("name", beanName)
+                .register(registry);
+
+        Gauge.builder("app.r2dbc.pool.acquired", metrics, PoolMetrics::acquiredSize)
+                .description("Number of pooled connections currently in use")
+                .tag("name", beanName)
+                .register(registry);
+    }
+}
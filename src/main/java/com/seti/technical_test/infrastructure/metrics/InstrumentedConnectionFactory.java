@@ -0,0 +1,71 @@
+package com.seti.technical_test.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConnectionFactory} decorator that measures how long callers wait
+ * to obtain a connection.
+ *
+ * <p>
+ * When the delegate is a pool, this is the pool acquire time, which grows
+ * as soon as the pool saturates. The decorator implements {@link Wrapped}
+ * so that infrastructure looking for the underlying pool can still find it,
+ * and {@link Disposable} so the pool is still released on shutdown.
+ * </p>
+ */
+public class InstrumentedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    /**
+     * The decorated connection factory.
+     */
+    private final ConnectionFactory delegate;
+
+    /**
+     * Timer that records connection acquisition latency.
+     */
+    private final Timer acquireTimer;
+
+    public InstrumentedConnectionFactory(ConnectionFactory delegate, Timer acquireTimer) {
+        this.delegate = delegate;
+        this.acquireTimer = acquireTimer;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.<Connection>from(delegate.create())
+                    .doFinally(signal -> acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate instanceof Disposable disposable && disposable.isDisposed();
+    }
+}
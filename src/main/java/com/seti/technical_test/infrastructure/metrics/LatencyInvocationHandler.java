@@ -0,0 +1,83 @@
+package com.seti.technical_test.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InvocationHandler} that records the latency of every port or
+ * use case method into a pre-registered Micrometer {@link Timer}.
+ *
+ * <p>
+ * Reactive results are timed from subscription until the terminal signal
+ * (complete, error or cancel), which is when the work is actually done.
+ * Timers are resolved once per method when the proxy is created, so the
+ * hot path performs a single map lookup and no registry access.
+ * </p>
+ */
+class LatencyInvocationHandler implements InvocationHandler {
+
+    /**
+     * The decorated bean.
+     */
+    private final Object target;
+
+    /**
+     * Timers indexed by the interface method they measure.
+     */
+    private final Map<Method, Timer> timers;
+
+    LatencyInvocationHandler(Object target, Map<Method, Timer> timers) {
+        this.target = target;
+        this.timers = timers;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Timer timer = timers.get(method);
+        Object result = invokeTarget(method, args);
+
+        if (timer == null) {
+            return result;
+        }
+
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return mono.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            });
+        }
+
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                long start = System.nanoTime();
+                return flux.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            });
+        }
+
+        return result;
+    }
+
+    /**
+     * Invokes the target method, unwrapping reflection errors so callers
+     * observe the original exception type.
+     *
+     * @param method the method to invoke
+     * @param args the invocation arguments
+     * @return the method result
+     * @throws Throwable the exception thrown by the target
+     */
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
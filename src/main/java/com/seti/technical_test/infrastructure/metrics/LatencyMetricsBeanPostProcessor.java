@@ -0,0 +1,95 @@
+package com.seti.technical_test.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link BeanPostProcessor} that decorates the beans implementing the
+ * configured interfaces (ports and use cases) with a latency-recording proxy.
+ *
+ * <p>
+ * Every method declared by a monitored interface gets its own
+ * {@link Timer} named {@code metricName}, tagged with the interface
+ * simple name and the method name, and publishing a percentile
+ * histogram so quantiles can be aggregated on the Prometheus side.
+ * </p>
+ *
+ * <p>
+ * Beans are consumed through their interfaces across the application,
+ * so a JDK dynamic proxy is enough and no AOP infrastructure is needed.
+ * </p>
+ */
+public class LatencyMetricsBeanPostProcessor implements BeanPostProcessor {
+
+    /**
+     * Lazily resolved registry, so this post-processor does not force the
+     * early initialization of the metrics infrastructure.
+     */
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * Name of the timers created by this post-processor.
+     */
+    private final String metricName;
+
+    /**
+     * Interfaces whose methods are timed.
+     */
+    private final List<Class<?>> monitoredInterfaces;
+
+    public LatencyMetricsBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                           String metricName,
+                                           List<Class<?>> monitoredInterfaces) {
+        this.meterRegistry = meterRegistry;
+        this.metricName = metricName;
+        this.monitoredInterfaces = monitoredInterfaces;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        List<Class<?>> matched = monitoredInterfaces.stream()
+                .filter(monitored -> monitored.isInstance(bean))
+                .toList();
+
+        if (matched.isEmpty()) {
+            return bean;
+        }
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return bean;
+        }
+
+        Map<Method, Timer> timers = new HashMap<>();
+        for (Class<?> monitored : matched) {
+            for (Method method : monitored.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+
+                timers.put(method, Timer.builder(metricName)
+                        .description("Latency of " + monitored.getSimpleName() + " operations")
+                        .tag("interface", monitored.getSimpleName())
+                        .tag("method", method.getName())
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+        }
+
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(bean.getClass());
+        return Proxy.newProxyInstance(
+                bean.getClass().getClassLoader(),
+                interfaces,
+                new LatencyInvocationHandler(bean, timers));
+    }
+}
@@ -0,0 +1,254 @@
+package com.seti.technical_test.infrastructure.persistance.adapter;
+
+import com.seti.technical_test.application.port.out.ChangeEventRepositoryPort;
+import com.seti.technical_test.domain.model.ChangeEvent;
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import com.seti.technical_test.domain.model.ChangeType;
+import com.seti.technical_test.infrastructure.config.OutboxProperties;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import io.r2dbc.spi.Readable;
+import lombok.AllArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Persistence adapter that implements {@link ChangeEventRepositoryPort}
+ * over the {@code outbox} table of every shard.
+ *
+ * <p>
+ * Each stream relays the outbox of every shard in batches: it pages
+ * through the rows after its position while full batches come back, then
+ * polls again after the configured interval. Streams only hold their own
+ * position, so any number of consumers can follow the feed at their own
+ * pace.
+ * </p>
+ *
+ * <p>
+ * Rows are paged in {@code (txid, id)} order and only below the oldest
+ * transaction still running, from the primary: an identifier is assigned
+ * before its transaction commits, so paging by identifier alone would skip
+ * for good an event committed after a higher one was relayed.
+ * </p>
+ */
+@Repository
+@AllArgsConstructor
+public class ChangeEventRepositoryAdapter implements ChangeEventRepositoryPort {
+
+    private static final String FIND_AFTER = """
+            SELECT id, CAST(CAST(txid AS TEXT) AS BIGINT) AS txid, aggregate_type, aggregate_id, event_type,
+                   payload::text AS payload, created_at
+            FROM outbox
+            WHERE (txid, id) > (CAST(CAST(:afterTxid AS TEXT) AS xid8), :afterId)
+              AND txid < pg_snapshot_xmin(pg_current_snapshot())
+            ORDER BY txid, id
+            LIMIT :limit
+            """;
+
+    private static final String FIND_OFFSET = """
+            SELECT CAST(CAST(last_txid AS TEXT) AS BIGINT) AS last_txid, last_id
+            FROM outbox_consumer_offset
+            WHERE consumer = :consumer
+            """;
+
+    private static final String SAVE_OFFSET = """
+            INSERT INTO outbox_consumer_offset AS o (consumer, last_txid, last_id)
+            VALUES (:consumer, CAST(CAST(:txid AS TEXT) AS xid8), :offset)
+            ON CONFLICT (consumer) DO UPDATE
+            SET last_txid = EXCLUDED.last_txid,
+                last_id = EXCLUDED.last_id,
+                updated_at = now()
+            WHERE (EXCLUDED.last_txid, EXCLUDED.last_id) > (o.last_txid, o.last_id)
+            """;
+
+    /**
+     * Transactions with an identifier below the oldest one still running
+     * are all finished.
+     */
+    private static final String FIND_VERSION = """
+            SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT) AS version
+            """;
+
+    private static final String FIND_BY_FRANCHISE_SINCE = """
+            SELECT *
+            FROM (SELECT DISTINCT ON (aggregate_type, aggregate_id)
+                         id, CAST(CAST(txid AS TEXT) AS BIGINT) AS txid, aggregate_type, aggregate_id, event_type,
+                         payload::text AS payload, created_at
+                  FROM outbox
+                  WHERE franchise_id = :franchiseId
+                    AND txid >= CAST(CAST(:since AS TEXT) AS xid8)
+                  ORDER BY aggregate_type, aggregate_id, id DESC) latest
+            ORDER BY id
+            """;
+
+    /**
+     * Client used to read the outbox and the offsets.
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Resolver of the shards holding an outbox.
+     */
+    private final ShardResolver shardResolver;
+
+    /**
+     * Relay batch size and polling interval.
+     */
+    private final OutboxProperties properties;
+
+    /**
+     * Retrieves the offsets of a consumer, one per shard.
+     *
+     * @param consumer the consumer name
+     * @return a {@link Mono} emitting the offset of each shard
+     */
+    @Override
+    public Mono<Map<Integer, ChangeEventPosition>> findOffsets(String consumer) {
+        return Flux.range(0, shardResolver.shardCount())
+                .flatMap(shard -> shardResolver.onShard(shard, databaseClient.sql(FIND_OFFSET)
+                                .bind("consumer", consumer)
+                                .map(row -> new ChangeEventPosition(row.get("last_txid", Long.class),
+                                        row.get("last_id", Long.class)))
+                                .one())
+                        .defaultIfEmpty(ChangeEventPosition.START)
+                        .map(offset -> Map.entry(shard, offset)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Relays the outbox of every shard after the given offsets, from the
+     * primaries: the oldest running transaction of a replica may be ahead
+     * of the events it has replayed.
+     *
+     * @param offsets the position to start after, per shard
+     * @return an endless {@link Flux} of events, ordered within each shard
+     */
+    @Override
+    public Flux<ChangeEvent> streamAfter(Map<Integer, ChangeEventPosition> offsets) {
+        return Flux.range(0, shardResolver.shardCount())
+                .flatMap(shard -> relay(shard, offsets.getOrDefault(shard, ChangeEventPosition.START)),
+                        shardResolver.shardCount());
+    }
+
+    /**
+     * Stores the offset of a consumer on a shard, never moving it backwards.
+     *
+     * @param consumer the consumer name
+     * @param shard    the shard
+     * @param offset   the position of the last processed event
+     * @return a {@link Mono} that completes once the offset is stored
+     */
+    @Override
+    public Mono<Void> saveOffset(String consumer, Integer shard, ChangeEventPosition offset) {
+        if (shard == null || shard < 0 || shard >= shardResolver.shardCount()) {
+            return Mono.error(new GeneralException("Unknown shard [" + shard + "]"));
+        }
+
+        return shardResolver.onShard(shard, databaseClient.sql(SAVE_OFFSET)
+                .bind("consumer", consumer)
+                .bind("txid", offset.txid())
+                .bind("offset", offset.id())
+                .then());
+    }
+
+    /**
+     * Retrieves the current version of the feed of a franchise: the oldest
+     * transaction still running on its shard. Every event below it is
+     * committed, whatever order the transactions committed in. Read from
+     * the primary, as a replica may not have replayed those events yet.
+     *
+     * @param franchiseId the franchise identifier
+     * @return a {@link Mono} emitting the version
+     */
+    @Override
+    public Mono<Long> findVersion(Long franchiseId) {
+        return shardResolver.onShard(shardResolver.shardOf(franchiseId), databaseClient.sql(FIND_VERSION)
+                .map(row -> row.get("version", Long.class))
+                .one());
+    }
+
+    /**
+     * Retrieves the latest event of every aggregate of a franchise written
+     * by a transaction at or after the given version, through the
+     * {@code (franchise_id, txid)} index. Also read from the primary, so
+     * no event below a version it returned can be missing.
+     *
+     * @param franchiseId the franchise identifier
+     * @param since       a version previously returned by {@link #findVersion(Long)}, or {@code 0}
+     * @return a {@link Flux} of events, in the order they were recorded
+     */
+    @Override
+    public Flux<ChangeEvent> findByFranchiseSince(Long franchiseId, Long since) {
+        int shard = shardResolver.shardOf(franchiseId);
+
+        return shardResolver.onShard(shard, databaseClient.sql(FIND_BY_FRANCHISE_SINCE)
+                .bind("franchiseId", franchiseId)
+                .bind("since", since)
+                .map(row -> toDomain(shard, row))
+                .all());
+    }
+
+    /**
+     * Relays the outbox of one shard: on every tick, drains the rows after
+     * the current position in batches.
+     */
+    private Flux<ChangeEvent> relay(int shard, ChangeEventPosition after) {
+        AtomicReference<ChangeEventPosition> position = new AtomicReference<>(after);
+        Duration pollInterval = properties.pollInterval();
+
+        return Flux.interval(Duration.ZERO, pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> drain(shard, position), 1);
+    }
+
+    private Flux<ChangeEvent> drain(int shard, AtomicReference<ChangeEventPosition> position) {
+        int batchSize = properties.batchSize();
+
+        return batch(shard, position)
+                .expand(events -> events.size() < batchSize ? Mono.empty() : batch(shard, position))
+                .concatMapIterable(events -> events);
+    }
+
+    private Mono<List<ChangeEvent>> batch(int shard, AtomicReference<ChangeEventPosition> position) {
+        return shardResolver.onShard(shard, Flux.defer(() -> databaseClient.sql(FIND_AFTER)
+                        .bind("afterTxid", position.get().txid())
+                        .bind("afterId", position.get().id())
+                        .bind("limit", properties.batchSize())
+                        .map(row -> toDomain(shard, row))
+                        .all()))
+                .collectList()
+                .doOnNext(events -> {
+                    if (!events.isEmpty()) {
+                        position.set(events.getLast().position());
+                    }
+                });
+    }
+
+    /**
+     * Maps an outbox row to a {@link ChangeEvent}.
+     *
+     * @param shard the shard the row was read from
+     * @param row   the outbox row
+     * @return the change event
+     */
+    private ChangeEvent toDomain(int shard, Readable row) {
+        return new ChangeEvent(
+                row.get("id", Long.class),
+                row.get("txid", Long.class),
+                shard,
+                row.get("aggregate_type", String.class),
+                row.get("aggregate_id", Long.class),
+                ChangeType.valueOf(row.get("event_type", String.class)),
+                row.get("payload", String.class),
+                row.get("created_at", OffsetDateTime.class).toInstant()
+        );
+    }
+}
@@ -1,11 +1,16 @@
 package com.seti.technical_test.infrastructure.persistance.adapter;
 
 import com.seti.technical_test.application.port.out.FranchiseRepositoryPort;
+import com.seti.technical_test.domain.model.ChangeType;
 import com.seti.technical_test.domain.model.Franchise;
+import com.seti.technical_test.infrastructure.persistance.connection.ReadOnlyRouting;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
 import com.seti.technical_test.infrastructure.persistance.entity.FranchiseEntity;
+import com.seti.technical_test.infrastructure.persistance.outbox.OutboxRecorder;
 import com.seti.technical_test.infrastructure.persistance.repository.FranchiseRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Mono;
 
 /**
@@ -33,6 +38,21 @@ public class FranchiseRepositoryAdapter implements FranchiseRepositoryPort {
      */
     private final FranchiseRepository franchiseRepository;
 
+    /**
+     * Resolver of the shard holding each franchise.
+     */
+    private final ShardResolver shardResolver;
+
+    /**
+     * Transaction shared by each change and its outbox event.
+     */
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Writer of the change events.
+     */
+    private final OutboxRecorder outboxRecorder;
+
     /**
      * Retrieves a franchise by its unique identifier.
      *
@@ -40,9 +60,10 @@ public class FranchiseRepositoryAdapter implements FranchiseRepositoryPort {
      * @return a {@link Mono} emitting the franchise if found, or empty if not found
      */
     @Override
-    public Mono<Franchise> findById(Integer id) {
-        return franchiseRepository.findById(id)
-                .map(this::toDomain);
+    public Mono<Franchise> findById(Long id) {
+        return shardResolver.onShard(shardResolver.shardOf(id), franchiseRepository.findById(id))
+                .map(this::toDomain)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
     }
 
     /**
@@ -54,7 +75,9 @@ public class FranchiseRepositoryAdapter implements FranchiseRepositoryPort {
      */
     @Override
     public Mono<Boolean> existsByName(String name) {
-        return franchiseRepository.existsByName(name);
+        return shardResolver.onEveryShard(() -> franchiseRepository.existsByName(name))
+                .any(Boolean::booleanValue)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
     }
 
     /**
@@ -65,8 +88,10 @@ public class FranchiseRepositoryAdapter implements FranchiseRepositoryPort {
      */
     @Override
     public Mono<Franchise> findByName(String name) {
-        return franchiseRepository.findByName(name)
-                .map(this::toDomain);
+        return shardResolver.onEveryShard(() -> franchiseRepository.findByName(name))
+                .next()
+                .map(this::toDomain)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
     }
 
     /**
@@ -74,7 +99,9 @@ public class FranchiseRepositoryAdapter implements FranchiseRepositoryPort {
      *
      * <p>
      * The domain model is first mapped to a persistence entity before
-     * being saved using the underlying Spring Data repository.
+     * being saved using the underlying Spring Data repository. New
+     * franchises are placed on a shard chosen from their name; existing
+     * ones stay on the shard encoded in their identifier.
      * </p>
      *
      * @param franchise the franchise domain model to be persisted
@@ -87,8 +114,15 @@ public class FranchiseRepositoryAdapter implements FranchiseRepositoryPort {
                 .name(franchise.name())
                 .build();
 
-        return franchiseRepository.save(entity)
-                .map(this::toDomain);
+        int shard = franchise.id() == null
+                ? shardResolver.shardForNewFranchise(franchise.name())
+                : shardResolver.shardOf(franchise.id());
+
+        ChangeType type = franchise.id() == null ? ChangeType.CREATED : ChangeType.UPDATED;
+
+        return shardResolver.onShard(shard, transactionalOperator.transactional(franchiseRepository.save(entity)
+                .map(this::toDomain)
+                .flatMap(saved -> outboxRecorder.franchise(type, saved).thenReturn(saved))));
     }
 
     /**
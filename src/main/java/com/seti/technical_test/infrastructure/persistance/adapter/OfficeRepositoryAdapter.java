@@ -1,11 +1,19 @@
 package com.seti.technical_test.infrastructure.persistance.adapter;
 
 import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
+import com.seti.technical_test.domain.model.ChangeType;
 import com.seti.technical_test.domain.model.Office;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.persistance.analytics.StockRankingIndex;
+import com.seti.technical_test.infrastructure.persistance.cache.TopStockCache;
+import com.seti.technical_test.infrastructure.persistance.connection.ReadOnlyRouting;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
 import com.seti.technical_test.infrastructure.persistance.entity.OfficeEntity;
+import com.seti.technical_test.infrastructure.persistance.outbox.OutboxRecorder;
 import com.seti.technical_test.infrastructure.persistance.repository.OfficeRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -34,6 +42,32 @@ public class OfficeRepositoryAdapter implements OfficeRepositoryPort {
      */
     private final OfficeRepository officeRepository;
 
+    /**
+     * Resolver of the shard holding each office.
+     */
+    private final ShardResolver shardResolver;
+
+    /**
+     * Transaction shared by each change and its outbox event.
+     */
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Writer of the change events.
+     */
+    private final OutboxRecorder outboxRecorder;
+
+    /**
+     * Cache of the top-stock ranking, invalidated when the offices of a
+     * franchise change.
+     */
+    private final TopStockCache topStockCache;
+
+    /**
+     * In-memory stock ranking, told the franchise of written offices.
+     */
+    private final StockRankingIndex stockRankingIndex;
+
     /**
      * Retrieves an {@link Office} by its unique identifier.
      *
@@ -41,9 +75,10 @@ public class OfficeRepositoryAdapter implements OfficeRepositoryPort {
      * @return a {@link Mono} emitting the office if found, or empty if not found
      */
     @Override
-    public Mono<Office> findById(Integer id) {
-        return officeRepository.findById(id)
-                .map(this::toDomain);
+    public Mono<Office> findById(Long id) {
+        return shardResolver.onShard(shardResolver.shardOf(id), officeRepository.findById(id))
+                .map(this::toDomain)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
     }
 
     /**
@@ -55,7 +90,9 @@ public class OfficeRepositoryAdapter implements OfficeRepositoryPort {
      */
     @Override
     public Mono<Boolean> existsByName(String name) {
-        return officeRepository.existsByName(name);
+        return shardResolver.onEveryShard(() -> officeRepository.existsByName(name))
+                .any(Boolean::booleanValue)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
     }
 
     /**
@@ -66,8 +103,10 @@ public class OfficeRepositoryAdapter implements OfficeRepositoryPort {
      */
     @Override
     public Mono<Office> findByName(String name) {
-        return officeRepository.findByName(name)
-                .map(this::toDomain);
+        return shardResolver.onEveryShard(() -> officeRepository.findByName(name))
+                .next()
+                .map(this::toDomain)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
     }
 
     /**
@@ -75,7 +114,9 @@ public class OfficeRepositoryAdapter implements OfficeRepositoryPort {
      *
      * <p>
      * The domain model is mapped to a persistence entity before being
-     * saved using the underlying Spring Data repository.
+     * saved using the underlying Spring Data repository, on the shard of
+     * the franchise the office belongs to. An existing office cannot be
+     * moved to a franchise of another shard.
      * </p>
      *
      * @param office the office domain model to be persisted
@@ -83,13 +124,24 @@ public class OfficeRepositoryAdapter implements OfficeRepositoryPort {
      */
     @Override
     public Mono<Office> save(Office office) {
+        if (shardResolver.movesAcrossShards(office.id(), office.franchiseId())) {
+            return Mono.error(new GeneralException("The office cannot be moved to a franchise of another shard"));
+        }
+
         OfficeEntity entity = OfficeEntity.builder()
                 .id(office.id())
                 .name(office.name())
+                .franchiseId(office.franchiseId())
                 .build();
 
-        return officeRepository.save(entity)
-                .map(this::toDomain);
+        ChangeType type = office.id() == null ? ChangeType.CREATED : ChangeType.UPDATED;
+
+        return shardResolver.onShard(shardResolver.shardOf(office.franchiseId()),
+                        transactionalOperator.transactional(officeRepository.save(entity)
+                                .map(this::toDomain)
+                                .flatMap(saved -> outboxRecorder.office(type, saved).thenReturn(saved))))
+                .doOnNext(saved -> stockRankingIndex.putOffice(saved.id(), saved.franchiseId()))
+                .doFinally(signal -> topStockCache.invalidateFranchise(office.id(), office.franchiseId()));
     }
 
     /**
@@ -99,9 +151,23 @@ public class OfficeRepositoryAdapter implements OfficeRepositoryPort {
      * @return a {@link Flux} emitting the offices belonging to the specified franchise
      */
     @Override
-    public Flux<Office> findByFranchiseId(Integer franchiseId) {
-        return officeRepository.findByFranchiseId(franchiseId)
-                .map(this::toDomain);
+    public Flux<Office> findByFranchiseId(Long franchiseId) {
+        return shardResolver.onShard(shardResolver.shardOf(franchiseId), officeRepository.findByFranchiseId(franchiseId))
+                .map(this::toDomain)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
+    }
+
+    /**
+     * Sets the low-stock threshold of an office, on the shard holding it.
+     *
+     * @param id        the unique identifier of the office
+     * @param threshold the new threshold, or {@code null} to use the default one
+     * @return a {@link Mono} that completes once the threshold is stored
+     */
+    @Override
+    public Mono<Void> updateLowStockThreshold(Long id, Integer threshold) {
+        return shardResolver.onShard(shardResolver.shardOf(id), officeRepository.updateLowStockThreshold(id, threshold))
+                .then();
     }
 
     /**
@@ -1,14 +1,34 @@
 package com.seti.technical_test.infrastructure.persistance.adapter;
 
 import com.seti.technical_test.application.port.out.ProductRepositoryPort;
+import com.seti.technical_test.domain.model.ChangeType;
 import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.persistance.analytics.StockRankingIndex;
+import com.seti.technical_test.infrastructure.persistance.cache.TopStockCache;
+import com.seti.technical_test.infrastructure.persistance.connection.ReadOnlyRouting;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.entity.OfficeEntity;
 import com.seti.technical_test.infrastructure.persistance.entity.ProductEntity;
+import com.seti.technical_test.infrastructure.persistance.id.HiLoIdAllocator;
+import com.seti.technical_test.infrastructure.persistance.outbox.OutboxRecorder;
+import com.seti.technical_test.infrastructure.persistance.repository.OfficeRepository;
 import com.seti.technical_test.infrastructure.persistance.repository.ProductRepository;
+import com.seti.technical_test.infrastructure.persistance.search.ProductNameIndex;
+import com.seti.technical_test.infrastructure.persistance.writebehind.StockWriteBehindBuffer;
+import io.r2dbc.spi.Readable;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Comparator;
+import java.util.List;
+
 /**
  * Persistence adapter that implements {@link ProductRepositoryPort}
  * using Spring Data R2DBC.
@@ -29,11 +49,118 @@ import reactor.core.publisher.Mono;
 @AllArgsConstructor
 public class ProductRepositoryAdapter implements ProductRepositoryPort {
 
+    /**
+     * Name search: the names starting with the text, through the
+     * {@code text_pattern_ops} index, then the names sharing enough
+     * trigrams with it, through the trigram index. The prefix is matched as
+     * a range, so the index is usable by a generic plan; resemblance is
+     * only looked for once the text is three characters long. Each branch
+     * is limited before the union, and a product found by both keeps its
+     * prefix rank. {@code %1$s} is replaced by the scope condition.
+     */
+    private static final String SEARCH = """
+            SELECT id, name, stock, office_id, rank, distance
+            FROM (SELECT DISTINCT ON (id) id, name, stock, office_id, rank, distance
+                  FROM ((SELECT p.id, p.name, p.stock, p.office_id, 0 AS rank, CAST(0 AS REAL) AS distance
+                         FROM product p
+                         WHERE p.name ~>=~ :prefix
+                           AND p.name ~<~ :prefixEnd
+                           %1$s
+                         ORDER BY p.name
+                         LIMIT :limit)
+                        UNION ALL
+                        (SELECT p.id, p.name, p.stock, p.office_id, 1 AS rank, p.name <-> :query AS distance
+                         FROM product p
+                         WHERE char_length(:query) >= 3
+                           AND p.name %% :query
+                           %1$s
+                         ORDER BY distance
+                         LIMIT :limit)) matches
+                  ORDER BY id, rank) unique_matches
+            ORDER BY rank, distance, name
+            LIMIT :limit
+            """;
+
+    private static final String SEARCH_ALL = SEARCH.formatted("");
+
+    private static final String SEARCH_OFFICE = SEARCH.formatted("AND p.office_id = :officeId");
+
+    private static final String SEARCH_FRANCHISE = SEARCH.formatted(
+            "AND p.office_id IN (SELECT o.id FROM office o WHERE o.franchise_id = :franchiseId)");
+
+    /**
+     * Position of a product in its office, counted through the
+     * {@code (office_id, stock DESC)} index: the products with more stock,
+     * or as much and a lower id, come first.
+     */
+    private static final String STOCK_RANK = """
+            SELECT count(*) FILTER (WHERE stock > :stock OR (stock = :stock AND id < :id)) + 1 AS rank,
+                   count(*) AS office_products
+            FROM product
+            WHERE office_id = :officeId
+            """;
+
+    private static final Comparator<SearchMatch> SEARCH_ORDER = Comparator.comparingInt(SearchMatch::rank)
+            .thenComparingDouble(SearchMatch::distance)
+            .thenComparing(match -> match.product().name());
+
     /**
      * Spring Data R2DBC repository used to interact with the database.
      */
     private final ProductRepository productRepository;
 
+    /**
+     * Resolver of the shard holding each product.
+     */
+    private final ShardResolver shardResolver;
+
+    /**
+     * Client used for the batched inserts.
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Allocator of the identifiers of new products.
+     */
+    private final HiLoIdAllocator productIdAllocator;
+
+    /**
+     * Write-behind buffer of stock changes, available only when enabled.
+     */
+    private final ObjectProvider<StockWriteBehindBuffer> stockWriteBehindBuffer;
+
+    /**
+     * Transaction shared by each change and its outbox event.
+     */
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Writer of the change events.
+     */
+    private final OutboxRecorder outboxRecorder;
+
+    /**
+     * Repository used to list the offices of a franchise when its ranking
+     * is loaded.
+     */
+    private final OfficeRepository officeRepository;
+
+    /**
+     * Cache of the top-stock ranking, invalidated by every product write.
+     */
+    private final TopStockCache topStockCache;
+
+    /**
+     * In-memory index answering prefix searches, when enabled and loaded.
+     */
+    private final ProductNameIndex productNameIndex;
+
+    /**
+     * In-memory stock ranking of every office, kept current by the writes
+     * of this adapter.
+     */
+    private final StockRankingIndex stockRankingIndex;
+
     /**
      * Retrieves a {@link Product} by its unique identifier.
      *
@@ -41,9 +168,11 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
      * @return a {@link Mono} emitting the product if found, or empty if not found
      */
     @Override
-    public Mono<Product> findById(Integer id) {
-        return productRepository.findById(id)
-                .map(this::toDomain);
+    public Mono<Product> findById(Long id) {
+        return shardResolver.onShard(shardResolver.shardOf(id), productRepository.findById(id))
+                .map(this::toDomain)
+                .map(this::withBufferedStock)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
     }
 
     /**
@@ -55,7 +184,9 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
      */
     @Override
     public Mono<Boolean> existsByName(String name) {
-        return productRepository.existsByName(name);
+        return shardResolver.onEveryShard(() -> productRepository.existsByName(name))
+                .any(Boolean::booleanValue)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
     }
 
     /**
@@ -66,8 +197,10 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
      */
     @Override
     public Mono<Product> findByName(String name) {
-        return productRepository.findByName(name)
-                .map(this::toDomain);
+        return shardResolver.onEveryShard(() -> productRepository.findByName(name))
+                .next()
+                .map(this::toDomain)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
     }
 
     /**
@@ -75,7 +208,11 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
      *
      * <p>
      * The domain model is mapped to a persistence entity before being
-     * saved using the underlying Spring Data repository.
+     * saved using the underlying Spring Data repository, on the shard of
+     * the office the product belongs to. When the stock write-behind
+     * buffer is enabled, the stock of an existing product is changed
+     * through the buffer instead. An existing product cannot be moved to
+     * an office of another shard.
      * </p>
      *
      * @param product the product domain model to be persisted
@@ -83,6 +220,19 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
      */
     @Override
     public Mono<Product> save(Product product) {
+        StockWriteBehindBuffer buffer = stockWriteBehindBuffer.getIfAvailable();
+        if (buffer != null && product.id() != null) {
+            return saveBuffered(buffer, product);
+        }
+
+        return saveDirect(product);
+    }
+
+    private Mono<Product> saveDirect(Product product) {
+        if (shardResolver.movesAcrossShards(product.id(), product.officeId())) {
+            return Mono.error(new GeneralException("The product cannot be moved to an office of another shard"));
+        }
+
         ProductEntity entity = ProductEntity.builder()
                 .id(product.id())
                 .name(product.name())
@@ -90,8 +240,150 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
                 .officeId(product.officeId())
                 .build();
 
-        return productRepository.save(entity)
-                .map(this::toDomain);
+        ChangeType type = product.id() == null ? ChangeType.CREATED : ChangeType.UPDATED;
+
+        return shardResolver.onShard(shardResolver.shardOf(product.officeId()),
+                        transactionalOperator.transactional(productRepository.save(entity)
+                                .map(this::toDomain)
+                                .flatMap(saved -> outboxRecorder.product(type, saved).thenReturn(saved))))
+                .doOnNext(stockRankingIndex::put)
+                .doFinally(signal -> topStockCache.invalidateOffice(product.officeId()));
+    }
+
+    /**
+     * Updates an existing product while the write-behind buffer is enabled.
+     *
+     * <p>
+     * Writing the stock column directly would be overwritten, or added to,
+     * by the buffered changes, so the new stock goes through the buffer as
+     * the difference with the stored stock plus the buffered changes. Only
+     * the name is written in place. The product is read on the shard it is
+     * stored on; moving it to another office bypasses the buffer, and
+     * changes still buffered for the former office are lost.
+     * </p>
+     */
+    private Mono<Product> saveBuffered(StockWriteBehindBuffer buffer, Product product) {
+        int shard = shardResolver.shardOf(product.id());
+
+        return shardResolver.onShard(shard, productRepository.findById(product.id()))
+                .flatMap(stored -> {
+                    if (!stored.getOfficeId().equals(product.officeId())) {
+                        return saveDirect(product);
+                    }
+
+                    Mono<Void> rename = stored.getName().equals(product.name())
+                            ? Mono.empty()
+                            : shardResolver.onShard(shard, transactionalOperator.transactional(
+                                    productRepository.rename(product.id(), product.officeId(), product.name())
+                                            .then(outboxRecorder.product(ChangeType.UPDATED, product))));
+                    Mono<Integer> adjust = buffer.update(product.id(), product.officeId(), storedStock(product.id()),
+                            current -> product.stock());
+
+                    return rename.then(adjust).thenReturn(product)
+                            .doOnNext(stockRankingIndex::put)
+                            .doFinally(signal -> topStockCache.invalidateOffice(product.officeId()));
+                });
+    }
+
+    /**
+     * Adds a delta to the stock of a product.
+     *
+     * <p>
+     * With the write-behind buffer enabled, the change is appended to the
+     * local log and coalesced with the other changes of the product until
+     * the next flush; the stock is checked against the stored stock plus
+     * the changes still buffered, atomically with the append. Otherwise it
+     * is a single in-place {@code UPDATE}.
+     * </p>
+     *
+     * @param product the product, as currently stored
+     * @param delta   the change applied to the stock
+     * @return a {@link Mono} emitting the product with its adjusted stock,
+     *         or empty if the stock would become negative
+     */
+    @Override
+    public Mono<Product> adjustStock(Product product, int delta) {
+        StockWriteBehindBuffer buffer = stockWriteBehindBuffer.getIfAvailable();
+        if (buffer != null) {
+            return buffer.update(product.id(), product.officeId(), storedStock(product.id()), stock -> stock + delta)
+                    .map(stock -> new Product(product.id(), product.name(), stock, product.officeId()))
+                    .doOnNext(stockRankingIndex::put)
+                    .doFinally(signal -> topStockCache.invalidateOffice(product.officeId()));
+        }
+
+        return shardResolver.onShard(shardResolver.shardOf(product.officeId()), transactionalOperator.transactional(
+                        productRepository.adjustStock(product.id(), product.officeId(), delta)
+                                .map(this::toDomain)
+                                .flatMap(adjusted -> outboxRecorder.product(ChangeType.UPDATED, adjusted).thenReturn(adjusted))))
+                .doOnNext(stockRankingIndex::put)
+                .doFinally(signal -> topStockCache.invalidateOffice(product.officeId()));
+    }
+
+    /**
+     * Persists a batch of new products.
+     *
+     * <p>
+     * Identifiers are allocated locally from {@link HiLoIdAllocator} blocks,
+     * so each shard receives a single {@code INSERT} whose rows are passed
+     * as arrays and expanded with {@code unnest}, instead of one
+     * {@code INSERT ... RETURNING} per product.
+     * </p>
+     *
+     * @param products the new products
+     * @return a {@link Flux} emitting the persisted products with their identifiers
+     */
+    @Override
+    public Flux<Product> saveAll(List<Product> products) {
+        return Flux.fromIterable(products)
+                .groupBy(product -> shardResolver.shardOf(product.officeId()))
+                .flatMap(shard -> shard
+                        .concatMap(product -> productIdAllocator.nextId(shard.key())
+                                .map(id -> new Product(id, product.name(), product.stock(), product.officeId())))
+                        .collectList()
+                        .flatMapMany(batch -> shardResolver.onShard(shard.key(), transactionalOperator.transactional(
+                                        insert(batch).then(outboxRecorder.products(ChangeType.CREATED, batch))))
+                                .doFinally(signal -> batch.stream()
+                                        .map(Product::officeId)
+                                        .distinct()
+                                        .forEach(topStockCache::invalidateOffice))
+                                .thenMany(Flux.fromIterable(batch))
+                                .doOnNext(stockRankingIndex::put)));
+    }
+
+    /**
+     * Inserts products that already have their identifiers in one statement.
+     *
+     * @param batch the products to insert
+     * @return a {@link Mono} that completes once the rows are written
+     */
+    private Mono<Void> insert(List<Product> batch) {
+        int size = batch.size();
+        Long[] ids = new Long[size];
+        String[] names = new String[size];
+        Integer[] stocks = new Integer[size];
+        Long[] officeIds = new Long[size];
+
+        for (int i = 0; i < size; i++) {
+            Product product = batch.get(i);
+            ids[i] = product.id();
+            names[i] = product.name();
+            stocks[i] = product.stock();
+            officeIds[i] = product.officeId();
+        }
+
+        return databaseClient.sql("""
+                        INSERT INTO product (id, name, stock, office_id)
+                        SELECT *
+                        FROM unnest(CAST(:ids AS BIGINT[]), CAST(:names AS VARCHAR[]),
+                                    CAST(:stocks AS INTEGER[]), CAST(:officeIds AS BIGINT[]))
+                        """)
+                .bind("ids", ids)
+                .bind("names", names)
+                .bind("stocks", stocks)
+                .bind("officeIds", officeIds)
+                .fetch()
+                .rowsUpdated()
+                .then();
     }
 
     /**
@@ -114,19 +406,197 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
                 .officeId(product.officeId())
                 .build();
 
-        return productRepository.delete(entity);
+        return shardResolver.onShard(shardResolver.shardOf(product.id()), transactionalOperator.transactional(
+                        productRepository.delete(entity).then(outboxRecorder.product(ChangeType.DELETED, product))))
+                .doOnSuccess(deleted -> stockRankingIndex.remove(product.id()))
+                .doFinally(signal -> topStockCache.invalidateOffice(product.officeId()));
     }
 
     /**
-     * Retrieves the products with the highest stock for a given office or franchise.
+     * Retrieves the {@code k} products with the highest stock of each
+     * office of a franchise, from the {@link StockRankingIndex} once it is
+     * loaded, or through the {@link TopStockCache}.
+     *
+     * <p>
+     * Cached rankings are loaded from the primary: one loaded from a
+     * lagging replica right after an invalidation would keep the state
+     * from before the write for the whole time to live. Without the cache
+     * the ranking is read from a replica.
+     * </p>
      *
-     * @param franchiseId the unique identifier of the franchise or office
+     * @param franchiseId the unique identifier of the franchise
+     * @param k           the number of products per office
      * @return a {@link Flux} emitting the products with the highest stock
      */
     @Override
-    public Flux<Product> findTopStockByOffice(Integer franchiseId) {
-        return productRepository.findTopStockByOffice(franchiseId)
-                .map(this::toDomain);
+    public Flux<Product> findTopStockByOffice(Long franchiseId, int k) {
+        if (stockRankingIndex.isReady()) {
+            return Flux.defer(() -> Flux.fromIterable(stockRankingIndex.findTopStockByOffice(franchiseId, k)));
+        }
+
+        int shard = shardResolver.shardOf(franchiseId);
+
+        Flux<Product> ranking = topStockCache.get(franchiseId, k,
+                () -> shardResolver.onShard(shard, officeRepository.findByFranchiseId(franchiseId))
+                        .map(OfficeEntity::getId),
+                () -> shardResolver.onShard(shard, productRepository.findTopStockByOffice(franchiseId, k))
+                        .map(this::toDomain));
+
+        return topStockCache.isEnabled() ? ranking : ranking.contextWrite(ReadOnlyRouting.READ_ONLY);
+    }
+
+    /**
+     * Retrieves the position of a product in the stock ranking of its
+     * office, from the {@link StockRankingIndex} once it is loaded, or by
+     * counting on a replica the products ranked before it.
+     *
+     * @param product the product, as currently stored
+     * @return a {@link Mono} emitting the rank of the product
+     */
+    @Override
+    public Mono<ProductRank> findStockRank(Product product) {
+        if (stockRankingIndex.isReady()) {
+            ProductRank rank = stockRankingIndex.findRank(product.id());
+            if (rank != null) {
+                return Mono.just(rank);
+            }
+        }
+
+        return shardResolver.onShard(shardResolver.shardOf(product.officeId()), databaseClient.sql(STOCK_RANK)
+                        .bind("stock", product.stock())
+                        .bind("id", product.id())
+                        .bind("officeId", product.officeId())
+                        .map(row -> new ProductRank(product.id(), product.officeId(), product.stock(),
+                                row.get("rank", Long.class), row.get("office_products", Long.class)))
+                        .one())
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
+    }
+
+    /**
+     * Retrieves the products of an office whose stock is within a range,
+     * from the {@link StockRankingIndex} once it is loaded, or through the
+     * {@code (office_id, stock DESC)} index on a replica.
+     *
+     * @param officeId the unique identifier of the office
+     * @param minStock the lowest stock, inclusive
+     * @param maxStock the highest stock, inclusive
+     * @param limit    the maximum number of products
+     * @return a {@link Flux} emitting the products, by descending stock and then by id
+     */
+    @Override
+    public Flux<Product> findByStockRange(Long officeId, int minStock, int maxStock, int limit) {
+        if (stockRankingIndex.isReady()) {
+            return Flux.defer(() -> Flux.fromIterable(stockRankingIndex.findByStockRange(officeId, minStock, maxStock, limit)));
+        }
+
+        return shardResolver.onShard(shardResolver.shardOf(officeId),
+                        productRepository.findByStockRange(officeId, minStock, maxStock, limit))
+                .map(this::toDomain)
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
+    }
+
+    /**
+     * Searches products by name.
+     *
+     * <p>
+     * When the in-memory name index is loaded and the search is not scoped
+     * to a franchise, the prefix matches are read from memory; the database
+     * is only queried if they do not fill the page, to add the names that
+     * resemble the text. Otherwise the search runs on a replica, on the
+     * shard of the office or franchise, or on every shard with the results
+     * merged in the same order.
+     * </p>
+     *
+     * @param query       the upper-case search text
+     * @param officeId    the office to search in, or {@code null}
+     * @param franchiseId the franchise to search in, or {@code null}
+     * @param limit       the maximum number of products
+     * @return a {@link Flux} emitting the best matches, at most {@code limit}
+     */
+    @Override
+    public Flux<Product> searchByName(String query, Long officeId, Long franchiseId, int limit) {
+        if (franchiseId == null && productNameIndex.isReady()) {
+            List<Product> matches = productNameIndex.findByPrefix(query, officeId, limit);
+            if (matches.size() == limit) {
+                return Flux.fromIterable(matches)
+                        .map(this::withBufferedStock);
+            }
+        }
+
+        Flux<SearchMatch> matches;
+        if (officeId != null) {
+            matches = shardResolver.onShard(shardResolver.shardOf(officeId),
+                    search(SEARCH_OFFICE, query, limit).bind("officeId", officeId).map(this::toSearchMatch).all());
+        } else if (franchiseId != null) {
+            matches = shardResolver.onShard(shardResolver.shardOf(franchiseId),
+                    search(SEARCH_FRANCHISE, query, limit).bind("franchiseId", franchiseId).map(this::toSearchMatch).all());
+        } else {
+            matches = shardResolver.onEveryShard(() -> search(SEARCH_ALL, query, limit).map(this::toSearchMatch).all())
+                    .sort(SEARCH_ORDER)
+                    .take(limit);
+        }
+
+        return matches
+                .map(match -> withBufferedStock(match.product()))
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
+    }
+
+    private DatabaseClient.GenericExecuteSpec search(String sql, String query, int limit) {
+        return databaseClient.sql(sql)
+                .bind("query", query)
+                .bind("prefix", query)
+                .bind("prefixEnd", prefixEnd(query))
+                .bind("limit", limit);
+    }
+
+    /**
+     * Smallest string greater than every string starting with the prefix.
+     */
+    private static String prefixEnd(String prefix) {
+        int last = prefix.codePointBefore(prefix.length());
+        return prefix.substring(0, prefix.length() - Character.charCount(last))
+                + Character.toString(last + 1);
+    }
+
+    private SearchMatch toSearchMatch(Readable row) {
+        return new SearchMatch(
+                new Product(
+                        row.get("id", Long.class),
+                        row.get("name", String.class),
+                        row.get("stock", Integer.class),
+                        row.get("office_id", Long.class)),
+                row.get("rank", Integer.class),
+                row.get("distance", Float.class));
+    }
+
+    /**
+     * Reads the stock stored in the database, on the primary, for the
+     * write-behind buffer to check changes against.
+     *
+     * @param id the product identifier
+     * @return a {@link Mono} emitting the stored stock, or empty if the product does not exist
+     */
+    private Mono<Integer> storedStock(Long id) {
+        return shardResolver.onShard(shardResolver.shardOf(id), productRepository.findById(id))
+                .map(ProductEntity::getStock);
+    }
+
+    /**
+     * Adds the changes still held by the write-behind buffer to the stock
+     * read from the database.
+     *
+     * @param product the product as stored
+     * @return the product with its visible stock
+     */
+    private Product withBufferedStock(Product product) {
+        StockWriteBehindBuffer buffer = stockWriteBehindBuffer.getIfAvailable();
+        long pending = buffer == null ? 0 : buffer.pending(product.id());
+        if (pending == 0) {
+            return product;
+        }
+
+        int stock = (int) Math.max(0, product.stock() + pending);
+        return new Product(product.id(), product.name(), stock, product.officeId());
     }
 
     /**
@@ -144,4 +614,11 @@ public class ProductRepositoryAdapter implements ProductRepositoryPort {
                 productEntity.getOfficeId()
         );
     }
+
+    /**
+     * A product found by a search, with its rank: {@code 0} for a prefix
+     * match, {@code 1} for a resemblance, then by trigram distance.
+     */
+    private record SearchMatch(Product product, int rank, float distance) {
+    }
 }
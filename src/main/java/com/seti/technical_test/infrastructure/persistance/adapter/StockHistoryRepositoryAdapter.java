@@ -0,0 +1,136 @@
+package com.seti.technical_test.infrastructure.persistance.adapter;
+
+import com.seti.technical_test.application.port.out.StockHistoryRepositoryPort;
+import com.seti.technical_test.domain.model.StockHistoryPoint;
+import com.seti.technical_test.domain.model.StockHistoryResolution;
+import com.seti.technical_test.infrastructure.persistance.connection.ReadOnlyRouting;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import io.r2dbc.spi.Readable;
+import lombok.AllArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * Persistence adapter that implements {@link StockHistoryRepositoryPort}
+ * over the {@code stock_history} and {@code stock_history_hourly} tables.
+ *
+ * <p>
+ * Recent changes are read one by one from the daily partitions and older
+ * ones from the hourly aggregates they were compacted into; the two never
+ * overlap, as a day is compacted and dropped in one transaction. Both are
+ * filtered on their partition key, so a query only reads the partitions of
+ * the requested period.
+ * </p>
+ */
+@Repository
+@AllArgsConstructor
+public class StockHistoryRepositoryAdapter implements StockHistoryRepositoryPort {
+
+    /**
+     * Downsampled history; {@code %1$s} is replaced by the filtered column.
+     */
+    private static final String FIND_HISTORY = """
+            WITH samples AS (
+                SELECT h.product_id, date_trunc(:resolution, h.hour) AS bucket, h.hour AS at, 0 AS seq,
+                       h.min_stock, h.max_stock, h.last_stock, h.samples
+                FROM stock_history_hourly h
+                WHERE h.%1$s = :id
+                  AND h.hour >= :from
+                  AND h.hour < :to
+                UNION ALL
+                SELECT r.product_id, date_trunc(:resolution, r.recorded_at), r.recorded_at, r.event_id,
+                       r.stock, r.stock, r.stock, 1
+                FROM stock_history r
+                WHERE r.%1$s = :id
+                  AND r.recorded_at >= :from
+                  AND r.recorded_at < :to
+            )
+            SELECT product_id, bucket,
+                   min(min_stock) AS min_stock,
+                   max(max_stock) AS max_stock,
+                   (array_agg(last_stock ORDER BY at DESC, seq DESC))[1] AS last_stock,
+                   CAST(sum(samples) AS BIGINT) AS changes
+            FROM samples
+            GROUP BY product_id, bucket
+            ORDER BY product_id, bucket
+            """;
+
+    private static final String FIND_BY_PRODUCT = FIND_HISTORY.formatted("product_id");
+
+    private static final String FIND_BY_OFFICE = FIND_HISTORY.formatted("office_id");
+
+    /**
+     * Client used to read the history.
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Resolver of the shard holding each product and office.
+     */
+    private final ShardResolver shardResolver;
+
+    /**
+     * Retrieves the stock of a product over a period.
+     *
+     * @param productId  the identifier of the product
+     * @param from       the start of the period, inclusive
+     * @param to         the end of the period, exclusive
+     * @param resolution the length of each interval
+     * @return a {@link Flux} emitting one point per interval with changes, in time order
+     */
+    @Override
+    public Flux<StockHistoryPoint> findByProductId(Long productId, Instant from, Instant to,
+                                                   StockHistoryResolution resolution) {
+        return find(FIND_BY_PRODUCT, productId, from, to, resolution);
+    }
+
+    /**
+     * Retrieves the stock of the products of an office over a period.
+     *
+     * @param officeId   the identifier of the office
+     * @param from       the start of the period, inclusive
+     * @param to         the end of the period, exclusive
+     * @param resolution the length of each interval
+     * @return a {@link Flux} emitting one point per product and interval with changes
+     */
+    @Override
+    public Flux<StockHistoryPoint> findByOfficeId(Long officeId, Instant from, Instant to,
+                                                  StockHistoryResolution resolution) {
+        return find(FIND_BY_OFFICE, officeId, from, to, resolution);
+    }
+
+    private Flux<StockHistoryPoint> find(String sql, Long id, Instant from, Instant to,
+                                         StockHistoryResolution resolution) {
+        return shardResolver.onShard(shardResolver.shardOf(id), databaseClient.sql(sql)
+                        .bind("id", id)
+                        .bind("from", from.atOffset(ZoneOffset.UTC))
+                        .bind("to", to.atOffset(ZoneOffset.UTC))
+                        .bind("resolution", resolution.name().toLowerCase(Locale.ROOT))
+                        .map(this::toDomain)
+                        .all())
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
+    }
+
+    /**
+     * Maps a history row to a {@link StockHistoryPoint}.
+     *
+     * @param row the history row
+     * @return the stock of the product over the interval
+     */
+    private StockHistoryPoint toDomain(Readable row) {
+        return new StockHistoryPoint(
+                row.get("product_id", Long.class),
+                row.get("bucket", OffsetDateTime.class).toInstant(),
+                row.get("min_stock", Integer.class),
+                row.get("max_stock", Integer.class),
+                row.get("last_stock", Integer.class),
+                row.get("changes", Long.class)
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package com.seti.technical_test.infrastructure.persistance.adapter;
+
+import com.seti.technical_test.application.port.out.StockSummaryRepositoryPort;
+import com.seti.technical_test.domain.model.OfficeStockSummary;
+import com.seti.technical_test.infrastructure.persistance.connection.ReadOnlyRouting;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import io.r2dbc.spi.Readable;
+import lombok.AllArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Persistence adapter that implements {@link StockSummaryRepositoryPort}
+ * over the {@code office_stock_summary} table.
+ *
+ * <p>
+ * The table is maintained by triggers on {@code product}, in the
+ * transaction of every insert, update and delete, and is periodically
+ * checked by the {@code StockSummaryRepairJob}.
+ * </p>
+ */
+@Repository
+@AllArgsConstructor
+public class StockSummaryRepositoryAdapter implements StockSummaryRepositoryPort {
+
+    private static final String COLUMNS = "office_id, franchise_id, total_stock, product_count, low_stock_count";
+
+    /**
+     * Client used to read the aggregates.
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Resolver of the shard holding each office.
+     */
+    private final ShardResolver shardResolver;
+
+    /**
+     * Retrieves the aggregates of an office.
+     *
+     * @param officeId the identifier of the office
+     * @return a {@link Mono} emitting the aggregates, or empty if the office never held products
+     */
+    @Override
+    public Mono<OfficeStockSummary> findByOfficeId(Long officeId) {
+        return shardResolver.onShard(shardResolver.shardOf(officeId), databaseClient
+                        .sql("SELECT " + COLUMNS + " FROM office_stock_summary WHERE office_id = :officeId")
+                        .bind("officeId", officeId)
+                        .map(this::toDomain)
+                        .one())
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
+    }
+
+    /**
+     * Retrieves the aggregates of every office of a franchise, through the
+     * {@code franchise_id} index.
+     *
+     * @param franchiseId the identifier of the franchise
+     * @return a {@link Flux} emitting the aggregates of the offices that ever held products
+     */
+    @Override
+    public Flux<OfficeStockSummary> findByFranchiseId(Long franchiseId) {
+        return shardResolver.onShard(shardResolver.shardOf(franchiseId), databaseClient
+                        .sql("SELECT " + COLUMNS + " FROM office_stock_summary WHERE franchise_id = :franchiseId ORDER BY office_id")
+                        .bind("franchiseId", franchiseId)
+                        .map(this::toDomain)
+                        .all())
+                .contextWrite(ReadOnlyRouting.READ_ONLY);
+    }
+
+    /**
+     * Maps a summary row to an {@link OfficeStockSummary}.
+     *
+     * @param row the summary row
+     * @return the office aggregates
+     */
+    private OfficeStockSummary toDomain(Readable row) {
+        return new OfficeStockSummary(
+                row.get("office_id", Long.class),
+                row.get("franchise_id", Long.class),
+                row.get("total_stock", Long.class),
+                row.get("product_count", Long.class),
+                row.get("low_stock_count", Long.class)
+        );
+    }
+}
@@ -0,0 +1,358 @@
+package com.seti.technical_test.infrastructure.persistance.alert;
+
+import com.seti.technical_test.application.port.out.LowStockAlertPort;
+import com.seti.technical_test.domain.model.LowStockAlert;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.infrastructure.config.LowStockScannerProperties;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Raises the low-stock alerts by walking the products of every shard in
+ * keyset order.
+ *
+ * <p>
+ * Each batch is a single statement: it claims the scan position of the
+ * shard in {@code low_stock_scan_checkpoint}, checks the next products
+ * against the threshold of their office, records the new alerts in
+ * {@code low_stock_alert}, clears the alerts of the products that
+ * recovered and moves the position forward, back to the start once the
+ * last product is passed. A cycle stops after a number of batches or once
+ * its time budget is spent and the next one resumes from the stored
+ * position, so the cost of a cycle does not grow with the catalog.
+ * </p>
+ *
+ * <p>
+ * Products whose stock was decreased are gathered for a short window and
+ * checked together by the same statement, without waiting for the scan to
+ * reach them. A product already alerted is not alerted again until it
+ * recovered, so the scan and the notified checks never raise the same
+ * drop twice.
+ * </p>
+ */
+@Slf4j
+public class LowStockScanner implements LowStockAlertPort, SmartLifecycle {
+
+    private static final String CHECK = """
+            ), cleared AS (
+                DELETE FROM low_stock_alert a
+                USING batch b
+                WHERE a.product_id = b.id
+                  AND b.stock >= b.threshold
+            ), raised AS (
+                INSERT INTO low_stock_alert (product_id, office_id, stock, threshold)
+                SELECT b.id, b.office_id, b.stock, b.threshold
+                FROM batch b
+                WHERE b.stock < b.threshold
+                ON CONFLICT (product_id) DO NOTHING
+                RETURNING product_id, office_id, stock, threshold, raised_at
+            """;
+
+    private static final String SCAN = """
+            WITH claim AS (
+                SELECT last_product_id
+                FROM low_stock_scan_checkpoint
+                WHERE id = 1
+                FOR UPDATE SKIP LOCKED
+            ), batch AS (
+                SELECT p.id, p.name, p.stock, p.office_id,
+                       COALESCE(o.low_stock_threshold, low_stock_threshold()) AS threshold
+                FROM product p
+                JOIN office o ON o.id = p.office_id
+                WHERE p.id > (SELECT last_product_id FROM claim)
+                ORDER BY p.id
+                LIMIT :limit
+            """ + CHECK + """
+            ), moved AS (
+                UPDATE low_stock_scan_checkpoint k
+                SET last_product_id = CASE WHEN (SELECT count(*) FROM batch) < :limit THEN 0
+                                           ELSE (SELECT max(id) FROM batch) END,
+                    updated_at = now()
+                FROM claim c
+                WHERE k.id = 1
+                RETURNING k.last_product_id
+            )
+            SELECT (SELECT count(*) FROM moved) AS claimed,
+                   (SELECT count(*) FROM batch) AS scanned,
+                   r.product_id, b.name, r.office_id, r.stock, r.threshold, r.raised_at
+            FROM (VALUES (1)) v
+            LEFT JOIN raised r ON true
+            LEFT JOIN batch b ON b.id = r.product_id
+            """;
+
+    private static final String CHECK_NOTIFIED = """
+            WITH batch AS (
+                SELECT p.id, p.name, p.stock, p.office_id,
+                       COALESCE(o.low_stock_threshold, low_stock_threshold()) AS threshold
+                FROM product p
+                JOIN office o ON o.id = p.office_id
+                WHERE p.id = ANY(CAST(:ids AS BIGINT[]))
+            """ + CHECK + """
+            )
+            SELECT r.product_id, b.name, r.office_id, r.stock, r.threshold, r.raised_at
+            FROM raised r
+            JOIN batch b ON b.id = r.product_id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final LowStockScannerProperties properties;
+
+    /**
+     * Products notified since the last check; a set, so a product
+     * decreased many times in a window is checked once.
+     */
+    private final Set<Long> notified = ConcurrentHashMap.newKeySet();
+
+    private final Sinks.Many<LowStockAlert> alerts = Sinks.many().multicast().directBestEffort();
+
+    private final Timer batchTime;
+
+    private final Timer cycleTime;
+
+    private final Counter scannedProducts;
+
+    private final Counter raisedAlerts;
+
+    private final Counter droppedNotifications;
+
+    private volatile Disposable tasks;
+
+    public LowStockScanner(DatabaseClient databaseClient, ShardResolver shardResolver, MeterRegistry meterRegistry,
+                           LowStockScannerProperties properties) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.properties = properties;
+        this.batchTime = Timer.builder("app.stock.low.scan.batch")
+                .description("Database time of one low-stock scan batch")
+                .register(meterRegistry);
+        this.cycleTime = Timer.builder("app.stock.low.scan.cycle")
+                .description("Duration of one low-stock scan cycle over every shard")
+                .register(meterRegistry);
+        this.scannedProducts = Counter.builder("app.stock.low.scan.products")
+                .description("Products checked by the low-stock scan")
+                .register(meterRegistry);
+        this.raisedAlerts = Counter.builder("app.stock.low.alerts")
+                .description("Low-stock alerts raised")
+                .register(meterRegistry);
+        this.droppedNotifications = Counter.builder("app.stock.low.notifications.dropped")
+                .description("Stock decreases left to the scan because too many were waiting")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void stockDecreased(Product product) {
+        if (product == null || product.id() == null) {
+            return;
+        }
+
+        if (notified.size() >= properties.hintBuffer()) {
+            droppedNotifications.increment();
+            return;
+        }
+
+        notified.add(product.id());
+    }
+
+    @Override
+    public Flux<LowStockAlert> alerts() {
+        return alerts.asFlux();
+    }
+
+    /**
+     * Runs one scan cycle: a bounded number of batches on every shard,
+     * from the stored scan position.
+     *
+     * @return a {@link Mono} emitting the number of checked products
+     */
+    public Mono<Long> scan() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            long deadline = start + properties.cycleBudget().toNanos();
+
+            return Flux.range(0, shardResolver.shardCount())
+                    .concatMap(shard -> scanShard(shard, deadline))
+                    .reduce(0L, Long::sum)
+                    .doFinally(signal -> cycleTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    @Override
+    public void start() {
+        Disposable.Composite running = Disposables.composite();
+
+        running.add(Flux.interval(properties.hintWindow())
+                .onBackpressureDrop()
+                .concatMap(tick -> checkNotified()
+                        .onErrorResume(error -> {
+                            log.warn("Low-stock check of the decreased products failed, the scan will cover them: {}",
+                                    error.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe());
+
+        if (properties.enabled()) {
+            running.add(Flux.interval(properties.interval())
+                    .onBackpressureDrop()
+                    .concatMap(tick -> scan()
+                            .onErrorResume(error -> {
+                                log.warn("Low-stock scan failed, it will resume from its last position: {}",
+                                        error.getMessage());
+                                return Mono.empty();
+                            }), 1)
+                    .subscribe());
+        }
+
+        tasks = running;
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = tasks;
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = tasks;
+        return running != null && !running.isDisposed();
+    }
+
+    /**
+     * Scans a shard until the end of the products is reached, the batch
+     * limit is hit, the cycle budget is spent or another instance holds the
+     * scan position.
+     */
+    private Flux<Long> scanShard(int shard, long deadline) {
+        int batchSize = properties.batchSize();
+
+        return Flux.range(0, properties.maxBatchesPerCycle())
+                .concatMap(batch -> scanBatch(shard), 1)
+                .takeUntil(batch -> !batch.claimed()
+                        || batch.scanned() < batchSize
+                        || System.nanoTime() - deadline >= 0)
+                .map(Batch::scanned);
+    }
+
+    private Mono<Batch> scanBatch(int shard) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+
+            return shardResolver.onShard(shard, databaseClient.sql(SCAN)
+                            .bind("limit", properties.batchSize())
+                            .map(this::toScanRow)
+                            .all())
+                    .collectList()
+                    .map(LowStockScanner::toBatch)
+                    .doOnNext(batch -> {
+                        batchTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        scannedProducts.increment(batch.scanned());
+                        batch.alerts().forEach(this::publish);
+                    });
+        });
+    }
+
+    /**
+     * Checks the products notified since the last call, one statement per
+     * shard.
+     */
+    private Mono<Long> checkNotified() {
+        return Mono.defer(() -> {
+            List<Long> ids = new ArrayList<>();
+            for (Iterator<Long> iterator = notified.iterator(); iterator.hasNext(); ) {
+                ids.add(iterator.next());
+                iterator.remove();
+            }
+
+            if (ids.isEmpty()) {
+                return Mono.just(0L);
+            }
+
+            Map<Integer, List<Long>> byShard = ids.stream()
+                    .collect(Collectors.groupingBy(shardResolver::shardOf));
+
+            return Flux.fromIterable(byShard.entrySet())
+                    .concatMap(shard -> shardResolver.onShard(shard.getKey(), databaseClient.sql(CHECK_NOTIFIED)
+                            .bind("ids", shard.getValue().toArray(Long[]::new))
+                            .map(this::toAlert)
+                            .all()))
+                    .doOnNext(this::publish)
+                    .count();
+        });
+    }
+
+    /**
+     * Emits an alert to the current subscribers. Synchronized, as the scan
+     * and the notified checks run concurrently.
+     */
+    private synchronized void publish(LowStockAlert alert) {
+        raisedAlerts.increment();
+        alerts.tryEmitNext(alert);
+    }
+
+    private ScanRow toScanRow(Readable row) {
+        return new ScanRow(
+                row.get("claimed", Long.class) > 0,
+                row.get("scanned", Long.class),
+                row.get("product_id", Long.class) == null ? null : toAlert(row)
+        );
+    }
+
+    private static Batch toBatch(List<ScanRow> rows) {
+        ScanRow first = rows.getFirst();
+        return new Batch(first.claimed(), first.scanned(), rows.stream()
+                .map(ScanRow::alert)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private LowStockAlert toAlert(Readable row) {
+        return new LowStockAlert(
+                row.get("product_id", Long.class),
+                row.get("name", String.class),
+                row.get("stock", Integer.class),
+                row.get("office_id", Long.class),
+                row.get("threshold", Integer.class),
+                row.get("raised_at", OffsetDateTime.class).toInstant()
+        );
+    }
+
+    /**
+     * One row of a scan batch: the batch totals, repeated on every row, and
+     * an alert raised by the batch, if any.
+     */
+    private record ScanRow(boolean claimed, long scanned, LowStockAlert alert) {
+    }
+
+    /**
+     * Result of one scan batch.
+     */
+    private record Batch(boolean claimed, long scanned, List<LowStockAlert> alerts) {
+    }
+}
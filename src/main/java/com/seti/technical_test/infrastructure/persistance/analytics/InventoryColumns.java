@@ -0,0 +1,355 @@
+package com.seti.technical_test.infrastructure.persistance.analytics;
+
+import com.seti.technical_test.domain.model.FranchiseStockTotal;
+import com.seti.technical_test.domain.model.InventoryFootprint;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.StockPercentiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Products stored column by column, one primitive array per attribute.
+ *
+ * <p>
+ * A product is a row index into the columns. Offices and franchises are
+ * dictionary encoded: each row holds the {@code int} code of its office,
+ * and the franchise code is looked up in a small per-office array, so a
+ * scan reads only the columns it needs, never touches an object per
+ * product, and moving an office to another franchise is a single write. Names are stored as UTF-8 in one
+ * byte array, addressed by an offset and a length per row. Deleted rows
+ * keep their position with the office code {@link #DELETED} until the
+ * columns are rebuilt.
+ * </p>
+ *
+ * <p>
+ * The scans use parallel streams, so they run on the fork-join pool they
+ * are submitted to. Not thread-safe: writes need exclusive access and
+ * scans must not run concurrently with writes.
+ * </p>
+ */
+final class InventoryColumns {
+
+    /**
+     * Office code of a deleted row.
+     */
+    static final int DELETED = -1;
+
+    /**
+     * Franchise code of an office whose franchise is not known yet.
+     */
+    static final int UNKNOWN = -1;
+
+    private static final Comparator<FranchiseStockTotal> BY_TOTAL_STOCK =
+            Comparator.comparing(FranchiseStockTotal::totalStock).reversed()
+                    .thenComparing(FranchiseStockTotal::franchiseId);
+
+    private long[] ids;
+
+    private int[] stocks;
+
+    private int[] officeCodes;
+
+    private int[] nameOffsets;
+
+    private int[] nameLengths;
+
+    private byte[] names;
+
+    private int namesLength;
+
+    private int size;
+
+    private int live;
+
+    private final LongIntMap rows;
+
+    private long[] officeIds;
+
+    private int[] officeFranchiseCodes;
+
+    private int officeCount;
+
+    private final LongIntMap offices;
+
+    private long[] franchiseIds;
+
+    private int franchiseCount;
+
+    private final LongIntMap franchises;
+
+    InventoryColumns(int expectedProducts, int expectedOffices) {
+        int capacity = Math.max(expectedProducts, 16);
+        int officeCapacity = Math.max(expectedOffices, 16);
+
+        this.ids = new long[capacity];
+        this.stocks = new int[capacity];
+        this.officeCodes = new int[capacity];
+        this.nameOffsets = new int[capacity];
+        this.nameLengths = new int[capacity];
+        this.names = new byte[capacity * 16];
+        this.rows = new LongIntMap(capacity);
+        this.officeIds = new long[officeCapacity];
+        this.officeFranchiseCodes = new int[officeCapacity];
+        this.offices = new LongIntMap(officeCapacity);
+        this.franchiseIds = new long[16];
+        this.franchises = new LongIntMap(16);
+    }
+
+    /**
+     * Number of products, excluding the deleted rows.
+     */
+    int products() {
+        return live;
+    }
+
+    /**
+     * Adds an office or moves it to another franchise, with its products.
+     *
+     * @param officeId    the office identifier
+     * @param franchiseId the identifier of the franchise the office belongs to
+     */
+    void putOffice(long officeId, long franchiseId) {
+        officeFranchiseCodes[officeCode(officeId)] = franchiseCode(franchiseId);
+    }
+
+    /**
+     * Adds a product or replaces its values. An office not seen before is
+     * added without franchise until {@link #putOffice(long, long)} names it.
+     *
+     * @param id       the product identifier
+     * @param name     the product name
+     * @param stock    the product stock
+     * @param officeId the identifier of the office the product belongs to
+     */
+    void putProduct(long id, String name, int stock, long officeId) {
+        int office = officeCode(officeId);
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+
+        int row = rows.get(id);
+        if (row < 0) {
+            row = size;
+            if (row == ids.length) {
+                growRows();
+            }
+            ids[row] = id;
+            rows.put(id, row);
+            size++;
+            live++;
+            appendName(row, encoded);
+        } else {
+            if (officeCodes[row] == DELETED) {
+                live++;
+            }
+            if (!Arrays.equals(names, nameOffsets[row], nameOffsets[row] + nameLengths[row], encoded, 0, encoded.length)) {
+                appendName(row, encoded); // the former name stays in the array until the next rebuild
+            }
+        }
+
+        stocks[row] = stock;
+        officeCodes[row] = office;
+    }
+
+    /**
+     * Marks a product as deleted.
+     *
+     * @param id the product identifier
+     */
+    void removeProduct(long id) {
+        int row = rows.get(id);
+        if (row >= 0 && officeCodes[row] != DELETED) {
+            officeCodes[row] = DELETED;
+            live--;
+        }
+    }
+
+    /**
+     * Sums the stock of the products of every franchise.
+     *
+     * @return one total per franchise with products, highest stock first
+     */
+    List<FranchiseStockTotal> totalStockByFranchise() {
+        int franchiseTotals = franchiseCount;
+        int[] stockColumn = stocks;
+        int[] officeColumn = officeCodes;
+        int[] officeFranchises = officeFranchiseCodes;
+
+        // two slots per franchise: the stock sum and the product count
+        long[] totals = IntStream.range(0, size).parallel().collect(
+                () -> new long[franchiseTotals * 2],
+                (accumulated, row) -> {
+                    int office = officeColumn[row];
+                    int franchise = office == DELETED ? UNKNOWN : officeFranchises[office];
+                    if (franchise != UNKNOWN) {
+                        accumulated[franchise * 2] += stockColumn[row];
+                        accumulated[franchise * 2 + 1]++;
+                    }
+                },
+                (left, right) -> {
+                    for (int slot = 0; slot < left.length; slot++) {
+                        left[slot] += right[slot];
+                    }
+                });
+
+        List<FranchiseStockTotal> result = new ArrayList<>(franchiseTotals);
+        for (int franchise = 0; franchise < franchiseTotals; franchise++) {
+            if (totals[franchise * 2 + 1] > 0) {
+                result.add(new FranchiseStockTotal(franchiseIds[franchise], totals[franchise * 2], totals[franchise * 2 + 1]));
+            }
+        }
+        result.sort(BY_TOTAL_STOCK);
+
+        return result;
+    }
+
+    /**
+     * Computes the stock percentiles of an office.
+     *
+     * @param officeId the office identifier
+     * @return the percentiles, or {@code null} if the office has no products
+     */
+    StockPercentiles stockPercentiles(long officeId) {
+        int office = offices.get(officeId);
+        if (office < 0) {
+            return null;
+        }
+
+        int[] stockColumn = stocks;
+        int[] officeColumn = officeCodes;
+        int[] values = IntStream.range(0, size).parallel()
+                .filter(row -> officeColumn[row] == office)
+                .map(row -> stockColumn[row])
+                .toArray();
+
+        if (values.length == 0) {
+            return null;
+        }
+
+        Arrays.parallelSort(values);
+
+        return new StockPercentiles(officeId, (long) values.length, values[0],
+                percentile(values, 50), percentile(values, 90), percentile(values, 99), values[values.length - 1]);
+    }
+
+    /**
+     * Lists products without stock, in row order.
+     *
+     * @param franchiseId the franchise identifier, or {@code null} for any franchise
+     * @param limit       the maximum number of products
+     * @return the products without stock
+     */
+    List<Product> findOutOfStock(Long franchiseId, int limit) {
+        int franchise = franchiseId == null ? UNKNOWN : franchises.get(franchiseId);
+        if (franchiseId != null && franchise < 0) {
+            return List.of();
+        }
+
+        int[] stockColumn = stocks;
+        int[] officeColumn = officeCodes;
+        int[] officeFranchises = officeFranchiseCodes;
+
+        return IntStream.range(0, size).parallel()
+                .filter(row -> stockColumn[row] == 0
+                        && officeColumn[row] != DELETED
+                        && (franchiseId == null || officeFranchises[officeColumn[row]] == franchise))
+                .limit(limit)
+                .mapToObj(this::product)
+                .toList();
+    }
+
+    /**
+     * Memory allocated by the columns, the name bytes and the lookup
+     * tables, spare capacity included.
+     *
+     * @return the footprint
+     */
+    InventoryFootprint footprint() {
+        long bytes = ids.length * (long) Long.BYTES
+                + (stocks.length + officeCodes.length + nameOffsets.length + nameLengths.length)
+                        * (long) Integer.BYTES
+                + names.length
+                + rows.bytes()
+                + officeIds.length * (long) Long.BYTES + officeFranchiseCodes.length * (long) Integer.BYTES
+                + offices.bytes()
+                + franchiseIds.length * (long) Long.BYTES
+                + franchises.bytes();
+
+        return new InventoryFootprint((long) live, (long) officeCount, (long) franchiseCount, bytes,
+                live == 0 ? 0L : bytes * 1_000_000 / live);
+    }
+
+    private Product product(int row) {
+        return new Product(ids[row],
+                new String(names, nameOffsets[row], nameLengths[row], StandardCharsets.UTF_8),
+                stocks[row],
+                officeIds[officeCodes[row]]);
+    }
+
+    private int officeCode(long officeId) {
+        int office = offices.get(officeId);
+        if (office >= 0) {
+            return office;
+        }
+
+        if (officeCount == officeIds.length) {
+            officeIds = Arrays.copyOf(officeIds, officeCount * 2);
+            officeFranchiseCodes = Arrays.copyOf(officeFranchiseCodes, officeCount * 2);
+        }
+
+        office = officeCount++;
+        officeIds[office] = officeId;
+        officeFranchiseCodes[office] = UNKNOWN;
+        offices.put(officeId, office);
+
+        return office;
+    }
+
+    private int franchiseCode(long franchiseId) {
+        int franchise = franchises.get(franchiseId);
+        if (franchise >= 0) {
+            return franchise;
+        }
+
+        if (franchiseCount == franchiseIds.length) {
+            franchiseIds = Arrays.copyOf(franchiseIds, franchiseCount * 2);
+        }
+
+        franchise = franchiseCount++;
+        franchiseIds[franchise] = franchiseId;
+        franchises.put(franchiseId, franchise);
+
+        return franchise;
+    }
+
+    private void appendName(int row, byte[] encoded) {
+        if (namesLength + encoded.length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, namesLength + encoded.length));
+        }
+
+        System.arraycopy(encoded, 0, names, namesLength, encoded.length);
+        nameOffsets[row] = namesLength;
+        nameLengths[row] = encoded.length;
+        namesLength += encoded.length;
+    }
+
+    private void growRows() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        stocks = Arrays.copyOf(stocks, capacity);
+        officeCodes = Arrays.copyOf(officeCodes, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values.
+     */
+    private static int percentile(int[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
@@ -0,0 +1,432 @@
+package com.seti.technical_test.infrastructure.persistance.analytics;
+
+import com.seti.technical_test.application.port.out.InventorySnapshotPort;
+import com.seti.technical_test.domain.model.FranchiseStockTotal;
+import com.seti.technical_test.domain.model.InventoryFootprint;
+import com.seti.technical_test.domain.model.Office;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.StockPercentiles;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshot;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshotFile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Columnar copy of the products and offices of every shard, answering the
+ * analytical reports with parallel scans instead of reading every row
+ * through the database.
+ *
+ * <p>
+ * The columns are rebuilt from the primary of every shard on start and on
+ * every refresh interval, in keyset pages, and replace the previous ones
+ * once complete. In between, the writes of this instance are applied as
+ * they are notified. Writes notified while a rebuild runs are also kept
+ * aside and applied to the new columns before they replace the old ones,
+ * so a write is never lost because the rebuild read its row too early.
+ * Writes of other instances appear at the next rebuild.
+ * </p>
+ *
+ * <p>
+ * On start, a local {@link CatalogSnapshotFile catalog snapshot} younger
+ * than the refresh interval replaces the first rebuild, which then runs
+ * once the snapshot is an interval old.
+ * </p>
+ *
+ * <p>
+ * Scans run on a dedicated fork-join pool under the read lock. Notified
+ * writes are queued and applied by one worker at a time on the
+ * bounded-elastic scheduler, in notification order and in batches under
+ * the write lock, so the thread notifying a write, often an event loop,
+ * never waits for the running scans.
+ * </p>
+ */
+@Slf4j
+public class InventorySnapshot implements InventorySnapshotPort, SmartLifecycle {
+
+    private static final String LOAD_OFFICES = """
+            SELECT id, franchise_id
+            FROM office
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String LOAD_PRODUCTS = """
+            SELECT id, name, stock, office_id
+            FROM product
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final CatalogSnapshotFile catalogSnapshotFile;
+
+    private final boolean enabled;
+
+    private final Duration refreshInterval;
+
+    private final int batchSize;
+
+    private final ForkJoinPool scanPool;
+
+    private final Timer rebuildTime;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Current columns; {@code null} until the first rebuild completes.
+     */
+    private InventoryColumns columns;
+
+    /**
+     * Writes notified since the running rebuild started; {@code null} when
+     * no rebuild runs.
+     */
+    private List<Consumer<InventoryColumns>> pending;
+
+    /**
+     * Writes notified and not applied yet.
+     */
+    private final Queue<Consumer<InventoryColumns>> notified = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Notifications the worker has not accounted for; the notification that
+     * raises it from zero starts the worker.
+     */
+    private final AtomicInteger unapplied = new AtomicInteger();
+
+    private volatile Disposable task;
+
+    public InventorySnapshot(DatabaseClient databaseClient, ShardResolver shardResolver, MeterRegistry meterRegistry,
+                             CatalogSnapshotFile catalogSnapshotFile, boolean enabled, Duration refreshInterval,
+                             int batchSize, int parallelism) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.catalogSnapshotFile = catalogSnapshotFile;
+        this.enabled = enabled;
+        this.refreshInterval = refreshInterval;
+        this.batchSize = batchSize;
+        this.scanPool = new ForkJoinPool(parallelism);
+        this.rebuildTime = Timer.builder("app.inventory.snapshot.rebuild")
+                .description("Duration of one rebuild of the inventory snapshot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        if (!enabled || product == null || product.id() == null || product.officeId() == null
+                || product.name() == null || product.stock() == null) {
+            return;
+        }
+
+        update(current -> current.putProduct(product.id(), product.name(), product.stock(), product.officeId()));
+    }
+
+    @Override
+    public void productDeleted(Product product) {
+        if (!enabled || product == null || product.id() == null) {
+            return;
+        }
+
+        update(current -> current.removeProduct(product.id()));
+    }
+
+    @Override
+    public void officeSaved(Office office) {
+        if (!enabled || office == null || office.id() == null || office.franchiseId() == null) {
+            return;
+        }
+
+        update(current -> current.putOffice(office.id(), office.franchiseId()));
+    }
+
+    @Override
+    public Flux<FranchiseStockTotal> totalStockByFranchise() {
+        return scan(InventoryColumns::totalStockByFranchise)
+                .flatMapIterable(totals -> totals);
+    }
+
+    @Override
+    public Mono<StockPercentiles> stockPercentiles(Long officeId) {
+        return scan(current -> current.stockPercentiles(officeId));
+    }
+
+    @Override
+    public Flux<Product> findOutOfStock(Long franchiseId, int limit) {
+        return scan(current -> current.findOutOfStock(franchiseId, limit))
+                .flatMapIterable(products -> products);
+    }
+
+    @Override
+    public Mono<InventoryFootprint> footprint() {
+        return scan(InventoryColumns::footprint);
+    }
+
+    /**
+     * Rebuilds the columns from the database and replaces the current ones.
+     *
+     * @return a {@link Mono} emitting the number of products loaded
+     */
+    public Mono<Integer> rebuild() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            int expected;
+
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+                expected = columns == null ? 0 : columns.products();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            InventoryColumns building = new InventoryColumns(expected + (expected >> 3), 1_024);
+
+            return Flux.range(0, shardResolver.shardCount())
+                    .concatMap(shard -> loadOffices(shard, building).then(loadProducts(shard, building)))
+                    .then(Mono.fromCallable(() -> replace(building)))
+                    .doFinally(signal -> discardPending()) // after a failure or a stop; already done on success
+                    .doOnNext(products -> {
+                        rebuildTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        log.info("Inventory snapshot rebuilt with {} products", products);
+                    });
+        });
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        task = Mono.fromCallable(this::restore)
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(error -> {
+                    discardPending();
+                    log.warn("Catalog snapshot could not be read, the inventory snapshot is rebuilt: {}",
+                            error.getMessage());
+                    return Mono.just(Duration.ZERO);
+                })
+                .flatMapMany(firstRebuild -> Flux.interval(firstRebuild, refreshInterval))
+                .onBackpressureDrop()
+                .concatMap(tick -> rebuild()
+                        .onErrorResume(error -> {
+                            log.warn("Inventory snapshot could not be rebuilt, the previous one is kept: {}",
+                                    error.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = task;
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = task;
+        return running != null && !running.isDisposed();
+    }
+
+    /**
+     * Fills the columns from the catalog snapshot, if it is younger than
+     * the refresh interval.
+     *
+     * @return the time until the first rebuild: the rest of the interval after a restore, none otherwise
+     */
+    private Duration restore() {
+        Optional<CatalogSnapshot> found = catalogSnapshotFile.open();
+        if (found.isEmpty()) {
+            return Duration.ZERO;
+        }
+
+        CatalogSnapshot snapshot = found.get();
+        Duration age = Duration.between(snapshot.createdAt(), Instant.now());
+        if (age.compareTo(refreshInterval) >= 0) {
+            return Duration.ZERO;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        InventoryColumns restored = new InventoryColumns(snapshot.products(), 1_024);
+        snapshot.forEachOffice((id, name, franchiseId) -> restored.putOffice(id, franchiseId));
+        snapshot.forEachProduct(restored::putProduct);
+
+        log.info("Inventory snapshot restored from the catalog snapshot of {} with {} products", snapshot.createdAt(),
+                replace(restored));
+        return refreshInterval.minus(age);
+    }
+
+    /**
+     * Runs a scan of the current columns on the scan pool, off the event
+     * loop.
+     */
+    private <T> Mono<T> scan(Function<InventoryColumns, T> query) {
+        return Mono.fromCallable(() -> {
+                    lock.readLock().lock();
+                    try {
+                        InventoryColumns current = columns;
+                        if (current == null) {
+                            throw new GeneralException(enabled
+                                    ? "The inventory snapshot is still loading"
+                                    : "The inventory snapshot is disabled");
+                        }
+
+                        return scanPool.submit(() -> query.apply(current)).join();
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private void update(Consumer<InventoryColumns> change) {
+        notified.add(change);
+        if (unapplied.getAndIncrement() == 0) {
+            Schedulers.boundedElastic().schedule(this::applyNotified);
+        }
+    }
+
+    /**
+     * Applies the queued writes, taking the write lock once per batch, and
+     * passes again as long as notifications arrived meanwhile.
+     */
+    private void applyNotified() {
+        int missed = 1;
+        do {
+            lock.writeLock().lock();
+            try {
+                Consumer<InventoryColumns> change;
+                while ((change = notified.poll()) != null) {
+                    if (columns != null) {
+                        change.accept(columns);
+                    }
+                    if (pending != null) {
+                        pending.add(change);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            missed = unapplied.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private int replace(InventoryColumns building) {
+        lock.writeLock().lock();
+        try {
+            pending.forEach(change -> change.accept(building));
+            pending = null;
+            columns = building;
+            return building.products();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void discardPending() {
+        lock.writeLock().lock();
+        try {
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the offices of a shard in keyset pages, from the primary: a
+     * lagging replica could miss writes notified before the rebuild
+     * started.
+     */
+    private Mono<Void> loadOffices(int shard, InventoryColumns building) {
+        return page(shard, LOAD_OFFICES, 0L, InventorySnapshot::toOffice)
+                .expand(offices -> offices.size() < batchSize
+                        ? Mono.empty()
+                        : page(shard, LOAD_OFFICES, offices.getLast().id(), InventorySnapshot::toOffice))
+                .doOnNext(offices -> offices.forEach(office -> building.putOffice(office.id(), office.franchiseId())))
+                .then();
+    }
+
+    /**
+     * Loads the products of a shard in keyset pages, after its offices, so
+     * every product finds the franchise of its office.
+     */
+    private Mono<Void> loadProducts(int shard, InventoryColumns building) {
+        return page(shard, LOAD_PRODUCTS, 0L, InventorySnapshot::toProduct)
+                .expand(products -> products.size() < batchSize
+                        ? Mono.empty()
+                        : page(shard, LOAD_PRODUCTS, products.getLast().id(), InventorySnapshot::toProduct))
+                .doOnNext(products -> products.forEach(product -> building.putProduct(product.id(), product.name(),
+                        product.stock(), product.officeId())))
+                .then();
+    }
+
+    private <T> Mono<List<T>> page(int shard, String sql, long after, Function<Readable, T> mapper) {
+        return shardResolver.onShard(shard, databaseClient.sql(sql)
+                        .bind("after", after)
+                        .bind("limit", batchSize)
+                        .map(mapper::apply)
+                        .all())
+                .collectList();
+    }
+
+    private static OfficeRow toOffice(Readable row) {
+        return new OfficeRow(
+                row.get("id", Long.class),
+                row.get("franchise_id", Long.class)
+        );
+    }
+
+    private static Product toProduct(Readable row) {
+        return new Product(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("stock", Integer.class),
+                row.get("office_id", Long.class)
+        );
+    }
+
+    /**
+     * Office as loaded: the snapshot only needs its franchise.
+     */
+    private record OfficeRow(Long id, Long franchiseId) {
+    }
+}
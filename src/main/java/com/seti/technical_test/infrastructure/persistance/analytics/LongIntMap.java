@@ -0,0 +1,151 @@
+package com.seti.technical_test.infrastructure.persistance.analytics;
+
+/**
+ * Map from identifier to column position over two primitive arrays, with
+ * open addressing and linear probing; about 24 bytes per entry instead of
+ * the hundred of a boxed {@code HashMap}. Identifiers are positive, so
+ * zero marks a free slot; removals shift the following entries back
+ * instead of leaving tombstones. Not thread-safe.
+ */
+final class LongIntMap {
+
+    private static final long FREE = 0L;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+    }
+
+    /**
+     * Value of a key.
+     *
+     * @param key the identifier
+     * @return the value, or {@code -1} if the key is absent
+     */
+    int get(long key) {
+        if (key == FREE) {
+            return -1;
+        }
+
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Sets the value of a key, keeping the table at most half full.
+     *
+     * @param key   the identifier, positive
+     * @param value the value
+     */
+    void put(long key, int value) {
+        if (key <= FREE) {
+            throw new IllegalArgumentException("Identifiers must be positive: " + key);
+        }
+
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        if (insert(keys, values, key, value)) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the identifier
+     * @return the value the key had, or {@code -1} if it was absent
+     */
+    int remove(long key) {
+        if (key == FREE) {
+            return -1;
+        }
+
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == FREE) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int removed = values[slot];
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            // an entry may fill the gap only if the gap lies between its home slot and its slot
+            if (((next - slot(keys[next], mask)) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = FREE;
+        size--;
+
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long bytes() {
+        return keys.length * (long) Long.BYTES + values.length * (long) Integer.BYTES;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != FREE) {
+                insert(keys, values, oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    /**
+     * Stores an entry; returns whether the key was new.
+     */
+    private static boolean insert(long[] keys, int[] values, long key, int value) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+            if (keys[slot] == FREE) {
+                keys[slot] = key;
+                values[slot] = value;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Spreads the identifiers, which are sequential per shard, over the
+     * whole table.
+     */
+    private static int slot(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
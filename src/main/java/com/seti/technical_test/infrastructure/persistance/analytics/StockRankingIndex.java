@@ -0,0 +1,404 @@
+package com.seti.technical_test.infrastructure.persistance.analytics;
+
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import com.seti.technical_test.domain.model.ChangeType;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshotFile;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory stock ranking of every office, answering the top-stock
+ * rankings, the rank of a product and the products within a stock range
+ * without a database round trip.
+ *
+ * <p>
+ * Products are kept in a {@link StockRankingTree}. On start the index
+ * notes the oldest transaction still running on every shard, loads the
+ * offices and the products in keyset pages and then follows the outbox
+ * from the noted position, applying every product and office change of
+ * any instance.
+ * The writes of this instance are also applied as soon as they are
+ * committed, so a client reads its own writes. Events already covered are
+ * replayed, which is harmless, as each event carries the whole product.
+ * Until the load is complete the index reports itself as not ready and
+ * queries go to the database.
+ * </p>
+ *
+ * <p>
+ * The outbox is followed in {@code (txid, id)} order and only below the
+ * oldest transaction still running, so a stock change committed after a
+ * higher identifier was applied is still applied, in commit order.
+ * </p>
+ *
+ * <p>
+ * When a local {@link CatalogSnapshotFile catalog snapshot} is available,
+ * the offices and products are read from it instead and the outbox is
+ * followed from the position the snapshot was taken at.
+ * </p>
+ */
+@Slf4j
+public class StockRankingIndex implements SmartLifecycle {
+
+    /**
+     * Every event of a transaction below the oldest one still running is
+     * committed, and visible to the load that follows.
+     */
+    private static final String FIND_POSITION = """
+            SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT) AS txid
+            """;
+
+    private static final String LOAD_OFFICES = """
+            SELECT id, franchise_id
+            FROM office
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String LOAD_PRODUCTS = """
+            SELECT id, name, stock, office_id
+            FROM product
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String FIND_CHANGES = """
+            SELECT id, CAST(CAST(txid AS TEXT) AS BIGINT) AS txid, aggregate_type, aggregate_id, event_type,
+                   franchise_id,
+                   payload ->> 'name' AS name,
+                   CAST(payload ->> 'stock' AS INTEGER) AS stock,
+                   CAST(payload ->> 'officeId' AS BIGINT) AS office_id
+            FROM outbox
+            WHERE (txid, id) > (CAST(CAST(:afterTxid AS TEXT) AS xid8), :afterId)
+              AND txid < pg_snapshot_xmin(pg_current_snapshot())
+              AND aggregate_type IN ('product', 'office')
+            ORDER BY txid, id
+            LIMIT :limit
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final CatalogSnapshotFile catalogSnapshotFile;
+
+    private final boolean enabled;
+
+    private final Duration pollInterval;
+
+    private final int batchSize;
+
+    private final StockRankingTree tree = new StockRankingTree(0);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    private volatile Disposable task;
+
+    public StockRankingIndex(DatabaseClient databaseClient, ShardResolver shardResolver,
+                             CatalogSnapshotFile catalogSnapshotFile, boolean enabled, Duration pollInterval,
+                             int batchSize) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.catalogSnapshotFile = catalogSnapshotFile;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Whether the index holds every product and can answer queries.
+     *
+     * @return {@code true} once the initial load is complete
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Retrieves the products with the highest stock of every office of a
+     * franchise.
+     *
+     * @param franchiseId the franchise identifier
+     * @param k           the number of products per office
+     * @return the products, by office and then by descending stock and id
+     */
+    public List<Product> findTopStockByOffice(long franchiseId, int k) {
+        return read(() -> tree.topByFranchise(franchiseId, k));
+    }
+
+    /**
+     * Retrieves the position of a product in its office.
+     *
+     * @param productId the product identifier
+     * @return the rank, or {@code null} if the product is not indexed
+     */
+    public ProductRank findRank(long productId) {
+        return read(() -> tree.rank(productId));
+    }
+
+    /**
+     * Retrieves the products of an office whose stock is within a range.
+     *
+     * @param officeId the office identifier
+     * @param minStock the lowest stock, inclusive
+     * @param maxStock the highest stock, inclusive
+     * @param limit    the maximum number of products
+     * @return the products, by descending stock and then by id
+     */
+    public List<Product> findByStockRange(long officeId, int minStock, int maxStock, int limit) {
+        return read(() -> tree.between(officeId, minStock, maxStock, limit));
+    }
+
+    /**
+     * Adds a product, or moves it to its written stock, name and office.
+     *
+     * @param product the product as written
+     */
+    public void put(Product product) {
+        if (!enabled || product == null || product.id() == null || product.officeId() == null
+                || product.stock() == null) {
+            return;
+        }
+
+        write(() -> tree.put(product.id(), product.name(), product.stock(), product.officeId()));
+    }
+
+    /**
+     * Removes a product.
+     *
+     * @param id the identifier of the product
+     */
+    public void remove(Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+
+        write(() -> tree.remove(id));
+    }
+
+    /**
+     * Adds an office, or moves it to another franchise.
+     *
+     * @param officeId    the office identifier
+     * @param franchiseId the identifier of the franchise the office belongs to
+     */
+    public void putOffice(Long officeId, Long franchiseId) {
+        if (!enabled || officeId == null || franchiseId == null) {
+            return;
+        }
+
+        write(() -> tree.putOffice(officeId, franchiseId));
+    }
+
+    /**
+     * Number of products in the index.
+     *
+     * @return the number of indexed products
+     */
+    public int size() {
+        return read(tree::size);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        int shards = shardResolver.shardCount();
+        long start = System.nanoTime();
+
+        task = Flux.range(0, shards)
+                .concatMap(shard -> shardResolver.onShard(shard, databaseClient.sql(FIND_POSITION)
+                        .map(row -> ChangeEventPosition.before(row.get("txid", Long.class)))
+                        .one()))
+                .collectList()
+                .map(positions -> positions.toArray(ChangeEventPosition[]::new))
+                .flatMap(positions -> restore(positions)
+                        .switchIfEmpty(Flux.range(0, shards).flatMap(this::load).then(Mono.just(positions))))
+                .doOnNext(positions -> {
+                    ready = true;
+                    log.info("Stock ranking index loaded with {} products in {} ms", size(),
+                            Duration.ofNanos(System.nanoTime() - start).toMillis());
+                })
+                .flatMapMany(positions -> Flux.range(0, shards)
+                        .flatMap(shard -> follow(shard, new AtomicReference<>(positions[shard])), shards))
+                .subscribe(null, error -> log.warn("Stock ranking index could not be loaded, rankings use the database: {}",
+                        error.getMessage()));
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = task;
+        if (running != null) {
+            running.dispose();
+        }
+        ready = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = task;
+        return running != null && !running.isDisposed();
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fills the index from the catalog snapshot, if there is one that can be
+     * caught up from the given outbox positions.
+     *
+     * @return the positions the snapshot was taken at, to follow the outbox from
+     */
+    private Mono<ChangeEventPosition[]> restore(ChangeEventPosition[] positions) {
+        return Mono.fromCallable(() -> catalogSnapshotFile.open(positions))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty)
+                .onErrorResume(error -> {
+                    log.warn("Catalog snapshot could not be read, the stock rankings are loaded from the database: {}",
+                            error.getMessage());
+                    return Mono.empty();
+                })
+                .map(snapshot -> {
+                    // row by row, so the writes of the adapter never wait for the whole file
+                    snapshot.forEachOffice((id, name, franchiseId) -> write(() -> tree.putOffice(id, franchiseId)));
+                    snapshot.forEachProduct((id, name, stock, officeId) -> write(() -> tree.put(id, name, stock, officeId)));
+                    log.info("Stock ranking index restored from the catalog snapshot of {}", snapshot.createdAt());
+                    return snapshot.positions();
+                });
+    }
+
+    /**
+     * Loads the offices and then the products of a shard in keyset pages,
+     * from the primary: a lagging replica could miss changes older than
+     * the noted position.
+     */
+    private Mono<Void> load(int shard) {
+        return officePage(shard, 0L)
+                .expand(offices -> offices.size() < batchSize ? Mono.empty() : officePage(shard, offices.getLast().id()))
+                .then(productPage(shard, 0L)
+                        .expand(products -> products.size() < batchSize
+                                ? Mono.empty()
+                                : productPage(shard, products.getLast().id()))
+                        .then());
+    }
+
+    private Mono<List<OfficeRow>> officePage(int shard, long after) {
+        return shardResolver.onShard(shard, databaseClient.sql(LOAD_OFFICES)
+                        .bind("after", after)
+                        .bind("limit", batchSize)
+                        .map(row -> new OfficeRow(row.get("id", Long.class), row.get("franchise_id", Long.class)))
+                        .all())
+                .collectList()
+                .doOnNext(offices -> write(() -> offices.forEach(office -> tree.putOffice(office.id(), office.franchiseId()))));
+    }
+
+    private Mono<List<Product>> productPage(int shard, long after) {
+        return shardResolver.onShard(shard, databaseClient.sql(LOAD_PRODUCTS)
+                        .bind("after", after)
+                        .bind("limit", batchSize)
+                        .map(StockRankingIndex::toProduct)
+                        .all())
+                .collectList()
+                .doOnNext(products -> write(() -> products.forEach(product ->
+                        tree.put(product.id(), product.name(), product.stock(), product.officeId()))));
+    }
+
+    /**
+     * Applies the product and office changes of a shard after the given
+     * position, on every tick, in batches.
+     */
+    private Flux<Long> follow(int shard, AtomicReference<ChangeEventPosition> position) {
+        return Flux.interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> changes(shard, position)
+                        .expand(applied -> applied < batchSize ? Mono.empty() : changes(shard, position))
+                        .onErrorResume(error -> {
+                            log.warn("Stock ranking index could not follow shard {}, it will be retried: {}",
+                                    shard, error.getMessage());
+                            return Mono.empty();
+                        }), 1);
+    }
+
+    private Mono<Long> changes(int shard, AtomicReference<ChangeEventPosition> position) {
+        return shardResolver.onShard(shard, Flux.defer(() -> databaseClient.sql(FIND_CHANGES)
+                        .bind("afterTxid", position.get().txid())
+                        .bind("afterId", position.get().id())
+                        .bind("limit", batchSize)
+                        .map(row -> {
+                            apply(row);
+                            return new ChangeEventPosition(row.get("txid", Long.class), row.get("id", Long.class));
+                        })
+                        .all()))
+                .doOnNext(position::set)
+                .count();
+    }
+
+    private void apply(Readable row) {
+        Long id = row.get("aggregate_id", Long.class);
+        Long franchiseId = row.get("franchise_id", Long.class);
+        boolean deleted = ChangeType.valueOf(row.get("event_type", String.class)) == ChangeType.DELETED;
+
+        if ("office".equals(row.get("aggregate_type", String.class))) {
+            if (!deleted) {
+                putOffice(id, franchiseId);
+            }
+        } else if (deleted) {
+            remove(id);
+        } else {
+            Long officeId = row.get("office_id", Long.class);
+            putOffice(officeId, franchiseId);
+            put(new Product(id, row.get("name", String.class), row.get("stock", Integer.class), officeId));
+        }
+    }
+
+    private static Product toProduct(Readable row) {
+        return new Product(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("stock", Integer.class),
+                row.get("office_id", Long.class)
+        );
+    }
+
+    /**
+     * Office as loaded: the index only needs its franchise.
+     */
+    private record OfficeRow(Long id, Long franchiseId) {
+    }
+}
@@ -0,0 +1,459 @@
+package com.seti.technical_test.infrastructure.persistance.analytics;
+
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * Products of every office ordered by descending stock and then by id,
+ * the order of {@code findTopStockByOffice}, in one randomized search tree
+ * (treap) per office.
+ *
+ * <p>
+ * Nodes live in a shared pool of primitive arrays, addressed by an
+ * {@code int}, and freed nodes are reused. Every node keeps the size of its
+ * subtree, so the position of a product in its office is found in one
+ * descent. Inserting, moving and removing a product, its rank and the
+ * first product of a stock range take {@code O(log n)} on average over the
+ * products of the office; listing {@code k} products takes
+ * {@code O(log n + k)}.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe: writes need exclusive access.
+ * </p>
+ */
+final class StockRankingTree {
+
+    /**
+     * Empty subtree. Slot zero is never allocated, so its size stays zero.
+     */
+    private static final int NIL = 0;
+
+    private final SplittableRandom random = new SplittableRandom(0x5EED);
+
+    private long[] ids;
+
+    private int[] stocks;
+
+    private String[] names;
+
+    private int[] officeSlots;
+
+    private int[] left;
+
+    private int[] right;
+
+    private int[] sizes;
+
+    private int[] priorities;
+
+    /**
+     * Next slot never used; freed slots are chained through {@link #right}.
+     */
+    private int allocated = 1;
+
+    private int free = NIL;
+
+    private final LongIntMap nodes;
+
+    private long[] officeIds;
+
+    private long[] officeFranchises;
+
+    private int[] roots;
+
+    private int officeCount;
+
+    private final LongIntMap offices;
+
+    private final Map<Long, TreeSet<Long>> officesByFranchise = new HashMap<>();
+
+    /**
+     * Results of {@link #split(int, int, long)}: the nodes ordered before
+     * the key and the nodes from the key on.
+     */
+    private int splitBefore;
+
+    private int splitFrom;
+
+    StockRankingTree(int expectedProducts) {
+        int capacity = Math.max(expectedProducts, 16) + 1;
+
+        this.ids = new long[capacity];
+        this.stocks = new int[capacity];
+        this.names = new String[capacity];
+        this.officeSlots = new int[capacity];
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.sizes = new int[capacity];
+        this.priorities = new int[capacity];
+        this.nodes = new LongIntMap(capacity);
+        this.officeIds = new long[64];
+        this.officeFranchises = new long[64];
+        this.roots = new int[64];
+        this.offices = new LongIntMap(64);
+    }
+
+    /**
+     * Number of products in the tree.
+     */
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Adds an office or moves it to another franchise.
+     *
+     * @param officeId    the office identifier
+     * @param franchiseId the identifier of the franchise the office belongs to
+     */
+    void putOffice(long officeId, long franchiseId) {
+        int office = officeSlot(officeId);
+        long previous = officeFranchises[office];
+
+        if (previous != franchiseId) {
+            if (previous != 0) {
+                TreeSet<Long> former = officesByFranchise.get(previous);
+                former.remove(officeId);
+                if (former.isEmpty()) {
+                    officesByFranchise.remove(previous);
+                }
+            }
+            officeFranchises[office] = franchiseId;
+            officesByFranchise.computeIfAbsent(franchiseId, key -> new TreeSet<>()).add(officeId);
+        }
+    }
+
+    /**
+     * Adds a product or moves it to its new stock, name and office.
+     *
+     * @param id       the product identifier
+     * @param name     the product name
+     * @param stock    the product stock
+     * @param officeId the identifier of the office the product belongs to
+     */
+    void put(long id, String name, int stock, long officeId) {
+        int office = officeSlot(officeId);
+        int node = nodes.get(id);
+
+        if (node > 0) {
+            if (stocks[node] == stock && officeSlots[node] == office) {
+                names[node] = name; // the position only depends on the stock and the id
+                return;
+            }
+            detach(node);
+        } else {
+            node = allocate();
+            ids[node] = id;
+            nodes.put(id, node);
+        }
+
+        names[node] = name;
+        stocks[node] = stock;
+        officeSlots[node] = office;
+        left[node] = NIL;
+        right[node] = NIL;
+        sizes[node] = 1;
+        priorities[node] = random.nextInt();
+
+        split(roots[office], stock, id);
+        roots[office] = merge(merge(splitBefore, node), splitFrom);
+    }
+
+    /**
+     * Removes a product.
+     *
+     * @param id the product identifier
+     */
+    void remove(long id) {
+        int node = nodes.remove(id);
+        if (node > 0) {
+            detach(node);
+            names[node] = null;
+            right[node] = free;
+            free = node;
+        }
+    }
+
+    /**
+     * Products of an office with the highest stock.
+     *
+     * @param officeId the office identifier
+     * @param k        the number of products
+     * @return at most {@code k} products, by descending stock and then by id
+     */
+    List<Product> top(long officeId, int k) {
+        int office = offices.get(officeId);
+        List<Product> products = new ArrayList<>(Math.min(k, 64));
+        if (office >= 0) {
+            collect(roots[office], k, products);
+        }
+        return products;
+    }
+
+    /**
+     * Products with the highest stock of every office of a franchise.
+     *
+     * @param franchiseId the franchise identifier
+     * @param k           the number of products per office
+     * @return the products, by office and then by descending stock
+     */
+    List<Product> topByFranchise(long franchiseId, int k) {
+        TreeSet<Long> franchiseOffices = officesByFranchise.get(franchiseId);
+        if (franchiseOffices == null) {
+            return List.of();
+        }
+
+        List<Product> products = new ArrayList<>();
+        for (Long officeId : franchiseOffices) {
+            collect(roots[offices.get(officeId)], k, products);
+        }
+        return products;
+    }
+
+    /**
+     * Position of a product in its office.
+     *
+     * @param id the product identifier
+     * @return the rank, one for the highest stock, or {@code null} if the product is not in the tree
+     */
+    ProductRank rank(long id) {
+        int node = nodes.get(id);
+        if (node <= 0) {
+            return null;
+        }
+
+        int office = officeSlots[node];
+        long before = countBefore(roots[office], stocks[node], id);
+
+        return new ProductRank(id, officeIds[office], stocks[node], before + 1, (long) sizes[roots[office]]);
+    }
+
+    /**
+     * Products of an office whose stock is within a range.
+     *
+     * @param officeId the office identifier
+     * @param minStock the lowest stock, inclusive
+     * @param maxStock the highest stock, inclusive
+     * @param limit    the maximum number of products
+     * @return the products, by descending stock and then by id
+     */
+    List<Product> between(long officeId, int minStock, int maxStock, int limit) {
+        int office = offices.get(officeId);
+        List<Product> products = new ArrayList<>(Math.min(limit, 64));
+        if (office < 0) {
+            return products;
+        }
+
+        // the first product at or below the highest stock, found by descending the path to it
+        int[] path = new int[64];
+        int depth = 0;
+        for (int node = roots[office]; node != NIL; ) {
+            if (stocks[node] <= maxStock) {
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                }
+                path[depth++] = node;
+                node = left[node];
+            } else {
+                node = right[node];
+            }
+        }
+
+        // in-order walk from there, with the path as the stack of pending ancestors
+        while (depth > 0 && products.size() < limit) {
+            int node = path[--depth];
+            if (stocks[node] < minStock) {
+                break;
+            }
+            products.add(product(node));
+
+            for (int child = right[node]; child != NIL; child = left[child]) {
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                }
+                path[depth++] = child;
+            }
+        }
+
+        return products;
+    }
+
+    /**
+     * Appends the first {@code k} products of a subtree, in order.
+     */
+    private void collect(int root, int k, List<Product> products) {
+        int[] stack = new int[64];
+        int depth = 0;
+        int added = 0;
+        int node = root;
+
+        while ((node != NIL || depth > 0) && added < k) {
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left[node];
+            }
+
+            node = stack[--depth];
+            products.add(product(node));
+            added++;
+            node = right[node];
+        }
+    }
+
+    /**
+     * Number of nodes of a subtree ordered before a key.
+     */
+    private long countBefore(int root, int stock, long id) {
+        long count = 0;
+        for (int node = root; node != NIL; ) {
+            if (isBefore(stocks[node], ids[node], stock, id)) {
+                count += sizes[left[node]] + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return count;
+    }
+
+    private Product product(int node) {
+        return new Product(ids[node], names[node], stocks[node], officeIds[officeSlots[node]]);
+    }
+
+    /**
+     * Unlinks a node from the tree of its office.
+     */
+    private void detach(int node) {
+        int office = officeSlots[node];
+        roots[office] = erase(roots[office], node);
+    }
+
+    private int erase(int root, int node) {
+        if (root == node) {
+            return merge(left[root], right[root]);
+        }
+
+        if (isBefore(stocks[node], ids[node], stocks[root], ids[root])) {
+            left[root] = erase(left[root], node);
+        } else {
+            right[root] = erase(right[root], node);
+        }
+        resize(root);
+
+        return root;
+    }
+
+    /**
+     * Splits a subtree into the nodes ordered before a key and the others,
+     * left in {@link #splitBefore} and {@link #splitFrom}.
+     */
+    private void split(int root, int stock, long id) {
+        if (root == NIL) {
+            splitBefore = NIL;
+            splitFrom = NIL;
+            return;
+        }
+
+        if (isBefore(stocks[root], ids[root], stock, id)) {
+            split(right[root], stock, id);
+            right[root] = splitBefore;
+            resize(root);
+            splitBefore = root;
+        } else {
+            split(left[root], stock, id);
+            left[root] = splitFrom;
+            resize(root);
+            splitFrom = root;
+        }
+    }
+
+    /**
+     * Joins two subtrees whose nodes are all ordered before the nodes of
+     * the second one.
+     */
+    private int merge(int first, int second) {
+        if (first == NIL) {
+            return second;
+        }
+        if (second == NIL) {
+            return first;
+        }
+
+        if (priorities[first] > priorities[second]) {
+            right[first] = merge(right[first], second);
+            resize(first);
+            return first;
+        }
+
+        left[second] = merge(first, left[second]);
+        resize(second);
+        return second;
+    }
+
+    private void resize(int node) {
+        sizes[node] = sizes[left[node]] + sizes[right[node]] + 1;
+    }
+
+    /**
+     * Whether a product comes first in the ranking: higher stock first, then
+     * lower id.
+     */
+    private static boolean isBefore(int stock, long id, int otherStock, long otherId) {
+        return stock > otherStock || (stock == otherStock && id < otherId);
+    }
+
+    private int allocate() {
+        if (free != NIL) {
+            int node = free;
+            free = right[node];
+            return node;
+        }
+
+        if (allocated == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            stocks = Arrays.copyOf(stocks, capacity);
+            names = Arrays.copyOf(names, capacity);
+            officeSlots = Arrays.copyOf(officeSlots, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+        }
+
+        return allocated++;
+    }
+
+    private int officeSlot(long officeId) {
+        int office = offices.get(officeId);
+        if (office >= 0) {
+            return office;
+        }
+
+        if (officeCount == officeIds.length) {
+            officeIds = Arrays.copyOf(officeIds, officeCount * 2);
+            officeFranchises = Arrays.copyOf(officeFranchises, officeCount * 2);
+            roots = Arrays.copyOf(roots, officeCount * 2);
+        }
+
+        office = officeCount++;
+        officeIds[office] = officeId;
+        officeFranchises[office] = 0; // not known until putOffice
+        roots[office] = NIL;
+        offices.put(officeId, office);
+
+        return office;
+    }
+}
@@ -0,0 +1,264 @@
+package com.seti.technical_test.infrastructure.persistance.cache;
+
+import com.seti.technical_test.domain.model.Product;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Local cache of the top-stock ranking of each franchise.
+ *
+ * <p>
+ * An entry holds the ranking for the largest {@code k} loaded so far and
+ * answers any smaller {@code k} by keeping the first products of each
+ * office. Entries are invalidated by the writes of this instance, through
+ * the office of the written product, and expire after a time to live that
+ * bounds the staleness caused by other instances and by the stock
+ * write-behind buffer.
+ * </p>
+ *
+ * <p>
+ * A load takes the generation of its franchise, a stamp that is unique
+ * across franchises and dropped on each invalidation, then reads the
+ * offices of the franchise and the ranking, and is only stored if the
+ * generation is still current, so a load racing with a write never caches
+ * the state from before the write.
+ * </p>
+ *
+ * <p>
+ * Generations and office-to-franchise mappings are only kept for the
+ * franchises cached or loading: a generation leaves with its ranking, and
+ * the mappings of franchises without a generation are swept once they
+ * outnumber the live ones, so the cache stays bounded by
+ * {@code maxFranchises} whatever the number of franchises and offices
+ * queried over time. Forgetting a generation only makes a load skip its
+ * store, so every removal errs on the side of a miss.
+ * </p>
+ */
+public class TopStockCache {
+
+    private static final int MIN_OFFICE_SWEEP = 1_024;
+
+    private final boolean enabled;
+
+    private final long ttlNanos;
+
+    private final int maxFranchises;
+
+    private final Map<Long, Ranking> rankings = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> franchiseOfOffice = new ConcurrentHashMap<>();
+
+    private final AtomicLong stamps = new AtomicLong();
+
+    private volatile int officeSweepThreshold = MIN_OFFICE_SWEEP;
+
+    public TopStockCache(boolean enabled, Duration ttl, int maxFranchises) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxFranchises = maxFranchises;
+    }
+
+    /**
+     * Tells whether rankings are cached.
+     *
+     * @return {@code true} if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the ranking of a franchise, loading it on a miss.
+     *
+     * @param franchiseId the franchise identifier
+     * @param k           the number of products per office
+     * @param offices     supplier of the identifiers of the offices of the franchise
+     * @param loader      supplier of the ranking, ordered by office and descending stock
+     * @return a {@link Flux} emitting the ranking
+     */
+    public Flux<Product> get(Long franchiseId, int k, Supplier<Flux<Long>> offices, Supplier<Flux<Product>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        return Flux.defer(() -> {
+            Ranking cached = rankings.get(franchiseId);
+            if (cached != null && cached.k >= k && System.nanoTime() - cached.loadedAt < ttlNanos) {
+                return Flux.fromIterable(cached.limit(k));
+            }
+
+            long generation = generations.computeIfAbsent(franchiseId, id -> stamps.incrementAndGet());
+            return offices.get()
+                    .doOnNext(officeId -> franchiseOfOffice.put(officeId, franchiseId))
+                    .then(loader.get().collectList())
+                    .doOnNext(products -> store(franchiseId, new Ranking(k, products, System.nanoTime(), generation)))
+                    .doFinally(signal -> release(franchiseId, generation))
+                    .flatMapIterable(products -> products);
+        });
+    }
+
+    /**
+     * Invalidates the ranking of the franchise an office belongs to.
+     *
+     * @param officeId the office of a written product
+     */
+    public void invalidateOffice(Long officeId) {
+        Long franchiseId = franchiseOfOffice.get(officeId);
+        if (franchiseId != null) {
+            invalidate(franchiseId);
+        }
+    }
+
+    /**
+     * Invalidates the ranking of a franchise whose offices changed, and of
+     * the franchise the office belonged to until now.
+     *
+     * @param officeId    the written office, {@code null} for a new one
+     * @param franchiseId the franchise of the office
+     */
+    public void invalidateFranchise(Long officeId, Long franchiseId) {
+        if (officeId != null) {
+            Long previous = franchiseOfOffice.remove(officeId);
+            if (previous != null && !previous.equals(franchiseId)) {
+                invalidate(previous);
+            }
+        }
+
+        invalidate(franchiseId);
+    }
+
+    /**
+     * Number of franchises with a cached ranking or a load in progress.
+     *
+     * @return the number of tracked franchises
+     */
+    int trackedFranchises() {
+        return generations.size();
+    }
+
+    /**
+     * Number of offices whose franchise is remembered.
+     *
+     * @return the number of tracked offices
+     */
+    int trackedOffices() {
+        return franchiseOfOffice.size();
+    }
+
+    private void invalidate(Long franchiseId) {
+        if (!enabled) {
+            return;
+        }
+
+        generations.remove(franchiseId);
+        rankings.remove(franchiseId);
+    }
+
+    /**
+     * Stores a loaded ranking unless the franchise was invalidated while
+     * it was loading.
+     */
+    private void store(Long franchiseId, Ranking ranking) {
+        if (rankings.size() >= maxFranchises && !rankings.containsKey(franchiseId)) {
+            long now = System.nanoTime();
+            rankings.forEach((id, candidate) -> {
+                if (now - candidate.loadedAt >= ttlNanos) {
+                    evict(id, candidate);
+                }
+            });
+            if (rankings.size() >= maxFranchises) {
+                return;
+            }
+        }
+
+        rankings.compute(franchiseId, (id, current) -> {
+            Long generation = generations.get(id);
+            if (generation == null || generation != ranking.generation) {
+                return current;
+            }
+            boolean currentCoversMore = current != null && current.k > ranking.k
+                    && ranking.loadedAt - current.loadedAt < ttlNanos;
+            return currentCoversMore ? current : ranking;
+        });
+    }
+
+    private void evict(Long franchiseId, Ranking ranking) {
+        if (rankings.remove(franchiseId, ranking)) {
+            generations.remove(franchiseId, ranking.generation);
+        }
+    }
+
+    /**
+     * Forgets the generation of a load whose ranking was not stored, and
+     * sweeps the office mappings when they have grown.
+     */
+    private void release(Long franchiseId, long generation) {
+        Ranking stored = rankings.get(franchiseId);
+        if (stored == null || stored.generation != generation) {
+            generations.remove(franchiseId, generation);
+        }
+
+        if (franchiseOfOffice.size() >= officeSweepThreshold) {
+            sweepOffices();
+        }
+    }
+
+    /**
+     * Drops the office mappings of the franchises without a generation. A
+     * franchise whose mapping is dropped is invalidated as well, in case a
+     * load took a new generation for it in the meantime.
+     */
+    private void sweepOffices() {
+        Set<Long> forgotten = new HashSet<>();
+        franchiseOfOffice.entrySet().removeIf(mapping -> {
+            if (generations.containsKey(mapping.getValue())) {
+                return false;
+            }
+            forgotten.add(mapping.getValue());
+            return true;
+        });
+        forgotten.forEach(this::invalidate);
+        officeSweepThreshold = Math.max(MIN_OFFICE_SWEEP, 2 * franchiseOfOffice.size());
+    }
+
+    /**
+     * Ranking of a franchise loaded for {@code k} products per office
+     * under a generation.
+     */
+    private record Ranking(int k, List<Product> products, long loadedAt, long generation) {
+
+        /**
+         * Keeps the first {@code limit} products of each office.
+         */
+        List<Product> limit(int limit) {
+            if (limit >= k) {
+                return products;
+            }
+
+            List<Product> limited = new ArrayList<>();
+            Long office = null;
+            int taken = 0;
+            for (Product product : products) {
+                if (!product.officeId().equals(office)) {
+                    office = product.officeId();
+                    taken = 0;
+                }
+                if (taken++ < limit) {
+                    limited.add(product);
+                }
+            }
+            return limited;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.seti.technical_test.infrastructure.persistance.connection;
+
+import reactor.util.context.Context;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reactor context entries used to route statements between the primary
+ * database and its read replicas.
+ *
+ * <p>
+ * Persistence adapters mark read-only operations with {@link #READ_ONLY}.
+ * The routing connection factory sends those operations to a replica and
+ * every other operation to the primary. A {@link State} placed in the
+ * context once per HTTP request remembers whether the request has written;
+ * from then on, its reads go to the primary too, so a request always
+ * observes its own writes.
+ * </p>
+ */
+public final class ReadOnlyRouting {
+
+    /**
+     * Context key flagging a read-only operation.
+     */
+    public static final String KEY = ReadOnlyRouting.class.getName() + ".readOnly";
+
+    /**
+     * Context to append to read-only operations.
+     */
+    public static final Context READ_ONLY = Context.of(KEY, Boolean.TRUE);
+
+    private ReadOnlyRouting() {
+    }
+
+    /**
+     * Per-request routing state.
+     */
+    public static final class State {
+
+        private final AtomicBoolean written;
+
+        public State(boolean written) {
+            this.written = new AtomicBoolean(written);
+        }
+
+        /**
+         * Records that the request issued a statement on the primary.
+         */
+        void markWritten() {
+            written.set(true);
+        }
+
+        /**
+         * Tells whether the request has issued a statement on the primary.
+         *
+         * @return {@code true} if later reads must go to the primary
+         */
+        public boolean hasWritten() {
+            return written.get();
+        }
+    }
+}
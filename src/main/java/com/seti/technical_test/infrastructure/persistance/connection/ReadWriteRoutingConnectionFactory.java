@@ -0,0 +1,51 @@
+package com.seti.technical_test.infrastructure.persistance.connection;
+
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routing connection factory that sends read-only operations to the read
+ * replicas and everything else to the primary.
+ *
+ * <p>
+ * An operation is read-only when its Reactor context carries
+ * {@link ReadOnlyRouting#READ_ONLY}. Reads fall back to the primary when
+ * the request has already written (see {@link ReadOnlyRouting.State}) or
+ * when the {@link ReplicaHealthMonitor} reports no healthy replica.
+ * </p>
+ */
+public class ReadWriteRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    /**
+     * Lookup key of the primary database.
+     */
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaHealthMonitor healthMonitor;
+
+    public ReadWriteRoutingConnectionFactory(ReplicaHealthMonitor healthMonitor) {
+        this.healthMonitor = healthMonitor;
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            ReadOnlyRouting.State state = context.getOrDefault(ReadOnlyRouting.State.class, null);
+            boolean readOnly = context.getOrDefault(ReadOnlyRouting.KEY, Boolean.FALSE);
+
+            if (!readOnly) {
+                if (state != null) {
+                    state.markWritten();
+                }
+                return Mono.just(PRIMARY);
+            }
+
+            if (state != null && state.hasWritten()) {
+                return Mono.just(PRIMARY);
+            }
+
+            String replica = healthMonitor.nextHealthyReplica();
+            return Mono.just(replica != null ? replica : PRIMARY);
+        });
+    }
+}
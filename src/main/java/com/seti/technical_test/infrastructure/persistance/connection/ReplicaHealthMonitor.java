@@ -0,0 +1,153 @@
+package com.seti.technical_test.infrastructure.persistance.connection;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically checks the read replicas and keeps the list of those that
+ * can serve reads.
+ *
+ * <p>
+ * A replica is healthy when it answers within the check timeout and its
+ * replay position is at most {@code maxLagBytes} of WAL behind the
+ * primary. Comparing WAL positions, rather than the last replay timestamp,
+ * avoids reporting lag on a replica that is simply idle.
+ * </p>
+ */
+@Slf4j
+public class ReplicaHealthMonitor implements SmartLifecycle {
+
+    private static final String PRIMARY_LSN = "SELECT pg_current_wal_lsn()::text";
+
+    private static final String REPLICA_LAG = "SELECT pg_wal_lsn_diff($1::pg_lsn, pg_last_wal_replay_lsn())::bigint";
+
+    private final ConnectionFactory primary;
+
+    private final Map<String, ConnectionFactory> replicas;
+
+    private final Duration interval;
+
+    private final long maxLagBytes;
+
+    /**
+     * Keys of the replicas currently allowed to serve reads.
+     */
+    private volatile List<String> healthy = List.of();
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    private volatile Disposable task;
+
+    public ReplicaHealthMonitor(ConnectionFactory primary, Map<String, ConnectionFactory> replicas,
+                                Duration interval, long maxLagBytes) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.interval = interval;
+        this.maxLagBytes = maxLagBytes;
+    }
+
+    /**
+     * Picks the next healthy replica in round-robin order.
+     *
+     * @return the key of the replica, or {@code null} when none is healthy
+     */
+    public String nextHealthyReplica() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        return candidates.get(Math.floorMod(roundRobin.getAndIncrement(), candidates.size()));
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> check(), 1)
+                .subscribe(result -> healthy = result);
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = task;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = task;
+        return current != null && !current.isDisposed();
+    }
+
+    /**
+     * Runs one health check of all the replicas.
+     *
+     * @return a {@link Mono} emitting the keys of the healthy replicas
+     */
+    private Mono<List<String>> check() {
+        Duration timeout = interval.dividedBy(2);
+
+        return query(primary, PRIMARY_LSN, null, String.class)
+                .timeout(timeout)
+                .flatMap(primaryLsn -> Flux.fromIterable(replicas.entrySet())
+                        .flatMap(replica -> query(replica.getValue(), REPLICA_LAG, primaryLsn, Long.class)
+                                .timeout(timeout)
+                                .filter(lag -> lag <= maxLagBytes)
+                                .map(lag -> replica.getKey())
+                                .onErrorResume(error -> {
+                                    log.warn("Replica {} is unavailable: {}", replica.getKey(), error.getMessage());
+                                    return Mono.empty();
+                                }))
+                        .collectList())
+                .map(keys -> {
+                    List<String> sorted = new ArrayList<>(keys);
+                    sorted.sort(String::compareTo);
+                    return List.copyOf(sorted);
+                })
+                .onErrorResume(error -> {
+                    log.warn("Primary is unavailable, reads are routed to it until it recovers: {}", error.getMessage());
+                    return Mono.just(List.of());
+                });
+    }
+
+    /**
+     * Runs a single-value query on a dedicated connection.
+     *
+     * @param connectionFactory the factory to obtain the connection from
+     * @param sql the query
+     * @param argument the optional first bind argument
+     * @param type the type of the single returned value
+     * @return a {@link Mono} emitting the value
+     */
+    private static <T> Mono<T> query(ConnectionFactory connectionFactory, String sql, Object argument, Class<T> type) {
+        return Mono.usingWhen(
+                connectionFactory.create(),
+                connection -> execute(connection, sql, argument, type),
+                Connection::close);
+    }
+
+    private static <T> Mono<T> execute(Connection connection, String sql, Object argument, Class<T> type) {
+        var statement = connection.createStatement(sql);
+        if (argument != null) {
+            statement.bind(0, argument);
+        }
+
+        return Flux.from(statement.execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get(0, type)))
+                .next();
+    }
+}
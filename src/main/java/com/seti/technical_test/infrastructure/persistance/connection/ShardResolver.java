@@ -0,0 +1,126 @@
+package com.seti.technical_test.infrastructure.persistance.connection;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.function.Supplier;
+
+/**
+ * Resolves the shard holding a franchise hierarchy and scopes reactive
+ * operations to it.
+ *
+ * <p>
+ * Each shard owns complete franchises, with their offices and products.
+ * Identifier sequences are interleaved across shards (shard {@code i} of
+ * {@code n} generates {@code i + 1}, {@code i + 1 + n}, ...), so the shard
+ * of any franchise, office or product is encoded in its identifier and no
+ * directory lookup is needed. Offices are created on the shard of their
+ * franchise and products on the shard of their office, and never leave
+ * it: a record moved under a parent of another shard would be written as
+ * a copy there and left behind on its own shard.
+ * </p>
+ *
+ * <p>
+ * With a single shard every method is a no-op, so the adapters can use
+ * this class unconditionally.
+ * </p>
+ */
+public class ShardResolver {
+
+    /**
+     * Context key carrying the target shard index.
+     */
+    public static final String KEY = ShardResolver.class.getName() + ".shard";
+
+    private final int shardCount;
+
+    private final Context[] contexts;
+
+    public ShardResolver(int shardCount) {
+        this.shardCount = Math.max(1, shardCount);
+        this.contexts = new Context[this.shardCount];
+        for (int shard = 0; shard < this.shardCount; shard++) {
+            contexts[shard] = Context.of(KEY, shard);
+        }
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the shard count
+     */
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Returns the shard encoded in an identifier.
+     *
+     * @param id a franchise, office or product identifier
+     * @return the shard index
+     */
+    public int shardOf(Long id) {
+        return Math.floorMod(id - 1, shardCount);
+    }
+
+    /**
+     * Tells whether saving a record under a parent would move it to
+     * another shard, which is not supported.
+     *
+     * @param id       the record identifier, or {@code null} for a new record
+     * @param parentId the identifier of the franchise or office it belongs to
+     * @return {@code true} if an existing record would change shard
+     */
+    public boolean movesAcrossShards(Long id, Long parentId) {
+        return id != null && shardOf(id) != shardOf(parentId);
+    }
+
+    /**
+     * Chooses the shard on which a new franchise is created.
+     *
+     * @param name the franchise name
+     * @return the shard index
+     */
+    public int shardForNewFranchise(String name) {
+        return Math.floorMod(name.hashCode(), shardCount);
+    }
+
+    /**
+     * Scopes an operation to a shard.
+     *
+     * @param shard the shard index
+     * @param mono the operation
+     * @return the scoped operation
+     */
+    public <T> Mono<T> onShard(int shard, Mono<T> mono) {
+        return shardCount == 1 ? mono : mono.contextWrite(contexts[shard]);
+    }
+
+    /**
+     * Scopes an operation to a shard.
+     *
+     * @param shard the shard index
+     * @param flux the operation
+     * @return the scoped operation
+     */
+    public <T> Flux<T> onShard(int shard, Flux<T> flux) {
+        return shardCount == 1 ? flux : flux.contextWrite(contexts[shard]);
+    }
+
+    /**
+     * Runs an operation on every shard and merges the results.
+     *
+     * @param operation supplier creating the operation, invoked once per shard
+     * @return the merged results of all shards
+     */
+    public <T> Flux<T> onEveryShard(Supplier<? extends Publisher<T>> operation) {
+        if (shardCount == 1) {
+            return Flux.from(operation.get());
+        }
+
+        return Flux.range(0, shardCount)
+                .flatMap(shard -> Flux.from(operation.get()).contextWrite(contexts[shard]));
+    }
+}
@@ -0,0 +1,17 @@
+package com.seti.technical_test.infrastructure.persistance.connection;
+
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routing connection factory that selects the shard set in the Reactor
+ * context by {@link ShardResolver}. Operations without a shard, such as
+ * infrastructure queries, go to the default shard.
+ */
+public class ShardRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(ShardResolver.KEY)));
+    }
+}
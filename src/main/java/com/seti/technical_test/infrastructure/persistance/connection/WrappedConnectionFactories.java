@@ -0,0 +1,36 @@
+package com.seti.technical_test.infrastructure.persistance.connection;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+
+/**
+ * Helpers to navigate chains of decorated {@link ConnectionFactory} instances.
+ *
+ * <p>
+ * The connection factory bean is decorated by several infrastructure
+ * concerns (metrics, query tracing). Each decorator implements
+ * {@link Wrapped}, which allows reaching the original factory, typically
+ * the connection pool.
+ * </p>
+ */
+public final class WrappedConnectionFactories {
+
+    private WrappedConnectionFactories() {
+    }
+
+    /**
+     * Returns the innermost factory of a decoration chain.
+     *
+     * @param connectionFactory the possibly decorated factory
+     * @return the first factory in the chain that is not a decorator
+     */
+    public static ConnectionFactory innermost(ConnectionFactory connectionFactory) {
+        ConnectionFactory current = connectionFactory;
+
+        while (current instanceof Wrapped<?> wrapped && wrapped.unwrap() instanceof ConnectionFactory next && next != current) {
+            current = next;
+        }
+
+        return current;
+    }
+}
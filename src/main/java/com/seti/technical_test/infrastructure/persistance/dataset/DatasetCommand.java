@@ -0,0 +1,69 @@
+package com.seti.technical_test.infrastructure.persistance.dataset;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+
+import java.nio.file.Path;
+
+/**
+ * Runs a dataset export or import once the application has started.
+ *
+ * <p>
+ * Its outcome is the exit code of the application, {@code 0} on success
+ * and {@code 1} on failure, handed to {@code SpringApplication.exit} as an
+ * {@link ExitCodeGenerator}; the application exits with it once the
+ * command is done.
+ * </p>
+ */
+@Slf4j
+public class DatasetCommand implements ApplicationRunner, ExitCodeGenerator {
+
+    private final DatasetExporter datasetExporter;
+
+    private final DatasetImporter datasetImporter;
+
+    private final boolean export;
+
+    private final Path file;
+
+    private volatile int exitCode;
+
+    public DatasetCommand(DatasetExporter datasetExporter, DatasetImporter datasetImporter, boolean export,
+                          Path file) {
+        this.datasetExporter = datasetExporter;
+        this.datasetImporter = datasetImporter;
+        this.export = export;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        exitCode = execute();
+    }
+
+    /**
+     * Runs the command.
+     *
+     * @return {@code 0} on success, {@code 1} on failure
+     */
+    public int execute() {
+        try {
+            if (export) {
+                datasetExporter.export(file).block();
+            } else {
+                datasetImporter.importFile(file).block();
+            }
+            return 0;
+        } catch (RuntimeException e) {
+            log.error("Dataset {} of {} failed", export ? "export" : "import", file, e);
+            return 1;
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
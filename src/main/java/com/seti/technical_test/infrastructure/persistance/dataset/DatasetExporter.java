@@ -0,0 +1,146 @@
+package com.seti.technical_test.infrastructure.persistance.dataset;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ReadOnlyRouting;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Exports the franchises, offices and products of every shard to a
+ * {@link DatasetFile}.
+ *
+ * <p>
+ * Each shard is read in a single read-only, repeatable-read transaction,
+ * so its rows form a consistent snapshot, preferably on a replica. Tables
+ * are streamed through a server-side cursor of one batch, and every batch
+ * is written as a block off the database threads while the next one is
+ * fetched; memory use does not depend on the size of the dataset.
+ * </p>
+ */
+@Slf4j
+public class DatasetExporter {
+
+    private static final String SNAPSHOT = "SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY";
+
+    private static final String EXPORT_FRANCHISES = """
+            SELECT id, name
+            FROM franchise
+            """;
+
+    private static final String EXPORT_OFFICES = """
+            SELECT id, name, franchise_id
+            FROM office
+            """;
+
+    private static final String EXPORT_PRODUCTS = """
+            SELECT id, name, stock, office_id
+            FROM product
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final int batchSize;
+
+    public DatasetExporter(DatabaseClient databaseClient, ShardResolver shardResolver,
+                           TransactionalOperator transactionalOperator, int batchSize) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.transactionalOperator = transactionalOperator;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Exports the dataset, replacing the file if it exists.
+     *
+     * @param file the file to write
+     * @return a {@link Mono} emitting what was exported
+     */
+    public Mono<DatasetReport> export(Path file) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+
+            return Mono.using(
+                            () -> DatasetFile.create(file, shardResolver.shardCount()),
+                            writer -> Flux.range(0, shardResolver.shardCount())
+                                    .concatMap(shard -> exportShard(writer, shard))
+                                    .then(Mono.fromCallable(() -> {
+                                        long bytes = writer.finish();
+                                        return new DatasetReport(
+                                                writer.rows(DatasetFile.FRANCHISES),
+                                                writer.rows(DatasetFile.OFFICES),
+                                                writer.rows(DatasetFile.PRODUCTS),
+                                                bytes,
+                                                Duration.ofNanos(System.nanoTime() - start));
+                                    })),
+                            DatasetFile.Writer::close)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnNext(report -> log.info("Exported {} to {}", report, file));
+        });
+    }
+
+    private Mono<Void> exportShard(DatasetFile.Writer writer, int shard) {
+        return shardResolver.onShard(shard, transactionalOperator.transactional(databaseClient.sql(SNAPSHOT)
+                        .then()
+                        .then(section(writer, shard, DatasetFile.FRANCHISES, EXPORT_FRANCHISES,
+                                DatasetExporter::toFranchise))
+                        .then(section(writer, shard, DatasetFile.OFFICES, EXPORT_OFFICES,
+                                DatasetExporter::toOffice))
+                        .then(section(writer, shard, DatasetFile.PRODUCTS, EXPORT_PRODUCTS,
+                                DatasetExporter::toProduct))))
+                .contextWrite(ReadOnlyRouting.READ_ONLY)
+                .doOnSuccess(ignored -> log.info("Exported shard {}: {} franchises, {} offices, {} products so far",
+                        shard, writer.rows(DatasetFile.FRANCHISES), writer.rows(DatasetFile.OFFICES),
+                        writer.rows(DatasetFile.PRODUCTS)));
+    }
+
+    /**
+     * Streams a table through a cursor and writes it block by block; the
+     * small prefetch keeps at most a couple of batches in memory.
+     */
+    private Mono<Void> section(DatasetFile.Writer writer, int shard, byte type, String sql,
+                               Function<Readable, DatasetFile.Row> mapper) {
+        return databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(batchSize))
+                .map(mapper::apply)
+                .all()
+                .buffer(batchSize)
+                .publishOn(Schedulers.boundedElastic(), 2)
+                .doOnNext(rows -> writer.write(type, shard, rows))
+                .then();
+    }
+
+    private static DatasetFile.Row toFranchise(Readable row) {
+        return new DatasetFile.Row(row.get("id", Long.class), row.get("name", String.class), 0L, 0);
+    }
+
+    private static DatasetFile.Row toOffice(Readable row) {
+        return new DatasetFile.Row(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("franchise_id", Long.class),
+                0
+        );
+    }
+
+    private static DatasetFile.Row toProduct(Readable row) {
+        return new DatasetFile.Row(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("office_id", Long.class),
+                row.get("stock", Integer.class)
+        );
+    }
+}
@@ -0,0 +1,426 @@
+package com.seti.technical_test.infrastructure.persistance.dataset;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary file holding a whole dataset: the franchises, offices and
+ * products of every shard.
+ *
+ * <p>
+ * The file starts with a header (magic, format, creation time and shard
+ * count) followed by blocks of at most a few thousand rows. Each block has
+ * its own header (row type, shard, row count and payload length) and ends
+ * with a CRC32C of the header and payload, so the file is written and
+ * read as a stream and corruption is detected before a block is used.
+ * Within a shard, franchises come before offices and offices before
+ * products. A final block holds the row counts, so a truncated file is
+ * detected too.
+ * </p>
+ *
+ * <pre>
+ * franchise id, name
+ * office    id, franchise id, name
+ * product   id, office id, stock, name
+ * </pre>
+ *
+ * <p>
+ * Names are UTF-8, prefixed by their length. All methods perform blocking
+ * I/O and must run on a scheduler that allows it.
+ * </p>
+ */
+public final class DatasetFile {
+
+    static final int MAGIC = 0x44534554; // "DSET"
+
+    static final int FORMAT = 1;
+
+    static final byte END = 0;
+
+    static final byte FRANCHISES = 1;
+
+    static final byte OFFICES = 2;
+
+    static final byte PRODUCTS = 3;
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final int BLOCK_HEADER_SIZE = Byte.BYTES + 3 * Integer.BYTES;
+
+    /**
+     * Largest payload accepted when reading, well above any block written.
+     */
+    private static final int MAX_PAYLOAD = 64 << 20;
+
+    private DatasetFile() {
+    }
+
+    /**
+     * Creates a dataset file, replacing any existing one.
+     *
+     * @param file       the file to write
+     * @param shardCount the number of shards the rows come from
+     * @return the file being written
+     */
+    public static Writer create(Path file, int shardCount) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Writer writer = new Writer(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING));
+            writer.write(ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT)
+                    .putLong(Instant.now().toEpochMilli())
+                    .putInt(shardCount)
+                    .flip());
+            return writer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens a dataset file and reads its header.
+     *
+     * @param file the file to read
+     * @return the file being read
+     */
+    public static Reader open(Path file) {
+        try {
+            Reader reader = new Reader(FileChannel.open(file, StandardOpenOption.READ));
+            ByteBuffer header = reader.read(HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT) {
+                reader.close();
+                throw new IllegalStateException(file + " is not a dataset file of format " + FORMAT);
+            }
+
+            reader.createdAt = Instant.ofEpochMilli(header.getLong());
+            reader.shardCount = header.getInt();
+            return reader;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int checksum(ByteBuffer block, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(block.slice(0, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A row of any type; fields a type does not have are zero.
+     *
+     * @param id       the row identifier
+     * @param name     the row name
+     * @param parentId the franchise of an office, or the office of a product
+     * @param stock    the stock of a product
+     */
+    public record Row(long id, String name, long parentId, int stock) {
+    }
+
+    /**
+     * The rows of a block, as arrays ready to be bound to an
+     * {@code unnest} insert.
+     *
+     * @param type      the row type
+     * @param shard     the shard the rows come from
+     * @param ids       the identifiers
+     * @param names     the names
+     * @param parentIds the franchise of each office or the office of each product; {@code null} for franchises
+     * @param stocks    the stock of each product; {@code null} for franchises and offices
+     */
+    public record Block(byte type, int shard, Long[] ids, String[] names, Long[] parentIds, Integer[] stocks) {
+
+        /**
+         * Number of rows of the block.
+         *
+         * @return the row count
+         */
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    /**
+     * A dataset file being written. Blocks of each shard must be written
+     * franchises first, then offices, then products.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+        private final long[] counts = new long[4];
+
+        private long written;
+
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Appends a block of rows.
+         *
+         * @param type  the row type
+         * @param shard the shard the rows come from
+         * @param rows  the rows
+         */
+        public void write(byte type, int shard, List<Row> rows) {
+            buffer.clear().position(BLOCK_HEADER_SIZE);
+            for (Row row : rows) {
+                byte[] name = row.name().getBytes(StandardCharsets.UTF_8);
+                ensure(2 * Long.BYTES + Integer.BYTES + Short.BYTES + name.length + Integer.BYTES);
+
+                buffer.putLong(row.id());
+                if (type != FRANCHISES) {
+                    buffer.putLong(row.parentId());
+                }
+                if (type == PRODUCTS) {
+                    buffer.putInt(row.stock());
+                }
+                buffer.putShort((short) name.length).put(name);
+            }
+
+            counts[type] += rows.size();
+            seal(type, shard, rows.size());
+        }
+
+        /**
+         * Appends the final block, with the row counts, and forces the file
+         * to disk.
+         *
+         * @return the size of the file, in bytes
+         */
+        public long finish() {
+            buffer.clear().position(BLOCK_HEADER_SIZE);
+            buffer.putLong(counts[FRANCHISES]).putLong(counts[OFFICES]).putLong(counts[PRODUCTS]);
+            seal(END, -1, 0);
+
+            try {
+                channel.force(true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return written;
+        }
+
+        /**
+         * Number of rows of a type written so far.
+         *
+         * @param type the row type
+         * @return the row count
+         */
+        long rows(byte type) {
+            return counts[type];
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Fills in the header of the block in the buffer, appends its
+         * checksum and writes it.
+         */
+        private void seal(byte type, int shard, int rows) {
+            int length = buffer.position();
+            buffer.put(0, type)
+                    .putInt(Byte.BYTES, shard)
+                    .putInt(Byte.BYTES + Integer.BYTES, rows)
+                    .putInt(Byte.BYTES + 2 * Integer.BYTES, length - BLOCK_HEADER_SIZE);
+            buffer.putInt(checksum(buffer, length));
+            write(buffer.flip());
+        }
+
+        private void ensure(int size) {
+            if (buffer.remaining() < size) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        private void write(ByteBuffer bytes) {
+            try {
+                while (bytes.hasRemaining()) {
+                    written += channel.write(bytes);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * A dataset file being read, block by block.
+     */
+    public static final class Reader implements AutoCloseable {
+
+        private final FileChannel channel;
+
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+        private final long[] counts = new long[4];
+
+        private Instant createdAt;
+
+        private int shardCount;
+
+        private long read;
+
+        private Reader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * When the file was written.
+         *
+         * @return the creation time
+         */
+        public Instant createdAt() {
+            return createdAt;
+        }
+
+        /**
+         * Number of shards the rows come from.
+         *
+         * @return the shard count
+         */
+        public int shardCount() {
+            return shardCount;
+        }
+
+        /**
+         * Bytes read so far.
+         *
+         * @return the position in the file
+         */
+        public long bytesRead() {
+            return read;
+        }
+
+        /**
+         * Number of rows of a type read so far.
+         *
+         * @param type the row type
+         * @return the row count
+         */
+        long rows(byte type) {
+            return counts[type];
+        }
+
+        /**
+         * Reads and verifies the next block.
+         *
+         * @return the block, or {@code null} after the final block
+         * @throws IllegalStateException if the block is corrupted or the file is truncated
+         */
+        public Block next() {
+            try {
+                ByteBuffer header = read(BLOCK_HEADER_SIZE);
+                byte type = header.get();
+                int shard = header.getInt();
+                int rows = header.getInt();
+                int length = header.getInt();
+                if (type < END || type > PRODUCTS || rows < 0 || length < 0 || length > MAX_PAYLOAD) {
+                    throw new IllegalStateException("Corrupted dataset block at byte " + (read - BLOCK_HEADER_SIZE));
+                }
+
+                ensure(BLOCK_HEADER_SIZE + length + Integer.BYTES);
+                buffer.clear().put(header.flip()).limit(BLOCK_HEADER_SIZE + length + Integer.BYTES);
+                fill(buffer);
+                if (buffer.getInt(BLOCK_HEADER_SIZE + length) != checksum(buffer, BLOCK_HEADER_SIZE + length)) {
+                    throw new IllegalStateException("Checksum mismatch in dataset block at byte "
+                            + (read - BLOCK_HEADER_SIZE - length - Integer.BYTES));
+                }
+
+                buffer.position(BLOCK_HEADER_SIZE);
+                return type == END ? end() : decode(type, shard, rows);
+            } catch (EOFException e) {
+                throw new IllegalStateException("Dataset file is truncated after " + read + " bytes", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Block end() {
+            if (buffer.getLong() != counts[FRANCHISES] || buffer.getLong() != counts[OFFICES]
+                    || buffer.getLong() != counts[PRODUCTS]) {
+                throw new IllegalStateException("Dataset file is missing blocks");
+            }
+            return null;
+        }
+
+        private Block decode(byte type, int shard, int rows) {
+            Long[] ids = new Long[rows];
+            String[] names = new String[rows];
+            Long[] parentIds = type == FRANCHISES ? null : new Long[rows];
+            Integer[] stocks = type == PRODUCTS ? new Integer[rows] : null;
+
+            for (int row = 0; row < rows; row++) {
+                ids[row] = buffer.getLong();
+                if (parentIds != null) {
+                    parentIds[row] = buffer.getLong();
+                }
+                if (stocks != null) {
+                    stocks[row] = buffer.getInt();
+                }
+                byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(name);
+                names[row] = new String(name, StandardCharsets.UTF_8);
+            }
+
+            counts[type] += rows;
+            return new Block(type, shard, ids, names, parentIds, stocks);
+        }
+
+        private ByteBuffer read(int size) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(size);
+            fill(bytes);
+            return bytes.flip();
+        }
+
+        private void fill(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                int count = channel.read(bytes);
+                if (count < 0) {
+                    throw new EOFException();
+                }
+                read += count;
+            }
+        }
+
+        private void ensure(int size) {
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, size));
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.seti.technical_test.infrastructure.persistance.dataset;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Imports a {@link DatasetFile} into empty databases of as many shards as
+ * the exported ones.
+ *
+ * <p>
+ * The secondary indexes of the catalog tables (those not backing a primary
+ * key or a unique constraint) are dropped first and built again once every
+ * row is in, which is much cheaper than maintaining them row by row; they
+ * are rebuilt whether the import succeeds or not. The indexes of the
+ * partitioned {@code product} table are dropped and created on the parent,
+ * which cascades to every partition, and are checked to be valid once
+ * built. Blocks are read off the
+ * database threads, verified, and inserted by several multi-row
+ * {@code unnest} statements at once. A section of a shard is fully
+ * inserted before the next one starts, so offices always find their
+ * franchise and products their office. The identifier sequences are moved
+ * past the imported rows, on the interleaving of their shard, and the
+ * tables analyzed.
+ * </p>
+ */
+@Slf4j
+public class DatasetImporter {
+
+    private static final String COUNT_FRANCHISES = """
+            SELECT count(*) AS franchises
+            FROM franchise
+            """;
+
+    private static final String FIND_INDEXES = """
+            SELECT i.indexrelid::regclass::text AS name,
+                   pg_get_indexdef(i.indexrelid) AS definition
+            FROM pg_index i
+            LEFT JOIN pg_constraint c ON c.conindid = i.indexrelid
+            WHERE i.indrelid IN ('franchise'::regclass, 'office'::regclass, 'product'::regclass)
+              AND c.oid IS NULL
+            """;
+
+    private static final String FIND_VALIDITY = """
+            SELECT indisvalid AS valid
+            FROM pg_index
+            WHERE indexrelid = CAST(:name AS regclass)
+            """;
+
+    /**
+     * The {@code ONLY} that {@code pg_get_indexdef} gives the indexes of a
+     * partitioned table, which would build the parent index alone, invalid
+     * and without the indexes of the partitions.
+     */
+    private static final Pattern ON_ONLY = Pattern.compile(" ON ONLY ");
+
+    private static final String IMPORT_FRANCHISES = """
+            INSERT INTO franchise (id, name)
+            SELECT *
+            FROM unnest(CAST(:ids AS BIGINT[]), CAST(:names AS VARCHAR[]))
+            """;
+
+    private static final String IMPORT_OFFICES = """
+            INSERT INTO office (id, name, franchise_id)
+            SELECT *
+            FROM unnest(CAST(:ids AS BIGINT[]), CAST(:names AS VARCHAR[]), CAST(:franchiseIds AS BIGINT[]))
+            """;
+
+    private static final String IMPORT_PRODUCTS = """
+            INSERT INTO product (id, name, stock, office_id)
+            SELECT *
+            FROM unnest(CAST(:ids AS BIGINT[]), CAST(:names AS VARCHAR[]),
+                        CAST(:stocks AS INTEGER[]), CAST(:officeIds AS BIGINT[]))
+            """;
+
+    /**
+     * Moves the sequence of a table to the first identifier of the shard
+     * above the imported ones; {@code %1$s} is the table.
+     */
+    private static final String RESET_SEQUENCE = """
+            SELECT setval(pg_get_serial_sequence('%1$s', 'id'),
+                          m.id + 1 + ((:shard - m.id) %% :shardCount + :shardCount) %% :shardCount,
+                          false)
+            FROM (SELECT COALESCE(max(id), 0) AS id FROM %1$s) m
+            """;
+
+    private static final List<String> TABLES = List.of("franchise", "office", "product");
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final int concurrency;
+
+    public DatasetImporter(DatabaseClient databaseClient, ShardResolver shardResolver, int concurrency) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Imports the dataset.
+     *
+     * @param file the file to read
+     * @return a {@link Mono} emitting what was imported, or an {@link IllegalStateException} if the file was
+     * exported from another number of shards, is corrupted or truncated, or if the database is not empty
+     */
+    public Mono<DatasetReport> importFile(Path file) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+
+            return Mono.using(
+                            () -> DatasetFile.open(file),
+                            reader -> checkTarget(reader)
+                                    .then(Mono.usingWhen(
+                                            dropIndexes(),
+                                            ignored -> load(reader),
+                                            this::createIndexes,
+                                            (indexes, error) -> createIndexes(indexes),
+                                            this::createIndexes))
+                                    .then(finish())
+                                    .then(Mono.fromCallable(() -> new DatasetReport(
+                                            reader.rows(DatasetFile.FRANCHISES),
+                                            reader.rows(DatasetFile.OFFICES),
+                                            reader.rows(DatasetFile.PRODUCTS),
+                                            reader.bytesRead(),
+                                            Duration.ofNanos(System.nanoTime() - start)))),
+                            DatasetFile.Reader::close)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnNext(report -> log.info("Imported {} from {}", report, file));
+        });
+    }
+
+    private Mono<Void> checkTarget(DatasetFile.Reader reader) {
+        if (reader.shardCount() != shardResolver.shardCount()) {
+            return Mono.error(new IllegalStateException("Dataset was exported from " + reader.shardCount()
+                    + " shards, the database has " + shardResolver.shardCount()));
+        }
+
+        return shardResolver.onEveryShard(() -> databaseClient.sql(COUNT_FRANCHISES)
+                        .map(row -> row.get("franchises", Long.class))
+                        .one())
+                .filter(franchises -> franchises > 0)
+                .hasElements()
+                .flatMap(populated -> populated
+                        ? Mono.error(new IllegalStateException("Dataset can only be imported into empty databases"))
+                        : Mono.empty());
+    }
+
+    /**
+     * Drops the secondary indexes of every shard.
+     *
+     * @return the definitions of the dropped indexes, by shard index
+     */
+    private Mono<List<List<Index>>> dropIndexes() {
+        return Flux.range(0, shardResolver.shardCount())
+                .concatMap(shard -> shardResolver.onShard(shard, databaseClient.sql(FIND_INDEXES)
+                        .map(row -> new Index(row.get("name", String.class), row.get("definition", String.class)))
+                        .all()
+                        .concatMap(index -> databaseClient.sql("DROP INDEX IF EXISTS " + index.name())
+                                .then()
+                                .thenReturn(index))
+                        .collectList()))
+                .collectList()
+                .doOnNext(indexes -> log.info("Dropped {} indexes until the import completes",
+                        indexes.stream().mapToInt(List::size).sum()));
+    }
+
+    private Mono<Void> createIndexes(List<List<Index>> indexes) {
+        return Flux.range(0, indexes.size())
+                .concatMap(shard -> shardResolver.onShard(shard, Flux.fromIterable(indexes.get(shard))
+                        .concatMap(index -> databaseClient.sql(index.create())
+                                .then()
+                                .then(checkValid(index))
+                                .doOnSuccess(ignored -> log.info("Created index {} on shard {}", index.name(),
+                                        shard)))
+                        .then()))
+                .then();
+    }
+
+    /**
+     * Fails if a created index is not valid, as left by a partitioned index
+     * missing the index of a partition.
+     */
+    private Mono<Void> checkValid(Index index) {
+        return databaseClient.sql(FIND_VALIDITY)
+                .bind("name", index.name())
+                .map(row -> row.get("valid", Boolean.class))
+                .one()
+                .filter(Boolean.TRUE::equals)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Index " + index.name()
+                        + " was created but is not valid")))
+                .then();
+    }
+
+    /**
+     * Inserts every block, a section of a shard at a time and the blocks of
+     * a section concurrently.
+     */
+    private Mono<Void> load(DatasetFile.Reader reader) {
+        return Flux.<DatasetFile.Block>generate(sink -> {
+                    DatasetFile.Block block = reader.next();
+                    if (block == null) {
+                        sink.complete();
+                    } else {
+                        sink.next(block);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .windowUntilChanged(block -> block.shard() * 4 + block.type())
+                .concatMap(section -> section.flatMap(this::insert, concurrency).then(), 1)
+                .then();
+    }
+
+    private Mono<Void> insert(DatasetFile.Block block) {
+        DatabaseClient.GenericExecuteSpec insert = switch (block.type()) {
+            case DatasetFile.FRANCHISES -> databaseClient.sql(IMPORT_FRANCHISES);
+            case DatasetFile.OFFICES -> databaseClient.sql(IMPORT_OFFICES)
+                    .bind("franchiseIds", block.parentIds());
+            default -> databaseClient.sql(IMPORT_PRODUCTS)
+                    .bind("stocks", block.stocks())
+                    .bind("officeIds", block.parentIds());
+        };
+
+        return shardResolver.onShard(block.shard(), insert
+                .bind("ids", block.ids())
+                .bind("names", block.names())
+                .fetch()
+                .rowsUpdated()
+                .then());
+    }
+
+    /**
+     * Moves the sequences past the imported rows and refreshes the planner
+     * statistics of every shard.
+     */
+    private Mono<Void> finish() {
+        return Flux.range(0, shardResolver.shardCount())
+                .concatMap(shard -> shardResolver.onShard(shard, Flux.fromIterable(TABLES)
+                        .concatMap(table -> databaseClient.sql(RESET_SEQUENCE.formatted(table))
+                                .bind("shard", shard)
+                                .bind("shardCount", shardResolver.shardCount())
+                                .then())
+                        .then(databaseClient.sql("ANALYZE " + String.join(", ", TABLES)).then())))
+                .then();
+    }
+
+    /**
+     * A secondary index and its definition.
+     */
+    private record Index(String name, String definition) {
+
+        /**
+         * The statement creating the index, on the partitions too when its
+         * table is partitioned.
+         */
+        private String create() {
+            return ON_ONLY.matcher(definition).replaceFirst(" ON ");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.seti.technical_test.infrastructure.persistance.dataset;
+
+import java.time.Duration;
+
+/**
+ * Outcome of an export or an import of the dataset.
+ *
+ * @param franchises number of franchises
+ * @param offices    number of offices
+ * @param products   number of products
+ * @param bytes      size of the dataset file
+ * @param elapsed    duration of the whole operation
+ */
+public record DatasetReport(long franchises, long offices, long products, long bytes, Duration elapsed) {
+
+    /**
+     * Number of rows of every type.
+     *
+     * @return the row count
+     */
+    public long rows() {
+        return franchises + offices + products;
+    }
+
+    /**
+     * Throughput in rows.
+     *
+     * @return the rows per second
+     */
+    public double rowsPerSecond() {
+        return rows() / seconds();
+    }
+
+    /**
+     * Throughput in bytes of the dataset file.
+     *
+     * @return the megabytes per second
+     */
+    public double megabytesPerSecond() {
+        return bytes / (1024.0 * 1024.0) / seconds();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d franchises, %d offices, %d products, %d bytes in %d ms (%.0f rows/s, %.1f MB/s)",
+                franchises, offices, products, bytes, elapsed.toMillis(), rowsPerSecond(), megabytesPerSecond());
+    }
+
+    private double seconds() {
+        return Math.max(elapsed.toNanos(), 1) / 1e9;
+    }
+}
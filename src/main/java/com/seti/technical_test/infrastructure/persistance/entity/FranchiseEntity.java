@@ -18,7 +18,7 @@ public class FranchiseEntity {
      * Primary key of the franchise.
      */
     @Id
-    private Integer id;
+    private Long id;
 
     /**
      * Name of the franchise.
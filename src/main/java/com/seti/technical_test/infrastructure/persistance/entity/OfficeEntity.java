@@ -18,7 +18,7 @@ public class OfficeEntity {
      * Primary key of the office.
      */
     @Id
-    private Integer id;
+    private Long id;
 
     /**
      * Name of the office.
@@ -29,5 +29,5 @@ public class OfficeEntity {
      * Identifier of the franchise to which this office belongs.
      * Acts as a foreign key reference to the franchise table.
      */
-    private Integer franchiseId;
+    private Long franchiseId;
 }
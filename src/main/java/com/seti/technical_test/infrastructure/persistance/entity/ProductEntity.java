@@ -18,7 +18,7 @@ public class ProductEntity {
      * Primary key of the product.
      */
     @Id
-    private Integer id;
+    private Long id;
 
     /**
      * Name of the product.
@@ -34,5 +34,5 @@ public class ProductEntity {
      * Identifier of the office to which this product belongs.
      * Acts as a foreign key reference to the office table.
      */
-    private Integer officeId;
+    private Long officeId;
 }
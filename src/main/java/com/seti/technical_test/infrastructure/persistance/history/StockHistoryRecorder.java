@@ -0,0 +1,207 @@
+package com.seti.technical_test.infrastructure.persistance.history;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Records every stock change in {@code stock_history} from the outbox,
+ * in batches, away from the requests that made the changes.
+ *
+ * <p>
+ * Each batch is a single statement that claims the position of the shard
+ * in {@code stock_history_position}, copies the next product events to the
+ * history and moves the position, so no event is recorded twice. Events
+ * are read in the order of the transactions that wrote them and only once
+ * every older transaction has finished: an event committed late, after
+ * newer ones were recorded, is therefore never skipped.
+ * </p>
+ *
+ * <p>
+ * On a longer interval the recorder also runs
+ * {@code stock_history_maintain}, which creates the partitions of the
+ * coming days, compacts the days past the raw retention into hourly rows
+ * and drops the partitions past their retention.
+ * </p>
+ */
+@Slf4j
+public class StockHistoryRecorder implements SmartLifecycle {
+
+    private static final String RECORD = """
+            WITH claim AS (
+                SELECT last_txid, last_id
+                FROM stock_history_position
+                WHERE id = 1
+                FOR UPDATE SKIP LOCKED
+            ), events AS (
+                SELECT o.id, o.txid, o.aggregate_type, o.aggregate_id, o.event_type, o.payload, o.created_at
+                FROM outbox o, claim c
+                WHERE (o.txid, o.id) > (c.last_txid, c.last_id)
+                  AND o.txid < pg_snapshot_xmin(pg_current_snapshot())
+                ORDER BY o.txid, o.id
+                LIMIT :limit
+            ), recorded AS (
+                INSERT INTO stock_history (product_id, office_id, stock, recorded_at, event_id)
+                SELECT e.aggregate_id, CAST(e.payload ->> 'officeId' AS BIGINT), CAST(e.payload ->> 'stock' AS INTEGER),
+                       e.created_at, e.id
+                FROM events e
+                WHERE e.aggregate_type = 'product'
+                  AND e.event_type <> 'DELETED'
+                RETURNING 1
+            ), moved AS (
+                UPDATE stock_history_position k
+                SET last_txid = l.txid,
+                    last_id = l.id,
+                    updated_at = now()
+                FROM (SELECT txid, id FROM events ORDER BY txid DESC, id DESC LIMIT 1) l
+                WHERE k.id = 1
+            )
+            SELECT (SELECT count(*) FROM events) AS scanned,
+                   (SELECT count(*) FROM recorded) AS recorded
+            """;
+
+    private static final String MAINTAIN = """
+            SELECT stock_history_maintain(:rawDays, :hourlyMonths, :daysAhead) AS dropped
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final Duration interval;
+
+    private final Duration maintenanceInterval;
+
+    private final int batchSize;
+
+    private final int rawRetentionDays;
+
+    private final int hourlyRetentionMonths;
+
+    private final int daysAhead;
+
+    private final Counter recordedChanges;
+
+    private volatile Disposable tasks;
+
+    public StockHistoryRecorder(DatabaseClient databaseClient, ShardResolver shardResolver, MeterRegistry meterRegistry,
+                                Duration interval, Duration maintenanceInterval, int batchSize,
+                                int rawRetentionDays, int hourlyRetentionMonths, int daysAhead) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.interval = interval;
+        this.maintenanceInterval = maintenanceInterval;
+        this.batchSize = batchSize;
+        this.rawRetentionDays = rawRetentionDays;
+        this.hourlyRetentionMonths = hourlyRetentionMonths;
+        this.daysAhead = daysAhead;
+        this.recordedChanges = Counter.builder("app.stock.history.recorded")
+                .description("Stock changes recorded in the stock history")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the pending events of every shard.
+     *
+     * @return a {@link Mono} emitting the number of recorded stock changes
+     */
+    public Mono<Long> record() {
+        return Flux.range(0, shardResolver.shardCount())
+                .concatMap(this::recordShard)
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Maintains the partitions of every shard.
+     *
+     * @return a {@link Mono} emitting the number of dropped partitions
+     */
+    public Mono<Long> maintain() {
+        return Flux.range(0, shardResolver.shardCount())
+                .concatMap(shard -> shardResolver.onShard(shard, databaseClient.sql(MAINTAIN)
+                        .bind("rawDays", rawRetentionDays)
+                        .bind("hourlyMonths", hourlyRetentionMonths)
+                        .bind("daysAhead", daysAhead)
+                        .map(row -> row.get("dropped", Integer.class))
+                        .one()))
+                .reduce(0L, Long::sum)
+                .doOnNext(dropped -> {
+                    if (dropped > 0) {
+                        log.info("Stock history maintenance dropped {} partitions", dropped);
+                    }
+                });
+    }
+
+    @Override
+    public void start() {
+        Disposable.Composite running = Disposables.composite();
+
+        running.add(Flux.interval(interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> record()
+                        .onErrorResume(error -> {
+                            log.warn("Stock history recording failed, it will be retried: {}", error.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe());
+
+        running.add(Flux.interval(Duration.ZERO, maintenanceInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> maintain()
+                        .onErrorResume(error -> {
+                            log.warn("Stock history maintenance failed, it will be retried: {}", error.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe());
+
+        tasks = running;
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = tasks;
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = tasks;
+        return running != null && !running.isDisposed();
+    }
+
+    /**
+     * Records batches until one comes back short, or another instance
+     * holds the position.
+     */
+    private Mono<Long> recordShard(int shard) {
+        return batch(shard)
+                .expand(batch -> batch.scanned() < batchSize ? Mono.empty() : batch(shard))
+                .map(Batch::recorded)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Batch> batch(int shard) {
+        return shardResolver.onShard(shard, databaseClient.sql(RECORD)
+                        .bind("limit", batchSize)
+                        .map(row -> new Batch(row.get("scanned", Long.class), row.get("recorded", Long.class)))
+                        .one())
+                .doOnNext(batch -> recordedChanges.increment(batch.recorded()));
+    }
+
+    /**
+     * Events read by one batch, and how many were stock changes.
+     */
+    private record Batch(long scanned, long recorded) {
+    }
+}
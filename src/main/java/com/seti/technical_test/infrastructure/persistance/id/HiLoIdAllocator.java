@@ -0,0 +1,187 @@
+package com.seti.technical_test.infrastructure.persistance.id;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Allocates identifiers locally from blocks reserved on a database sequence.
+ *
+ * <p>
+ * The sequence increments by {@code blockSize * stride}, so every
+ * {@code nextval} reserves the identifiers {@code hi}, {@code hi + stride},
+ * ..., {@code hi + (blockSize - 1) * stride}. The stride is the shard count,
+ * which keeps allocated identifiers on the interleaving described in
+ * {@link ShardResolver}, and rows inserted with the column default simply
+ * consume a whole block. The block size is derived from the increment read
+ * along with each reservation, so it always matches the sequence.
+ * </p>
+ *
+ * <p>
+ * Taking an identifier is a single atomic increment on the current block.
+ * When a block runs out, one caller per shard fetches the next one while
+ * the others wait on the same fetch, so the database is hit once every
+ * {@code blockSize} identifiers whatever the concurrency.
+ * </p>
+ */
+public class HiLoIdAllocator {
+
+    /**
+     * Returned by {@link Block#take()} once the block is exhausted; valid
+     * identifiers are always positive.
+     */
+    private static final long EXHAUSTED = Long.MIN_VALUE;
+
+    private final int stride;
+
+    /**
+     * Reserves a new block on the given shard.
+     */
+    private final IntFunction<Mono<Reservation>> nextBlock;
+
+    private final Pool[] pools;
+
+    public HiLoIdAllocator(int shardCount, IntFunction<Mono<Reservation>> nextBlock) {
+        this.stride = Math.max(1, shardCount);
+        this.nextBlock = nextBlock;
+        this.pools = new Pool[this.stride];
+        for (int shard = 0; shard < this.stride; shard++) {
+            pools[shard] = new Pool(shard);
+        }
+    }
+
+    /**
+     * Creates an allocator backed by a sequence of each shard.
+     *
+     * @param databaseClient the client used to reserve blocks
+     * @param shardResolver  the shard resolver, also providing the stride
+     * @param sequence       the sequence name, in the current schema
+     * @return the allocator
+     */
+    public static HiLoIdAllocator forSequence(DatabaseClient databaseClient,
+                                              ShardResolver shardResolver,
+                                              String sequence) {
+        String sql = """
+                SELECT nextval((quote_ident(schemaname) || '.' || quote_ident(sequencename))::regclass) AS hi,
+                       increment_by
+                FROM pg_sequences
+                WHERE schemaname = current_schema()
+                  AND sequencename = '%s'
+                """.formatted(sequence);
+
+        return new HiLoIdAllocator(shardResolver.shardCount(), shard -> shardResolver.onShard(shard,
+                databaseClient.sql(sql)
+                        .map(row -> new Reservation(row.get("hi", Long.class), row.get("increment_by", Long.class)))
+                        .one()));
+    }
+
+    /**
+     * Allocates the next identifier of a shard.
+     *
+     * @param shard the shard the row will be inserted on
+     * @return a {@link Mono} emitting the identifier
+     */
+    public Mono<Long> nextId(int shard) {
+        return Mono.defer(() -> {
+            Pool pool = pools[shard];
+            Block block = pool.current;
+            long id = block.take();
+
+            return id != EXHAUSTED ? Mono.just(id) : pool.refill(block).then(nextId(shard));
+        });
+    }
+
+    /**
+     * Identifiers of one shard: the block being consumed and the pending
+     * fetch of its successor.
+     */
+    private final class Pool {
+
+        private final int shard;
+
+        private volatile Block current = new Block(0, 0);
+
+        private Mono<Block> refilling;
+
+        Pool(int shard) {
+            this.shard = shard;
+        }
+
+        /**
+         * Replaces the exhausted block, joining the fetch already in flight
+         * if there is one. Completes immediately if another caller already
+         * installed a new block. A fetch reserving nothing, for instance
+         * because the sequence does not exist, fails rather than leaving
+         * its callers retrying forever.
+         */
+        synchronized Mono<Block> refill(Block exhausted) {
+            if (current != exhausted) {
+                return Mono.empty();
+            }
+
+            if (refilling == null) {
+                refilling = nextBlock.apply(shard)
+                        .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                                "No identifier block could be reserved on shard " + shard)))
+                        .map(reservation -> new Block(reservation.hi(), (int) Math.max(1, reservation.increment() / stride)))
+                        .doOnNext(this::install)
+                        .doOnError(error -> abandon())
+                        .cache();
+            }
+
+            return refilling;
+        }
+
+        /**
+         * Installs the fetched block and lets the next exhaustion start a
+         * new fetch.
+         */
+        private synchronized void install(Block block) {
+            current = block;
+            refilling = null;
+        }
+
+        /**
+         * Forgets a failed fetch, keeping the exhausted block, so the next
+         * caller starts a new one instead of getting the cached error.
+         */
+        private synchronized void abandon() {
+            refilling = null;
+        }
+    }
+
+    /**
+     * Result of a {@code nextval}: the first identifier of the block and the
+     * sequence increment.
+     *
+     * @param hi        the first identifier of the block
+     * @param increment the sequence increment
+     */
+    public record Reservation(long hi, long increment) {
+    }
+
+    /**
+     * A reserved block of identifiers.
+     */
+    private final class Block {
+
+        private final long hi;
+
+        private final int size;
+
+        private final AtomicLong taken = new AtomicLong();
+
+        Block(long hi, int size) {
+            this.hi = hi;
+            this.size = size;
+        }
+
+        long take() {
+            long offset = taken.getAndIncrement();
+            return offset < size ? hi + offset * stride : EXHAUSTED;
+        }
+    }
+}
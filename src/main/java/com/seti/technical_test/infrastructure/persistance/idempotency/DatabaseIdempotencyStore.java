@@ -0,0 +1,222 @@
+package com.seti.technical_test.infrastructure.persistance.idempotency;
+
+import com.seti.technical_test.infrastructure.web.IdempotencyStore;
+import com.seti.technical_test.infrastructure.web.IdempotentResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+/**
+ * {@link IdempotencyStore} kept in the {@code idempotency_key} table of the
+ * default shard, shared by every application instance.
+ *
+ * <p>
+ * A key is claimed by a single upsert, which inserts it or takes over a
+ * key that expired or whose in-flight lock lapsed, for instance because
+ * the instance executing it stopped; whichever statement wins the row
+ * executes. Requests finding the key in flight poll it, backing off up to
+ * half a second, until its response is stored, it is released or the
+ * wait timeout elapses. The lock must therefore outlast the slowest
+ * request. Expired keys are deleted on a fixed interval.
+ * </p>
+ */
+@Slf4j
+public class DatabaseIdempotencyStore implements IdempotencyStore, SmartLifecycle {
+
+    private static final String CLAIM = """
+            INSERT INTO idempotency_key AS k (key, fingerprint, locked_until, expires_at)
+            VALUES (:key, :fingerprint, now() + make_interval(secs => :lock), now() + make_interval(secs => :ttl))
+            ON CONFLICT (key) DO UPDATE
+            SET fingerprint = EXCLUDED.fingerprint,
+                status = NULL,
+                content_type = NULL,
+                body = NULL,
+                locked_until = EXCLUDED.locked_until,
+                expires_at = EXCLUDED.expires_at
+            WHERE k.expires_at < now()
+               OR (k.status IS NULL AND k.locked_until < now())
+            RETURNING k.key
+            """;
+
+    private static final String FIND = """
+            SELECT fingerprint, status, content_type, body
+            FROM idempotency_key
+            WHERE key = :key
+            """;
+
+    private static final String COMPLETE = """
+            UPDATE idempotency_key
+            SET status = :status,
+                content_type = :contentType,
+                body = :body,
+                expires_at = now() + make_interval(secs => :ttl)
+            WHERE key = :key
+              AND fingerprint = :fingerprint
+              AND status IS NULL
+            """;
+
+    private static final String RELEASE = """
+            DELETE FROM idempotency_key
+            WHERE key = :key
+              AND fingerprint = :fingerprint
+              AND status IS NULL
+            """;
+
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM idempotency_key
+            WHERE expires_at < now()
+            """;
+
+    private static final long FIRST_POLL_MILLIS = 20;
+
+    private static final long MAX_POLL_MILLIS = 500;
+
+    private final DatabaseClient databaseClient;
+
+    private final double ttlSeconds;
+
+    private final double lockSeconds;
+
+    private final Duration waitTimeout;
+
+    private final Duration cleanupInterval;
+
+    private volatile Disposable task;
+
+    public DatabaseIdempotencyStore(DatabaseClient databaseClient, Duration ttl, Duration lockTimeout,
+                                    Duration waitTimeout, Duration cleanupInterval) {
+        this.databaseClient = databaseClient;
+        this.ttlSeconds = ttl.toMillis() / 1000.0;
+        this.lockSeconds = lockTimeout.toMillis() / 1000.0;
+        this.waitTimeout = waitTimeout;
+        this.cleanupInterval = cleanupInterval;
+    }
+
+    @Override
+    public Mono<Claim> claim(String key, String fingerprint) {
+        return attempt(key, fingerprint)
+                .repeatWhenEmpty(attempts -> attempts.concatMap(attempt -> Mono.delay(Duration.ofMillis(
+                        Math.min(MAX_POLL_MILLIS, FIRST_POLL_MILLIS << Math.min(attempt, 10))))))
+                .timeout(waitTimeout, Mono.just(Claim.IN_PROGRESS));
+    }
+
+    @Override
+    public Mono<Void> complete(String key, String fingerprint, IdempotentResponse response) {
+        DatabaseClient.GenericExecuteSpec update = databaseClient.sql(COMPLETE)
+                .bind("key", key)
+                .bind("fingerprint", fingerprint)
+                .bind("status", response.status())
+                .bind("body", ByteBuffer.wrap(response.body()))
+                .bind("ttl", ttlSeconds);
+        update = response.contentType() != null
+                ? update.bind("contentType", response.contentType())
+                : update.bindNull("contentType", String.class);
+
+        return update.fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    @Override
+    public Mono<Void> release(String key, String fingerprint) {
+        return databaseClient.sql(RELEASE)
+                .bind("key", key)
+                .bind("fingerprint", fingerprint)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    /**
+     * Deletes the expired keys.
+     *
+     * @return a {@link Mono} emitting the number of keys deleted
+     */
+    public Mono<Long> deleteExpired() {
+        return databaseClient.sql(DELETE_EXPIRED)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(cleanupInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> deleteExpired()
+                        .doOnNext(deleted -> log.debug("Deleted {} expired idempotency keys", deleted))
+                        .onErrorResume(error -> {
+                            log.warn("Expired idempotency keys could not be deleted: {}", error.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = task;
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = task;
+        return running != null && !running.isDisposed();
+    }
+
+    /**
+     * Claims a key once: emits the outcome, or nothing while another
+     * request holds the key.
+     */
+    private Mono<Claim> attempt(String key, String fingerprint) {
+        return databaseClient.sql(CLAIM)
+                .bind("key", key)
+                .bind("fingerprint", fingerprint)
+                .bind("lock", lockSeconds)
+                .bind("ttl", ttlSeconds)
+                .map(row -> Claim.ACQUIRED)
+                .one()
+                .switchIfEmpty(databaseClient.sql(FIND)
+                        .bind("key", key)
+                        .map(row -> new StoredKey(
+                                row.get("fingerprint", String.class),
+                                row.get("status", Integer.class),
+                                row.get("content_type", String.class),
+                                row.get("body", ByteBuffer.class)))
+                        .one()
+                        .mapNotNull(stored -> stored.toClaim(fingerprint)));
+    }
+
+    /**
+     * A row of {@code idempotency_key}.
+     */
+    private record StoredKey(String fingerprint, Integer status, String contentType, ByteBuffer body) {
+
+        /**
+         * The outcome of a claim finding this key, {@code null} while it is
+         * in flight.
+         */
+        private Claim toClaim(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                return Claim.MISMATCH;
+            }
+
+            if (status == null) {
+                return null;
+            }
+
+            byte[] bytes = new byte[body != null ? body.remaining() : 0];
+            if (body != null) {
+                body.get(bytes);
+            }
+            return new Claim.Completed(new IdempotentResponse(status, contentType, bytes));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.seti.technical_test.infrastructure.persistance.outbox;
+
+import com.seti.technical_test.domain.model.ChangeType;
+import com.seti.technical_test.domain.model.Franchise;
+import com.seti.technical_test.domain.model.Office;
+import com.seti.technical_test.domain.model.Product;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Records change events in the {@code outbox} table.
+ *
+ * <p>
+ * Every method issues a single {@code INSERT} and must run inside the
+ * transaction of the change it records, so an event exists if and only if
+ * its change was committed. The JSON payload is built by the database from
+ * the bound values, and each event is tagged with the franchise it belongs
+ * to, looked up from the office for products.
+ * </p>
+ */
+public class OutboxRecorder {
+
+    private static final String PRODUCT = """
+            INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, franchise_id)
+            VALUES ('product', CAST(:id AS BIGINT), :type,
+                    jsonb_build_object('id', CAST(:id AS BIGINT), 'name', CAST(:name AS TEXT),
+                                       'stock', CAST(:stock AS INTEGER), 'officeId', CAST(:officeId AS BIGINT)),
+                    (SELECT f.franchise_id FROM office f WHERE f.id = CAST(:officeId AS BIGINT)))
+            """;
+
+    private static final String PRODUCTS = """
+            INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, franchise_id)
+            SELECT 'product', c.id, :type,
+                   jsonb_build_object('id', c.id, 'name', c.name, 'stock', c.stock, 'officeId', c.office_id),
+                   f.franchise_id
+            FROM unnest(CAST(:ids AS BIGINT[]), CAST(:names AS TEXT[]),
+                        CAST(:stocks AS INTEGER[]), CAST(:officeIds AS BIGINT[])) AS c(id, name, stock, office_id)
+                 LEFT JOIN office f ON f.id = c.office_id
+            """;
+
+    private static final String OFFICE = """
+            INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, franchise_id)
+            VALUES ('office', CAST(:id AS BIGINT), :type,
+                    jsonb_build_object('id', CAST(:id AS BIGINT), 'name', CAST(:name AS TEXT),
+                                       'franchiseId', CAST(:franchiseId AS BIGINT)),
+                    CAST(:franchiseId AS BIGINT))
+            """;
+
+    private static final String FRANCHISE = """
+            INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, franchise_id)
+            VALUES ('franchise', CAST(:id AS BIGINT), :type,
+                    jsonb_build_object('id', CAST(:id AS BIGINT), 'name', CAST(:name AS TEXT)),
+                    CAST(:id AS BIGINT))
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public OutboxRecorder(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Records the change of a product.
+     *
+     * @param type    the kind of change
+     * @param product the product after the change, or before it for deletions
+     * @return a {@link Mono} that completes once the event is inserted
+     */
+    public Mono<Void> product(ChangeType type, Product product) {
+        return databaseClient.sql(PRODUCT)
+                .bind("id", product.id())
+                .bind("type", type.name())
+                .bind("name", product.name())
+                .bind("stock", product.stock())
+                .bind("officeId", product.officeId())
+                .then();
+    }
+
+    /**
+     * Records the same kind of change for several products.
+     *
+     * @param type     the kind of change
+     * @param products the products after the change
+     * @return a {@link Mono} that completes once the events are inserted
+     */
+    public Mono<Void> products(ChangeType type, List<Product> products) {
+        int size = products.size();
+        Long[] ids = new Long[size];
+        String[] names = new String[size];
+        Integer[] stocks = new Integer[size];
+        Long[] officeIds = new Long[size];
+
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(i);
+            ids[i] = product.id();
+            names[i] = product.name();
+            stocks[i] = product.stock();
+            officeIds[i] = product.officeId();
+        }
+
+        return databaseClient.sql(PRODUCTS)
+                .bind("type", type.name())
+                .bind("ids", ids)
+                .bind("names", names)
+                .bind("stocks", stocks)
+                .bind("officeIds", officeIds)
+                .then();
+    }
+
+    /**
+     * Records the change of an office.
+     *
+     * @param type   the kind of change
+     * @param office the office after the change
+     * @return a {@link Mono} that completes once the event is inserted
+     */
+    public Mono<Void> office(ChangeType type, Office office) {
+        return databaseClient.sql(OFFICE)
+                .bind("id", office.id())
+                .bind("type", type.name())
+                .bind("name", office.name())
+                .bind("franchiseId", office.franchiseId())
+                .then();
+    }
+
+    /**
+     * Records the change of a franchise.
+     *
+     * @param type      the kind of change
+     * @param franchise the franchise after the change
+     * @return a {@link Mono} that completes once the event is inserted
+     */
+    public Mono<Void> franchise(ChangeType type, Franchise franchise) {
+        return databaseClient.sql(FRANCHISE)
+                .bind("id", franchise.id())
+                .bind("type", type.name())
+                .bind("name", franchise.name())
+                .then();
+    }
+}
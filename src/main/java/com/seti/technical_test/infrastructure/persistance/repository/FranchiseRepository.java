@@ -8,7 +8,7 @@ import reactor.core.publisher.Mono;
  * Reactive repository for managing Franchise entities.
  * Provides CRUD operations and custom query methods.
  */
-public interface FranchiseRepository extends R2dbcRepository<FranchiseEntity, Integer> {
+public interface FranchiseRepository extends R2dbcRepository<FranchiseEntity, Long> {
 
     /**
      * Checks whether a franchise with the given name already exists.
@@ -1,6 +1,8 @@
 package com.seti.technical_test.infrastructure.persistance.repository;
 
 import com.seti.technical_test.infrastructure.persistance.entity.OfficeEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -9,7 +11,7 @@ import reactor.core.publisher.Mono;
  * Reactive repository for managing Office entities.
  * Provides CRUD operations and custom query methods.
  */
-public interface OfficeRepository extends R2dbcRepository<OfficeEntity, Integer> {
+public interface OfficeRepository extends R2dbcRepository<OfficeEntity, Long> {
 
     /**
      * Retrieves all offices belonging to a specific franchise.
@@ -17,7 +19,7 @@ public interface OfficeRepository extends R2dbcRepository<OfficeEntity, Integer>
      * @param franchiseId the identifier of the franchise
      * @return a Flux emitting the offices associated with the franchise
      */
-    Flux<OfficeEntity> findByFranchiseId(Integer franchiseId);
+    Flux<OfficeEntity> findByFranchiseId(Long franchiseId);
 
     /**
      * Checks whether an office exists with the given name.
@@ -34,4 +36,15 @@ public interface OfficeRepository extends R2dbcRepository<OfficeEntity, Integer>
      * @return a Mono emitting the Office if found, or empty if not
      */
     Mono<OfficeEntity> findByName(String name);
+
+    /**
+     * Sets the low-stock threshold of an office.
+     *
+     * @param id        the identifier of the office
+     * @param threshold the new threshold, or {@code null} to use the default one
+     * @return a Mono emitting the number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE office SET low_stock_threshold = :threshold WHERE id = :id")
+    Mono<Integer> updateLowStockThreshold(Long id, Integer threshold);
 }
@@ -1,6 +1,7 @@
 package com.seti.technical_test.infrastructure.persistance.repository;
 
 import com.seti.technical_test.infrastructure.persistance.entity.ProductEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Flux;
@@ -12,32 +13,62 @@ import reactor.core.publisher.Mono;
  * This repository uses Spring Data R2DBC to perform non-blocking
  * database operations over the Product table.
  */
-public interface ProductRepository extends R2dbcRepository<ProductEntity, Integer> {
+public interface ProductRepository extends R2dbcRepository<ProductEntity, Long> {
 
     /**
-     * Retrieves the product with the highest stock for each office
+     * Retrieves the products with the highest stock for each office
      * that belongs to the given franchise.
      * <p>
-     * The query uses {@code DISTINCT ON (o.id)} combined with
-     * {@code ORDER BY p.stock DESC} to ensure that only the product
-     * with the maximum stock per office is returned.
+     * For each office, a lateral subquery walks the
+     * {@code (office_id, stock DESC)} index and stops after {@code k}
+     * rows, so the cost grows with the number of offices times {@code k}
+     * rather than with the number of products.
      *
      * @param franchiseId the identifier of the franchise
+     * @param k           the number of products returned per office
      * @return a reactive stream ({@link Flux}) containing the products
-     *         with the highest stock per office
+     *         with the highest stock per office, by office and then by
+     *         descending stock
      */
     @Query("""
-        SELECT DISTINCT ON (o.id)
-               p.id,
+        SELECT p.id,
                p.name,
                p.stock,
                p.office_id
-        FROM product p
-        JOIN office o ON o.id = p.office_id
+        FROM office o
+        CROSS JOIN LATERAL (
+            SELECT id, name, stock, office_id
+            FROM product
+            WHERE office_id = o.id
+            ORDER BY stock DESC, id
+            LIMIT :k
+        ) p
         WHERE o.franchise_id = :franchiseId
-        ORDER BY o.id, p.stock DESC
+        ORDER BY o.id, p.stock DESC, p.id
     """)
-    Flux<ProductEntity> findTopStockByOffice(Integer franchiseId);
+    Flux<ProductEntity> findTopStockByOffice(Long franchiseId, Integer k);
+
+    /**
+     * Finds the products of an office whose stock is within a range, by
+     * walking the {@code (office_id, stock DESC)} index from the highest
+     * stock of the range.
+     *
+     * @param officeId the identifier of the office
+     * @param minStock the lowest stock, inclusive
+     * @param maxStock the highest stock, inclusive
+     * @param limit    the maximum number of products
+     * @return a reactive stream ({@link Flux}) containing the products,
+     *         by descending stock and then by id
+     */
+    @Query("""
+        SELECT id, name, stock, office_id
+        FROM product
+        WHERE office_id = :officeId
+          AND stock BETWEEN :minStock AND :maxStock
+        ORDER BY stock DESC, id
+        LIMIT :limit
+    """)
+    Flux<ProductEntity> findByStockRange(Long officeId, Integer minStock, Integer maxStock, Integer limit);
 
     /**
      * Checks whether a product with the given name exists.
@@ -56,4 +87,36 @@ public interface ProductRepository extends R2dbcRepository<ProductEntity, Intege
      *         or empty if no product matches the given name
      */
     Mono<ProductEntity> findByName(String name);
+
+    /**
+     * Adds a delta to the stock of a product in place, unless the stock
+     * would become negative.
+     *
+     * @param id       the identifier of the product
+     * @param officeId the office of the product, used to prune partitions
+     * @param delta    the change applied to the stock
+     * @return a {@link Mono} emitting the updated product,
+     *         or empty if it does not exist or has not enough stock
+     */
+    @Query("""
+        UPDATE product
+        SET stock = stock + :delta
+        WHERE id = :id
+          AND office_id = :officeId
+          AND stock + :delta >= 0
+        RETURNING id, name, stock, office_id
+    """)
+    Mono<ProductEntity> adjustStock(Long id, Long officeId, Integer delta);
+
+    /**
+     * Renames a product without touching its stock.
+     *
+     * @param id       the identifier of the product
+     * @param officeId the office of the product, used to prune partitions
+     * @param name     the new name
+     * @return a {@link Mono} emitting the number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE product SET name = :name WHERE id = :id AND office_id = :officeId")
+    Mono<Integer> rename(Long id, Long officeId, String name);
 }
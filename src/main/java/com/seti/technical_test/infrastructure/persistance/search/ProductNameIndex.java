@@ -0,0 +1,337 @@
+package com.seti.technical_test.infrastructure.persistance.search;
+
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import com.seti.technical_test.domain.model.ChangeType;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshotFile;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory index of the product names, answering prefix searches
+ * without a database round trip.
+ *
+ * <p>
+ * Names are kept sorted in a {@link ConcurrentSkipListMap}, keyed by name
+ * and then identifier so that products sharing a name are all kept, and
+ * the products starting with a prefix are the entries following it. On start
+ * the index notes the oldest transaction still running on every shard,
+ * loads the products in keyset pages and then follows the outbox from the
+ * noted position, applying every product change of any instance. Events
+ * already covered by the load are replayed, which is harmless, as each
+ * event carries the whole product. Until the load is complete the index
+ * reports itself as not ready and searches go to the database.
+ * </p>
+ *
+ * <p>
+ * The outbox is followed in {@code (txid, id)} order and only below the
+ * oldest transaction still running: identifiers are assigned before their
+ * transaction commits, so following them alone would skip for good a
+ * change committed after a higher one was applied.
+ * </p>
+ *
+ * <p>
+ * When a local {@link CatalogSnapshotFile catalog snapshot} is available,
+ * the products are read from it instead of the database and the outbox is
+ * followed from the position the snapshot was taken at; the index is ready
+ * as soon as the file is read and catches up on the following polls.
+ * </p>
+ */
+@Slf4j
+public class ProductNameIndex implements SmartLifecycle {
+
+    /**
+     * Every event of a transaction below the oldest one still running is
+     * committed, and visible to the load that follows.
+     */
+    private static final String FIND_POSITION = """
+            SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT) AS txid
+            """;
+
+    private static final String LOAD = """
+            SELECT id, name, stock, office_id
+            FROM product
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String FIND_CHANGES = """
+            SELECT id, CAST(CAST(txid AS TEXT) AS BIGINT) AS txid, aggregate_id, event_type,
+                   payload ->> 'name' AS name,
+                   CAST(payload ->> 'stock' AS INTEGER) AS stock,
+                   CAST(payload ->> 'officeId' AS BIGINT) AS office_id
+            FROM outbox
+            WHERE (txid, id) > (CAST(CAST(:afterTxid AS TEXT) AS xid8), :afterId)
+              AND txid < pg_snapshot_xmin(pg_current_snapshot())
+              AND aggregate_type = 'product'
+            ORDER BY txid, id
+            LIMIT :limit
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final CatalogSnapshotFile catalogSnapshotFile;
+
+    private final boolean enabled;
+
+    private final Duration pollInterval;
+
+    private final int batchSize;
+
+    private final ConcurrentSkipListMap<NameKey, Product> byName = new ConcurrentSkipListMap<>();
+
+    private final Map<Long, String> nameById = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private volatile Disposable task;
+
+    public ProductNameIndex(DatabaseClient databaseClient, ShardResolver shardResolver,
+                            CatalogSnapshotFile catalogSnapshotFile, boolean enabled, Duration pollInterval,
+                            int batchSize) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.catalogSnapshotFile = catalogSnapshotFile;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Whether the index holds every product and can answer searches.
+     *
+     * @return {@code true} once the initial load is complete
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Retrieves the products whose name starts with a prefix, in name
+     * and then identifier order. Searches scoped to an office walk the matching names of every
+     * office until the limit is reached.
+     *
+     * @param prefix   the upper-case prefix
+     * @param officeId the office the products belong to, or {@code null} for any office
+     * @param limit    the maximum number of products
+     * @return the matching products, at most {@code limit}
+     */
+    public List<Product> findByPrefix(String prefix, Long officeId, int limit) {
+        List<Product> matches = new ArrayList<>(Math.min(limit, 64));
+
+        for (Map.Entry<NameKey, Product> entry : byName.tailMap(new NameKey(prefix, Long.MIN_VALUE)).entrySet()) {
+            if (!entry.getKey().name().startsWith(prefix)) {
+                break;
+            }
+
+            Product product = entry.getValue();
+            if (officeId == null || officeId.equals(product.officeId())) {
+                matches.add(product);
+                if (matches.size() == limit) {
+                    break;
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Adds a product, or replaces it and its former name.
+     *
+     * @param product the product as written
+     */
+    public synchronized void put(Product product) {
+        String previous = nameById.put(product.id(), product.name());
+        if (previous != null && !previous.equals(product.name())) {
+            byName.remove(new NameKey(previous, product.id()));
+        }
+        byName.put(new NameKey(product.name(), product.id()), product);
+    }
+
+    /**
+     * Removes a product.
+     *
+     * @param id the identifier of the product
+     */
+    public synchronized void remove(Long id) {
+        String name = nameById.remove(id);
+        if (name != null) {
+            byName.remove(new NameKey(name, id));
+        }
+    }
+
+    /**
+     * Number of products in the index.
+     *
+     * @return the number of indexed products
+     */
+    public int size() {
+        return byName.size();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        int shards = shardResolver.shardCount();
+        long start = System.nanoTime();
+
+        task = Flux.range(0, shards)
+                .concatMap(shard -> shardResolver.onShard(shard, databaseClient.sql(FIND_POSITION)
+                        .map(row -> ChangeEventPosition.before(row.get("txid", Long.class)))
+                        .one()))
+                .collectList()
+                .map(positions -> positions.toArray(ChangeEventPosition[]::new))
+                .flatMap(positions -> restore(positions)
+                        .switchIfEmpty(Flux.range(0, shards).flatMap(this::load).then(Mono.just(positions))))
+                .doOnNext(positions -> {
+                    ready = true;
+                    log.info("Product name index loaded with {} names in {} ms", byName.size(),
+                            Duration.ofNanos(System.nanoTime() - start).toMillis());
+                })
+                .flatMapMany(positions -> Flux.range(0, shards)
+                        .flatMap(shard -> follow(shard, new AtomicReference<>(positions[shard])), shards))
+                .subscribe(null, error -> log.warn("Product name index could not be loaded, searches use the database: {}",
+                        error.getMessage()));
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = task;
+        if (running != null) {
+            running.dispose();
+        }
+        ready = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = task;
+        return running != null && !running.isDisposed();
+    }
+
+    /**
+     * Fills the index from the catalog snapshot, if there is one that can be
+     * caught up from the given outbox positions.
+     *
+     * @return the positions the snapshot was taken at, to follow the outbox from
+     */
+    private Mono<ChangeEventPosition[]> restore(ChangeEventPosition[] positions) {
+        return Mono.fromCallable(() -> catalogSnapshotFile.open(positions))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty)
+                .onErrorResume(error -> {
+                    log.warn("Catalog snapshot could not be read, the product names are loaded from the database: {}",
+                            error.getMessage());
+                    return Mono.empty();
+                })
+                .map(snapshot -> {
+                    snapshot.forEachProduct((id, name, stock, officeId) -> put(new Product(id, name, stock, officeId)));
+                    log.info("Product name index restored from the catalog snapshot of {}", snapshot.createdAt());
+                    return snapshot.positions();
+                });
+    }
+
+    /**
+     * Loads the products of a shard in keyset pages, from the primary: a
+     * lagging replica could miss changes older than the noted position.
+     */
+    private Mono<Void> load(int shard) {
+        return page(shard, 0L)
+                .expand(products -> products.size() < batchSize ? Mono.empty() : page(shard, products.getLast().id()))
+                .then();
+    }
+
+    private Mono<List<Product>> page(int shard, long after) {
+        return shardResolver.onShard(shard, databaseClient.sql(LOAD)
+                        .bind("after", after)
+                        .bind("limit", batchSize)
+                        .map(ProductNameIndex::toProduct)
+                        .all())
+                .collectList()
+                .doOnNext(products -> products.forEach(this::put));
+    }
+
+    /**
+     * Applies the product changes of a shard after the given position, on
+     * every tick, in batches.
+     */
+    private Flux<Long> follow(int shard, AtomicReference<ChangeEventPosition> position) {
+        return Flux.interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> changes(shard, position)
+                        .expand(applied -> applied < batchSize ? Mono.empty() : changes(shard, position))
+                        .onErrorResume(error -> {
+                            log.warn("Product name index could not follow shard {}, it will be retried: {}",
+                                    shard, error.getMessage());
+                            return Mono.empty();
+                        }), 1);
+    }
+
+    private Mono<Long> changes(int shard, AtomicReference<ChangeEventPosition> position) {
+        return shardResolver.onShard(shard, Flux.defer(() -> databaseClient.sql(FIND_CHANGES)
+                        .bind("afterTxid", position.get().txid())
+                        .bind("afterId", position.get().id())
+                        .bind("limit", batchSize)
+                        .map(row -> {
+                            apply(row);
+                            return new ChangeEventPosition(row.get("txid", Long.class), row.get("id", Long.class));
+                        })
+                        .all()))
+                .doOnNext(position::set)
+                .count();
+    }
+
+    private void apply(Readable row) {
+        Long id = row.get("aggregate_id", Long.class);
+
+        if (ChangeType.valueOf(row.get("event_type", String.class)) == ChangeType.DELETED) {
+            remove(id);
+        } else {
+            put(new Product(id, row.get("name", String.class), row.get("stock", Integer.class),
+                    row.get("office_id", Long.class)));
+        }
+    }
+
+    private static Product toProduct(Readable row) {
+        return new Product(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("stock", Integer.class),
+                row.get("office_id", Long.class)
+        );
+    }
+
+    /**
+     * Key of a product in the name order: its name, then its identifier.
+     */
+    private record NameKey(String name, Long id) implements Comparable<NameKey> {
+
+        @Override
+        public int compareTo(NameKey other) {
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.seti.technical_test.infrastructure.persistance.snapshot;
+
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * A catalog snapshot mapped in memory, as written by
+ * {@link CatalogSnapshotFile}.
+ *
+ * <p>
+ * Rows are decoded straight from the mapped file while they are visited,
+ * so restoring an index reads the file once, through the page cache, and
+ * allocates nothing but the names. Safe to visit from several threads.
+ * </p>
+ */
+public final class CatalogSnapshot {
+
+    private final ByteBuffer buffer;
+
+    private final Instant createdAt;
+
+    private final ChangeEventPosition[] positions;
+
+    private final int franchises;
+
+    private final int offices;
+
+    private final int products;
+
+    private final int franchisesAt;
+
+    private final int officesAt;
+
+    private final int productsAt;
+
+    private CatalogSnapshot(ByteBuffer buffer, Instant createdAt, ChangeEventPosition[] positions,
+                            int franchises, int offices, int products, int franchisesAt, int officesAt, int productsAt) {
+        this.buffer = buffer;
+        this.createdAt = createdAt;
+        this.positions = positions;
+        this.franchises = franchises;
+        this.offices = offices;
+        this.products = products;
+        this.franchisesAt = franchisesAt;
+        this.officesAt = officesAt;
+        this.productsAt = productsAt;
+    }
+
+    /**
+     * Reads the header and the trailer of a snapshot and verifies its
+     * checksum.
+     *
+     * @param buffer the whole file
+     * @return the snapshot, or {@code null} if the file is incomplete, corrupted or of another format
+     */
+    static CatalogSnapshot read(ByteBuffer buffer) {
+        int size = buffer.limit();
+        int fixed = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+        if (size < fixed + CatalogSnapshotFile.TRAILER_SIZE
+                || buffer.getInt(0) != CatalogSnapshotFile.MAGIC
+                || buffer.getInt(Integer.BYTES) != CatalogSnapshotFile.FORMAT) {
+            return null;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, size - Integer.BYTES));
+        if (buffer.getInt(size - Integer.BYTES) != (int) crc.getValue()) {
+            return null;
+        }
+
+        Instant createdAt = Instant.ofEpochMilli(buffer.getLong(2 * Integer.BYTES));
+        int shards = buffer.getInt(2 * Integer.BYTES + Long.BYTES);
+        if (shards < 0 || shards > (size - fixed - CatalogSnapshotFile.TRAILER_SIZE) / (2 * Long.BYTES)) {
+            return null;
+        }
+
+        ChangeEventPosition[] positions = new ChangeEventPosition[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            int at = fixed + shard * 2 * Long.BYTES;
+            long txid = buffer.getLong(at);
+            long id = buffer.getLong(at + Long.BYTES);
+            if (txid < 0 || id < 0) {
+                return null;
+            }
+            positions[shard] = new ChangeEventPosition(txid, id);
+        }
+
+        int trailer = size - CatalogSnapshotFile.TRAILER_SIZE;
+        return new CatalogSnapshot(buffer, createdAt, positions,
+                buffer.getInt(trailer),
+                buffer.getInt(trailer + Integer.BYTES),
+                buffer.getInt(trailer + 2 * Integer.BYTES),
+                fixed + shards * 2 * Long.BYTES,
+                (int) buffer.getLong(trailer + 3 * Integer.BYTES),
+                (int) buffer.getLong(trailer + 3 * Integer.BYTES + Long.BYTES));
+    }
+
+    /**
+     * When the snapshot was started.
+     *
+     * @return the creation time
+     */
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    /**
+     * Number of shards the snapshot was taken from.
+     *
+     * @return the shard count
+     */
+    public int shardCount() {
+        return positions.length;
+    }
+
+    /**
+     * Outbox position of a shard covered by the snapshot; the changes
+     * after it must be replayed.
+     *
+     * @param shard the shard index
+     * @return the outbox position
+     */
+    public ChangeEventPosition position(int shard) {
+        return positions[shard];
+    }
+
+    /**
+     * Outbox position of every shard covered by the snapshot.
+     *
+     * @return the outbox positions, by shard index
+     */
+    public ChangeEventPosition[] positions() {
+        return positions.clone();
+    }
+
+    /**
+     * Number of products in the snapshot.
+     *
+     * @return the product count
+     */
+    public int products() {
+        return products;
+    }
+
+    /**
+     * Visits every franchise, in file order.
+     *
+     * @param visitor the visitor
+     */
+    public void forEachFranchise(FranchiseVisitor visitor) {
+        int offset = franchisesAt;
+        for (int row = 0; row < franchises; row++) {
+            long id = buffer.getLong(offset);
+            int length = Short.toUnsignedInt(buffer.getShort(offset + Long.BYTES));
+            offset += Long.BYTES + Short.BYTES;
+            visitor.visit(id, name(offset, length));
+            offset += length;
+        }
+    }
+
+    /**
+     * Visits every office, in file order.
+     *
+     * @param visitor the visitor
+     */
+    public void forEachOffice(OfficeVisitor visitor) {
+        int offset = officesAt;
+        for (int row = 0; row < offices; row++) {
+            long id = buffer.getLong(offset);
+            long franchiseId = buffer.getLong(offset + Long.BYTES);
+            int length = Short.toUnsignedInt(buffer.getShort(offset + 2 * Long.BYTES));
+            offset += 2 * Long.BYTES + Short.BYTES;
+            visitor.visit(id, name(offset, length), franchiseId);
+            offset += length;
+        }
+    }
+
+    /**
+     * Visits every product, in file order.
+     *
+     * @param visitor the visitor
+     */
+    public void forEachProduct(ProductVisitor visitor) {
+        int offset = productsAt;
+        for (int row = 0; row < products; row++) {
+            long id = buffer.getLong(offset);
+            long officeId = buffer.getLong(offset + Long.BYTES);
+            int stock = buffer.getInt(offset + 2 * Long.BYTES);
+            int length = Short.toUnsignedInt(buffer.getShort(offset + 2 * Long.BYTES + Integer.BYTES));
+            offset += 2 * Long.BYTES + Integer.BYTES + Short.BYTES;
+            visitor.visit(id, name(offset, length), stock, officeId);
+            offset += length;
+        }
+    }
+
+    private String name(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Receives the franchises of a snapshot.
+     */
+    @FunctionalInterface
+    public interface FranchiseVisitor {
+
+        void visit(long id, String name);
+    }
+
+    /**
+     * Receives the offices of a snapshot.
+     */
+    @FunctionalInterface
+    public interface OfficeVisitor {
+
+        void visit(long id, String name, long franchiseId);
+    }
+
+    /**
+     * Receives the products of a snapshot.
+     */
+    @FunctionalInterface
+    public interface ProductVisitor {
+
+        void visit(long id, String name, int stock, long officeId);
+    }
+}
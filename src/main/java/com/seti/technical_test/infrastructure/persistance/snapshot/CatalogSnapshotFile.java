@@ -0,0 +1,345 @@
+package com.seti.technical_test.infrastructure.persistance.snapshot;
+
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Local binary copy of the catalog, written periodically and mapped on
+ * start to fill the in-memory indexes without reading every row from the
+ * database.
+ *
+ * <p>
+ * The file, {@code catalog.snap}, holds a header, the franchises, the
+ * offices, the products and a trailer:
+ * </p>
+ * <pre>
+ * header    magic, format, creation time, shard count, outbox position (txid, id) of every shard
+ * franchise id, name
+ * office    id, franchise id, name
+ * product   id, office id, stock, name
+ * trailer   franchise, office and product counts, offsets of the office and product sections, CRC32C
+ * </pre>
+ *
+ * <p>
+ * Names are UTF-8, prefixed by their length. The outbox positions are
+ * noted before the rows are read, as the oldest transaction still running
+ * on every shard, so every change after them is replayed by following the
+ * outbox from there in {@code (txid, id)} order, including the changes of
+ * transactions that committed late with a lower identifier. A snapshot is
+ * written to a temporary file and renamed once complete, so a crash never
+ * leaves a partial file behind, and a mapped snapshot stays valid while the
+ * next one replaces it.
+ * </p>
+ *
+ * <p>
+ * All methods perform blocking I/O and must run on a scheduler that allows
+ * it.
+ * </p>
+ */
+@Slf4j
+public class CatalogSnapshotFile {
+
+    static final int MAGIC = 0x43544c47; // "CTLG"
+
+    static final int FORMAT = 2;
+
+    static final int TRAILER_SIZE = 3 * Integer.BYTES + 2 * Long.BYTES + Integer.BYTES;
+
+    private static final String NAME = "catalog.snap";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+
+    private final boolean enabled;
+
+    private final Duration maxAge;
+
+    public CatalogSnapshotFile(Path directory, boolean enabled, Duration maxAge) {
+        this.directory = directory;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Whether snapshots are written and restored.
+     *
+     * @return {@code true} when enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Maps the current snapshot, if it can be restored on top of the
+     * database: it is complete, not older than the maximum age, taken from
+     * as many shards and not ahead of the outbox of any of them, which
+     * would mean it comes from another database.
+     *
+     * @param positions the current outbox position of every shard
+     * @return the snapshot, or empty if there is none that can be used
+     */
+    public Optional<CatalogSnapshot> open(ChangeEventPosition[] positions) {
+        return open().filter(snapshot -> {
+            if (snapshot.shardCount() != positions.length) {
+                log.warn("Catalog snapshot has {} shards instead of {}, it is ignored", snapshot.shardCount(),
+                        positions.length);
+                return false;
+            }
+
+            for (int shard = 0; shard < positions.length; shard++) {
+                if (snapshot.position(shard).compareTo(positions[shard]) > 0) {
+                    log.warn("Catalog snapshot is ahead of the outbox of shard {}, it is ignored", shard);
+                    return false;
+                }
+            }
+
+            return true;
+        });
+    }
+
+    /**
+     * Maps the current snapshot, if it is complete and not older than the
+     * maximum age.
+     *
+     * @return the snapshot, or empty if there is none that can be used
+     */
+    public Optional<CatalogSnapshot> open() {
+        Path file = directory.resolve(NAME);
+        if (!enabled || !Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                log.warn("Catalog snapshot of {} bytes is too large to be mapped, it is ignored", size);
+                return Optional.empty();
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CatalogSnapshot snapshot = CatalogSnapshot.read(buffer);
+            if (snapshot == null) {
+                log.warn("Catalog snapshot {} is incomplete or corrupted, it is ignored", file);
+                return Optional.empty();
+            }
+
+            if (snapshot.createdAt().plus(maxAge).isBefore(Instant.now())) {
+                log.info("Catalog snapshot of {} is older than {}, it is ignored", snapshot.createdAt(), maxAge);
+                return Optional.empty();
+            }
+
+            return Optional.of(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Starts writing a new snapshot. Its rows must be written section by
+     * section: franchises, then offices, then products.
+     *
+     * @param positions the outbox position of every shard, noted before reading the rows
+     * @return the snapshot being written
+     */
+    public Writer create(ChangeEventPosition[] positions) {
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, NAME, ".tmp");
+            Writer writer = new Writer(FileChannel.open(temporary, StandardOpenOption.WRITE), temporary,
+                    directory.resolve(NAME));
+
+            writer.buffer.putInt(MAGIC)
+                    .putInt(FORMAT)
+                    .putLong(Instant.now().toEpochMilli())
+                    .putInt(positions.length);
+            for (ChangeEventPosition position : positions) {
+                writer.buffer.putLong(position.txid()).putLong(position.id());
+            }
+
+            return writer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A snapshot being written. Closing it before {@link #commit()} deletes
+     * it.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private static final int FRANCHISES = 0;
+
+        private static final int OFFICES = 1;
+
+        private static final int PRODUCTS = 2;
+
+        private final FileChannel channel;
+
+        private final Path temporary;
+
+        private final Path target;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private final CRC32C crc = new CRC32C();
+
+        private long written;
+
+        private int section = FRANCHISES;
+
+        private final int[] counts = new int[3];
+
+        private final long[] offsets = new long[3];
+
+        private boolean committed;
+
+        private Writer(FileChannel channel, Path temporary, Path target) {
+            this.channel = channel;
+            this.temporary = temporary;
+            this.target = target;
+        }
+
+        /**
+         * Appends a franchise.
+         *
+         * @param id   the franchise identifier
+         * @param name the franchise name
+         */
+        public void franchise(long id, String name) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            reserve(FRANCHISES, Long.BYTES + Short.BYTES + encoded.length);
+            buffer.putLong(id);
+            putName(encoded);
+            counts[FRANCHISES]++;
+        }
+
+        /**
+         * Appends an office.
+         *
+         * @param id          the office identifier
+         * @param name        the office name
+         * @param franchiseId the identifier of the franchise the office belongs to
+         */
+        public void office(long id, String name, long franchiseId) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            reserve(OFFICES, 2 * Long.BYTES + Short.BYTES + encoded.length);
+            buffer.putLong(id).putLong(franchiseId);
+            putName(encoded);
+            counts[OFFICES]++;
+        }
+
+        /**
+         * Appends a product.
+         *
+         * @param id       the product identifier
+         * @param name     the product name
+         * @param stock    the product stock
+         * @param officeId the identifier of the office the product belongs to
+         */
+        public void product(long id, String name, int stock, long officeId) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            reserve(PRODUCTS, 2 * Long.BYTES + Integer.BYTES + Short.BYTES + encoded.length);
+            buffer.putLong(id).putLong(officeId).putInt(stock);
+            putName(encoded);
+            counts[PRODUCTS]++;
+        }
+
+        /**
+         * Writes the trailer, forces the snapshot to disk and replaces the
+         * current one with it.
+         *
+         * @return the size of the snapshot, in bytes
+         */
+        public long commit() {
+            reserve(PRODUCTS, TRAILER_SIZE);
+            buffer.putInt(counts[FRANCHISES])
+                    .putInt(counts[OFFICES])
+                    .putInt(counts[PRODUCTS])
+                    .putLong(offsets[OFFICES])
+                    .putLong(offsets[PRODUCTS]);
+
+            // the checksum covers every byte before it, this buffer included
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.putInt((int) crc.getValue());
+
+            try {
+                drain();
+                channel.force(true);
+                channel.close();
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                committed = true;
+                return written;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+                if (!committed) {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Moves to the section of the next record and flushes the buffer if
+         * the record does not fit.
+         */
+        private void reserve(int recordSection, int size) {
+            if (recordSection < section) {
+                throw new IllegalStateException("Catalog snapshot sections must be written in order");
+            }
+
+            if (buffer.remaining() < size) {
+                flush();
+            }
+
+            while (section < recordSection) {
+                offsets[++section] = written + buffer.position();
+            }
+        }
+
+        private void putName(byte[] encoded) {
+            buffer.putShort((short) encoded.length).put(encoded);
+        }
+
+        private void flush() {
+            crc.update(buffer.array(), 0, buffer.position());
+            try {
+                drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
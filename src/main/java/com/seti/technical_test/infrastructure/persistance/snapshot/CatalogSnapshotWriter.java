@@ -0,0 +1,220 @@
+package com.seti.technical_test.infrastructure.persistance.snapshot;
+
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Writes a {@link CatalogSnapshotFile} of every shard on every interval.
+ *
+ * <p>
+ * The outbox position of every shard is noted first, as the oldest
+ * transaction still running, then the franchises, offices and products are
+ * read in keyset pages from the primaries. Every transaction below the
+ * noted one has committed, so the snapshot holds at least every change
+ * before the noted positions, whatever order their identifiers have. The
+ * first snapshot is only written one interval after start, so restarting
+ * instances do not read the whole catalog while they warm up.
+ * </p>
+ */
+@Slf4j
+public class CatalogSnapshotWriter implements SmartLifecycle {
+
+    private static final String FIND_POSITION = """
+            SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT) AS txid
+            """;
+
+    private static final String LOAD_FRANCHISES = """
+            SELECT id, name
+            FROM franchise
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String LOAD_OFFICES = """
+            SELECT id, name, franchise_id
+            FROM office
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String LOAD_PRODUCTS = """
+            SELECT id, name, stock, office_id
+            FROM product
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final CatalogSnapshotFile catalogSnapshotFile;
+
+    private final Duration interval;
+
+    private final int batchSize;
+
+    private final Timer writeTime;
+
+    private volatile Disposable task;
+
+    public CatalogSnapshotWriter(DatabaseClient databaseClient, ShardResolver shardResolver,
+                                 MeterRegistry meterRegistry, CatalogSnapshotFile catalogSnapshotFile,
+                                 Duration interval, int batchSize) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.catalogSnapshotFile = catalogSnapshotFile;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.writeTime = Timer.builder("app.catalog.snapshot.write")
+                .description("Duration of one write of the catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes a snapshot of the catalog and replaces the current one.
+     *
+     * @return a {@link Mono} emitting the size of the snapshot, in bytes
+     */
+    public Mono<Long> write() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+
+            return Flux.range(0, shardResolver.shardCount())
+                    .concatMap(shard -> shardResolver.onShard(shard, databaseClient.sql(FIND_POSITION)
+                            .map(row -> ChangeEventPosition.before(row.get("txid", Long.class)))
+                            .one()))
+                    .collectList()
+                    .publishOn(Schedulers.boundedElastic())
+                    .flatMap(positions -> Mono.using(
+                            () -> catalogSnapshotFile.create(positions.toArray(ChangeEventPosition[]::new)),
+                            writer -> sections(writer).then(Mono.fromCallable(writer::commit)),
+                            CatalogSnapshotFile.Writer::close))
+                    .doOnNext(bytes -> {
+                        writeTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        log.info("Catalog snapshot written, {} bytes", bytes);
+                    });
+        });
+    }
+
+    @Override
+    public void start() {
+        if (!catalogSnapshotFile.isEnabled()) {
+            return;
+        }
+
+        task = Flux.interval(interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> write()
+                        .onErrorResume(error -> {
+                            log.warn("Catalog snapshot could not be written, the previous one is kept: {}",
+                                    error.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = task;
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = task;
+        return running != null && !running.isDisposed();
+    }
+
+    /**
+     * Writes the franchises of every shard, then their offices, then their
+     * products, as the file expects.
+     */
+    private Mono<Void> sections(CatalogSnapshotFile.Writer writer) {
+        return section(LOAD_FRANCHISES, CatalogSnapshotWriter::toFranchise, FranchiseRow::id,
+                franchise -> writer.franchise(franchise.id(), franchise.name()))
+                .then(section(LOAD_OFFICES, CatalogSnapshotWriter::toOffice, OfficeRow::id,
+                        office -> writer.office(office.id(), office.name(), office.franchiseId())))
+                .then(section(LOAD_PRODUCTS, CatalogSnapshotWriter::toProduct, ProductRow::id,
+                        product -> writer.product(product.id(), product.name(), product.stock(), product.officeId())));
+    }
+
+    /**
+     * Reads a table of every shard in keyset pages and hands each row to the
+     * writer, off the database threads, as the writer blocks.
+     */
+    private <T> Mono<Void> section(String sql, Function<Readable, T> mapper, ToLongFunction<T> id, Consumer<T> append) {
+        return Flux.range(0, shardResolver.shardCount())
+                .concatMap(shard -> page(shard, sql, 0L, mapper)
+                        .expand(rows -> rows.size() < batchSize
+                                ? Mono.empty()
+                                : page(shard, sql, id.applyAsLong(rows.getLast()), mapper)))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(rows -> rows.forEach(append))
+                .then();
+    }
+
+    private <T> Mono<List<T>> page(int shard, String sql, long after, Function<Readable, T> mapper) {
+        return shardResolver.onShard(shard, databaseClient.sql(sql)
+                        .bind("after", after)
+                        .bind("limit", batchSize)
+                        .map(mapper::apply)
+                        .all())
+                .collectList();
+    }
+
+    private static FranchiseRow toFranchise(Readable row) {
+        return new FranchiseRow(row.get("id", Long.class), row.get("name", String.class));
+    }
+
+    private static OfficeRow toOffice(Readable row) {
+        return new OfficeRow(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("franchise_id", Long.class)
+        );
+    }
+
+    private static ProductRow toProduct(Readable row) {
+        return new ProductRow(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("stock", Integer.class),
+                row.get("office_id", Long.class)
+        );
+    }
+
+    /**
+     * Rows as read: plain values, so no domain validation runs on a copy.
+     */
+    private record FranchiseRow(long id, String name) {
+    }
+
+    private record OfficeRow(long id, String name, long franchiseId) {
+    }
+
+    private record ProductRow(long id, String name, int stock, long officeId) {
+    }
+}
@@ -0,0 +1,194 @@
+package com.seti.technical_test.infrastructure.persistance.summary;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Periodic job that verifies the {@code office_stock_summary} table
+ * against the products and repairs the offices that drifted.
+ *
+ * <p>
+ * Offices are checked in batches, each in its own transaction: the office
+ * rows and their summary rows are locked first, which holds back product
+ * inserts (through the foreign key) and the summary updates of other
+ * writes, then the aggregates are recomputed by a new statement that sees
+ * every write committed before the locks were granted. A repaired row
+ * therefore never loses a concurrent change. A batch that deadlocks with
+ * a multi-office insert is aborted by the database and checked again on
+ * the next run.
+ * </p>
+ */
+@Slf4j
+public class StockSummaryRepairJob implements SmartLifecycle {
+
+    private static final String LOCK_OFFICES = """
+            SELECT id
+            FROM office
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE
+            """;
+
+    private static final String LOCK_SUMMARIES = """
+            SELECT office_id
+            FROM office_stock_summary
+            WHERE office_id = ANY(CAST(:ids AS BIGINT[]))
+            ORDER BY office_id
+            FOR UPDATE
+            """;
+
+    private static final String REPAIR = """
+            WITH actual AS (
+                SELECT o.id AS office_id,
+                       o.franchise_id,
+                       COALESCE(sum(p.stock), 0) AS total_stock,
+                       count(p.id) AS product_count,
+                       count(p.id) FILTER (WHERE p.stock < low_stock_threshold()) AS low_stock_count
+                FROM office o
+                LEFT JOIN product p ON p.office_id = o.id
+                WHERE o.id = ANY(CAST(:ids AS BIGINT[]))
+                GROUP BY o.id, o.franchise_id
+            ), repaired AS (
+                INSERT INTO office_stock_summary AS s (office_id, franchise_id, total_stock, product_count, low_stock_count)
+                SELECT a.office_id, a.franchise_id, a.total_stock, a.product_count, a.low_stock_count
+                FROM actual a
+                LEFT JOIN office_stock_summary c ON c.office_id = a.office_id
+                WHERE (c.office_id IS NULL AND a.product_count > 0)
+                   OR c.franchise_id <> a.franchise_id
+                   OR c.total_stock <> a.total_stock
+                   OR c.product_count <> a.product_count
+                   OR c.low_stock_count <> a.low_stock_count
+                ON CONFLICT (office_id) DO UPDATE
+                SET franchise_id = EXCLUDED.franchise_id,
+                    total_stock = EXCLUDED.total_stock,
+                    product_count = EXCLUDED.product_count,
+                    low_stock_count = EXCLUDED.low_stock_count,
+                    updated_at = now()
+                RETURNING s.office_id
+            )
+            SELECT count(*) AS repaired
+            FROM repaired
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Duration interval;
+
+    private final int batchSize;
+
+    private final Counter repairedOffices;
+
+    private volatile Disposable task;
+
+    public StockSummaryRepairJob(DatabaseClient databaseClient, ShardResolver shardResolver,
+                                 TransactionalOperator transactionalOperator, MeterRegistry meterRegistry,
+                                 Duration interval, int batchSize) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.transactionalOperator = transactionalOperator;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.repairedOffices = Counter.builder("app.stock.summary.repaired")
+                .description("Office stock summaries found out of date and repaired")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies and repairs the summary of every office of every shard.
+     *
+     * @return a {@link Mono} emitting the number of repaired offices
+     */
+    public Mono<Long> repair() {
+        return Flux.range(0, shardResolver.shardCount())
+                .concatMap(this::repairShard)
+                .reduce(0L, Long::sum)
+                .doOnNext(repaired -> {
+                    if (repaired > 0) {
+                        repairedOffices.increment(repaired);
+                        log.warn("Repaired the stock summary of {} offices", repaired);
+                    }
+                });
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> repair()
+                        .onErrorResume(error -> {
+                            log.warn("Stock summary repair failed, it will be retried: {}", error.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = task;
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = task;
+        return running != null && !running.isDisposed();
+    }
+
+    private Mono<Long> repairShard(int shard) {
+        return repairBatch(shard, 0L)
+                .expand(batch -> batch.officeIds().size() < batchSize
+                        ? Mono.empty()
+                        : repairBatch(shard, batch.officeIds().getLast()))
+                .map(Batch::repaired)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Batch> repairBatch(int shard, long after) {
+        return shardResolver.onShard(shard, transactionalOperator.transactional(databaseClient.sql(LOCK_OFFICES)
+                .bind("after", after)
+                .bind("limit", batchSize)
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .flatMap(officeIds -> officeIds.isEmpty()
+                        ? Mono.just(new Batch(officeIds, 0L))
+                        : repair(officeIds).map(repaired -> new Batch(officeIds, repaired)))));
+    }
+
+    private Mono<Long> repair(List<Long> officeIds) {
+        Long[] ids = officeIds.toArray(Long[]::new);
+
+        return databaseClient.sql(LOCK_SUMMARIES)
+                .bind("ids", ids)
+                .fetch()
+                .all()
+                .then(databaseClient.sql(REPAIR)
+                        .bind("ids", ids)
+                        .map(row -> row.get("repaired", Long.class))
+                        .one());
+    }
+
+    /**
+     * Offices checked in one transaction, and how many were repaired.
+     */
+    private record Batch(List<Long> officeIds, long repaired) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.seti.technical_test.infrastructure.persistance.tracing;
+
+import com.seti.technical_test.infrastructure.config.QueryTracingProperties;
+import com.seti.technical_test.infrastructure.persistance.connection.WrappedConnectionFactories;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * {@link BeanPostProcessor} that routes every statement of the application
+ * {@link ConnectionFactory} through a {@link QueryTracingListener}.
+ *
+ * <p>
+ * Collaborators are resolved lazily, when the connection factory is
+ * created, so that this post-processor does not force their early
+ * initialization.
+ * </p>
+ */
+public class QueryTracingBeanPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final ObjectProvider<QueryTracingProperties> properties;
+
+    public QueryTracingBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                         ObjectProvider<QueryTracingProperties> properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof ConnectionFactory connectionFactory)) {
+            return bean;
+        }
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        QueryTracingProperties tracing = properties.getIfAvailable();
+        if (registry == null || tracing == null) {
+            return bean;
+        }
+
+        SlowQueryExplainer explainer = tracing.explainSlowQueries()
+                ? new SlowQueryExplainer(WrappedConnectionFactories.innermost(connectionFactory))
+                : null;
+
+        return ProxyConnectionFactory.builder(connectionFactory)
+                .listener(new QueryTracingListener(registry, tracing.slowThreshold(), explainer))
+                .build();
+    }
+}
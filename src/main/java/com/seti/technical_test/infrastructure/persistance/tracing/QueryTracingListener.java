@@ -0,0 +1,128 @@
+package com.seti.technical_test.infrastructure.persistance.tracing;
+
+import com.seti.technical_test.infrastructure.tracing.TraceIdHolder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import io.r2dbc.proxy.support.QueryExecutionInfoFormatter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ProxyExecutionListener} that times every statement issued through
+ * the R2DBC connection factory and reports the slow ones.
+ *
+ * <p>
+ * The duration goes from the moment the statement is executed until its
+ * result has been fully consumed, so it includes the time spent streaming
+ * rows back. Each statement is linked to the HTTP request that caused it
+ * through the trace id captured when the statement starts.
+ * </p>
+ */
+@Slf4j
+class QueryTracingListener implements ProxyExecutionListener {
+
+    private static final String TRACE_ID = "traceId";
+
+    private static final QueryExecutionInfoFormatter FORMATTER = QueryExecutionInfoFormatter.showAll();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration slowThreshold;
+
+    /**
+     * Explainer used for slow statements, {@code null} when disabled.
+     */
+    private final SlowQueryExplainer explainer;
+
+    /**
+     * Timers per statement type, created on first use.
+     */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Row count summaries per statement type, created on first use.
+     */
+    private final Map<String, DistributionSummary> rows = new ConcurrentHashMap<>();
+
+    QueryTracingListener(MeterRegistry meterRegistry, Duration slowThreshold, SlowQueryExplainer explainer) {
+        this.meterRegistry = meterRegistry;
+        this.slowThreshold = slowThreshold;
+        this.explainer = explainer;
+    }
+
+    @Override
+    public void beforeQuery(QueryExecutionInfo execInfo) {
+        String traceId = TraceIdHolder.get();
+        if (traceId != null) {
+            execInfo.getValueStore().put(TRACE_ID, traceId);
+        }
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        Duration duration = execInfo.getExecuteDuration();
+        String statement = statementType(execInfo.getQueries());
+
+        timers.computeIfAbsent(statement, type -> Timer.builder("app.r2dbc.query")
+                        .description("Duration of R2DBC statements until their result is consumed")
+                        .tag("statement", type)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(duration);
+
+        rows.computeIfAbsent(statement, type -> DistributionSummary.builder("app.r2dbc.query.rows")
+                        .description("Rows emitted by R2DBC statements")
+                        .tag("statement", type)
+                        .register(meterRegistry))
+                .record(execInfo.getCurrentResultCount());
+
+        if (duration.compareTo(slowThreshold) < 0) {
+            return;
+        }
+
+        String traceId = execInfo.getValueStore().get(TRACE_ID, String.class);
+        log.warn("Slow query [traceId={}] took {} ms and emitted {} rows: {}",
+                traceId, duration.toMillis(), execInfo.getCurrentResultCount(), FORMATTER.format(execInfo));
+
+        if (explainer != null && execInfo.getQueries().size() == 1) {
+            QueryInfo query = execInfo.getQueries().getFirst();
+            explainer.explain(traceId, query.getQuery(),
+                    query.getBindingsList().isEmpty() ? null : query.getBindingsList().getFirst());
+        }
+    }
+
+    /**
+     * Derives a low-cardinality statement type from the leading SQL keyword.
+     *
+     * @param queries the executed queries
+     * @return the statement type used as metric tag
+     */
+    private static String statementType(List<QueryInfo> queries) {
+        if (queries.isEmpty()) {
+            return "other";
+        }
+
+        String sql = queries.getFirst().getQuery().stripLeading();
+        int end = 0;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+
+        return switch (sql.substring(0, end).toLowerCase(Locale.ROOT)) {
+            case "select", "with" -> "select";
+            case "insert" -> "insert";
+            case "update" -> "update";
+            case "delete" -> "delete";
+            default -> "other";
+        };
+    }
+}
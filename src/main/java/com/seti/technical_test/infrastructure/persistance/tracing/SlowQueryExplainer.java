@@ -0,0 +1,72 @@
+package com.seti.technical_test.infrastructure.persistance.tracing;
+
+import io.r2dbc.proxy.core.Binding;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Captures the execution plan of slow statements.
+ *
+ * <p>
+ * The plan is obtained with a plain {@code EXPLAIN} (the statement is not
+ * executed again) on the undecorated connection factory, so the explain
+ * itself is neither traced nor explained. At most one explain runs at a
+ * time; slow statements detected meanwhile are skipped to keep the extra
+ * load on an already struggling database bounded.
+ * </p>
+ */
+@Slf4j
+class SlowQueryExplainer {
+
+    /**
+     * Client bound to the undecorated connection factory.
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Whether an explain is currently running.
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    SlowQueryExplainer(ConnectionFactory connectionFactory) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+    }
+
+    /**
+     * Asynchronously logs the plan of the given statement.
+     *
+     * @param traceId  the trace id of the request that issued the statement
+     * @param query    the native SQL of the statement
+     * @param bindings the parameters bound to the statement, may be {@code null}
+     */
+    void explain(String traceId, String query, Bindings bindings) {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("EXPLAIN " + query);
+        if (bindings != null) {
+            for (Binding binding : bindings.getIndexBindings()) {
+                int index = (Integer) binding.getKey();
+                BoundValue value = binding.getBoundValue();
+                spec = value.isNull()
+                        ? spec.bindNull(index, value.getNullType())
+                        : spec.bind(index, value.getValue());
+            }
+        }
+
+        spec.map(row -> row.get(0, String.class))
+                .all()
+                .collectList()
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        plan -> log.warn("Plan of slow query [traceId={}] {}\n{}", traceId, query, String.join("\n", plan)),
+                        error -> log.debug("Could not explain slow query [traceId={}] {}", traceId, query, error));
+    }
+}
@@ -0,0 +1,11 @@
+package com.seti.technical_test.infrastructure.persistance.writebehind;
+
+/**
+ * A stock change accepted by the write-behind buffer.
+ *
+ * @param productId the product identifier
+ * @param officeId  the office of the product, which locates its shard and partition
+ * @param delta     the change applied to the stock
+ */
+public record StockChange(long productId, long officeId, int delta) {
+}
@@ -0,0 +1,267 @@
+package com.seti.technical_test.infrastructure.persistance.writebehind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only log of the buffered stock changes.
+ *
+ * <p>
+ * The log is split in segments, one per buffer generation, named
+ * {@code stock-<generation>.log}. A segment holds fixed-size records
+ * (product id, office id, delta and a CRC32 of the three) and is deleted
+ * once its generation is written to the database. Records are only
+ * acknowledged after they are forced to disk; concurrent appenders share
+ * the same {@code force}, so the cost of an fsync is spread over every
+ * change written while the previous one was in progress.
+ * </p>
+ *
+ * <p>
+ * All methods perform blocking I/O and must run on a scheduler that allows
+ * it.
+ * </p>
+ */
+public class StockChangeLog {
+
+    static final int RECORD_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private static final String PREFIX = "stock-";
+
+    private static final String SUFFIX = ".log";
+
+    private static final String NODE_ID = "node-id";
+
+    private final Path directory;
+
+    public StockChangeLog(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the identifier of the node owning the log, generated and
+     * stored next to the segments the first time. The segments only make
+     * sense with the checkpoint of the node that wrote them, so the
+     * identifier lives and is lost with them.
+     *
+     * @return the node identifier
+     */
+    public String nodeId() {
+        Path file = directory.resolve(NODE_ID);
+
+        try {
+            Files.createDirectories(directory);
+            if (Files.notExists(file)) {
+                Path temporary = directory.resolve(NODE_ID + ".tmp");
+                Files.writeString(temporary, UUID.randomUUID().toString());
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return Files.readString(file).strip();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lists the generations that still have a segment on disk.
+     *
+     * @return the generation numbers, in ascending order
+     */
+    public List<Long> generations() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                        .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                        .sorted()
+                        .toList();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the valid records of a segment. Reading stops at the first
+     * truncated or corrupted record, which can only be a write that was
+     * never acknowledged.
+     *
+     * @param generation the generation of the segment
+     * @return the changes, in append order
+     */
+    public List<StockChange> read(long generation) {
+        List<StockChange> changes = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(segment(generation), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+            while (true) {
+                buffer.clear();
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until the record is complete or the file ends
+                }
+
+                if (buffer.hasRemaining()) {
+                    return changes;
+                }
+
+                buffer.flip();
+                long productId = buffer.getLong();
+                long officeId = buffer.getLong();
+                int delta = buffer.getInt();
+                if (buffer.getInt() != checksum(productId, officeId, delta)) {
+                    return changes;
+                }
+
+                changes.add(new StockChange(productId, officeId, delta));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens a new segment for appending.
+     *
+     * @param generation the generation of the segment
+     * @return the open segment
+     */
+    public Segment open(long generation) {
+        try {
+            Files.createDirectories(directory);
+            return new Segment(FileChannel.open(segment(generation),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the segment of a generation written to the database.
+     *
+     * @param generation the generation of the segment
+     */
+    public void delete(long generation) {
+        try {
+            Files.deleteIfExists(segment(generation));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segment(long generation) {
+        return directory.resolve(PREFIX + generation + SUFFIX);
+    }
+
+    private static int checksum(long productId, long officeId, int delta) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(RECORD_SIZE - Integer.BYTES)
+                .putLong(productId)
+                .putLong(officeId)
+                .putInt(delta)
+                .flip());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A segment open for appending.
+     */
+    public static final class Segment implements AutoCloseable {
+
+        private final FileChannel channel;
+
+        private final Object forceLock = new Object();
+
+        /**
+         * Bytes written to the channel, guarded by {@code this}.
+         */
+        private long written;
+
+        /**
+         * Bytes known to be on disk.
+         */
+        private volatile long forced;
+
+        private Segment(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.written = channel.size();
+            this.forced = written;
+        }
+
+        /**
+         * Appends a change and returns once it is on disk.
+         *
+         * @param change the change to append
+         */
+        public void append(StockChange change) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE)
+                    .putLong(change.productId())
+                    .putLong(change.officeId())
+                    .putInt(change.delta())
+                    .putInt(checksum(change.productId(), change.officeId(), change.delta()))
+                    .flip();
+
+            try {
+                long position;
+                synchronized (this) {
+                    while (record.hasRemaining()) {
+                        channel.write(record);
+                    }
+                    written += RECORD_SIZE;
+                    position = written;
+                }
+
+                force(position);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Forces the segment at least up to the given position. A caller
+         * arriving while another one is forcing waits for it and usually
+         * finds its own record already on disk.
+         */
+        private void force(long position) throws IOException {
+            if (forced >= position) {
+                return;
+            }
+
+            synchronized (forceLock) {
+                if (forced >= position) {
+                    return;
+                }
+
+                long target;
+                synchronized (this) {
+                    target = written;
+                }
+
+                channel.force(false);
+                forced = target;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,541 @@
+package com.seti.technical_test.infrastructure.persistance.writebehind;
+
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer that coalesces stock changes and writes them to the
+ * database periodically.
+ *
+ * <p>
+ * Changes are first appended to the {@link StockChangeLog}, then added to a
+ * per-product {@link LongAdder}, so hot products are updated by many
+ * threads without contending on a single counter or database row. Changes
+ * are grouped in generations: a flush seals the current generation, starts
+ * a new one and writes the sealed one with a single multi-row
+ * {@code UPDATE} per shard.
+ * </p>
+ *
+ * <p>
+ * A change is only accepted if the stock stored in the database plus the
+ * buffered changes of the product stays non-negative. The check and the
+ * append are atomic per product, and are retried when a generation is
+ * written in between, since the stored stock and the buffered changes
+ * would then overlap or miss each other.
+ * </p>
+ *
+ * <p>
+ * Each {@code UPDATE} also records an outbox event per product and the
+ * generation in {@code stock_write_behind_checkpoint}, and is skipped when
+ * the checkpoint already covers it, so a generation whose segment survives
+ * a crash after its write is never applied twice. The writes of a node
+ * are serialized by an advisory lock on its identifier. A product whose
+ * stock would still become negative, changed meanwhile by another node or
+ * directly, keeps its stock and the rejected change is logged as an
+ * error. On startup the segments left on disk are replayed through the
+ * same path.
+ * </p>
+ */
+@Slf4j
+public class StockWriteBehindBuffer implements SmartLifecycle {
+
+    private static final String LOCK = """
+            SELECT pg_advisory_xact_lock(hashtext('stock_write_behind:' || :nodeId))
+            """;
+
+    /**
+     * Applies a generation on one shard and returns the changes rejected
+     * because the stock would become negative, with the stock they were
+     * checked against. The final query reads the rows as they were before
+     * the update.
+     */
+    private static final String FLUSH = """
+            WITH changes AS (
+                SELECT *
+                FROM unnest(CAST(:ids AS BIGINT[]), CAST(:officeIds AS BIGINT[]), CAST(:deltas AS BIGINT[]))
+                     AS c(id, office_id, delta)
+                WHERE NOT EXISTS (SELECT 1
+                                  FROM stock_write_behind_checkpoint k
+                                  WHERE k.node_id = :nodeId
+                                    AND k.generation >= :generation)
+            ), applied AS (
+                UPDATE product p
+                SET stock = p.stock + c.delta
+                FROM changes c
+                WHERE p.id = c.id
+                  AND p.office_id = c.office_id
+                  AND p.stock + c.delta >= 0
+                RETURNING p.id, p.name, p.stock, p.office_id
+            ), events AS (
+                INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, franchise_id)
+                SELECT 'product', a.id, 'UPDATED',
+                       jsonb_build_object('id', a.id, 'name', a.name, 'stock', a.stock, 'officeId', a.office_id),
+                       f.franchise_id
+                FROM applied a
+                     LEFT JOIN office f ON f.id = a.office_id
+            ), checkpoint AS (
+                INSERT INTO stock_write_behind_checkpoint (node_id, generation)
+                VALUES (:nodeId, :generation)
+                ON CONFLICT (node_id) DO UPDATE
+                SET generation = GREATEST(stock_write_behind_checkpoint.generation, EXCLUDED.generation)
+            )
+            SELECT c.id, c.delta, p.stock
+            FROM changes c
+                 JOIN product p ON p.id = c.id AND p.office_id = c.office_id
+            WHERE NOT EXISTS (SELECT 1 FROM applied a WHERE a.id = c.id)
+            """;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final Duration RETRY_DELAY = Duration.ofMillis(2);
+
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(30);
+
+    private final DatabaseClient databaseClient;
+
+    private final ShardResolver shardResolver;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final StockChangeLog changeLog;
+
+    /**
+     * Configured node identifier, {@code null} to use the one stored in the
+     * log directory.
+     */
+    private final String configuredNodeId;
+
+    private volatile String nodeId;
+
+    private final Duration flushInterval;
+
+    private final long maxLag;
+
+    /**
+     * Generation receiving the new changes.
+     */
+    private volatile Generation current;
+
+    /**
+     * Generations not yet written to the database, the current one last.
+     * Replaced as a whole on every change, read without locking.
+     */
+    private volatile List<Generation> unflushed = List.of();
+
+    private final Sinks.Many<Boolean> flushRequests = Sinks.many().multicast().directBestEffort();
+
+    /**
+     * Generation writes started and finished. A change is checked against
+     * a consistent view only if no write was running when the stored stock
+     * was read and none started until the check.
+     */
+    private final AtomicLong writesStarted = new AtomicLong();
+
+    private final AtomicLong writesFinished = new AtomicLong();
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private volatile Disposable task;
+
+    /**
+     * Flush started by the periodic task, awaited on stop.
+     */
+    private volatile CompletableFuture<Void> flushing;
+
+    public StockWriteBehindBuffer(DatabaseClient databaseClient, ShardResolver shardResolver,
+                                  TransactionalOperator transactionalOperator, StockChangeLog changeLog,
+                                  String nodeId, Duration flushInterval, long maxLag) {
+        this.databaseClient = databaseClient;
+        this.shardResolver = shardResolver;
+        this.transactionalOperator = transactionalOperator;
+        this.changeLog = changeLog;
+        this.configuredNodeId = nodeId;
+        this.flushInterval = flushInterval;
+        this.maxLag = maxLag;
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Changes the stock of a product through the buffer. The new stock is
+     * computed from the stored stock plus the buffered changes, and the
+     * difference is buffered only if the new stock is not negative. The
+     * returned {@link Mono} emits once the change is durable in the local
+     * log and visible through {@link #pending(Long)}.
+     *
+     * @param productId   the product identifier
+     * @param officeId    the office of the product
+     * @param storedStock reads the stock stored in the database, from the
+     *                    primary; subscribed again on every retry
+     * @param stock       computes the new stock from the current one
+     * @return a {@link Mono} emitting the new stock, or empty if it would
+     *         be negative
+     */
+    public Mono<Integer> update(Long productId, Long officeId, Mono<Integer> storedStock, LongUnaryOperator stock) {
+        return Mono.defer(() -> {
+                    long started = writesStarted.get();
+                    if (started != writesFinished.get()) {
+                        return Mono.<Reservation>empty();
+                    }
+
+                    return storedStock
+                            .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                                    "Product " + productId + " no longer exists")))
+                            .publishOn(Schedulers.boundedElastic())
+                            .mapNotNull(stored -> reserve(productId, officeId, stored, stock, started));
+                })
+                .repeatWhenEmpty(attempts -> attempts.concatMap(attempt -> Mono.delay(RETRY_DELAY)))
+                .filter(Reservation::accepted)
+                .map(Reservation::stock);
+    }
+
+    /**
+     * Returns the buffered stock change of a product, not yet written to
+     * the database.
+     *
+     * @param productId the product identifier
+     * @return the sum of the buffered changes, {@code 0} if there are none
+     */
+    public long pending(Long productId) {
+        long delta = 0;
+        for (Generation generation : unflushed) {
+            Pending pending = generation.changes.get(productId);
+            if (pending != null) {
+                delta += pending.delta.sum();
+            }
+        }
+        return delta;
+    }
+
+    @Override
+    public void start() {
+        nodeId = configuredNodeId != null ? configuredNodeId : changeLog.nodeId();
+        log.info("Stock write-behind buffer started as node {}", nodeId);
+
+        long last = 0;
+        List<Generation> recovered = new ArrayList<>();
+        for (Long number : changeLog.generations()) {
+            recovered.add(Generation.recovered(number, changeLog.read(number)));
+            last = number;
+        }
+
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} stock change log segments", recovered.size());
+        }
+
+        current = new Generation(nextGenerationNumber(last), changeLog);
+        recovered.add(current);
+        unflushed = List.copyOf(recovered);
+
+        task = Flux.merge(Flux.interval(flushInterval), flushRequests.asFlux())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromFuture(() -> flushing = flush()
+                        .onErrorResume(error -> {
+                            log.warn("Stock write-behind flush failed, it will be retried: {}", error.getMessage());
+                            return Mono.empty();
+                        })
+                        .toFuture(), true), 1)
+                .subscribe();
+    }
+
+    /**
+     * Stops the periodic flushes, waits for the one in progress, which
+     * disposing the task does not cancel, and flushes what is left.
+     */
+    @Override
+    public void stop() {
+        Disposable running = task;
+        if (running != null) {
+            running.dispose();
+        }
+
+        CompletableFuture<Void> inProgress = flushing;
+        if (inProgress != null) {
+            try {
+                inProgress.get(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Stock write-behind flush in progress did not complete on shutdown: {}", e.toString());
+            }
+        }
+
+        try {
+            flush().block(STOP_TIMEOUT);
+        } catch (RuntimeException e) {
+            log.warn("Stock write-behind buffer could not be flushed on shutdown, the log will be replayed on restart: {}",
+                    e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = task;
+        return running != null && !running.isDisposed();
+    }
+
+    /**
+     * Stops after the web server, so the changes accepted by the last
+     * requests are flushed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Seals the current generation if it has changes and writes every
+     * sealed generation, oldest first.
+     */
+    private Mono<Void> flush() {
+        return Mono.fromRunnable(this::seal)
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenMany(Flux.defer(() -> Flux.fromIterable(unflushed))
+                        .filter(generation -> generation != current)
+                        .concatMap(this::write, 1))
+                .then();
+    }
+
+    /**
+     * Starts a new generation and waits for the appends still running on
+     * the previous one.
+     */
+    private synchronized void seal() {
+        Generation sealed = current;
+        if (sealed.count.sum() == 0) {
+            return;
+        }
+
+        Generation next = new Generation(nextGenerationNumber(sealed.number), changeLog);
+        List<Generation> generations = new ArrayList<>(unflushed);
+        generations.add(next);
+        current = next;
+        unflushed = List.copyOf(generations);
+
+        while (sealed.inFlight.sum() != 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        sealed.close();
+    }
+
+    /**
+     * Writes a sealed generation, one transaction per shard, then forgets
+     * it and deletes its segment.
+     */
+    private Mono<Void> write(Generation generation) {
+        Map<Integer, List<Map.Entry<Long, Pending>>> byShard = generation.changes.entrySet().stream()
+                .filter(entry -> entry.getValue().delta.sum() != 0)
+                .collect(Collectors.groupingBy(entry -> shardResolver.shardOf(entry.getValue().officeId)));
+
+        return Mono.defer(() -> {
+                    writesStarted.incrementAndGet();
+                    return Flux.fromIterable(byShard.entrySet())
+                            .concatMap(shard -> shardResolver.onShard(shard.getKey(),
+                                    write(generation.number, shard.getValue())))
+                            .doOnNext(rejected -> log.error(
+                                    "Stock change {} of product {} rejected on flush, its stock of {} would become negative",
+                                    rejected.delta(), rejected.productId(), rejected.stock()))
+                            .then(Mono.fromRunnable(() -> forget(generation)).subscribeOn(Schedulers.boundedElastic()));
+                })
+                .doFinally(signal -> writesFinished.incrementAndGet())
+                .then();
+    }
+
+    private Flux<Rejected> write(long generation, List<Map.Entry<Long, Pending>> changes) {
+        int size = changes.size();
+        Long[] ids = new Long[size];
+        Long[] officeIds = new Long[size];
+        Long[] deltas = new Long[size];
+
+        for (int i = 0; i < size; i++) {
+            Map.Entry<Long, Pending> change = changes.get(i);
+            ids[i] = change.getKey();
+            officeIds[i] = change.getValue().officeId;
+            deltas[i] = change.getValue().delta.sum();
+        }
+
+        return transactionalOperator.transactional(databaseClient.sql(LOCK)
+                .bind("nodeId", nodeId)
+                .then()
+                .thenMany(databaseClient.sql(FLUSH)
+                        .bind("ids", ids)
+                        .bind("officeIds", officeIds)
+                        .bind("deltas", deltas)
+                        .bind("nodeId", nodeId)
+                        .bind("generation", generation)
+                        .map((row, metadata) -> new Rejected(
+                                row.get("id", Long.class),
+                                row.get("delta", Long.class),
+                                row.get("stock", Integer.class)))
+                        .all()));
+    }
+
+    private synchronized void forget(Generation generation) {
+        List<Generation> generations = new ArrayList<>(unflushed);
+        generations.remove(generation);
+        unflushed = List.copyOf(generations);
+        changeLog.delete(generation.number);
+    }
+
+    /**
+     * Checks and buffers a change under the lock of the product. Returns
+     * {@code null} if a write started since the stored stock was read.
+     */
+    private Reservation reserve(Long productId, Long officeId, int stored, LongUnaryOperator stock, long started) {
+        Generation generation = enter();
+        try {
+            Pending pending;
+            int delta;
+            long next;
+
+            synchronized (locks[Math.floorMod(productId.hashCode(), LOCK_STRIPES)]) {
+                long current = stored + pending(productId);
+                if (writesStarted.get() != started) {
+                    return null;
+                }
+
+                next = stock.applyAsLong(current);
+                if (next < 0) {
+                    return Reservation.REJECTED;
+                }
+                if (next == current) {
+                    return new Reservation(true, Math.toIntExact(next));
+                }
+
+                delta = Math.toIntExact(next - current);
+                pending = generation.changes.computeIfAbsent(productId, id -> new Pending(officeId));
+                pending.delta.add(delta);
+            }
+
+            try {
+                generation.segment.append(new StockChange(productId, officeId, delta));
+            } catch (RuntimeException e) {
+                pending.delta.add(-delta);
+                throw e;
+            }
+            generation.count.increment();
+
+            if (generation.count.sum() >= maxLag) {
+                flushRequests.tryEmitNext(Boolean.TRUE);
+            }
+            return new Reservation(true, Math.toIntExact(next));
+        } finally {
+            generation.inFlight.decrement();
+        }
+    }
+
+    /**
+     * Joins the current generation, retrying if a flush seals it
+     * concurrently, so that a sealed generation never receives a change
+     * after the flush stopped waiting for it.
+     */
+    private Generation enter() {
+        while (true) {
+            Generation generation = current;
+            generation.inFlight.increment();
+            if (generation == current) {
+                return generation;
+            }
+            generation.inFlight.decrement();
+        }
+    }
+
+    /**
+     * Generation numbers follow the wall clock, so they keep increasing
+     * even if the log directory is lost while the checkpoint table is not.
+     */
+    private static long nextGenerationNumber(long previous) {
+        return Math.max(previous + 1, System.currentTimeMillis());
+    }
+
+    /**
+     * Outcome of a change checked against the stock.
+     */
+    private record Reservation(boolean accepted, int stock) {
+
+        static final Reservation REJECTED = new Reservation(false, 0);
+    }
+
+    /**
+     * Change rejected on flush, with the stock it was checked against.
+     */
+    private record Rejected(long productId, long delta, int stock) {
+    }
+
+    /**
+     * Buffered change of one product.
+     */
+    private static final class Pending {
+
+        private final long officeId;
+
+        private final LongAdder delta = new LongAdder();
+
+        private Pending(long officeId) {
+            this.officeId = officeId;
+        }
+    }
+
+    /**
+     * Changes accepted between two flushes, with the log segment holding
+     * them.
+     */
+    private static final class Generation {
+
+        private final long number;
+
+        private final StockChangeLog.Segment segment;
+
+        private final Map<Long, Pending> changes = new ConcurrentHashMap<>();
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder inFlight = new LongAdder();
+
+        private Generation(long number, StockChangeLog changeLog) {
+            this.number = number;
+            this.segment = changeLog == null ? null : changeLog.open(number);
+        }
+
+        static Generation recovered(long number, List<StockChange> changes) {
+            Generation generation = new Generation(number, null);
+            for (StockChange change : changes) {
+                generation.changes.computeIfAbsent(change.productId(), id -> new Pending(change.officeId()))
+                        .delta.add(change.delta());
+                generation.count.increment();
+            }
+            return generation;
+        }
+
+        void close() {
+            if (segment != null) {
+                segment.close();
+            }
+        }
+    }
+}
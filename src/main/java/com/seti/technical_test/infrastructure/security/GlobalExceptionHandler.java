@@ -3,7 +3,7 @@ package com.seti.technical_test.infrastructure.security;
 import com.seti.technical_test.infrastructure.exception.GeneralException;
 import com.seti.technical_test.infrastructure.exception.NotFoundException;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.ProblemDetail;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -17,6 +17,12 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  * By using {@link RestControllerAdvice}, all exceptions thrown from
  * controllers or service layers are intercepted and converted into
  * meaningful HTTP responses with proper status codes and messages.
+ *
+ * <p>
+ * Errors are rendered as compact RFC 9457 problem details
+ * ({@code application/problem+json}) carrying the status, title and the
+ * exception message as detail.
+ * </p>
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -29,14 +35,12 @@ public class GlobalExceptionHandler {
      * </p>
      *
      * @param ex the exception thrown by the application
-     * @return a {@link ResponseEntity} with HTTP 404 (Not Found)
-     *         and the exception message as the response body
+     * @return a {@link ProblemDetail} with HTTP 404 (Not Found)
+     *         and the exception message as detail
      */
     @ExceptionHandler(NotFoundException.class)
-    public ResponseEntity<?> handleNotFoundException(NotFoundException ex) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(ex.getMessage());
+    public ProblemDetail handleNotFoundException(NotFoundException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
     /**
@@ -47,14 +51,12 @@ public class GlobalExceptionHandler {
      * </p>
      *
      * @param ex the exception thrown by the application
-     * @return a {@link ResponseEntity} with HTTP 400 (Bad Request)
-     *         and the exception message as the response body
+     * @return a {@link ProblemDetail} with HTTP 400 (Bad Request)
+     *         and the exception message as detail
      */
     @ExceptionHandler(GeneralException.class)
-    public ResponseEntity<?> handleGeneralException(GeneralException ex) {
-        return ResponseEntity
-                .status(HttpStatus.BAD_REQUEST)
-                .body(ex.getMessage());
+    public ProblemDetail handleGeneralException(GeneralException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 }
 
@@ -0,0 +1,66 @@
+package com.seti.technical_test.infrastructure.tracing;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Holder of the trace id of the HTTP request being processed.
+ *
+ * <p>
+ * The trace id travels in the Reactor context under {@link #CONTEXT_KEY}.
+ * With automatic context propagation enabled, it is also restored into
+ * this thread-local (and the logging MDC) around every reactive signal,
+ * which makes it reachable from code that has no access to the Reactor
+ * context, such as the R2DBC query listeners.
+ * </p>
+ */
+public final class TraceIdHolder {
+
+    /**
+     * Key used in the Reactor context, the thread-local accessor and the MDC.
+     */
+    public static final String CONTEXT_KEY = "traceId";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TraceIdHolder() {
+    }
+
+    /**
+     * Returns the trace id bound to the current thread.
+     *
+     * @return the trace id, or {@code null} when none is bound
+     */
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the given trace id to the current thread.
+     *
+     * @param traceId the trace id to bind
+     */
+    public static void set(String traceId) {
+        CURRENT.set(traceId);
+        MDC.put(CONTEXT_KEY, traceId);
+    }
+
+    /**
+     * Removes the trace id from the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+        MDC.remove(CONTEXT_KEY);
+    }
+
+    /**
+     * Generates a new random 64-bit trace id encoded as 16 hex characters.
+     *
+     * @return a new trace id
+     */
+    public static String newTraceId() {
+        String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+}
@@ -0,0 +1,30 @@
+package com.seti.technical_test.infrastructure.tracing;
+
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * {@link ThreadLocalAccessor} that lets the context-propagation library
+ * restore the trace id from the Reactor context into {@link TraceIdHolder}.
+ */
+public class TraceIdThreadLocalAccessor implements ThreadLocalAccessor<String> {
+
+    @Override
+    public Object key() {
+        return TraceIdHolder.CONTEXT_KEY;
+    }
+
+    @Override
+    public String getValue() {
+        return TraceIdHolder.get();
+    }
+
+    @Override
+    public void setValue(String value) {
+        TraceIdHolder.set(value);
+    }
+
+    @Override
+    public void setValue() {
+        TraceIdHolder.clear();
+    }
+}
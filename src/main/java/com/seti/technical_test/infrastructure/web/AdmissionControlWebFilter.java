@@ -0,0 +1,136 @@
+package com.seti.technical_test.infrastructure.web;
+
+import com.seti.technical_test.infrastructure.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link WebFilter} that sheds load before it reaches the database pool.
+ *
+ * <p>
+ * Every API request goes through two checks:
+ * </p>
+ * <ol>
+ *     <li>a per-client {@link RateLimiter}, the client being identified by
+ *     {@link ClientIdentity} and its limiter kept in the bounded
+ *     {@link ClientRateLimiters}: clients above their rate are answered
+ *     {@code 429 Too Many Requests};</li>
+ *     <li>a global {@link ConcurrencyLimiter} sized adaptively from the
+ *     observed latency: when the database is saturated, requests are
+ *     answered {@code 503 Service Unavailable}.</li>
+ * </ol>
+ *
+ * <p>
+ * Rejections carry a {@code Retry-After} header and happen immediately,
+ * so a flooding client cannot make other clients queue behind it.
+ * Management endpoints are not subject to admission control, and
+ * streaming requests only to the rate limit: they hold no pool connection
+ * between polls and their duration would distort the latency samples.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(prefix = "app.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlWebFilter implements WebFilter {
+
+    private static final String API_PATH_PREFIX = "/api/";
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    private final ClientRateLimiters rateLimiters;
+
+    private final Counter rateRejections;
+
+    private final Counter concurrencyRejections;
+
+    public AdmissionControlWebFilter(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        this.rateLimiters = new ClientRateLimiters(
+                properties.maxClients(),
+                properties.ratePerSecond(),
+                properties.burst(),
+                properties.idleTimeout().toNanos());
+        this.concurrencyLimiter = new ConcurrencyLimiter(
+                properties.initialLimit(),
+                properties.minLimit(),
+                properties.maxLimit(),
+                properties.rttTolerance(),
+                properties.smoothing());
+
+        Gauge.builder("app.admission.limit", concurrencyLimiter, ConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("app.admission.inflight", concurrencyLimiter, ConcurrencyLimiter::inFlight)
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+        Gauge.builder("app.admission.clients", rateLimiters, ClientRateLimiters::size)
+                .description("Clients currently tracked by the rate limiter")
+                .register(meterRegistry);
+
+        this.rateRejections = Counter.builder("app.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("reason", "rate")
+                .register(meterRegistry);
+        this.concurrencyRejections = Counter.builder("app.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("reason", "concurrency")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!request.getPath().value().startsWith(API_PATH_PREFIX)) {
+            return chain.filter(exchange);
+        }
+
+        return ClientIdentity.of(exchange).flatMap(clientId -> {
+            long now = System.nanoTime();
+            long waitNanos = rateLimiters.get(clientId, now).tryAcquire(now);
+            if (waitNanos > 0) {
+                rateRejections.increment();
+                return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, waitNanos);
+            }
+
+            if (StreamingRequests.isStreaming(request)) {
+                return chain.filter(exchange);
+            }
+
+            if (!concurrencyLimiter.tryAcquire()) {
+                concurrencyRejections.increment();
+                return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, 1_000_000_000L);
+            }
+
+            return chain.filter(exchange)
+                    .doFinally(signal -> concurrencyLimiter.release(System.nanoTime() - now));
+        });
+    }
+
+    /**
+     * Completes the exchange with a rejection.
+     *
+     * @param response the HTTP response
+     * @param status the rejection status
+     * @param retryAfterNanos the time after which the client may retry
+     * @return a {@link Mono} completing when the response is sent
+     */
+    private Mono<Void> reject(ServerHttpResponse response, HttpStatus status, long retryAfterNanos) {
+        long seconds = Math.max(1, (retryAfterNanos + 999_999_999L) / 1_000_000_000L);
+
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        return response.setComplete();
+    }
+}
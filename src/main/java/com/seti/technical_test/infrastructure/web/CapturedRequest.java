@@ -0,0 +1,15 @@
+package com.seti.technical_test.infrastructure.web;
+
+/**
+ * An API request as captured by {@link TrafficCaptureWebFilter}.
+ *
+ * @param startedAt    when the request arrived, in microseconds since the epoch
+ * @param method       the HTTP method
+ * @param uri          the raw path and query
+ * @param body         the request body, empty when there is none
+ * @param status       the response status, {@code 0} if the request was cancelled
+ * @param latencyNanos the time taken to answer, in nanoseconds
+ */
+public record CapturedRequest(long startedAt, String method, String uri, byte[] body, int status,
+                              long latencyNanos) {
+}
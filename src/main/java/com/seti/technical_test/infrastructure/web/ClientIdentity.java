@@ -0,0 +1,51 @@
+package com.seti.technical_test.infrastructure.web;
+
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+
+/**
+ * Identifies the client issuing a request from what it cannot choose
+ * freely: its authenticated principal, or else its remote address.
+ *
+ * <p>
+ * Request headers are never used, as any client could claim to be another
+ * one with them. Behind a proxy, the remote address is the proxy's unless
+ * {@code server.forward-headers-strategy} is set to trust its forwarded
+ * headers.
+ * </p>
+ */
+final class ClientIdentity {
+
+    private static final String UNKNOWN = "unknown";
+
+    private ClientIdentity() {
+    }
+
+    /**
+     * Identifies the client of an exchange.
+     *
+     * @param exchange the HTTP exchange
+     * @return a {@link Mono} emitting the client identifier
+     */
+    static Mono<String> of(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .filter(name -> !name.isBlank())
+                .map(name -> "principal:" + name)
+                .defaultIfEmpty(remoteAddress(exchange));
+    }
+
+    /**
+     * Identifies the client of an exchange by its remote address alone.
+     *
+     * @param exchange the HTTP exchange
+     * @return the client identifier
+     */
+    static String remoteAddress(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return "address:" + (remoteAddress != null ? remoteAddress.getHostString() : UNKNOWN);
+    }
+}
@@ -0,0 +1,94 @@
+package com.seti.technical_test.infrastructure.web;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded table of the {@link RateLimiter} of each client.
+ *
+ * <p>
+ * The table is split in stripes, each a map in access order under its own
+ * lock, so concurrent requests of different clients rarely contend. On
+ * every lookup a stripe forgets its least recently used clients while they
+ * are idle, and once full it forgets the least recently used one, so the
+ * table never holds more than its capacity whatever the number of
+ * clients. Forgetting an idle client changes no decision; forgetting an
+ * active one gives it a full burst again.
+ * </p>
+ */
+final class ClientRateLimiters {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final int ratePerSecond;
+
+    private final int burst;
+
+    private final long idleNanos;
+
+    ClientRateLimiters(int maxClients, int ratePerSecond, int burst, long idleNanos) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.idleNanos = idleNanos;
+
+        int capacity = Math.max(1, (maxClients + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    /**
+     * Returns the rate limiter of a client, creating it on first use.
+     *
+     * @param clientId the client identifier
+     * @param now      the current time, in {@link System#nanoTime()} units
+     * @return the client rate limiter
+     */
+    RateLimiter get(String clientId, long now) {
+        Stripe stripe = stripes[Math.floorMod(clientId.hashCode(), STRIPES)];
+        synchronized (stripe) {
+            Iterator<RateLimiter> leastRecent = stripe.values().iterator();
+            while (leastRecent.hasNext() && leastRecent.next().isIdle(now, idleNanos)) {
+                leastRecent.remove();
+            }
+
+            return stripe.computeIfAbsent(clientId, id -> new RateLimiter(ratePerSecond, burst, now));
+        }
+    }
+
+    /**
+     * Number of clients currently tracked.
+     *
+     * @return the number of clients
+     */
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Clients of one stripe, least recently used first.
+     */
+    private static final class Stripe extends LinkedHashMap<String, RateLimiter> {
+
+        private final int capacity;
+
+        private Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RateLimiter> eldest) {
+            return size() > capacity;
+        }
+    }
+}
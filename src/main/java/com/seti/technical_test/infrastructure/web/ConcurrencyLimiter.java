@@ -0,0 +1,126 @@
+package com.seti.technical_test.infrastructure.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive concurrency limit following the gradient algorithm.
+ *
+ * <p>
+ * The limit is continuously re-estimated from the ratio between the
+ * minimum latency observed (the latency of an idle database) and the
+ * latency of each completed request. When latency grows because requests
+ * start queuing for database connections, the ratio drops below one and
+ * the limit shrinks; when latency is close to the minimum, the limit grows
+ * by a headroom of {@code sqrt(limit)}. Requests above the limit are
+ * rejected immediately instead of waiting for a connection.
+ * </p>
+ *
+ * <p>
+ * All state is kept in atomics: admission is a compare-and-set on the
+ * in-flight counter and limit updates are lossy compare-and-sets, which is
+ * acceptable since each update is only an estimate.
+ * </p>
+ */
+class ConcurrencyLimiter {
+
+    /**
+     * Window after which the minimum latency is forgotten, so the
+     * algorithm adapts when the baseline latency legitimately changes.
+     */
+    private static final long MIN_RTT_WINDOW_NANOS = 30_000_000_000L;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Current limit, stored as the raw bits of a {@code double}.
+     */
+    private final AtomicLong limitBits;
+
+    private final AtomicLong minRtt = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicLong minRttResetAt;
+
+    ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(Math.clamp(initialLimit, minLimit, maxLimit)));
+        this.minRttResetAt = new AtomicLong(System.nanoTime() + MIN_RTT_WINDOW_NANOS);
+    }
+
+    /**
+     * Tries to reserve a slot for a request.
+     *
+     * @return {@code true} if the request may proceed, in which case
+     *         {@link #release(long)} must be called when it completes
+     */
+    boolean tryAcquire() {
+        int limit = limit();
+
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot and feeds the latency of the request to the estimator.
+     *
+     * @param rttNanos the latency of the completed request
+     */
+    void release(long rttNanos) {
+        inFlight.decrementAndGet();
+
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long resetAt = minRttResetAt.get();
+        if (now - resetAt > 0 && minRttResetAt.compareAndSet(resetAt, now + MIN_RTT_WINDOW_NANOS)) {
+            minRtt.set(rttNanos);
+        } else {
+            minRtt.accumulateAndGet(rttNanos, Math::min);
+        }
+
+        double gradient = Math.clamp(rttTolerance * minRtt.get() / rttNanos, 0.5, 1.0);
+
+        long currentBits = limitBits.get();
+        double current = Double.longBitsToDouble(currentBits);
+        double estimate = current * gradient + Math.sqrt(current);
+        double next = Math.clamp(current * (1 - smoothing) + estimate * smoothing, minLimit, maxLimit);
+
+        limitBits.compareAndSet(currentBits, Double.doubleToRawLongBits(next));
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return the limit
+     */
+    int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    /**
+     * Returns the number of requests currently admitted.
+     *
+     * @return the in-flight request count
+     */
+    int inFlight() {
+        return inFlight.get();
+    }
+}
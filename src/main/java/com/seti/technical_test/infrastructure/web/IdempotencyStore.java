@@ -0,0 +1,95 @@
+package com.seti.technical_test.infrastructure.web;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Store of the idempotency keys seen by {@link IdempotencyWebFilter}: for
+ * each key, the fingerprint of the request that first used it and either
+ * an in-flight marker or the response it got.
+ *
+ * <p>
+ * A request first claims its key. Exactly one request holding a key is
+ * told to execute; it then completes the key with its response, or
+ * releases it if it failed, so a retry can execute it again. Requests
+ * claiming a key in flight wait for that outcome instead of executing.
+ * </p>
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims a key for a request, waiting while another request holding the
+     * same key is in flight.
+     *
+     * @param key         the idempotency key
+     * @param fingerprint the fingerprint of the request
+     * @return a {@link Mono} emitting what the request must do
+     */
+    Mono<Claim> claim(String key, String fingerprint);
+
+    /**
+     * Records the response of a request that claimed its key, and hands it
+     * to the requests waiting on it.
+     *
+     * @param key         the idempotency key
+     * @param fingerprint the fingerprint of the request
+     * @param response    the response to return to the retries
+     * @return a {@link Mono} completing once the response is stored
+     */
+    Mono<Void> complete(String key, String fingerprint, IdempotentResponse response);
+
+    /**
+     * Forgets a key claimed by a request that failed, so the next request
+     * holding it executes.
+     *
+     * @param key         the idempotency key
+     * @param fingerprint the fingerprint of the request
+     * @return a {@link Mono} completing once the key is released
+     */
+    Mono<Void> release(String key, String fingerprint);
+
+    /**
+     * Outcome of a {@link #claim}.
+     */
+    sealed interface Claim {
+
+        Claim ACQUIRED = new Acquired();
+
+        Claim MISMATCH = new Mismatch();
+
+        Claim IN_PROGRESS = new InProgress();
+
+        Claim FULL = new Full();
+
+        /**
+         * The request holds the key and executes.
+         */
+        record Acquired() implements Claim {
+        }
+
+        /**
+         * A request with the key already completed; its response is returned.
+         *
+         * @param response the stored response
+         */
+        record Completed(IdempotentResponse response) implements Claim {
+        }
+
+        /**
+         * The key was used by a different request.
+         */
+        record Mismatch() implements Claim {
+        }
+
+        /**
+         * The request holding the key did not finish within the wait timeout.
+         */
+        record InProgress() implements Claim {
+        }
+
+        /**
+         * The store holds as many keys as it can.
+         */
+        record Full() implements Claim {
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.seti.technical_test.infrastructure.web;
+
+import com.seti.technical_test.infrastructure.config.IdempotencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * {@link WebFilter} making the writes of the API safe to retry with an
+ * {@code Idempotency-Key} header.
+ *
+ * <p>
+ * The first {@code POST}, {@code PUT} or {@code PATCH} carrying a key
+ * executes and its response is kept in the {@link IdempotencyStore};
+ * later requests with the same key get that response back, marked with
+ * an {@value #REPLAYED} header, without executing again. Retries arriving
+ * while the first request is still in flight wait for its response. A key
+ * reused for a different method, path or body is answered
+ * {@code 422 Unprocessable Content}, and a key whose request is still in
+ * flight after the wait timeout {@code 409 Conflict}. Keys are scoped to
+ * the client that sent them, identified by {@link ClientIdentity}, so a
+ * client can neither replay nor block the keys of another one.
+ * </p>
+ *
+ * <p>
+ * Only final outcomes are kept: server errors, cancelled requests,
+ * streaming responses and responses larger than the configured size
+ * release the key, so the next retry executes. The request body is read
+ * up front to fingerprint the request; larger bodies than the configured
+ * size are answered {@code 413 Content Too Large}.
+ * </p>
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyWebFilter implements WebFilter {
+
+    /**
+     * Request header carrying the idempotency key.
+     */
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /**
+     * Response header set on the responses returned again to a retry.
+     */
+    static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final String API_PATH_PREFIX = "/api/";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final Set<HttpMethod> METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH);
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final int maxBodySize;
+
+    private final Counter replayed;
+
+    private final Counter mismatched;
+
+    private final Counter inProgress;
+
+    private final Counter full;
+
+    public IdempotencyWebFilter(IdempotencyStore idempotencyStore, IdempotencyProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.idempotencyStore = idempotencyStore;
+        this.maxBodySize = (int) Math.min(properties.maxBodySize().toBytes(), Integer.MAX_VALUE);
+        this.replayed = Counter.builder("app.idempotency.replayed")
+                .description("Requests answered with the stored response of their idempotency key")
+                .register(meterRegistry);
+        this.mismatched = rejections(meterRegistry, "mismatch");
+        this.inProgress = rejections(meterRegistry, "in-progress");
+        this.full = rejections(meterRegistry, "full");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String key = request.getHeaders().getFirst(IDEMPOTENCY_KEY);
+        if (key == null
+                || !METHODS.contains(request.getMethod())
+                || !request.getPath().value().startsWith(API_PATH_PREFIX)) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return reject(response, HttpStatus.BAD_REQUEST);
+        }
+
+        return DataBufferUtils.join(request.getBody(), maxBodySize)
+                .map(IdempotencyWebFilter::bytes)
+                .defaultIfEmpty(EMPTY)
+                .zipWith(ClientIdentity.of(exchange))
+                .flatMap(bodyAndClient -> {
+                    byte[] body = bodyAndClient.getT1();
+                    String scopedKey = bodyAndClient.getT2() + ' ' + key;
+                    String fingerprint = fingerprint(request, body);
+                    return idempotencyStore.claim(scopedKey, fingerprint)
+                            .flatMap(claim -> switch (claim) {
+                                case IdempotencyStore.Claim.Acquired acquired ->
+                                        execute(exchange, chain, scopedKey, fingerprint, body);
+                                case IdempotencyStore.Claim.Completed completed -> replay(response, completed.response());
+                                case IdempotencyStore.Claim.Mismatch mismatch -> {
+                                    mismatched.increment();
+                                    yield reject(response, HttpStatus.UNPROCESSABLE_CONTENT);
+                                }
+                                case IdempotencyStore.Claim.InProgress busy -> {
+                                    inProgress.increment();
+                                    yield reject(response, HttpStatus.CONFLICT);
+                                }
+                                case IdempotencyStore.Claim.Full overflow -> {
+                                    full.increment();
+                                    yield reject(response, HttpStatus.SERVICE_UNAVAILABLE);
+                                }
+                            });
+                })
+                .onErrorResume(DataBufferLimitException.class, e -> reject(response, HttpStatus.CONTENT_TOO_LARGE));
+    }
+
+    /**
+     * Executes a request holding its key, then stores its response or
+     * releases the key.
+     */
+    private Mono<Void> execute(ServerWebExchange exchange, WebFilterChain chain, String key, String fingerprint,
+                               byte[] body) {
+        ServerHttpResponse response = exchange.getResponse();
+        CapturingResponse capturing = new CapturingResponse(response);
+        ServerHttpRequest buffered = new ServerHttpRequestDecorator(exchange.getRequest()) {
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return body.length == 0
+                        ? Flux.empty()
+                        : Flux.defer(() -> Flux.just(response.bufferFactory().wrap(body)));
+            }
+        };
+
+        return chain.filter(exchange.mutate().request(buffered).response(capturing).build())
+                .onErrorResume(error -> release(key, fingerprint).then(Mono.error(error)))
+                .then(Mono.defer(() -> finish(key, fingerprint, capturing)))
+                .doOnCancel(() -> release(key, fingerprint).subscribe());
+    }
+
+    /**
+     * Stores the response of an executed request if it is final, releases
+     * its key otherwise.
+     */
+    private Mono<Void> finish(String key, String fingerprint, CapturingResponse capturing) {
+        HttpStatusCode status = capturing.getStatusCode();
+        byte[] body = capturing.body;
+        if (status == null || status.is5xxServerError() || body == null) {
+            return release(key, fingerprint);
+        }
+
+        MediaType contentType = capturing.getHeaders().getContentType();
+        return idempotencyStore.complete(key, fingerprint,
+                        new IdempotentResponse(status.value(), contentType != null ? contentType.toString() : null, body))
+                .onErrorResume(error -> {
+                    log.warn("Response of idempotency key {} could not be stored: {}", key, error.getMessage());
+                    return release(key, fingerprint);
+                });
+    }
+
+    private Mono<Void> release(String key, String fingerprint) {
+        return idempotencyStore.release(key, fingerprint)
+                .onErrorResume(error -> {
+                    log.warn("Idempotency key {} could not be released: {}", key, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Returns a stored response.
+     */
+    private Mono<Void> replay(ServerHttpResponse response, IdempotentResponse stored) {
+        replayed.increment();
+        response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+        response.getHeaders().set(REPLAYED, "true");
+        if (stored.contentType() != null) {
+            response.getHeaders().set(HttpHeaders.CONTENT_TYPE, stored.contentType());
+        }
+
+        return stored.body().length == 0
+                ? response.setComplete()
+                : response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(stored.body())));
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status) {
+        response.setStatusCode(status);
+        if (status == HttpStatus.CONFLICT || status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return response.setComplete();
+    }
+
+    /**
+     * SHA-256 of the method, path, query and body of a request.
+     */
+    private static String fingerprint(ServerHttpRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String query = request.getURI().getRawQuery();
+            digest.update((request.getMethod().name() + ' ' + request.getURI().getRawPath()
+                    + (query != null ? "?" + query : "") + '\n').getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("app.idempotency.rejected")
+                .description("Requests with an idempotency key rejected without executing")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Response keeping a copy of its body, unless it is streamed or larger
+     * than the configured size.
+     */
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private volatile byte[] body = EMPTY;
+
+        private CapturingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(Flux.from(body))
+                    .flatMap(buffer -> {
+                        int length = buffer.readableByteCount();
+                        if (length > maxBodySize) {
+                            this.body = null;
+                        } else {
+                            byte[] copy = new byte[length];
+                            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(copy), 0, length);
+                            this.body = copy;
+                        }
+                        return super.writeWith(Mono.just(buffer));
+                    });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            this.body = null;
+            return super.writeAndFlushWith(body);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.seti.technical_test.infrastructure.web;
+
+/**
+ * A response kept by an {@link IdempotencyStore}, returned again to the
+ * retries of the request that produced it.
+ *
+ * @param status      the HTTP status
+ * @param contentType the content type, {@code null} when there is no body
+ * @param body        the response body, empty when there is none
+ */
+public record IdempotentResponse(int status, String contentType, byte[] body) {
+}
@@ -0,0 +1,223 @@
+package com.seti.technical_test.infrastructure.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link IdempotencyStore} kept in the memory of one instance.
+ *
+ * <p>
+ * Each key maps to an entry holding its fingerprint and a one-shot sink:
+ * requests waiting on a key in flight subscribe to the sink, which emits
+ * the response when the key is completed, or completes empty when it is
+ * released, and the first waiter to claim the key again executes.
+ * </p>
+ *
+ * <p>
+ * Completed keys are also queued in completion order, which is their
+ * expiry order as they all live for the same TTL. Expired keys are swept
+ * from the head of that queue on a fixed interval, off the event loop, and
+ * when the store is full the oldest completed keys are forgotten first to
+ * make room, even before they expire. New keys are only refused when every
+ * stored key is in flight. Keys in flight are never swept: the
+ * {@link IdempotencyWebFilter} always completes or releases them.
+ * </p>
+ */
+@Slf4j
+public class InMemoryIdempotencyStore implements IdempotencyStore, SmartLifecycle {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ArrayDeque<Entry> completed = new ArrayDeque<>();
+
+    private final long ttlNanos;
+
+    private final int maxEntries;
+
+    private final Duration waitTimeout;
+
+    private final Duration cleanupInterval;
+
+    private final Counter evicted;
+
+    private volatile Disposable task;
+
+    public InMemoryIdempotencyStore(Duration ttl, int maxEntries, Duration waitTimeout, Duration cleanupInterval,
+                                    MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.waitTimeout = waitTimeout;
+        this.cleanupInterval = cleanupInterval;
+
+        Gauge.builder("app.idempotency.keys", entries, Map::size)
+                .description("Idempotency keys currently stored in memory")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("app.idempotency.evicted")
+                .description("Completed idempotency keys forgotten before expiring to make room for new ones")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Claim> claim(String key, String fingerprint) {
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            Entry claimed = new Entry(key, fingerprint, now);
+            Entry current = entries.compute(key,
+                    (k, existing) -> existing == null || existing.isExpired(now, ttlNanos) ? claimed : existing);
+
+            if (current == claimed) {
+                return Mono.just(fits(claimed) ? Claim.ACQUIRED : Claim.FULL);
+            }
+
+            if (!current.fingerprint.equals(fingerprint)) {
+                return Mono.just(Claim.MISMATCH);
+            }
+
+            IdempotentResponse response = current.response;
+            if (response != null) {
+                return Mono.just(new Claim.Completed(response));
+            }
+
+            return current.outcome.asMono()
+                    .<Claim>map(Claim.Completed::new)
+                    .switchIfEmpty(Mono.defer(() -> claim(key, fingerprint)))
+                    .timeout(waitTimeout, Mono.just(Claim.IN_PROGRESS));
+        });
+    }
+
+    @Override
+    public Mono<Void> complete(String key, String fingerprint, IdempotentResponse response) {
+        return Mono.fromRunnable(() -> {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.response == null && entry.fingerprint.equals(fingerprint)) {
+                entry.since = System.nanoTime();
+                entry.response = response;
+                synchronized (completed) {
+                    completed.addLast(entry);
+                }
+                entry.outcome.tryEmitValue(response);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> release(String key, String fingerprint) {
+        return Mono.fromRunnable(() -> {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.response == null && entry.fingerprint.equals(fingerprint)
+                    && entries.remove(key, entry)) {
+                entry.outcome.tryEmitEmpty();
+            }
+        });
+    }
+
+    /**
+     * Forgets the completed keys that expired, oldest first.
+     *
+     * @return the number of keys forgotten
+     */
+    public int sweep() {
+        long now = System.nanoTime();
+        int swept = 0;
+        synchronized (completed) {
+            Entry oldest;
+            while ((oldest = completed.peekFirst()) != null && oldest.isExpired(now, ttlNanos)) {
+                completed.pollFirst();
+                if (entries.remove(oldest.key, oldest)) {
+                    swept++;
+                }
+            }
+        }
+        return swept;
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(cleanupInterval)
+                .onBackpressureDrop()
+                .subscribe(tick -> {
+                    int swept = sweep();
+                    log.debug("Swept {} expired idempotency keys", swept);
+                });
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = task;
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = task;
+        return running != null && !running.isDisposed();
+    }
+
+    /**
+     * Checks that a newly claimed key fits in the store, forgetting the
+     * oldest completed keys when it is full, and gives the key up if only
+     * keys in flight are left.
+     */
+    private boolean fits(Entry claimed) {
+        if (entries.size() <= maxEntries) {
+            return true;
+        }
+
+        synchronized (completed) {
+            Entry oldest;
+            while (entries.size() > maxEntries && (oldest = completed.pollFirst()) != null) {
+                // an entry replaced after expiring no longer holds its key
+                if (entries.remove(oldest.key, oldest)) {
+                    evicted.increment();
+                }
+            }
+        }
+
+        if (entries.size() <= maxEntries) {
+            return true;
+        }
+
+        entries.remove(claimed.key, claimed);
+        return false;
+    }
+
+    /**
+     * A stored key: in flight until its response is set.
+     */
+    private static final class Entry {
+
+        private final String key;
+
+        private final String fingerprint;
+
+        private final Sinks.One<IdempotentResponse> outcome = Sinks.one();
+
+        private volatile long since;
+
+        private volatile IdempotentResponse response;
+
+        private Entry(String key, String fingerprint, long since) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.since = since;
+        }
+
+        private boolean isExpired(long now, long ttlNanos) {
+            return now - since > ttlNanos;
+        }
+    }
+}
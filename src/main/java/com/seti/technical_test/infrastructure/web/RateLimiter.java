@@ -0,0 +1,76 @@
+package com.seti.technical_test.infrastructure.web;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket of a single client, implemented with the generic
+ * cell rate algorithm (GCRA).
+ *
+ * <p>
+ * Instead of a token count and a refill timestamp, the bucket keeps a
+ * single "theoretical arrival time": the instant at which the bucket would
+ * be full again. Admitting a request pushes it forward by one emission
+ * interval; a request is rejected when doing so would move it further
+ * ahead than the burst allows. The whole state fits in one
+ * {@link AtomicLong}, so admission is a single compare-and-set and does
+ * not allocate.
+ * </p>
+ */
+class RateLimiter {
+
+    /**
+     * Nanoseconds between two requests at the sustained rate.
+     */
+    private final long emissionInterval;
+
+    /**
+     * How far ahead of the current time the arrival time may be pushed.
+     */
+    private final long burstTolerance;
+
+    /**
+     * Theoretical arrival time, in {@link System#nanoTime()} units.
+     */
+    private final AtomicLong arrivalTime;
+
+    RateLimiter(int ratePerSecond, int burst, long now) {
+        this.emissionInterval = 1_000_000_000L / Math.max(1, ratePerSecond);
+        this.burstTolerance = emissionInterval * Math.max(1, burst);
+        this.arrivalTime = new AtomicLong(now);
+    }
+
+    /**
+     * Tries to admit one request.
+     *
+     * @param now the current time, in {@link System#nanoTime()} units
+     * @return {@code 0} when the request is admitted, otherwise the number
+     *         of nanoseconds after which it would be
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = arrivalTime.get();
+            long next = Math.max(current, now) + emissionInterval;
+            long ahead = next - now;
+
+            if (ahead > burstTolerance) {
+                return ahead - burstTolerance;
+            }
+
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Tells whether the bucket has been full for longer than the given time,
+     * meaning it can be discarded without changing any future decision.
+     *
+     * @param now the current time, in {@link System#nanoTime()} units
+     * @param idleNanos the inactivity threshold
+     * @return {@code true} if the bucket is idle
+     */
+    boolean isIdle(long now, long idleNanos) {
+        return now - arrivalTime.get() > idleNanos;
+    }
+}
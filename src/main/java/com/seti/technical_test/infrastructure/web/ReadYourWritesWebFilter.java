@@ -0,0 +1,82 @@
+package com.seti.technical_test.infrastructure.web;
+
+import com.seti.technical_test.infrastructure.config.ReadReplicaProperties;
+import com.seti.technical_test.infrastructure.persistance.connection.ReadOnlyRouting;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link WebFilter} providing read-your-writes consistency when reads are
+ * served by replicas.
+ *
+ * <p>
+ * Each request gets a {@link ReadOnlyRouting.State} in its Reactor
+ * context, so that once it has written its own reads go to the primary.
+ * When a request writes, a short-lived {@value #COOKIE} cookie is returned;
+ * while the client presents it, all its reads go to the primary as well,
+ * giving replicas time to catch up with that write.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@ConditionalOnProperty(prefix = "app.persistence.replicas", name = "enabled", havingValue = "true")
+public class ReadYourWritesWebFilter implements WebFilter {
+
+    /**
+     * Cookie carrying the instant until which the client reads from the primary.
+     */
+    static final String COOKIE = "read-primary-until";
+
+    private final ReadReplicaProperties properties;
+
+    public ReadYourWritesWebFilter(ReadReplicaProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ReadOnlyRouting.State state = new ReadOnlyRouting.State(isSticky(exchange));
+
+        exchange.getResponse().beforeCommit(() -> {
+            if (state.hasWritten()) {
+                long until = System.currentTimeMillis() + properties.stickiness().toMillis();
+                exchange.getResponse().addCookie(ResponseCookie.from(COOKIE, Long.toString(until))
+                        .maxAge(properties.stickiness())
+                        .httpOnly(true)
+                        .path("/")
+                        .build());
+            }
+            return Mono.empty();
+        });
+
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(ReadOnlyRouting.State.class, state));
+    }
+
+    /**
+     * Tells whether the client wrote recently enough to read from the primary.
+     *
+     * @param exchange the current exchange
+     * @return {@code true} if the stickiness window is still open
+     */
+    private boolean isSticky(ServerWebExchange exchange) {
+        HttpCookie cookie = exchange.getRequest().getCookies().getFirst(COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}
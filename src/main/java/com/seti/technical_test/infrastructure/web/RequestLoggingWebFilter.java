@@ -0,0 +1,62 @@
+package com.seti.technical_test.infrastructure.web;
+
+import com.seti.technical_test.infrastructure.config.LogSamplingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link WebFilter} that logs the requests that must never be sampled out:
+ * the ones answered with a server error and the ones slower than the
+ * configured threshold.
+ *
+ * <p>
+ * These lines are emitted at {@code WARN} level, which the sampling filter
+ * always keeps. Fast, successful requests produce no log line here, nor
+ * do streaming requests, which stay open by design.
+ * </p>
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestLoggingWebFilter implements WebFilter {
+
+    /**
+     * Threshold above which a request is logged, in nanoseconds.
+     */
+    private final long slowThresholdNanos;
+
+    public RequestLoggingWebFilter(LogSamplingProperties properties) {
+        this.slowThresholdNanos = properties.slowRequestThreshold().toNanos();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (StreamingRequests.isStreaming(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+
+        long start = System.nanoTime();
+
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    long elapsed = System.nanoTime() - start;
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean failed = status != null && status.is5xxServerError();
+
+                    if (failed || elapsed >= slowThresholdNanos) {
+                        log.warn("{} {} answered {} in {} ms",
+                                exchange.getRequest().getMethod(),
+                                exchange.getRequest().getPath().value(),
+                                status != null ? status.value() : signal,
+                                elapsed / 1_000_000);
+                    }
+                });
+    }
+}
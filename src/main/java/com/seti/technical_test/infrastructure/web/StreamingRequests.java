@@ -0,0 +1,38 @@
+package com.seti.technical_test.infrastructure.web;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.List;
+
+/**
+ * Recognizes the requests that open a long-lived stream, such as the
+ * change feed. Their duration says nothing about the health of the
+ * service, so the filters measuring latency leave them out.
+ */
+final class StreamingRequests {
+
+    private static final List<MediaType> STREAMING_TYPES = List.of(
+            MediaType.APPLICATION_NDJSON,
+            MediaType.TEXT_EVENT_STREAM);
+
+    private StreamingRequests() {
+    }
+
+    /**
+     * Tells whether a request asks for a streaming response.
+     *
+     * @param request the HTTP request
+     * @return {@code true} if the request accepts a streaming media type
+     */
+    static boolean isStreaming(ServerHttpRequest request) {
+        for (MediaType accepted : request.getHeaders().getAccept()) {
+            for (MediaType streaming : STREAMING_TYPES) {
+                if (streaming.equalsTypeAndSubtype(accepted)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package com.seti.technical_test.infrastructure.web;
+
+import com.seti.technical_test.infrastructure.tracing.TraceIdHolder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link WebFilter} that assigns a trace id to every HTTP request.
+ *
+ * <p>
+ * The id is taken from the {@value #TRACE_ID_HEADER} request header when
+ * it is made of at most {@value #MAX_TRACE_ID_LENGTH} letters, digits and
+ * hyphens, or generated otherwise, so a client cannot inject line breaks
+ * or oversized values into the logs. It is echoed in the response and stored
+ * in the Reactor context so that logs and database queries issued while
+ * serving the request can be correlated with it.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TraceIdWebFilter implements WebFilter {
+
+    /**
+     * Header used to receive and return the trace id.
+     */
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    /**
+     * Maximum length of an accepted incoming trace id.
+     */
+    static final int MAX_TRACE_ID_LENGTH = 64;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String traceId = exchange.getRequest().getHeaders().getFirst(TRACE_ID_HEADER);
+        if (!isValid(traceId)) {
+            traceId = TraceIdHolder.newTraceId();
+        }
+
+        exchange.getResponse().getHeaders().set(TRACE_ID_HEADER, traceId);
+
+        String boundTraceId = traceId;
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(TraceIdHolder.CONTEXT_KEY, boundTraceId));
+    }
+
+    /**
+     * Tells whether an incoming trace id can be used as is.
+     *
+     * @param traceId the header value, possibly {@code null}
+     * @return {@code true} if it is a non-empty run of at most
+     *         {@value #MAX_TRACE_ID_LENGTH} ASCII letters, digits and hyphens
+     */
+    static boolean isValid(String traceId) {
+        if (traceId == null || traceId.isEmpty() || traceId.length() > MAX_TRACE_ID_LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < traceId.length(); i++) {
+            char c = traceId.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
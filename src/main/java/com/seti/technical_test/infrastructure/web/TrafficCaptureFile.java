@@ -0,0 +1,189 @@
+package com.seti.technical_test.infrastructure.web;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Binary file of captured requests, read back by the replayer.
+ *
+ * <p>
+ * The file holds a header (magic and format) followed by the requests in
+ * arrival order:
+ * </p>
+ * <pre>
+ * request   start, method, uri, status, latency, body length, body
+ * </pre>
+ *
+ * <p>
+ * Strings are written as modified UTF-8. A request cut short by a crash
+ * is ignored when reading, along with anything after it. All methods
+ * perform blocking I/O.
+ * </p>
+ */
+public final class TrafficCaptureFile {
+
+    static final int MAGIC = 0x54524643; // "TRFC"
+
+    static final int FORMAT = 1;
+
+    /**
+     * Largest body accepted when reading; a larger length can only come
+     * from a request cut short.
+     */
+    private static final int MAX_BODY = 16 << 20;
+
+    private TrafficCaptureFile() {
+    }
+
+    /**
+     * Creates a capture file.
+     *
+     * @param file the file to write
+     * @return the file being written
+     */
+    public static Writer create(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Writer writer = new Writer(new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file))));
+            writer.output.writeInt(MAGIC);
+            writer.output.writeInt(FORMAT);
+            return writer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens a capture file and checks its header.
+     *
+     * @param file the file to read
+     * @return the file being read
+     */
+    public static Reader open(Path file) {
+        try {
+            Reader reader = new Reader(new DataInputStream(new BufferedInputStream(Files.newInputStream(file))));
+            if (reader.input.readInt() != MAGIC || reader.input.readInt() != FORMAT) {
+                reader.close();
+                throw new IllegalStateException(file + " is not a traffic capture of format " + FORMAT);
+            }
+            return reader;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A capture file being written.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final DataOutputStream output;
+
+        private Writer(DataOutputStream output) {
+            this.output = output;
+        }
+
+        /**
+         * Appends a request; it reaches the file on the next {@link #flush()}.
+         *
+         * @param request the request
+         */
+        public void append(CapturedRequest request) {
+            try {
+                output.writeLong(request.startedAt());
+                output.writeUTF(request.method());
+                output.writeUTF(request.uri());
+                output.writeShort(request.status());
+                output.writeLong(request.latencyNanos());
+                output.writeInt(request.body().length);
+                output.write(request.body());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Writes the appended requests to the file.
+         */
+        public void flush() {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Size of the file, appended requests included, up to 2 GB.
+         *
+         * @return the size, in bytes
+         */
+        public long size() {
+            return output.size();
+        }
+
+        @Override
+        public void close() {
+            try {
+                output.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * A capture file being read, request by request.
+     */
+    public static final class Reader implements AutoCloseable {
+
+        private final DataInputStream input;
+
+        private Reader(DataInputStream input) {
+            this.input = input;
+        }
+
+        /**
+         * Reads the next request.
+         *
+         * @return the request, or {@code null} at the end of the file
+         */
+        public CapturedRequest next() {
+            try {
+                long startedAt = input.readLong();
+                String method = input.readUTF();
+                String uri = input.readUTF();
+                int status = input.readUnsignedShort();
+                long latencyNanos = input.readLong();
+                int length = input.readInt();
+                if (length < 0 || length > MAX_BODY) {
+                    return null;
+                }
+
+                byte[] body = new byte[length];
+                input.readFully(body);
+                return new CapturedRequest(startedAt, method, uri, body, status, latencyNanos);
+            } catch (EOFException e) {
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                input.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.seti.technical_test.infrastructure.web;
+
+import com.seti.technical_test.infrastructure.config.TrafficCaptureProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link WebFilter} capturing a sample of the admitted API requests, with
+ * their body, status and latency, so they can be replayed against a test
+ * instance.
+ *
+ * <p>
+ * The body is copied while the controller reads it, so it is never read
+ * twice, and the request is handed to the {@link TrafficRecorder} once
+ * answered; everything else, pseudonymizing and writing included, happens
+ * off the request path. Streaming requests and requests whose body
+ * exceeds the configured size are not captured.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+@ConditionalOnProperty(prefix = "app.traffic-capture", name = "enabled", havingValue = "true")
+public class TrafficCaptureWebFilter implements WebFilter {
+
+    private static final String API_PATH_PREFIX = "/api/";
+
+    private final TrafficRecorder trafficRecorder;
+
+    private final double sampleRate;
+
+    private final int maxBodySize;
+
+    public TrafficCaptureWebFilter(TrafficRecorder trafficRecorder, TrafficCaptureProperties properties) {
+        this.trafficRecorder = trafficRecorder;
+        this.sampleRate = properties.sampleRate();
+        this.maxBodySize = (int) Math.min(properties.maxBodySize().toBytes(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!request.getPath().value().startsWith(API_PATH_PREFIX)
+                || StreamingRequests.isStreaming(request)
+                || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return chain.filter(exchange);
+        }
+
+        long startedAt = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        long start = System.nanoTime();
+        Body body = new Body(maxBodySize);
+        ServerHttpRequest capturing = new ServerHttpRequestDecorator(request) {
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return super.getBody().doOnNext(body::append);
+            }
+        };
+
+        return chain.filter(exchange.mutate().request(capturing).build())
+                .doFinally(signal -> {
+                    if (body.tooLarge()) {
+                        return;
+                    }
+
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    String query = request.getURI().getRawQuery();
+                    trafficRecorder.record(new CapturedRequest(
+                            startedAt,
+                            request.getMethod().name(),
+                            request.getURI().getRawPath() + (query != null ? "?" + query : ""),
+                            body.bytes(),
+                            status != null ? status.value() : 0,
+                            System.nanoTime() - start));
+                });
+    }
+
+    /**
+     * Copy of a request body, as it is read.
+     */
+    private static final class Body {
+
+        private final int maxSize;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private boolean tooLarge;
+
+        private Body(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        private void append(DataBuffer buffer) {
+            int length = buffer.readableByteCount();
+            if (tooLarge || bytes.size() + length > maxSize) {
+                tooLarge = true;
+                return;
+            }
+
+            ByteBuffer copy = ByteBuffer.allocate(length);
+            buffer.toByteBuffer(buffer.readPosition(), copy, 0, length);
+            bytes.write(copy.array(), 0, length);
+        }
+
+        private boolean tooLarge() {
+            return tooLarge;
+        }
+
+        private byte[] bytes() {
+            return bytes.toByteArray();
+        }
+    }
+}
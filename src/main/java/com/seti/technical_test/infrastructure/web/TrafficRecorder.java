@@ -0,0 +1,327 @@
+package com.seti.technical_test.infrastructure.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the requests captured by {@link TrafficCaptureWebFilter} to a
+ * {@link TrafficCaptureFile}, off the request path.
+ *
+ * <p>
+ * Requests wait in a bounded queue and are written by a single worker on
+ * every flush interval; when the queue is full, new requests are dropped
+ * rather than slowing the API down. Requests are queued once answered, so
+ * the worker holds them for a reorder window and writes them sorted by
+ * arrival; a request answered after the window, or pushed out when more
+ * than a queue's worth is held, is written late and replayed right away.
+ * Each start writes a new file, {@code capture-<millis>.bin}.
+ * </p>
+ *
+ * <p>
+ * Before a request is written, the {@code name} fields of its body and its
+ * {@code q} search parameter are replaced by pseudonyms: every letter and
+ * digit of a word is replaced by one derived from an HMAC of the word, so
+ * names keep their length and shape, and the same word, whatever its case,
+ * always gets the same pseudonym within a capture. JSON escapes are
+ * decoded first, so an escaped character is replaced like any other.
+ * </p>
+ */
+@Slf4j
+public class TrafficRecorder implements SmartLifecycle {
+
+    private static final Pattern NAME = Pattern.compile("(\"name\"\\s*:\\s*\")((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private static final Pattern SEARCH = Pattern.compile("([?&]q=)([^&]*)");
+
+    private final Path directory;
+
+    private final long maxFileSize;
+
+    private final BlockingQueue<CapturedRequest> queue;
+
+    private final int queueSize;
+
+    /**
+     * Requests taken from the queue and not written yet, by arrival.
+     */
+    private final PriorityQueue<CapturedRequest> reordering =
+            new PriorityQueue<>(Comparator.comparingLong(CapturedRequest::startedAt));
+
+    private final Duration flushInterval;
+
+    private final long reorderWindowMicros;
+
+    private final Mac mac;
+
+    private final Counter captured;
+
+    private final Counter dropped;
+
+    private TrafficCaptureFile.Writer writer;
+
+    private boolean full;
+
+    private volatile Disposable task;
+
+    public TrafficRecorder(Path directory, long maxFileSize, int queueSize, Duration flushInterval,
+                           Duration reorderWindow, String pseudonymKey, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.maxFileSize = Math.min(maxFileSize, Integer.MAX_VALUE);
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.queueSize = queueSize;
+        this.flushInterval = flushInterval;
+        this.reorderWindowMicros = TimeUnit.NANOSECONDS.toMicros(reorderWindow.toNanos());
+        this.mac = mac(pseudonymKey);
+        this.captured = Counter.builder("app.traffic.captured")
+                .description("Requests written to the traffic capture")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("app.traffic.dropped")
+                .description("Sampled requests dropped as the capture queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a captured request for writing, or drops it if the queue is
+     * full.
+     *
+     * @param request the captured request
+     */
+    public void record(CapturedRequest request) {
+        if (!queue.offer(request)) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(flushInterval)
+                .onBackpressureDrop()
+                .publishOn(Schedulers.boundedElastic(), 1)
+                .subscribe(tick -> drain(false));
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = task;
+        if (running != null) {
+            running.dispose();
+        }
+
+        synchronized (this) {
+            drain(true);
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable running = task;
+        return running != null && !running.isDisposed();
+    }
+
+    /**
+     * Writes, by arrival, the requests that arrived before the reorder
+     * window, or all of them, until the file reaches its maximum size, then
+     * discards them.
+     */
+    private synchronized void drain(boolean all) {
+        CapturedRequest queued;
+        while ((queued = queue.poll()) != null) {
+            reordering.add(queued);
+        }
+
+        long horizon = all ? Long.MAX_VALUE
+                : ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()) - reorderWindowMicros;
+
+        try {
+            while (!reordering.isEmpty()
+                    && (reordering.peek().startedAt() <= horizon || reordering.size() > queueSize)) {
+                CapturedRequest request = reordering.poll();
+                if (full) {
+                    continue;
+                }
+
+                if (writer == null) {
+                    writer = TrafficCaptureFile.create(
+                            directory.resolve("capture-" + System.currentTimeMillis() + ".bin"));
+                }
+
+                writer.append(pseudonymize(request));
+                captured.increment();
+                if (writer.size() >= maxFileSize) {
+                    log.warn("Traffic capture reached {} bytes, capturing stops until the next start", maxFileSize);
+                    full = true;
+                }
+            }
+
+            if (writer != null) {
+                writer.flush();
+            }
+        } catch (UncheckedIOException e) {
+            log.warn("Traffic capture could not be written, capturing stops: {}", e.getMessage());
+            full = true;
+        }
+    }
+
+    /**
+     * Replaces the names of a request by their pseudonyms.
+     *
+     * @param request the captured request
+     * @return the request to write
+     */
+    CapturedRequest pseudonymize(CapturedRequest request) {
+        String uri = replace(SEARCH, request.uri(), value -> URLEncoder.encode(
+                pseudonym(URLDecoder.decode(value, StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+        String body = replace(NAME, new String(request.body(), StandardCharsets.UTF_8),
+                value -> escape(pseudonym(unescape(value))));
+
+        return new CapturedRequest(request.startedAt(), request.method(), uri,
+                body.getBytes(StandardCharsets.UTF_8), request.status(), request.latencyNanos());
+    }
+
+    private static String replace(Pattern pattern, String text, UnaryOperator<String> replacement) {
+        Matcher matcher = pattern.matcher(text);
+        StringBuilder result = new StringBuilder(text.length());
+        int end = 0;
+        while (matcher.find()) {
+            result.append(text, end, matcher.start(2)).append(replacement.apply(matcher.group(2)));
+            end = matcher.end(2);
+        }
+        return result.append(text, end, text.length()).toString();
+    }
+
+    /**
+     * Replaces every letter and digit of each word of a text by one
+     * derived from the HMAC of the word, keeping its length and spacing.
+     */
+    private String pseudonym(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (String word : text.split("(?<= )|(?= )")) {
+            byte[] hash = mac.doFinal(word.toUpperCase().getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                int random = Byte.toUnsignedInt(hash[i % hash.length]) + i / hash.length;
+                if (Character.isDigit(c)) {
+                    result.append((char) ('0' + random % 10));
+                } else if (Character.isLetter(c)) {
+                    result.append((char) ('A' + random % 26));
+                } else {
+                    result.append(c);
+                }
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Decodes the escape sequences of a JSON string. A malformed sequence
+     * is kept as it is.
+     */
+    private static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                result.append(c);
+                continue;
+            }
+
+            char escaped = value.charAt(++i);
+            switch (escaped) {
+                case 'b' -> result.append('\b');
+                case 'f' -> result.append('\f');
+                case 'n' -> result.append('\n');
+                case 'r' -> result.append('\r');
+                case 't' -> result.append('\t');
+                case 'u' -> {
+                    int code = i + 5 <= value.length() ? hex(value.substring(i + 1, i + 5)) : -1;
+                    if (code < 0) {
+                        result.append('\\').append(escaped);
+                    } else {
+                        result.append((char) code);
+                        i += 4;
+                    }
+                }
+                default -> result.append(escaped);
+            }
+        }
+        return result.toString();
+    }
+
+    private static int hex(String digits) {
+        int code = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = Character.digit(digits.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            code = code * 16 + digit;
+        }
+        return code;
+    }
+
+    /**
+     * Escapes a text as the content of a JSON string.
+     */
+    private static String escape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < 0x20) {
+                result.append("\\u%04x".formatted((int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static Mac mac(String key) {
+        byte[] secret;
+        if (key == null || key.isEmpty()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = key.getBytes(StandardCharsets.UTF_8);
+        }
+
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+-- Scopes the outbox to the franchise each change belongs to, so a franchise
+-- can be synchronized from the version of its previous sync.
+ALTER TABLE outbox
+    ADD COLUMN IF NOT EXISTS franchise_id BIGINT;
+
+UPDATE outbox o
+SET franchise_id = CASE o.aggregate_type
+                       WHEN 'franchise' THEN o.aggregate_id
+                       WHEN 'office' THEN (o.payload ->> 'franchiseId')::BIGINT
+                       ELSE (SELECT f.franchise_id FROM office f WHERE f.id = (o.payload ->> 'officeId')::BIGINT)
+                   END
+WHERE o.franchise_id IS NULL;
+
+CREATE INDEX IF NOT EXISTS outbox_franchise_txid_idx ON outbox (franchise_id, txid);
@@ -0,0 +1,3 @@
+-- Offices are looked up by franchise by the top-stock ranking and the
+-- franchise endpoints; without this index each lookup scans the table.
+CREATE INDEX IF NOT EXISTS office_franchise_idx ON office (franchise_id);
@@ -0,0 +1,122 @@
+-- Stock aggregates per office, maintained by statement-level triggers on
+-- product so reports never scan the catalog. Each product statement adds
+-- its net effect per office in a single upsert, locking the summary rows in
+-- office order.
+
+-- Stock under which a product counts as low. Changing it needs a new
+-- migration replacing this function; the repair job then recomputes the
+-- low-stock counts.
+CREATE OR REPLACE FUNCTION low_stock_threshold() RETURNS INTEGER
+    LANGUAGE sql IMMUTABLE AS $$ SELECT ${low_stock_threshold} $$;
+
+CREATE TABLE IF NOT EXISTS office_stock_summary (
+    office_id BIGINT PRIMARY KEY,
+    franchise_id BIGINT NOT NULL,
+    total_stock BIGINT NOT NULL DEFAULT 0,
+    product_count BIGINT NOT NULL DEFAULT 0,
+    low_stock_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS office_stock_summary_franchise_idx ON office_stock_summary (franchise_id);
+
+CREATE OR REPLACE FUNCTION office_stock_summary_merge(office_ids BIGINT[], stocks BIGINT[],
+                                                      counts BIGINT[], low_counts BIGINT[])
+    RETURNS VOID LANGUAGE sql AS $$
+    INSERT INTO office_stock_summary AS s (office_id, franchise_id, total_stock, product_count, low_stock_count)
+    SELECT d.office_id, o.franchise_id, d.total_stock, d.product_count, d.low_stock_count
+    FROM (SELECT c.office_id,
+                 sum(c.stock) AS total_stock,
+                 sum(c.count) AS product_count,
+                 sum(c.low) AS low_stock_count
+          FROM unnest(office_ids, stocks, counts, low_counts) AS c(office_id, stock, count, low)
+          GROUP BY c.office_id) d
+    JOIN office o ON o.id = d.office_id
+    WHERE d.total_stock <> 0 OR d.product_count <> 0 OR d.low_stock_count <> 0
+    ORDER BY d.office_id
+    ON CONFLICT (office_id) DO UPDATE
+    SET total_stock = s.total_stock + EXCLUDED.total_stock,
+        product_count = s.product_count + EXCLUDED.product_count,
+        low_stock_count = s.low_stock_count + EXCLUDED.low_stock_count,
+        updated_at = now()
+$$;
+
+CREATE OR REPLACE FUNCTION office_stock_summary_on_insert() RETURNS TRIGGER
+    LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM office_stock_summary_merge(array_agg(office_id), array_agg(stock::BIGINT),
+                                       array_agg(1::BIGINT), array_agg((stock < low_stock_threshold())::INTEGER::BIGINT))
+    FROM new_rows;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION office_stock_summary_on_update() RETURNS TRIGGER
+    LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM office_stock_summary_merge(array_agg(c.office_id), array_agg(c.stock),
+                                       array_agg(c.count), array_agg(c.low))
+    FROM (SELECT office_id, stock::BIGINT AS stock, 1::BIGINT AS count,
+                 (stock < low_stock_threshold())::INTEGER::BIGINT AS low
+          FROM new_rows
+          UNION ALL
+          SELECT office_id, -stock::BIGINT, -1::BIGINT,
+                 -(stock < low_stock_threshold())::INTEGER::BIGINT
+          FROM old_rows) c;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION office_stock_summary_on_delete() RETURNS TRIGGER
+    LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM office_stock_summary_merge(array_agg(office_id), array_agg(-stock::BIGINT),
+                                       array_agg(-1::BIGINT), array_agg(-(stock < low_stock_threshold())::INTEGER::BIGINT))
+    FROM old_rows;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS product_stock_summary_insert ON product;
+CREATE TRIGGER product_stock_summary_insert
+    AFTER INSERT ON product
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION office_stock_summary_on_insert();
+
+DROP TRIGGER IF EXISTS product_stock_summary_update ON product;
+CREATE TRIGGER product_stock_summary_update
+    AFTER UPDATE ON product
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION office_stock_summary_on_update();
+
+DROP TRIGGER IF EXISTS product_stock_summary_delete ON product;
+CREATE TRIGGER product_stock_summary_delete
+    AFTER DELETE ON product
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION office_stock_summary_on_delete();
+
+-- Keeps the franchise of each summary row in step with its office.
+CREATE OR REPLACE FUNCTION office_stock_summary_on_office_update() RETURNS TRIGGER
+    LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE office_stock_summary SET franchise_id = NEW.franchise_id WHERE office_id = NEW.id;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS office_stock_summary_franchise ON office;
+CREATE TRIGGER office_stock_summary_franchise
+    AFTER UPDATE OF franchise_id ON office
+    FOR EACH ROW
+    WHEN (OLD.franchise_id IS DISTINCT FROM NEW.franchise_id)
+    EXECUTE FUNCTION office_stock_summary_on_office_update();
+
+-- Initial state, computed under a lock so no write is counted twice.
+LOCK TABLE product IN SHARE MODE;
+
+INSERT INTO office_stock_summary (office_id, franchise_id, total_stock, product_count, low_stock_count)
+SELECT p.office_id, o.franchise_id, sum(p.stock), count(*), count(*) FILTER (WHERE p.stock < low_stock_threshold())
+FROM product p
+JOIN office o ON o.id = p.office_id
+GROUP BY p.office_id, o.franchise_id
+ON CONFLICT (office_id) DO NOTHING;
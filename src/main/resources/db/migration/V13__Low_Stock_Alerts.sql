@@ -0,0 +1,27 @@
+-- Per-office low-stock threshold; offices without one use low_stock_threshold().
+ALTER TABLE office ADD COLUMN IF NOT EXISTS low_stock_threshold INTEGER;
+
+-- Products currently under the threshold of their office. A product is
+-- alerted once when it drops under the threshold and again only after it
+-- recovered, whichever instance notices it first.
+CREATE TABLE IF NOT EXISTS low_stock_alert (
+    product_id BIGINT PRIMARY KEY,
+    office_id BIGINT NOT NULL,
+    stock INTEGER NOT NULL,
+    threshold INTEGER NOT NULL,
+    raised_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT fk_low_stock_alert_product
+    FOREIGN KEY (product_id, office_id) REFERENCES product (id, office_id) ON DELETE CASCADE
+);
+
+-- Keyset cursor of the low-stock scan over product ids. A single row,
+-- locked by the instance running a batch.
+CREATE TABLE IF NOT EXISTS low_stock_scan_checkpoint (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    last_product_id BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+INSERT INTO low_stock_scan_checkpoint (id, last_product_id)
+VALUES (1, 0)
+ON CONFLICT (id) DO NOTHING;
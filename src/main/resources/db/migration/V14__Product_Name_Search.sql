@@ -0,0 +1,8 @@
+-- Indexes of the product name search. Names are stored in upper case.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Prefix matches (LIKE 'ABC%'), whatever the collation of the database.
+CREATE INDEX IF NOT EXISTS product_name_prefix_idx ON product (name text_pattern_ops);
+
+-- Typo-tolerant matches (name % 'ABD'), by trigram similarity.
+CREATE INDEX IF NOT EXISTS product_name_trgm_idx ON product USING gin (name gin_trgm_ops);
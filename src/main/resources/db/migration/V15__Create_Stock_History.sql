@@ -0,0 +1,145 @@
+-- Every stock value of every product, one row per product change, in daily
+-- partitions. Days past the raw retention are compacted into
+-- stock_history_hourly and dropped by stock_history_maintain().
+CREATE TABLE IF NOT EXISTS stock_history (
+    product_id BIGINT NOT NULL,
+    office_id BIGINT NOT NULL,
+    stock INTEGER NOT NULL,
+    recorded_at TIMESTAMPTZ NOT NULL,
+    event_id BIGINT NOT NULL
+) PARTITION BY RANGE (recorded_at);
+
+-- Rows outside the daily partitions, e.g. events older than the first
+-- partition when the history starts; compacted like any other day.
+CREATE TABLE IF NOT EXISTS stock_history_default PARTITION OF stock_history DEFAULT;
+
+CREATE INDEX IF NOT EXISTS stock_history_product_idx ON stock_history (product_id, recorded_at);
+CREATE INDEX IF NOT EXISTS stock_history_office_idx ON stock_history (office_id, recorded_at);
+
+-- Hourly min, max and last stock of each product, in monthly partitions.
+CREATE TABLE IF NOT EXISTS stock_history_hourly (
+    product_id BIGINT NOT NULL,
+    office_id BIGINT NOT NULL,
+    hour TIMESTAMPTZ NOT NULL,
+    min_stock INTEGER NOT NULL,
+    max_stock INTEGER NOT NULL,
+    last_stock INTEGER NOT NULL,
+    samples BIGINT NOT NULL,
+    PRIMARY KEY (product_id, office_id, hour)
+) PARTITION BY RANGE (hour);
+
+CREATE INDEX IF NOT EXISTS stock_history_hourly_office_idx ON stock_history_hourly (office_id, hour);
+
+-- Position of the history in the outbox: the last event recorded, in
+-- transaction order.
+CREATE TABLE IF NOT EXISTS stock_history_position (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    last_txid xid8 NOT NULL,
+    last_id BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+INSERT INTO stock_history_position (id, last_txid, last_id)
+VALUES (1, '0', 0)
+ON CONFLICT (id) DO NOTHING;
+
+-- Rolls the raw rows of a partition recorded before a date up into hourly
+-- rows, creating the monthly partitions they need.
+CREATE OR REPLACE FUNCTION stock_history_compact(source TEXT, until DATE)
+RETURNS BIGINT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    partition_month DATE;
+    compacted BIGINT;
+BEGIN
+    FOR partition_month IN EXECUTE format('SELECT DISTINCT CAST(date_trunc(''month'', recorded_at) AS DATE) FROM %I WHERE recorded_at < %L',
+                                source, until) LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF stock_history_hourly FOR VALUES FROM (%L) TO (%L)',
+                       'stock_history_hourly_' || to_char(partition_month, 'YYYYMM'),
+                       partition_month, CAST(partition_month + INTERVAL '1 month' AS DATE));
+    END LOOP;
+
+    EXECUTE format($sql$
+        INSERT INTO stock_history_hourly AS h (product_id, office_id, hour, min_stock, max_stock, last_stock, samples)
+        SELECT product_id, office_id, date_trunc('hour', recorded_at), min(stock), max(stock),
+               (array_agg(stock ORDER BY recorded_at DESC, event_id DESC))[1], count(*)
+        FROM %I
+        WHERE recorded_at < %L
+        GROUP BY product_id, office_id, date_trunc('hour', recorded_at)
+        ON CONFLICT (product_id, office_id, hour) DO UPDATE
+        SET min_stock = LEAST(h.min_stock, EXCLUDED.min_stock),
+            max_stock = GREATEST(h.max_stock, EXCLUDED.max_stock),
+            last_stock = EXCLUDED.last_stock,
+            samples = h.samples + EXCLUDED.samples
+        $sql$, source, until);
+
+    GET DIAGNOSTICS compacted = ROW_COUNT;
+    RETURN compacted;
+END
+$$;
+
+-- Creates the daily partitions of the coming days, compacts and drops the
+-- days past the raw retention and drops the months past the hourly
+-- retention. Runs on one instance at a time; returns the number of
+-- partitions dropped.
+CREATE OR REPLACE FUNCTION stock_history_maintain(raw_days INTEGER, hourly_months INTEGER, days_ahead INTEGER)
+RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    cutoff DATE := current_date - raw_days;
+    oldest_month DATE := CAST(date_trunc('month', current_date) - make_interval(months => hourly_months) AS DATE);
+    partition_day DATE;
+    part RECORD;
+    dropped INTEGER := 0;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('stock_history_maintain')) THEN
+        RETURN 0;
+    END IF;
+
+    FOR partition_day IN SELECT CAST(d AS DATE) FROM generate_series(current_date, current_date + days_ahead, INTERVAL '1 day') d LOOP
+        BEGIN
+            EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF stock_history FOR VALUES FROM (%L) TO (%L)',
+                           'stock_history_' || to_char(partition_day, 'YYYYMMDD'), partition_day, partition_day + 1);
+        EXCEPTION WHEN check_violation THEN
+            -- Rows of that day are already in the default partition, where they stay.
+            NULL;
+        END;
+    END LOOP;
+
+    FOR part IN
+        SELECT c.relname, to_date(right(c.relname, 8), 'YYYYMMDD') AS first_day
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'stock_history'::regclass
+          AND c.relname ~ '^stock_history_[0-9]{8}$'
+        ORDER BY 2
+    LOOP
+        EXIT WHEN part.first_day >= cutoff;
+
+        PERFORM stock_history_compact(part.relname, part.first_day + 1);
+        EXECUTE format('DROP TABLE %I', part.relname);
+        dropped := dropped + 1;
+    END LOOP;
+
+    PERFORM stock_history_compact('stock_history_default', cutoff);
+    DELETE FROM stock_history_default WHERE recorded_at < cutoff;
+
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'stock_history_hourly'::regclass
+          AND c.relname ~ '^stock_history_hourly_[0-9]{6}$'
+          AND to_date(right(c.relname, 6), 'YYYYMM') < oldest_month
+    LOOP
+        EXECUTE format('DROP TABLE %I', part.relname);
+        dropped := dropped + 1;
+    END LOOP;
+
+    RETURN dropped;
+END
+$$;
+
+SELECT stock_history_maintain(7, 13, 3);
@@ -0,0 +1,15 @@
+-- Idempotency keys of the API writes shared by every application instance:
+-- the fingerprint of the request that first used each key and, once it
+-- completed, its response. A key without a status is in flight until
+-- locked_until, after which another instance may take it over.
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    key VARCHAR(255) PRIMARY KEY,
+    fingerprint CHAR(64) NOT NULL,
+    status INTEGER,
+    content_type VARCHAR(255),
+    body BYTEA,
+    locked_until TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_key_expires_at_idx ON idempotency_key (expires_at);
@@ -0,0 +1,4 @@
+-- Idempotency keys are scoped to the client that sent them: the stored key
+-- is prefixed with the client identity, which no longer fits the 255
+-- characters of the key sent by the client.
+ALTER TABLE idempotency_key ALTER COLUMN key TYPE VARCHAR(1024);
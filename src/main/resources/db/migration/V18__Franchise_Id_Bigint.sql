@@ -0,0 +1,13 @@
+-- V1 created franchise.id as SERIAL, an INTEGER backed by an INTEGER
+-- sequence, while the application, office.franchise_id and every other
+-- franchise reference are BIGINT. Widens the column and its sequence; the
+-- fk_office_franchise foreign key already references it with a BIGINT and
+-- is checked again by the rewrite.
+DO $$
+DECLARE
+    sequence_name TEXT := pg_get_serial_sequence('franchise', 'id');
+BEGIN
+    ALTER TABLE franchise ALTER COLUMN id TYPE BIGINT;
+    EXECUTE format('ALTER SEQUENCE %s AS BIGINT', sequence_name);
+END
+$$;
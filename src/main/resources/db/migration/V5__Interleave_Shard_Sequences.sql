@@ -0,0 +1,28 @@
+-- Interleaves the identifier sequences across shards so that the shard of a
+-- franchise, office or product can be derived from its id:
+-- shard i of n generates i + 1, i + 1 + n, i + 1 + 2n, ...
+-- With a single shard (the default) this migration does nothing.
+DO $$
+DECLARE
+    shard_count CONSTANT INTEGER := ${shard_count};
+    shard_index CONSTANT INTEGER := ${shard_index};
+    table_name TEXT;
+    sequence_name TEXT;
+    next_id BIGINT;
+BEGIN
+    IF shard_count <= 1 THEN
+        RETURN;
+    END IF;
+
+    FOREACH table_name IN ARRAY ARRAY['franchise', 'office', 'product'] LOOP
+        sequence_name := pg_get_serial_sequence(table_name, 'id');
+
+        EXECUTE format('SELECT (COALESCE(MAX(id), 0) / %s + 1) * %s + %s + 1 FROM %I',
+                       shard_count, shard_count, shard_index, table_name)
+            INTO next_id;
+
+        EXECUTE format('ALTER SEQUENCE %s INCREMENT BY %s', sequence_name, shard_count);
+        PERFORM setval(sequence_name, next_id, false);
+    END LOOP;
+END
+$$;
@@ -0,0 +1,52 @@
+-- Converts product into a table hash-partitioned on office_id.
+--
+-- Every office's products live in a single partition, so the top-stock query,
+-- which filters by office, only touches the partitions of the requested
+-- offices, and vacuum works on partitions of bounded size.
+--
+-- On large installations run db/scripts/product_partition_online.sql before
+-- deploying this migration: it converts the table without blocking writes and
+-- this migration then detects the partitioned table and does nothing.
+DO $$
+DECLARE
+    partitions CONSTANT INTEGER := ${product_partitions};
+BEGIN
+    IF EXISTS (SELECT 1
+               FROM pg_partitioned_table pt
+               JOIN pg_class c ON c.oid = pt.partrelid
+               WHERE c.relname = 'product') THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE product RENAME TO product_unpartitioned;
+    ALTER INDEX product_pkey RENAME TO product_unpartitioned_pkey;
+    ALTER TABLE product_unpartitioned RENAME CONSTRAINT fk_product_office TO fk_product_unpartitioned_office;
+    ALTER SEQUENCE product_id_seq OWNED BY NONE;
+
+    CREATE TABLE product (
+        id BIGINT NOT NULL DEFAULT nextval('product_id_seq'),
+        name VARCHAR(150) NOT NULL,
+        stock INTEGER NOT NULL,
+        office_id BIGINT NOT NULL,
+        CONSTRAINT product_pkey PRIMARY KEY (id, office_id),
+        CONSTRAINT fk_product_office FOREIGN KEY (office_id) REFERENCES office(id)
+    ) PARTITION BY HASH (office_id);
+
+    FOR remainder IN 0 .. partitions - 1 LOOP
+        EXECUTE format('CREATE TABLE product_p%s PARTITION OF product FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                       remainder, partitions, remainder);
+    END LOOP;
+
+    ALTER SEQUENCE product_id_seq OWNED BY product.id;
+
+    INSERT INTO product (id, name, stock, office_id)
+    SELECT id, name, stock, office_id
+    FROM product_unpartitioned;
+
+    DROP TABLE product_unpartitioned;
+END
+$$;
+
+-- Per-partition indexes, created on the parent and propagated to every partition.
+CREATE INDEX IF NOT EXISTS product_office_stock_idx ON product (office_id, stock DESC);
+CREATE INDEX IF NOT EXISTS product_name_idx ON product (name);
@@ -0,0 +1,12 @@
+-- Lets the application allocate product ids locally in blocks (hi-lo):
+-- every nextval reserves id_block_size ids spaced by shard_count, so the
+-- interleaving of V5 is preserved. Rows inserted with the column default
+-- consume a whole block.
+DO $$
+DECLARE
+    block_size CONSTANT INTEGER := ${id_block_size};
+    shard_count CONSTANT INTEGER := ${shard_count};
+BEGIN
+    EXECUTE format('ALTER SEQUENCE product_id_seq INCREMENT BY %s', block_size * shard_count);
+END
+$$;
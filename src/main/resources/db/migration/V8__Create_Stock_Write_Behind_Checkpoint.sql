@@ -0,0 +1,7 @@
+-- Last generation of buffered stock changes written by each application
+-- instance. A flush of an older or equal generation is skipped, so replaying
+-- the local log after a crash never applies a change twice.
+CREATE TABLE IF NOT EXISTS stock_write_behind_checkpoint (
+    node_id VARCHAR(100) PRIMARY KEY,
+    generation BIGINT NOT NULL
+);
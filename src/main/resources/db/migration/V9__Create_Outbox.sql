@@ -0,0 +1,22 @@
+-- Change events of franchises, offices and products, written in the same
+-- transaction as the change and relayed to downstream consumers in the
+-- order of the transaction that wrote them.
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGSERIAL PRIMARY KEY,
+    txid xid8 NOT NULL DEFAULT pg_current_xact_id(),
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS outbox_txid_id_idx ON outbox (txid, id);
+
+-- Last outbox position processed by each consumer on this database.
+CREATE TABLE IF NOT EXISTS outbox_consumer_offset (
+    consumer VARCHAR(100) PRIMARY KEY,
+    last_txid xid8 NOT NULL,
+    last_id BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
@@ -0,0 +1,107 @@
+-- Online conversion of product into a table hash-partitioned on office_id.
+--
+-- Run with psql against the primary BEFORE deploying the release that contains
+-- migration V6 (which becomes a no-op once product is partitioned):
+--
+--   psql -v partitions=16 -v batch_size=10000 -f product_partition_online.sql
+--
+-- 1. product_partitioned is created with its partitions and indexes.
+-- 2. A trigger mirrors every write on product into product_partitioned.
+-- 3. Existing rows are copied in keyset-ordered batches, each in its own
+--    transaction, locking only the batch being copied.
+-- 4. The tables are swapped in a short transaction.
+-- Writes keep flowing during steps 1 to 3; step 4 holds an exclusive lock for
+-- the duration of a rename.
+
+\set ON_ERROR_STOP on
+
+CREATE TABLE product_partitioned (
+    id BIGINT NOT NULL DEFAULT nextval('product_id_seq'),
+    name VARCHAR(150) NOT NULL,
+    stock INTEGER NOT NULL,
+    office_id BIGINT NOT NULL,
+    CONSTRAINT product_partitioned_pkey PRIMARY KEY (id, office_id),
+    CONSTRAINT fk_product_partitioned_office FOREIGN KEY (office_id) REFERENCES office(id)
+) PARTITION BY HASH (office_id);
+
+SELECT format('CREATE TABLE product_p%s PARTITION OF product_partitioned FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+              remainder, :partitions, remainder)
+FROM generate_series(0, :partitions - 1) AS remainder
+\gexec
+
+CREATE INDEX product_partitioned_office_stock_idx ON product_partitioned (office_id, stock DESC);
+CREATE INDEX product_partitioned_name_idx ON product_partitioned (name);
+
+CREATE FUNCTION product_partition_mirror() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM product_partitioned WHERE id = OLD.id AND office_id = OLD.office_id;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO product_partitioned (id, name, stock, office_id)
+        VALUES (NEW.id, NEW.name, NEW.stock, NEW.office_id)
+        ON CONFLICT (id, office_id) DO UPDATE SET name = EXCLUDED.name, stock = EXCLUDED.stock;
+    END IF;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER product_partition_mirror
+AFTER INSERT OR UPDATE OR DELETE ON product
+FOR EACH ROW EXECUTE FUNCTION product_partition_mirror();
+
+-- Copies the rows that existed before the trigger, one batch per transaction.
+-- Rows are locked while copied, so a concurrent delete waits for the batch to
+-- commit and its trigger then removes the copy.
+CREATE PROCEDURE product_partition_backfill(batch_size INTEGER) AS $$
+DECLARE
+    last_id BIGINT := 0;
+    copied_until BIGINT;
+BEGIN
+    LOOP
+        WITH batch AS (
+            SELECT id, name, stock, office_id
+            FROM product
+            WHERE id > last_id
+            ORDER BY id
+            LIMIT batch_size
+            FOR SHARE
+        ), copied AS (
+            INSERT INTO product_partitioned (id, name, stock, office_id)
+            SELECT id, name, stock, office_id FROM batch
+            ON CONFLICT (id, office_id) DO NOTHING
+        )
+        SELECT max(id) INTO copied_until FROM batch;
+
+        EXIT WHEN copied_until IS NULL;
+
+        last_id := copied_until;
+        COMMIT;
+    END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+CALL product_partition_backfill(:batch_size);
+
+BEGIN;
+LOCK TABLE product IN ACCESS EXCLUSIVE MODE;
+
+DROP TRIGGER product_partition_mirror ON product;
+DROP FUNCTION product_partition_mirror();
+DROP PROCEDURE product_partition_backfill(INTEGER);
+
+ALTER SEQUENCE product_id_seq OWNED BY NONE;
+ALTER TABLE product RENAME TO product_unpartitioned;
+ALTER INDEX product_pkey RENAME TO product_unpartitioned_pkey;
+
+ALTER TABLE product_partitioned RENAME TO product;
+ALTER INDEX product_partitioned_pkey RENAME TO product_pkey;
+ALTER INDEX product_partitioned_office_stock_idx RENAME TO product_office_stock_idx;
+ALTER INDEX product_partitioned_name_idx RENAME TO product_name_idx;
+ALTER TABLE product RENAME CONSTRAINT fk_product_partitioned_office TO fk_product_office;
+ALTER SEQUENCE product_id_seq OWNED BY product.id;
+
+DROP TABLE product_unpartitioned;
+COMMIT;
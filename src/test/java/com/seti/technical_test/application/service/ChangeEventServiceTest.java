@@ -0,0 +1,138 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.out.ChangeEventRepositoryPort;
+import com.seti.technical_test.application.port.out.FranchiseRepositoryPort;
+import com.seti.technical_test.domain.model.ChangeEvent;
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import com.seti.technical_test.domain.model.ChangeType;
+import com.seti.technical_test.domain.model.Franchise;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ChangeEventService}.
+ */
+class ChangeEventServiceTest {
+
+    @Mock
+    private ChangeEventRepositoryPort changeEventRepositoryPort;
+
+    @Mock
+    private FranchiseRepositoryPort franchiseRepositoryPort;
+
+    @InjectMocks
+    private ChangeEventService changeEventService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Should stream the changes after the stored offsets of the consumer.
+     */
+    @Test
+    void streamChanges_fromOffsets() {
+        Map<Integer, ChangeEventPosition> offsets = Map.of(0, new ChangeEventPosition(700L, 41L));
+        ChangeEvent event = new ChangeEvent(42L, 700L, 0, "product", 1L, ChangeType.UPDATED,
+                "{\"id\": 1}", Instant.now());
+
+        when(changeEventRepositoryPort.findOffsets("search")).thenReturn(Mono.just(offsets));
+        when(changeEventRepositoryPort.streamAfter(offsets)).thenReturn(Flux.just(event));
+
+        StepVerifier.create(changeEventService.streamChanges("search"))
+                .expectNext(event)
+                .verifyComplete();
+    }
+
+    /**
+     * Should store the acknowledged offset.
+     */
+    @Test
+    void acknowledge_success() {
+        ChangeEventPosition position = new ChangeEventPosition(700L, 42L);
+        when(changeEventRepositoryPort.saveOffset("search", 0, position)).thenReturn(Mono.empty());
+
+        StepVerifier.create(changeEventService.acknowledge("search", 0, 700L, 42L))
+                .verifyComplete();
+
+        verify(changeEventRepositoryPort).saveOffset("search", 0, position);
+    }
+
+    /**
+     * Should throw GeneralException when the offset is negative.
+     */
+    @Test
+    void acknowledge_negativeOffset() {
+        StepVerifier.create(changeEventService.acknowledge("search", 0, 700L, -1L))
+                .expectError(GeneralException.class)
+                .verify();
+        StepVerifier.create(changeEventService.acknowledge("search", 0, null, 42L))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(changeEventRepositoryPort);
+    }
+
+    /**
+     * Should return the current version and the changes since the requested one.
+     */
+    @Test
+    void getFranchiseChanges_success() {
+        ChangeEvent event = new ChangeEvent(42L, 700L, 0, "product", 1L, ChangeType.UPDATED,
+                "{\"id\": 1}", Instant.now());
+
+        when(franchiseRepositoryPort.findById(1L)).thenReturn(Mono.just(new Franchise(1L, "TEST", null)));
+        when(changeEventRepositoryPort.findVersion(1L)).thenReturn(Mono.just(900L));
+        when(changeEventRepositoryPort.findByFranchiseSince(1L, 750L)).thenReturn(Flux.just(event));
+
+        StepVerifier.create(changeEventService.getFranchiseChanges(1L, 750L)
+                        .flatMapMany(changes -> {
+                            assertEquals(900L, changes.version());
+                            return changes.changes();
+                        }))
+                .expectNext(event)
+                .verifyComplete();
+    }
+
+    /**
+     * Should throw NotFoundException when the franchise does not exist,
+     * without reading the change log.
+     */
+    @Test
+    void getFranchiseChanges_notFound() {
+        when(franchiseRepositoryPort.findById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(changeEventService.getFranchiseChanges(1L, 0L))
+                .expectError(NotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(changeEventRepositoryPort);
+    }
+
+    /**
+     * Should throw GeneralException when the version is negative.
+     */
+    @Test
+    void getFranchiseChanges_negativeVersion() {
+        StepVerifier.create(changeEventService.getFranchiseChanges(1L, -1L))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(franchiseRepositoryPort, changeEventRepositoryPort);
+    }
+}
@@ -41,17 +41,17 @@ class FranchiseServiceTest {
      */
     @Test
     void getFranchise_success() {
-        Franchise franchise = new Franchise(1, "TEST", null);
+        Franchise franchise = new Franchise(1L, "TEST", null);
 
-        when(franchiseRepositoryPort.findById(1)).thenReturn(Mono.just(franchise));
-        when(officeRepositoryPort.findByFranchiseId(1))
+        when(franchiseRepositoryPort.findById(1L)).thenReturn(Mono.just(franchise));
+        when(officeRepositoryPort.findByFranchiseId(1L))
                 .thenReturn(Flux.just(
-                        new Office(1, "Office", 1)
+                        new Office(1L, "Office", 1L)
                 ));
 
-        StepVerifier.create(franchiseService.getFranchise(1))
+        StepVerifier.create(franchiseService.getFranchise(1L))
                 .assertNext(dto -> {
-                    assert dto.id().equals(1);
+                    assert dto.id().equals(1L);
                     assert dto.offices().size() == 1;
                 })
                 .verifyComplete();
@@ -62,9 +62,9 @@ class FranchiseServiceTest {
      */
     @Test
     void getFranchise_notFound() {
-        when(franchiseRepositoryPort.findById(1)).thenReturn(Mono.empty());
+        when(franchiseRepositoryPort.findById(1L)).thenReturn(Mono.empty());
 
-        StepVerifier.create(franchiseService.getFranchise(1))
+        StepVerifier.create(franchiseService.getFranchise(1L))
                 .expectError(NotFoundException.class)
                 .verify();
     }
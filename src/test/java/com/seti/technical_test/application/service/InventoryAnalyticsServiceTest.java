@@ -0,0 +1,98 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.out.FranchiseRepositoryPort;
+import com.seti.technical_test.application.port.out.InventorySnapshotPort;
+import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
+import com.seti.technical_test.domain.model.Franchise;
+import com.seti.technical_test.domain.model.Office;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.StockPercentiles;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link InventoryAnalyticsService}.
+ */
+class InventoryAnalyticsServiceTest {
+
+    @Mock
+    private InventorySnapshotPort inventorySnapshotPort;
+
+    @Mock
+    private OfficeRepositoryPort officeRepositoryPort;
+
+    @Mock
+    private FranchiseRepositoryPort franchiseRepositoryPort;
+
+    @InjectMocks
+    private InventoryAnalyticsService inventoryAnalyticsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Should report no percentiles for an office without products.
+     */
+    @Test
+    void getStockPercentiles_withoutProducts() {
+        when(officeRepositoryPort.findById(1L)).thenReturn(Mono.just(new Office(1L, "Office", 2L)));
+        when(inventorySnapshotPort.stockPercentiles(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(inventoryAnalyticsService.getStockPercentiles(1L))
+                .expectNext(StockPercentiles.empty(1L))
+                .verifyComplete();
+    }
+
+    /**
+     * Should throw NotFoundException when the office does not exist.
+     */
+    @Test
+    void getStockPercentiles_notFound() {
+        when(officeRepositoryPort.findById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(inventoryAnalyticsService.getStockPercentiles(1L))
+                .expectError(NotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(inventorySnapshotPort);
+    }
+
+    /**
+     * Should list the products without stock of an existing franchise.
+     */
+    @Test
+    void getOutOfStockProducts_byFranchise() {
+        Product product = new Product(1L, "Product", 0, 1L);
+
+        when(franchiseRepositoryPort.findById(1L)).thenReturn(Mono.just(new Franchise(1L, "TEST", null)));
+        when(inventorySnapshotPort.findOutOfStock(1L, 10)).thenReturn(Flux.just(product));
+
+        StepVerifier.create(inventoryAnalyticsService.getOutOfStockProducts(1L, 10))
+                .expectNext(product)
+                .verifyComplete();
+    }
+
+    /**
+     * Should fail when the number of products is out of range.
+     */
+    @Test
+    void getOutOfStockProducts_invalidLimit() {
+        StepVerifier.create(inventoryAnalyticsService.getOutOfStockProducts(null, 0))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(inventorySnapshotPort, franchiseRepositoryPort);
+    }
+}
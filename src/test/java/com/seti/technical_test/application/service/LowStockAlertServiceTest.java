@@ -0,0 +1,62 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.out.LowStockAlertPort;
+import com.seti.technical_test.domain.model.LowStockAlert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link LowStockAlertService}.
+ */
+class LowStockAlertServiceTest {
+
+    @Mock
+    private LowStockAlertPort lowStockAlertPort;
+
+    @InjectMocks
+    private LowStockAlertService lowStockAlertService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Should stream the alerts of every office.
+     */
+    @Test
+    void streamAlerts_everyOffice() {
+        LowStockAlert first = new LowStockAlert(1L, "PRODUCT", 2, 1L, 10, Instant.now());
+        LowStockAlert second = new LowStockAlert(2L, "OTHER", 0, 2L, 5, Instant.now());
+
+        when(lowStockAlertPort.alerts()).thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(lowStockAlertService.streamAlerts(null))
+                .expectNext(first, second)
+                .verifyComplete();
+    }
+
+    /**
+     * Should only stream the alerts of the requested office.
+     */
+    @Test
+    void streamAlerts_oneOffice() {
+        LowStockAlert first = new LowStockAlert(1L, "PRODUCT", 2, 1L, 10, Instant.now());
+        LowStockAlert second = new LowStockAlert(2L, "OTHER", 0, 2L, 5, Instant.now());
+
+        when(lowStockAlertPort.alerts()).thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(lowStockAlertService.streamAlerts(2L))
+                .expectNext(second)
+                .verifyComplete();
+    }
+}
@@ -1,5 +1,6 @@
 package com.seti.technical_test.application.service;
 
+import com.seti.technical_test.application.port.out.InventorySnapshotPort;
 import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
 import com.seti.technical_test.domain.model.Office;
 import com.seti.technical_test.infrastructure.exception.GeneralException;
@@ -26,6 +27,9 @@ class OfficeServiceTest {
     @Mock
     private FranchiseUseCase franchiseUseCase;
 
+    @Mock
+    private InventorySnapshotPort inventorySnapshotPort;
+
     @InjectMocks
     private OfficeService officeService;
 
@@ -39,11 +43,11 @@ class OfficeServiceTest {
      */
     @Test
     void getOffice_success() {
-        Office office = new Office(1, "Office", 1);
+        Office office = new Office(1L, "Office", 1L);
 
-        when(officeRepositoryPort.findById(1)).thenReturn(Mono.just(office));
+        when(officeRepositoryPort.findById(1L)).thenReturn(Mono.just(office));
 
-        StepVerifier.create(officeService.getOffice(1))
+        StepVerifier.create(officeService.getOffice(1L))
                 .assertNext(dto -> {
                     assert dto.name().equals("Office");
                 })
@@ -55,9 +59,9 @@ class OfficeServiceTest {
      */
     @Test
     void getOffice_notFound() {
-        when(officeRepositoryPort.findById(1)).thenReturn(Mono.empty());
+        when(officeRepositoryPort.findById(1L)).thenReturn(Mono.empty());
 
-        StepVerifier.create(officeService.getOffice(1))
+        StepVerifier.create(officeService.getOffice(1L))
                 .expectError(NotFoundException.class)
                 .verify();
     }
@@ -67,18 +71,20 @@ class OfficeServiceTest {
      */
     @Test
     void createOffice_success() {
-        Office dto = new Office(null, "Office", 1);
+        Office dto = new Office(null, "Office", 1L);
 
         when(officeRepositoryPort.existsByName("OFFICE")).thenReturn(Mono.just(false));
-        when(franchiseUseCase.getFranchise(1)).thenReturn(Mono.just(mock()));
+        when(franchiseUseCase.getFranchise(1L)).thenReturn(Mono.just(mock()));
         when(officeRepositoryPort.save(any()))
-                .thenReturn(Mono.just(new Office(null, "OFFICE", 1)));
+                .thenReturn(Mono.just(new Office(null, "OFFICE", 1L)));
 
         StepVerifier.create(officeService.createOffice(dto))
                 .assertNext(result -> {
                     assert result.name().equals("OFFICE");
                 })
                 .verifyComplete();
+
+        verify(inventorySnapshotPort).officeSaved(any());
     }
 
     /**
@@ -86,7 +92,7 @@ class OfficeServiceTest {
      */
     @Test
     void createOffice_nameExists() {
-        Office dto = new Office(null, "Office", 1);
+        Office dto = new Office(null, "Office", 1L);
 
         when(officeRepositoryPort.existsByName("OFFICE")).thenReturn(Mono.just(true));
 
@@ -1,7 +1,13 @@
 package com.seti.technical_test.application.service;
 
+import com.seti.technical_test.application.port.in.OfficeUseCase;
+import com.seti.technical_test.application.port.out.InventorySnapshotPort;
+import com.seti.technical_test.application.port.out.LowStockAlertPort;
 import com.seti.technical_test.application.port.out.ProductRepositoryPort;
+import com.seti.technical_test.domain.model.Office;
 import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+import com.seti.technical_test.domain.model.StockAdjustment;
 import com.seti.technical_test.infrastructure.exception.GeneralException;
 import com.seti.technical_test.infrastructure.exception.NotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +19,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 
 /**
@@ -23,6 +31,15 @@ class ProductServiceTest {
     @Mock
     private ProductRepositoryPort productRepositoryPort;
 
+    @Mock
+    private OfficeUseCase officeUseCase;
+
+    @Mock
+    private LowStockAlertPort lowStockAlertPort;
+
+    @Mock
+    private InventorySnapshotPort inventorySnapshotPort;
+
     @InjectMocks
     private ProductService productService;
 
@@ -36,16 +53,16 @@ class ProductServiceTest {
      */
     @Test
     void getProduct_success() {
-        Product product = new Product(1, "Product", 10, 1);
+        Product product = new Product(1L, "Product", 10, 1L);
 
-        when(productRepositoryPort.findById(1)).thenReturn(Mono.just(product));
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.just(product));
 
-        StepVerifier.create(productService.getProduct(1))
+        StepVerifier.create(productService.getProduct(1L))
                 .assertNext(dto -> {
-                    assert dto.id().equals(1);
+                    assert dto.id().equals(1L);
                     assert dto.name().equals("Product");
                     assert dto.stock().equals(10);
-                    assert dto.officeId().equals(1);
+                    assert dto.officeId().equals(1L);
                 })
                 .verifyComplete();
     }
@@ -56,9 +73,9 @@ class ProductServiceTest {
      */
     @Test
     void getProduct_notFound() {
-        when(productRepositoryPort.findById(1)).thenReturn(Mono.empty());
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.empty());
 
-        StepVerifier.create(productService.getProduct(1))
+        StepVerifier.create(productService.getProduct(1L))
                 .expectError(NotFoundException.class)
                 .verify();
     }
@@ -68,20 +85,69 @@ class ProductServiceTest {
      */
     @Test
     void getTopProductsOfficeByFranchise_success() {
-        when(productRepositoryPort.findTopStockByOffice(1))
-                .thenReturn(Flux.just(new Product(1, "Product", 10, 1)));
+        when(productRepositoryPort.findTopStockByOffice(1L, 1))
+                .thenReturn(Flux.just(new Product(1L, "Product", 10, 1L)));
 
-        StepVerifier.create(productService.getTopProductsOfficeByFranchise(1))
+        StepVerifier.create(productService.getTopProductsOfficeByFranchise(1L, 1))
                 .expectNextCount(1)
                 .verifyComplete();
     }
 
+    /**
+     * Should fail when the number of products per office is out of range.
+     */
+    @Test
+    void getTopProductsOfficeByFranchise_invalidK() {
+        StepVerifier.create(productService.getTopProductsOfficeByFranchise(1L, 0))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(productRepositoryPort);
+    }
+
+    /**
+     * Should search with the text in upper case, as names are stored.
+     */
+    @Test
+    void searchProducts_success() {
+        when(productRepositoryPort.searchByName("PROD", 1L, null, 20))
+                .thenReturn(Flux.just(new Product(1L, "Product", 10, 1L)));
+
+        StepVerifier.create(productService.searchProducts("  prod ", 1L, null, 20))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    /**
+     * Should fail when the search text is blank.
+     */
+    @Test
+    void searchProducts_blankQuery() {
+        StepVerifier.create(productService.searchProducts(" ", null, null, 20))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(productRepositoryPort);
+    }
+
+    /**
+     * Should fail when the search is scoped to an office and a franchise.
+     */
+    @Test
+    void searchProducts_bothScopes() {
+        StepVerifier.create(productService.searchProducts("PROD", 1L, 1L, 20))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(productRepositoryPort);
+    }
+
     /**
      * Should fail when product name already exists.
      */
     @Test
     void createProduct_nameExists() {
-        Product dto = new Product(null, "Product", 10, 1);
+        Product dto = new Product(null, "Product", 10, 1L);
 
         when(productRepositoryPort.existsByName("PRODUCT")).thenReturn(Mono.just(true));
 
@@ -89,4 +155,215 @@ class ProductServiceTest {
                 .expectError(GeneralException.class)
                 .verify();
     }
+
+    /**
+     * Should fail when the adjustment leaves the stock negative.
+     */
+    @Test
+    void adjustStock_notEnoughStock() {
+        Product product = new Product(1L, "Product", 10, 1L);
+
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.just(product));
+        when(productRepositoryPort.adjustStock(product, -11)).thenReturn(Mono.empty());
+
+        StepVerifier.create(productService.adjustStock(1L, new StockAdjustment(-11)))
+                .expectError(GeneralException.class)
+                .verify();
+    }
+
+    /**
+     * Should check the product for a low-stock alert when its stock is decreased.
+     */
+    @Test
+    void adjustStock_notifiesDecrease() {
+        Product product = new Product(1L, "Product", 10, 1L);
+        Product adjusted = new Product(1L, "Product", 3, 1L);
+
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.just(product));
+        when(productRepositoryPort.adjustStock(product, -7)).thenReturn(Mono.just(adjusted));
+
+        StepVerifier.create(productService.adjustStock(1L, new StockAdjustment(-7)))
+                .expectNext(adjusted)
+                .verifyComplete();
+
+        verify(lowStockAlertPort).stockDecreased(adjusted);
+    }
+
+    /**
+     * Should check the product for a low-stock alert when an update lowers its stock.
+     */
+    @Test
+    void updateProduct_notifiesDecrease() {
+        Product current = new Product(1L, "PRODUCT", 10, 1L);
+        Product updated = new Product(1L, "PRODUCT", 2, 1L);
+
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.just(current));
+        when(productRepositoryPort.findByName("PRODUCT")).thenReturn(Mono.just(current));
+        when(productRepositoryPort.save(updated)).thenReturn(Mono.just(updated));
+
+        StepVerifier.create(productService.updateProduct(1L, updated))
+                .expectNext(updated)
+                .verifyComplete();
+
+        verify(lowStockAlertPort).stockDecreased(updated);
+        verify(inventorySnapshotPort).productSaved(updated);
+    }
+
+    /**
+     * Should not check the product when its stock is increased.
+     */
+    @Test
+    void adjustStock_increaseNotNotified() {
+        Product product = new Product(1L, "Product", 10, 1L);
+        Product adjusted = new Product(1L, "Product", 15, 1L);
+
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.just(product));
+        when(productRepositoryPort.adjustStock(product, 5)).thenReturn(Mono.just(adjusted));
+
+        StepVerifier.create(productService.adjustStock(1L, new StockAdjustment(5)))
+                .expectNext(adjusted)
+                .verifyComplete();
+
+        verifyNoInteractions(lowStockAlertPort);
+        verify(inventorySnapshotPort).productSaved(adjusted);
+    }
+
+    /**
+     * Should remove the product from the inventory snapshot once it is deleted.
+     */
+    @Test
+    void deleteProduct_removedFromSnapshot() {
+        Product product = new Product(1L, "Product", 10, 1L);
+
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.just(product));
+        when(productRepositoryPort.delete(product)).thenReturn(Mono.empty());
+
+        StepVerifier.create(productService.deleteProduct(1L))
+                .verifyComplete();
+
+        verify(inventorySnapshotPort).productDeleted(product);
+    }
+
+    /**
+     * Should return the position of an existing product in its office.
+     */
+    @Test
+    void getStockRank_success() {
+        Product product = new Product(1L, "Product", 10, 1L);
+        ProductRank rank = new ProductRank(1L, 1L, 10, 3L, 20L);
+
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.just(product));
+        when(productRepositoryPort.findStockRank(product)).thenReturn(Mono.just(rank));
+
+        StepVerifier.create(productService.getStockRank(1L))
+                .expectNext(rank)
+                .verifyComplete();
+    }
+
+    /**
+     * Should return the products of an existing office within a stock range.
+     */
+    @Test
+    void getProductsByStock_success() {
+        Product product = new Product(1L, "Product", 10, 1L);
+
+        when(officeUseCase.getOffice(1L)).thenReturn(Mono.just(new Office(1L, "Office", 1L)));
+        when(productRepositoryPort.findByStockRange(1L, 5, 15, 20)).thenReturn(Flux.just(product));
+
+        StepVerifier.create(productService.getProductsByStock(1L, 5, 15, 20))
+                .expectNext(product)
+                .verifyComplete();
+    }
+
+    /**
+     * Should fail when the lowest stock is above the highest one.
+     */
+    @Test
+    void getProductsByStock_invalidRange() {
+        StepVerifier.create(productService.getProductsByStock(1L, 15, 5, 20))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(productRepositoryPort, officeUseCase);
+    }
+
+    /**
+     * Should fail when a batch repeats a product name.
+     */
+    @Test
+    void createProducts_repeatedName() {
+        List<Product> products = List.of(
+                new Product(null, "Product", 10, 1L),
+                new Product(null, "product", 5, 2L));
+
+        StepVerifier.create(productService.createProducts(products))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(productRepositoryPort, inventorySnapshotPort);
+    }
+
+    /**
+     * Should save a batch once every name is free and every office exists,
+     * and add the saved products to the inventory snapshot.
+     */
+    @Test
+    void createProducts_success() {
+        List<Product> products = List.of(
+                new Product(null, "Rice", 10, 1L),
+                new Product(null, "Beans", 5, 1L));
+        List<Product> saved = List.of(
+                new Product(101L, "Rice", 10, 1L),
+                new Product(151L, "Beans", 5, 1L));
+
+        when(productRepositoryPort.existsByName(anyString())).thenReturn(Mono.just(false));
+        when(officeUseCase.getOffice(1L)).thenReturn(Mono.just(new Office(1L, "Office", 1L)));
+        when(productRepositoryPort.saveAll(products)).thenReturn(Flux.fromIterable(saved));
+
+        StepVerifier.create(productService.createProducts(products))
+                .expectNextSequence(saved)
+                .verifyComplete();
+
+        verify(officeUseCase, times(1)).getOffice(1L);
+        verify(inventorySnapshotPort).productSaved(saved.get(0));
+        verify(inventorySnapshotPort).productSaved(saved.get(1));
+    }
+
+    /**
+     * Should save nothing when a name of the batch is already taken.
+     */
+    @Test
+    void createProducts_nameExists() {
+        List<Product> products = List.of(
+                new Product(null, "Rice", 10, 1L),
+                new Product(null, "Beans", 5, 1L));
+
+        when(productRepositoryPort.existsByName("RICE")).thenReturn(Mono.just(false));
+        when(productRepositoryPort.existsByName("BEANS")).thenReturn(Mono.just(true));
+        when(officeUseCase.getOffice(1L)).thenReturn(Mono.just(new Office(1L, "Office", 1L)));
+
+        StepVerifier.create(productService.createProducts(products))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verify(productRepositoryPort, never()).saveAll(anyList());
+        verifyNoInteractions(inventorySnapshotPort);
+    }
+
+    /**
+     * Should save nothing when an office of the batch does not exist.
+     */
+    @Test
+    void createProducts_officeNotFound() {
+        List<Product> products = List.of(new Product(null, "Rice", 10, 99L));
+
+        when(productRepositoryPort.existsByName("RICE")).thenReturn(Mono.just(false));
+        when(officeUseCase.getOffice(99L)).thenReturn(Mono.error(new NotFoundException("Office not found")));
+
+        StepVerifier.create(productService.createProducts(products))
+                .expectError(NotFoundException.class)
+                .verify();
+
+        verify(productRepositoryPort, never()).saveAll(anyList());
+    }
 }
@@ -0,0 +1,141 @@
+package com.seti.technical_test.application.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link SingleFlight}.
+ */
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * Should run a read once for all the subscribers of a key in flight.
+     */
+    @Test
+    void mono_coalescesConcurrentSubscribers() {
+        AtomicInteger reads = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+
+        Mono<String> first = singleFlight.mono("key", () -> {
+            reads.incrementAndGet();
+            return result.asMono();
+        });
+        Mono<String> second = singleFlight.mono("key", () -> {
+            reads.incrementAndGet();
+            return Mono.just("other");
+        });
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> result.tryEmitValue("value"))
+                .assertNext(values -> {
+                    assertEquals("value", values.getT1());
+                    assertEquals("value", values.getT2());
+                })
+                .verifyComplete();
+        assertEquals(1, reads.get());
+    }
+
+    /**
+     * Should give a subscriber joining a flux in flight the elements
+     * already emitted.
+     */
+    @Test
+    void flux_replaysElementsToLateSubscribers() {
+        Sinks.Many<Integer> elements = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<Integer> read = singleFlight.flux(List.of("top", 1L), elements::asFlux);
+        List<Integer> late = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(read)
+                .then(() -> elements.tryEmitNext(1))
+                .expectNext(1)
+                .then(() -> singleFlight.flux(List.of("top", 1L), () -> Flux.just(9)).subscribe(late::add))
+                .then(() -> {
+                    elements.tryEmitNext(2);
+                    elements.tryEmitComplete();
+                })
+                .expectNext(2)
+                .verifyComplete();
+        assertEquals(List.of(1, 2), late);
+    }
+
+    /**
+     * Should forget a key once its read completes, so the next subscriber
+     * reads again.
+     */
+    @Test
+    void mono_retainsNothingAfterCompletion() {
+        AtomicInteger reads = new AtomicInteger();
+
+        for (int i = 1; i <= 2; i++) {
+            StepVerifier.create(singleFlight.mono("key", () -> Mono.fromCallable(reads::incrementAndGet)))
+                    .expectNext(i)
+                    .verifyComplete();
+        }
+    }
+
+    /**
+     * Should share a failure with every subscriber, and read again after it.
+     */
+    @Test
+    void mono_sharesErrors() {
+        AtomicInteger reads = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+
+        Mono<String> failing = singleFlight.mono("key", () -> {
+            reads.incrementAndGet();
+            return result.asMono();
+        });
+
+        StepVerifier.create(Mono.zipDelayError(failing.onErrorReturn("failed"), failing.onErrorReturn("failed")))
+                .then(() -> result.tryEmitError(new IllegalStateException("boom")))
+                .assertNext(values -> {
+                    assertEquals("failed", values.getT1());
+                    assertEquals("failed", values.getT2());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(singleFlight.mono("key", () -> Mono.just("value")))
+                .expectNext("value")
+                .verifyComplete();
+        assertEquals(1, reads.get());
+    }
+
+    /**
+     * Should keep a read running while a subscriber remains, and cancel it
+     * once every subscriber cancelled.
+     */
+    @Test
+    void flux_cancelsTheReadWhenEverySubscriberCancels() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<Integer> read = singleFlight.flux("key", () -> Flux.<Integer>never()
+                .doOnCancel(() -> cancelled.set(true)));
+
+        Disposable first = read.subscribe();
+        Disposable second = read.subscribe();
+
+        first.dispose();
+        assertFalse(cancelled.get());
+
+        second.dispose();
+        assertTrue(cancelled.get());
+
+        StepVerifier.create(singleFlight.flux("key", () -> Flux.just(1)))
+                .expectNext(1)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,122 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
+import com.seti.technical_test.application.port.out.ProductRepositoryPort;
+import com.seti.technical_test.application.port.out.StockHistoryRepositoryPort;
+import com.seti.technical_test.domain.model.Office;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.StockHistoryPoint;
+import com.seti.technical_test.domain.model.StockHistoryResolution;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link StockHistoryService}.
+ */
+class StockHistoryServiceTest {
+
+    private static final Instant FROM = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static final Instant TO = FROM.plus(Duration.ofDays(1));
+
+    @Mock
+    private StockHistoryRepositoryPort stockHistoryRepositoryPort;
+
+    @Mock
+    private ProductRepositoryPort productRepositoryPort;
+
+    @Mock
+    private OfficeRepositoryPort officeRepositoryPort;
+
+    @InjectMocks
+    private StockHistoryService stockHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Should return the history of an existing product.
+     */
+    @Test
+    void getProductHistory_success() {
+        StockHistoryPoint point = new StockHistoryPoint(1L, FROM, 3, 10, 7, 4L);
+
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.just(new Product(1L, "Product", 7, 1L)));
+        when(stockHistoryRepositoryPort.findByProductId(1L, FROM, TO, StockHistoryResolution.HOUR))
+                .thenReturn(Flux.just(point));
+
+        StepVerifier.create(stockHistoryService.getProductHistory(1L, FROM, TO, StockHistoryResolution.HOUR))
+                .expectNext(point)
+                .verifyComplete();
+    }
+
+    /**
+     * Should throw NotFoundException when the product does not exist.
+     */
+    @Test
+    void getProductHistory_notFound() {
+        when(productRepositoryPort.findById(1L)).thenReturn(Mono.empty());
+        when(stockHistoryRepositoryPort.findByProductId(1L, FROM, TO, StockHistoryResolution.HOUR))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(stockHistoryService.getProductHistory(1L, FROM, TO, StockHistoryResolution.HOUR))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    /**
+     * Should throw GeneralException when the period ends before it starts.
+     */
+    @Test
+    void getProductHistory_invalidPeriod() {
+        StepVerifier.create(stockHistoryService.getProductHistory(1L, TO, FROM, StockHistoryResolution.HOUR))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(productRepositoryPort, stockHistoryRepositoryPort);
+    }
+
+    /**
+     * Should return the history of the products of an existing office.
+     */
+    @Test
+    void getOfficeHistory_success() {
+        StockHistoryPoint point = new StockHistoryPoint(1L, FROM, 3, 10, 7, 4L);
+
+        when(officeRepositoryPort.findById(1L)).thenReturn(Mono.just(new Office(1L, "Office", 1L)));
+        when(stockHistoryRepositoryPort.findByOfficeId(1L, FROM, TO, StockHistoryResolution.DAY))
+                .thenReturn(Flux.just(point));
+
+        StepVerifier.create(stockHistoryService.getOfficeHistory(1L, FROM, TO, StockHistoryResolution.DAY))
+                .expectNext(point)
+                .verifyComplete();
+    }
+
+    /**
+     * Should throw GeneralException when the period is longer than a year.
+     */
+    @Test
+    void getOfficeHistory_periodTooLong() {
+        StepVerifier.create(stockHistoryService.getOfficeHistory(1L, FROM, FROM.plus(Duration.ofDays(400)),
+                        StockHistoryResolution.DAY))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(officeRepositoryPort, stockHistoryRepositoryPort);
+    }
+}
@@ -0,0 +1,100 @@
+package com.seti.technical_test.application.service;
+
+import com.seti.technical_test.application.port.out.FranchiseRepositoryPort;
+import com.seti.technical_test.application.port.out.OfficeRepositoryPort;
+import com.seti.technical_test.application.port.out.StockSummaryRepositoryPort;
+import com.seti.technical_test.domain.model.Franchise;
+import com.seti.technical_test.domain.model.Office;
+import com.seti.technical_test.domain.model.OfficeStockSummary;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link StockSummaryService}.
+ */
+class StockSummaryServiceTest {
+
+    @Mock
+    private StockSummaryRepositoryPort stockSummaryRepositoryPort;
+
+    @Mock
+    private OfficeRepositoryPort officeRepositoryPort;
+
+    @Mock
+    private FranchiseRepositoryPort franchiseRepositoryPort;
+
+    @InjectMocks
+    private StockSummaryService stockSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Should report zeros for an office that never held products.
+     */
+    @Test
+    void getOfficeSummary_withoutProducts() {
+        when(officeRepositoryPort.findById(1L)).thenReturn(Mono.just(new Office(1L, "Office", 2L)));
+        when(stockSummaryRepositoryPort.findByOfficeId(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(stockSummaryService.getOfficeSummary(1L))
+                .expectNext(OfficeStockSummary.empty(1L, 2L))
+                .verifyComplete();
+    }
+
+    /**
+     * Should throw NotFoundException when the office does not exist.
+     */
+    @Test
+    void getOfficeSummary_notFound() {
+        when(officeRepositoryPort.findById(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(stockSummaryService.getOfficeSummary(1L))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    /**
+     * Should add up the aggregates of the offices of a franchise.
+     */
+    @Test
+    void getFranchiseSummary_success() {
+        when(franchiseRepositoryPort.findById(1L)).thenReturn(Mono.just(new Franchise(1L, "TEST", null)));
+        when(stockSummaryRepositoryPort.findByFranchiseId(1L)).thenReturn(Flux.just(
+                new OfficeStockSummary(1L, 1L, 100L, 10L, 2L),
+                new OfficeStockSummary(2L, 1L, 50L, 5L, 1L)));
+
+        StepVerifier.create(stockSummaryService.getFranchiseSummary(1L))
+                .assertNext(summary -> {
+                    assert summary.totalStock() == 150L;
+                    assert summary.productCount() == 15L;
+                    assert summary.lowStockCount() == 3L;
+                    assert summary.offices().size() == 2;
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * Should throw NotFoundException when the franchise does not exist.
+     */
+    @Test
+    void getFranchiseSummary_notFound() {
+        when(franchiseRepositoryPort.findById(1L)).thenReturn(Mono.empty());
+        when(stockSummaryRepositoryPort.findByFranchiseId(1L)).thenReturn(Flux.empty());
+
+        StepVerifier.create(stockSummaryService.getFranchiseSummary(1L))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,111 @@
+package com.seti.technical_test.benchmark;
+
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.infrastructure.persistance.analytics.StockRankingIndex;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshot;
+import com.seti.technical_test.infrastructure.persistance.snapshot.CatalogSnapshotFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures writing a {@link CatalogSnapshotFile} of one million products
+ * and restoring an index from it, the part of a warm restart that replaces
+ * reading the whole catalog from the database.
+ *
+ * <p>
+ * Each measurement is a single shot on a fresh index, as on start. The
+ * file stays in the page cache between shots, as it does after a rolling
+ * restart on the same host.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class CatalogSnapshotBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+
+    private static final int OFFICES = 10_000;
+
+    private static final int FRANCHISES = 100;
+
+    private static final ChangeEventPosition[] POSITIONS = {ChangeEventPosition.START};
+
+    private Path directory;
+
+    private CatalogSnapshotFile file;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("catalog-snapshot");
+        file = new CatalogSnapshotFile(directory, true, Duration.ofDays(1));
+        write();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long write() {
+        SplittableRandom random = new SplittableRandom(42);
+
+        try (CatalogSnapshotFile.Writer writer = file.create(POSITIONS)) {
+            for (long franchise = 1; franchise <= FRANCHISES; franchise++) {
+                writer.franchise(franchise, "FRANCHISE " + franchise);
+            }
+            for (long office = 1; office <= OFFICES; office++) {
+                writer.office(office, "OFFICE " + office, (office - 1) / (OFFICES / FRANCHISES) + 1);
+            }
+            for (long id = 1; id <= PRODUCTS; id++) {
+                writer.product(id, "PRODUCT " + id, random.nextInt(10_000), (id - 1) % OFFICES + 1);
+            }
+            return writer.commit();
+        }
+    }
+
+    @Benchmark
+    public int restoreStockRanking() {
+        CatalogSnapshot snapshot = file.open(POSITIONS).orElseThrow();
+        StockRankingIndex index = new StockRankingIndex(null, null, null, true, Duration.ZERO, 0);
+
+        snapshot.forEachOffice((id, name, franchiseId) -> index.putOffice(id, franchiseId));
+        snapshot.forEachProduct((id, name, stock, officeId) -> index.put(new Product(id, name, stock, officeId)));
+
+        return index.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogSnapshotBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
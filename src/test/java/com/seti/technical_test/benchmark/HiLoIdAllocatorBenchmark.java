@@ -0,0 +1,75 @@
+package com.seti.technical_test.benchmark;
+
+import com.seti.technical_test.infrastructure.persistance.id.HiLoIdAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the contention of {@link HiLoIdAllocator} across cores.
+ *
+ * <p>
+ * The sequence is simulated in memory, so the results show the cost of
+ * the allocator itself: the atomic increment on the fast path and the
+ * shared refill when a block runs out. A block size of 1 behaves like a
+ * sequence call per identifier. Each benchmark runs on one thread and on
+ * every available core; run with {@code -prof gc} to also compare
+ * allocation rates.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HiLoIdAllocatorBenchmark {
+
+    @Param({"1", "50", "1000"})
+    private int blockSize;
+
+    private HiLoIdAllocator allocator;
+
+    @Setup
+    public void setUp() {
+        AtomicLong sequence = new AtomicLong(1);
+        long increment = blockSize;
+
+        allocator = new HiLoIdAllocator(1, shard -> Mono.fromSupplier(() ->
+                new HiLoIdAllocator.Reservation(sequence.getAndAdd(increment), increment)));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long singleThread() {
+        return allocator.nextId(0).block();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Long allCores() {
+        return allocator.nextId(0).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HiLoIdAllocatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
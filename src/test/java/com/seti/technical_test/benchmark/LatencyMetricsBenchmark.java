@@ -0,0 +1,145 @@
+package com.seti.technical_test.benchmark;
+
+import com.seti.technical_test.application.port.out.ProductRepositoryPort;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+import com.seti.technical_test.infrastructure.metrics.LatencyMetricsBeanPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead that the latency instrumentation adds to a port call.
+ *
+ * <p>
+ * Compares subscribing to a port method directly against subscribing
+ * through the proxy created by {@link LatencyMetricsBeanPostProcessor},
+ * using a Prometheus registry with percentile histograms enabled as in
+ * production. Run with {@code -prof gc} to also compare allocation rates.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LatencyMetricsBenchmark {
+
+    private ProductRepositoryPort plain;
+    private ProductRepositoryPort metered;
+
+    @Setup
+    public void setUp() {
+        plain = new InMemoryProductPort();
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+
+        LatencyMetricsBeanPostProcessor postProcessor = new LatencyMetricsBeanPostProcessor(
+                beanFactory.getBeanProvider(MeterRegistry.class),
+                "app.port.latency",
+                List.of(ProductRepositoryPort.class));
+
+        metered = (ProductRepositoryPort) postProcessor.postProcessAfterInitialization(new InMemoryProductPort(), "productPort");
+    }
+
+    @Benchmark
+    public Product plainFindById() {
+        return plain.findById(1L).block();
+    }
+
+    @Benchmark
+    public Product meteredFindById() {
+        return metered.findById(1L).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LatencyMetricsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * Port stub that answers immediately, so the benchmark isolates the
+     * instrumentation cost.
+     */
+    static class InMemoryProductPort implements ProductRepositoryPort {
+
+        private static final Product PRODUCT = new Product(1L, "PRODUCT", 10, 1L);
+
+        @Override
+        public Mono<Product> findById(Long id) {
+            return Mono.just(PRODUCT);
+        }
+
+        @Override
+        public Mono<Boolean> existsByName(String name) {
+            return Mono.just(true);
+        }
+
+        @Override
+        public Mono<Product> findByName(String name) {
+            return Mono.just(PRODUCT);
+        }
+
+        @Override
+        public Mono<Product> save(Product product) {
+            return Mono.just(product);
+        }
+
+        @Override
+        public Flux<Product> saveAll(List<Product> products) {
+            return Flux.fromIterable(products);
+        }
+
+        @Override
+        public Mono<Product> adjustStock(Product product, int delta) {
+            return Mono.just(product);
+        }
+
+        @Override
+        public Mono<Void> delete(Product product) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Flux<Product> findTopStockByOffice(Long franchiseId, int k) {
+            return Flux.just(PRODUCT);
+        }
+
+        @Override
+        public Mono<ProductRank> findStockRank(Product product) {
+            return Mono.just(new ProductRank(product.id(), product.officeId(), product.stock(), 1L, 1L));
+        }
+
+        @Override
+        public Flux<Product> findByStockRange(Long officeId, int minStock, int maxStock, int limit) {
+            return Flux.just(PRODUCT);
+        }
+
+        @Override
+        public Flux<Product> searchByName(String query, Long officeId, Long franchiseId, int limit) {
+            return Flux.just(PRODUCT);
+        }
+    }
+}
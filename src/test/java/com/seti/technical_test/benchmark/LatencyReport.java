@@ -0,0 +1,184 @@
+package com.seti.technical_test.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+
+/**
+ * Latencies and errors of each endpoint of a load test or a replay,
+ * recorded in HdrHistograms from any thread.
+ *
+ * <p>
+ * A report can be saved and read back, so the runs of two builds can be
+ * compared percentile by percentile with {@link #compare}.
+ * </p>
+ */
+final class LatencyReport {
+
+    /**
+     * Fewest requests an endpoint needs for its tail to be compared; below
+     * that, p99 and p999 are a handful of samples.
+     */
+    private static final long MIN_COMPARED = 1_000;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    /**
+     * Records a request.
+     *
+     * @param endpoint the endpoint name
+     * @param nanos    the latency of the request
+     * @param success  whether it was answered with a 2xx status
+     */
+    void record(String endpoint, long nanos, boolean success) {
+        Endpoint recorded = endpoints.computeIfAbsent(endpoint, name -> new Endpoint(new ConcurrentHistogram(3)));
+        recorded.latencies.recordValue(nanos);
+        if (!success) {
+            recorded.errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Prints the throughput, errors and percentiles of every endpoint and
+     * of all of them.
+     *
+     * @param duration the measured period
+     */
+    void print(Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+
+        System.out.printf("%n%-48s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<String, Endpoint> endpoint : endpoints.entrySet()) {
+            Histogram latencies = endpoint.getValue().latencies;
+            long errors = endpoint.getValue().errors.get();
+            total.add(latencies);
+            totalErrors += errors;
+            System.out.printf("%-48s %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n", endpoint.getKey(),
+                    latencies.getTotalCount() / seconds, errors, millis(latencies, 50), millis(latencies, 99),
+                    millis(latencies, 99.9), latencies.getMaxValue() / 1e6);
+        }
+        System.out.printf("%-48s %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n", "total",
+                total.getTotalCount() / seconds, totalErrors, millis(total, 50), millis(total, 99),
+                millis(total, 99.9), total.getMaxValue() / 1e6);
+    }
+
+    /**
+     * Saves the report.
+     *
+     * @param file the file to write
+     */
+    void write(Path file) {
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file))) {
+            output.writeInt(endpoints.size());
+            for (Map.Entry<String, Endpoint> endpoint : endpoints.entrySet()) {
+                Histogram latencies = endpoint.getValue().latencies;
+                ByteBuffer encoded = ByteBuffer.allocate(latencies.getNeededByteBufferCapacity());
+                int length = latencies.encodeIntoCompressedByteBuffer(encoded);
+
+                output.writeUTF(endpoint.getKey());
+                output.writeLong(endpoint.getValue().errors.get());
+                output.writeInt(length);
+                output.write(encoded.array(), 0, length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a saved report.
+     *
+     * @param file the file to read
+     * @return the report
+     */
+    static LatencyReport read(Path file) {
+        LatencyReport report = new LatencyReport();
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = input.readUTF();
+                long errors = input.readLong();
+                byte[] encoded = new byte[input.readInt()];
+                input.readFully(encoded);
+
+                Endpoint endpoint = new Endpoint(Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0));
+                endpoint.errors.set(errors);
+                report.endpoints.put(name, endpoint);
+            }
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException(file + " is not a latency report", e);
+        }
+    }
+
+    /**
+     * Prints the p50, p99 and p999 of every endpoint of two reports and
+     * their change.
+     *
+     * @param baseline  the report of the reference build
+     * @param candidate the report of the build under test
+     * @param tolerance relative increase of p99 or p999 counted as a regression, e.g. {@code 0.1}
+     * @return {@code true} if an endpoint with enough requests in both reports regressed
+     */
+    static boolean compare(LatencyReport baseline, LatencyReport candidate, double tolerance) {
+        boolean regressed = false;
+
+        System.out.printf("%n%-48s %22s %22s %22s%n", "endpoint", "p50 ms", "p99 ms", "p999 ms");
+        for (Map.Entry<String, Endpoint> endpoint : baseline.endpoints.entrySet()) {
+            Endpoint other = candidate.endpoints.get(endpoint.getKey());
+            if (other == null) {
+                continue;
+            }
+
+            Histogram before = endpoint.getValue().latencies;
+            Histogram after = other.latencies;
+            boolean compared = before.getTotalCount() >= MIN_COMPARED && after.getTotalCount() >= MIN_COMPARED;
+            boolean endpointRegressed = compared
+                    && (change(before, after, 99) > tolerance || change(before, after, 99.9) > tolerance);
+            regressed |= endpointRegressed;
+
+            System.out.printf("%-48s %s %s %s%s%n", endpoint.getKey(),
+                    column(before, after, 50), column(before, after, 99), column(before, after, 99.9),
+                    endpointRegressed ? "  REGRESSED" : compared ? "" : "  (too few requests)");
+        }
+        return regressed;
+    }
+
+    private static String column(Histogram before, Histogram after, double percentile) {
+        return String.format("%7.2f %7.2f %+5.0f%%", millis(before, percentile), millis(after, percentile),
+                change(before, after, percentile) * 100);
+    }
+
+    private static double change(Histogram before, Histogram after, double percentile) {
+        double reference = Math.max(1, before.getValueAtPercentile(percentile));
+        return after.getValueAtPercentile(percentile) / reference - 1;
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private record Endpoint(Histogram latencies, AtomicLong errors) {
+
+        private Endpoint(Histogram latencies) {
+            this(latencies, new AtomicLong());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.seti.technical_test.benchmark;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * End-to-end load test of the REST API of a running instance, over the
+ * catalog of {@code benchmark/load/seed.sql}.
+ *
+ * <p>
+ * Requests are drawn from the read and write operations of the product,
+ * office and franchise controllers, writes with the probability
+ * {@code load.writeRatio}. Identifiers are skewed towards the lowest ones
+ * ({@code load.skew}, one for uniform), so a few franchises, offices and
+ * products are hot, as in production. Without {@code load.rate}, each of
+ * {@code load.concurrency} clients sends its next request as soon as the
+ * previous one completes. With it, requests are sent at that rate whatever
+ * the response times, at most {@code load.concurrency} at once, and their
+ * latency is measured from when they were due, so a stalled server is not
+ * hidden by clients that stopped sending (coordinated omission).
+ * </p>
+ *
+ * <p>
+ * After {@code load.warmup} seconds, latencies are recorded for
+ * {@code load.duration} seconds and the throughput, error count and p50,
+ * p99 and p999 of each operation are printed, and saved to
+ * {@code load.output} if set, to be compared with another run by
+ * {@link TrafficReplay}. {@code benchmark/load/run.sh} reads the catalog
+ * size from the database and runs it.
+ * </p>
+ */
+public class LoadTest {
+
+    private static final String[] WORDS = {"ACEITE", "ARROZ", "AZUCAR", "CAFE", "CHOCOLATE", "FRIJOL", "GALLETA",
+            "HARINA", "JABON", "LECHE", "MANTEQUILLA", "PAN", "PASTA", "QUESO", "SAL", "SALSA", "TE", "VINAGRE",
+            "YOGUR", "ATUN"};
+
+    private final WebClient webClient;
+
+    private final long franchises;
+
+    private final long offices;
+
+    private final long products;
+
+    private final double skew;
+
+    private final List<Operation> reads;
+
+    private final List<Operation> writes;
+
+    private final AtomicLong created = new AtomicLong();
+
+    LoadTest(WebClient webClient, long franchises, long offices, long products, double skew) {
+        this.webClient = webClient;
+        this.franchises = franchises;
+        this.offices = offices;
+        this.products = products;
+        this.skew = skew;
+        this.reads = List.of(
+                new Operation("GET /product/{id}", client -> client.get()
+                        .uri("/api/v1/product/{id}", product())),
+                new Operation("GET /product/search", client -> client.get()
+                        .uri("/api/v1/product/search?q={q}", WORDS[random().nextInt(WORDS.length)].substring(0, 3))),
+                new Operation("GET /product/top-products/{franchiseId}", client -> client.get()
+                        .uri("/api/v1/product/top-products/{franchiseId}?k=3", franchise())),
+                new Operation("GET /office/{id}", client -> client.get()
+                        .uri("/api/v1/office/{id}", office())),
+                new Operation("GET /office/{id}/stock-summary", client -> client.get()
+                        .uri("/api/v1/office/{id}/stock-summary", office())),
+                new Operation("GET /franchise/{id}", client -> client.get()
+                        .uri("/api/v1/franchise/{id}", franchise())),
+                new Operation("GET /franchise/{id}/stock-summary", client -> client.get()
+                        .uri("/api/v1/franchise/{id}/stock-summary", franchise())));
+        this.writes = List.of(
+                new Operation("POST /product", client -> client.post()
+                        .uri("/api/v1/product")
+                        .bodyValue(Map.of(
+                                "name", "LOAD " + System.nanoTime() + " " + created.incrementAndGet(),
+                                "stock", random().nextInt(1000),
+                                "officeId", office()))),
+                new Operation("PATCH /product/{id}/stock", client -> client.patch()
+                        .uri("/api/v1/product/{id}/stock", product())
+                        .bodyValue(Map.of("delta", delta()))));
+    }
+
+    public static void main(String[] args) {
+        String url = System.getProperty("load.url", "http://localhost:8080");
+        int concurrency = Integer.getInteger("load.concurrency", 64);
+        int rate = Integer.getInteger("load.rate", 0);
+        double writeRatio = Double.parseDouble(System.getProperty("load.writeRatio", "0.1"));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 60));
+
+        ConnectionProvider connections = ConnectionProvider.builder("load-test")
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient webClient = WebClient.builder()
+                .baseUrl(url)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+
+        LoadTest loadTest = new LoadTest(webClient,
+                Long.getLong("load.franchises", 100),
+                Long.getLong("load.offices", 5_000),
+                Long.getLong("load.products", 1_000_000),
+                Double.parseDouble(System.getProperty("load.skew", "2")));
+
+        System.out.printf("Load test of %s: %s, %.0f%% writes, %ds warmup, %ds measured%n", url,
+                rate > 0 ? rate + " requests/s" : concurrency + " clients", writeRatio * 100, warmup.toSeconds(),
+                duration.toSeconds());
+        LatencyReport report = loadTest.run(concurrency, rate, writeRatio, warmup, duration);
+        connections.disposeLater().block();
+
+        String output = System.getProperty("load.output");
+        if (output != null) {
+            report.write(Path.of(output));
+        }
+    }
+
+    /**
+     * Sends requests for the warmup and the measured duration, then prints
+     * the report.
+     */
+    LatencyReport run(int concurrency, int rate, double writeRatio, Duration warmup, Duration duration) {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        LatencyReport report = new LatencyReport();
+
+        Function<Long, Mono<Void>> request = due -> {
+            List<Operation> operations = random().nextDouble() < writeRatio ? writes : reads;
+            Operation operation = operations.get(random().nextInt(operations.size()));
+            return operation.call(webClient, due, measureFrom, report);
+        };
+
+        if (rate > 0) {
+            long start = System.nanoTime();
+            long period = 1_000_000_000L / rate;
+            Flux.interval(Duration.ofNanos(period))
+                    .map(tick -> start + tick * period)
+                    .takeWhile(due -> due < end)
+                    .onBackpressureBuffer()
+                    .flatMap(request, concurrency)
+                    .blockLast();
+        } else {
+            Flux.range(0, concurrency)
+                    .flatMap(client -> Mono.defer(() -> request.apply(System.nanoTime()))
+                            .repeat(() -> System.nanoTime() < end), concurrency)
+                    .blockLast();
+        }
+
+        report.print(duration);
+        return report;
+    }
+
+    private long franchise() {
+        return skewed(franchises);
+    }
+
+    private long office() {
+        return skewed(offices);
+    }
+
+    private long product() {
+        return skewed(products);
+    }
+
+    /**
+     * Identifier between one and {@code max}; the higher the skew, the more
+     * often the lowest identifiers come up.
+     */
+    private long skewed(long max) {
+        return 1 + Math.min(max - 1, (long) (max * Math.pow(random().nextDouble(), skew)));
+    }
+
+    /**
+     * Draws a stock adjustment adding or removing up to nine units, so the
+     * stock of a hot product walks around its seeded value and removals
+     * exercise the reservation path; a removal beyond the stock is rejected
+     * and counts as an error.
+     */
+    private static int delta() {
+        int units = random().nextInt(1, 10);
+        return random().nextBoolean() ? units : -units;
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+
+    /**
+     * An endpoint and how to build a request to it. Responses other than
+     * 2xx count as errors and are recorded too, as the time of a failure
+     * matters as much.
+     */
+    private record Operation(String name, Function<WebClient, WebClient.RequestHeadersSpec<?>> request) {
+
+        /**
+         * Sends a request and records its latency from when it was due, if
+         * it was due in the measured period.
+         */
+        private Mono<Void> call(WebClient webClient, long due, long measureFrom, LatencyReport report) {
+            return request.apply(webClient)
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                    .map(HttpStatusCode::is2xxSuccessful)
+                    .onErrorReturn(false)
+                    .doOnNext(success -> {
+                        if (due >= measureFrom) {
+                            report.record(name, System.nanoTime() - due, success);
+                        }
+                    })
+                    .then();
+        }
+    }
+}
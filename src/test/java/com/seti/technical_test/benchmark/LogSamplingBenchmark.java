@@ -0,0 +1,106 @@
+package com.seti.technical_test.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.infrastructure.logging.LogSamplingRates;
+import com.seti.technical_test.infrastructure.logging.SamplingTurboFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Marker;
+import org.slf4j.helpers.BasicMarkerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request cost of the service log statements with and
+ * without sampling.
+ *
+ * <p>
+ * Both benchmarks log a domain record through the same asynchronous
+ * appender (backed by a no-op appender, so console I/O is excluded).
+ * {@code unsampled} keeps every statement, {@code sampled} keeps one in a
+ * hundred as configured for the read operations. Run with {@code -prof gc}
+ * to compare the allocation per call.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogSamplingBenchmark {
+
+    private static final Marker UNSAMPLED = new BasicMarkerFactory().getMarker("benchmark.unsampled");
+    private static final Marker SAMPLED = new BasicMarkerFactory().getMarker("benchmark.sampled");
+
+    private final Product product = new Product(1L, "Product", 10, 1L);
+
+    private LoggerContext context;
+    private Logger logger;
+
+    @Setup
+    public void setUp() {
+        LogSamplingRates.setRate(UNSAMPLED.getName(), 1.0);
+        LogSamplingRates.setRate(SAMPLED.getName(), 0.01);
+
+        context = new LoggerContext();
+
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        NOPAppender<ILoggingEvent> sink = new NOPAppender<>();
+        sink.setContext(context);
+        sink.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setNeverBlock(true);
+        async.addAppender(sink);
+        async.start();
+
+        logger = context.getLogger(LogSamplingBenchmark.class);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(async);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void unsampled() {
+        logger.info(UNSAMPLED, "Product will be updated with the following features {}", product);
+    }
+
+    @Benchmark
+    public void sampled() {
+        logger.info(SAMPLED, "Product will be updated with the following features {}", product);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LogSamplingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,92 @@
+package com.seti.technical_test.benchmark;
+
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former eager, stack-capturing not-found error with the
+ * lazily created, stackless one used by the services.
+ *
+ * <p>
+ * The {@code found} benchmarks show the cost paid on the happy path, the
+ * {@code missing} ones the cost of an actual 404. Run with {@code -prof gc}
+ * to compare allocations.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundPathBenchmark {
+
+    private static final Product PRODUCT = new Product(1L, "Product", 10, 1L);
+
+    private static final Product FALLBACK = new Product(0L, "Fallback", 0, 0L);
+
+    private static final Mono<Product> LAZY_NOT_FOUND = Mono.error(() -> new NotFoundException("Not found Product"));
+
+    private final Mono<Product> present = Mono.just(PRODUCT);
+
+    private final Mono<Product> absent = Mono.empty();
+
+    @Benchmark
+    public Product eagerFound() {
+        return present.switchIfEmpty(Mono.error(new StackfulNotFoundException("Not found Product")))
+                .onErrorReturn(FALLBACK)
+                .block();
+    }
+
+    @Benchmark
+    public Product lazyFound() {
+        return present.switchIfEmpty(LAZY_NOT_FOUND)
+                .onErrorReturn(FALLBACK)
+                .block();
+    }
+
+    @Benchmark
+    public Product eagerMissing() {
+        return absent.switchIfEmpty(Mono.error(new StackfulNotFoundException("Not found Product")))
+                .onErrorReturn(FALLBACK)
+                .block();
+    }
+
+    @Benchmark
+    public Product lazyMissing() {
+        return absent.switchIfEmpty(LAZY_NOT_FOUND)
+                .onErrorReturn(FALLBACK)
+                .block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NotFoundPathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * Reproduces the previous exception, which captured a full stack trace.
+     */
+    static class StackfulNotFoundException extends RuntimeException {
+
+        StackfulNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.seti.technical_test.benchmark;
+
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.infrastructure.persistance.search.ProductNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures prefix searches on {@link ProductNameIndex} holding one million
+ * names.
+ *
+ * <p>
+ * Names combine two words of a small vocabulary with a number, so short
+ * prefixes match hundreds of thousands of names and long ones a handful,
+ * like a real catalog. Searches scoped to an office have to skip the names
+ * of the other offices, which is their worst case. The same workload
+ * against the database indexes is in {@code benchmark/search}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ProductNameIndexBenchmark {
+
+    static final String[] WORDS = {
+            "ACEITE", "ARROZ", "AZUCAR", "CAFE", "CHOCOLATE", "FRIJOL", "GALLETA", "HARINA", "JABON", "LECHE",
+            "MANTEQUILLA", "PAN", "PASTA", "QUESO", "SAL", "SALSA", "TE", "VINAGRE", "YOGUR", "ATUN"
+    };
+
+    private static final int PRODUCTS = 1_000_000;
+
+    private static final int OFFICES = 10_000;
+
+    private static final int LIMIT = 20;
+
+    @Param({"2", "8", "14"})
+    private int prefixLength;
+
+    private ProductNameIndex index;
+
+    private String[] prefixes;
+
+    private long[] officeIds;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = new ProductNameIndex(null, null, null, false, Duration.ZERO, 0);
+        SplittableRandom random = new SplittableRandom(42);
+
+        String[] names = new String[PRODUCTS];
+        for (int id = 1; id <= PRODUCTS; id++) {
+            String name = name(random, id);
+            names[id - 1] = name;
+            index.put(new Product((long) id, name, random.nextInt(1_000), (long) (id % OFFICES) + 1));
+        }
+
+        prefixes = new String[1024];
+        officeIds = new long[prefixes.length];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = names[random.nextInt(PRODUCTS)];
+            prefixes[i] = name.substring(0, Math.min(prefixLength, name.length()));
+            officeIds[i] = random.nextInt(OFFICES) + 1;
+        }
+    }
+
+    @Benchmark
+    public List<Product> prefix() {
+        return index.findByPrefix(prefixes[next++ & (prefixes.length - 1)], null, LIMIT);
+    }
+
+    @Benchmark
+    public List<Product> prefixInOffice() {
+        int i = next++ & (prefixes.length - 1);
+        return index.findByPrefix(prefixes[i], officeIds[i], LIMIT);
+    }
+
+    static String name(SplittableRandom random, int id) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductNameIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,251 @@
+package com.seti.technical_test.benchmark;
+
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+import com.seti.technical_test.infrastructure.persistance.analytics.StockRankingIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link StockRankingIndex} with the SQL it replaces, on one
+ * million products in 100 franchises of 100 offices.
+ *
+ * <p>
+ * The {@code index*} benchmarks build the same catalog in memory. The
+ * {@code sql*} benchmarks run the queries of the product adapter over
+ * JDBC against the tables of {@code benchmark/ranking/setup.sql}, which
+ * must be loaded first; the connection is taken from the
+ * {@code jdbc.url}, {@code jdbc.user} and {@code jdbc.password} system
+ * properties. Run only one side with a regular expression, e.g.
+ * {@code StockRankingIndexBenchmark.index}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class StockRankingIndexBenchmark {
+
+    static final int PRODUCTS = 1_000_000;
+
+    static final int OFFICES = 10_000;
+
+    static final int OFFICES_PER_FRANCHISE = 100;
+
+    static final int FRANCHISES = OFFICES / OFFICES_PER_FRANCHISE;
+
+    static final int MAX_STOCK = 10_000;
+
+    static final int RANGE_LIMIT = 20;
+
+    @Param({"1", "5"})
+    int k;
+
+    private int next;
+
+    /**
+     * Random franchise, product and office; the same sequence for both sides.
+     */
+    int franchise() {
+        return Math.floorMod(next++ * 7919, FRANCHISES) + 1;
+    }
+
+    long product() {
+        return Math.floorMod(next++ * 104_729L, PRODUCTS) + 1;
+    }
+
+    long office() {
+        return Math.floorMod(next++ * 7919L, OFFICES) + 1;
+    }
+
+    /**
+     * The in-memory index, loaded like the database table.
+     */
+    @State(Scope.Benchmark)
+    public static class Memory {
+
+        StockRankingIndex index;
+
+        SplittableRandom random;
+
+        @Setup
+        public void setUp() {
+            index = new StockRankingIndex(null, null, null, true, Duration.ZERO, 0);
+            random = new SplittableRandom(42);
+
+            for (long office = 1; office <= OFFICES; office++) {
+                index.putOffice(office, (office - 1) / OFFICES_PER_FRANCHISE + 1);
+            }
+            for (long id = 1; id <= PRODUCTS; id++) {
+                index.put(new Product(id, "PRODUCT " + id, random.nextInt(MAX_STOCK), (id - 1) % OFFICES + 1));
+            }
+        }
+    }
+
+    /**
+     * A connection to the database of {@code setup.sql}, with the
+     * statements of the product adapter prepared.
+     */
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        Connection connection;
+
+        PreparedStatement topStock;
+
+        PreparedStatement rank;
+
+        PreparedStatement range;
+
+        PreparedStatement stockOf;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            connection = DriverManager.getConnection(
+                    System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/postgres"),
+                    System.getProperty("jdbc.user", "postgres"),
+                    System.getProperty("jdbc.password", "postgres"));
+            topStock = connection.prepareStatement("""
+                    SELECT p.id, p.name, p.stock, p.office_id
+                    FROM bench_ranking_office o
+                    CROSS JOIN LATERAL (
+                        SELECT id, name, stock, office_id
+                        FROM bench_ranking_product
+                        WHERE office_id = o.id
+                        ORDER BY stock DESC, id
+                        LIMIT ?
+                    ) p
+                    WHERE o.franchise_id = ?
+                    ORDER BY o.id, p.stock DESC, p.id
+                    """);
+            stockOf = connection.prepareStatement("SELECT stock, office_id FROM bench_ranking_product WHERE id = ?");
+            rank = connection.prepareStatement("""
+                    SELECT count(*) FILTER (WHERE stock > ? OR (stock = ? AND id < ?)) + 1 AS rank,
+                           count(*) AS office_products
+                    FROM bench_ranking_product
+                    WHERE office_id = ?
+                    """);
+            range = connection.prepareStatement("""
+                    SELECT id, name, stock, office_id
+                    FROM bench_ranking_product
+                    WHERE office_id = ?
+                      AND stock BETWEEN ? AND ?
+                    ORDER BY stock DESC, id
+                    LIMIT ?
+                    """);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        List<Product> products(PreparedStatement statement) throws SQLException {
+            List<Product> products = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    products.add(new Product(rows.getLong(1), rows.getString(2), rows.getInt(3), rows.getLong(4)));
+                }
+            }
+            return products;
+        }
+    }
+
+    @Benchmark
+    public List<Product> indexTopStock(Memory memory) {
+        return memory.index.findTopStockByOffice(franchise(), k);
+    }
+
+    @Benchmark
+    public ProductRank indexRank(Memory memory) {
+        return memory.index.findRank(product());
+    }
+
+    @Benchmark
+    public List<Product> indexRange(Memory memory) {
+        int min = Math.floorMod(next * 31, MAX_STOCK - 100);
+        return memory.index.findByStockRange(office(), min, min + 100, RANGE_LIMIT);
+    }
+
+    @Benchmark
+    public void indexUpdate(Memory memory) {
+        long id = product();
+        memory.index.put(new Product(id, "PRODUCT " + id, memory.random.nextInt(MAX_STOCK), (id - 1) % OFFICES + 1));
+    }
+
+    @Benchmark
+    public List<Product> sqlTopStock(Database database) throws SQLException {
+        database.topStock.setInt(1, k);
+        database.topStock.setLong(2, franchise());
+        return database.products(database.topStock);
+    }
+
+    /**
+     * The adapter reads the product before ranking it, so both statements
+     * are measured.
+     */
+    @Benchmark
+    public ProductRank sqlRank(Database database) throws SQLException {
+        long id = product();
+        database.stockOf.setLong(1, id);
+        int stock;
+        long office;
+        try (ResultSet rows = database.stockOf.executeQuery()) {
+            rows.next();
+            stock = rows.getInt(1);
+            office = rows.getLong(2);
+        }
+
+        database.rank.setInt(1, stock);
+        database.rank.setInt(2, stock);
+        database.rank.setLong(3, id);
+        database.rank.setLong(4, office);
+        try (ResultSet rows = database.rank.executeQuery()) {
+            rows.next();
+            return new ProductRank(id, office, stock, rows.getLong(1), rows.getLong(2));
+        }
+    }
+
+    @Benchmark
+    public List<Product> sqlRange(Database database) throws SQLException {
+        int min = Math.floorMod(next * 31, MAX_STOCK - 100);
+        database.range.setLong(1, office());
+        database.range.setInt(2, min);
+        database.range.setInt(3, min + 100);
+        database.range.setInt(4, RANGE_LIMIT);
+        return database.products(database.range);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StockRankingIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.seti.technical_test.benchmark;
+
+import com.seti.technical_test.infrastructure.web.CapturedRequest;
+import com.seti.technical_test.infrastructure.web.TrafficCaptureFile;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Replays a traffic capture written by the {@code TrafficCaptureWebFilter}
+ * against a test instance, and compares the latencies of two builds.
+ *
+ * <p>
+ * Requests are re-issued with their original method, path, query and
+ * body, at their original pace divided by {@code replay.speed} ({@code 2}
+ * replays twice as fast), at most {@code replay.concurrency} at once.
+ * Latencies are measured from when each request was due, so a slower
+ * build cannot hide behind a slower replay, and grouped by endpoint, the
+ * identifiers of the path replaced by {@code {id}}. The report is printed
+ * and saved to {@code replay.output}.
+ * </p>
+ *
+ * <p>
+ * With {@code replay.compare=baseline,candidate}, two saved reports (of a
+ * replay or of a {@link LoadTest}) are compared instead: the p50, p99 and
+ * p999 of every endpoint are printed with their change, and the process
+ * exits with status 1 if the p99 or p999 of an endpoint grew by more than
+ * {@code replay.tolerance} (ten percent by default).
+ * </p>
+ */
+public class TrafficReplay {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    public static void main(String[] args) {
+        String compare = System.getProperty("replay.compare");
+        if (compare != null) {
+            String[] reports = compare.split(",");
+            double tolerance = Double.parseDouble(System.getProperty("replay.tolerance", "0.1"));
+            boolean regressed = LatencyReport.compare(LatencyReport.read(Path.of(reports[0].trim())),
+                    LatencyReport.read(Path.of(reports[1].trim())), tolerance);
+            System.exit(regressed ? 1 : 0);
+        }
+
+        Path file = Path.of(System.getProperty("replay.file"));
+        String url = System.getProperty("replay.url", "http://localhost:8080");
+        double speed = Double.parseDouble(System.getProperty("replay.speed", "1"));
+        int concurrency = Integer.getInteger("replay.concurrency", 256);
+        Path output = Path.of(System.getProperty("replay.output", "replay.hist"));
+
+        ConnectionProvider connections = ConnectionProvider.builder("replay")
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+
+        System.out.printf("Replay of %s against %s at %.1fx%n", file, url, speed);
+        LatencyReport report = new LatencyReport();
+        long start = System.nanoTime();
+        replay(webClient, url, file, speed, concurrency, report);
+        report.print(Duration.ofNanos(System.nanoTime() - start));
+        report.write(output);
+        connections.disposeLater().block();
+    }
+
+    /**
+     * Re-issues every request of a capture when it is due.
+     */
+    static void replay(WebClient webClient, String url, Path file, double speed, int concurrency,
+                       LatencyReport report) {
+        long start = System.nanoTime();
+        long[] first = {-1};
+
+        Flux.using(
+                        () -> TrafficCaptureFile.open(file),
+                        reader -> Flux.<CapturedRequest>generate(sink -> {
+                            CapturedRequest request = reader.next();
+                            if (request == null) {
+                                sink.complete();
+                            } else {
+                                sink.next(request);
+                            }
+                        }),
+                        TrafficCaptureFile.Reader::close)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(request -> {
+                    if (first[0] < 0) {
+                        first[0] = request.startedAt();
+                    }
+                    long due = start + (long) ((request.startedAt() - first[0]) * 1_000 / speed);
+                    return new Scheduled(request, due);
+                })
+                .concatMap(scheduled -> {
+                    long wait = scheduled.due() - System.nanoTime();
+                    return wait <= 0
+                            ? Mono.just(scheduled)
+                            : Mono.delay(Duration.ofNanos(wait)).thenReturn(scheduled);
+                }, 1)
+                .flatMap(scheduled -> send(webClient, url, scheduled, report), concurrency)
+                .blockLast();
+    }
+
+    private static Mono<Void> send(WebClient webClient, String url, Scheduled scheduled, LatencyReport report) {
+        CapturedRequest request = scheduled.request();
+        WebClient.RequestBodySpec spec = webClient.method(HttpMethod.valueOf(request.method()))
+                .uri(URI.create(url + request.uri()));
+        WebClient.RequestHeadersSpec<?> headers = request.body().length == 0
+                ? spec
+                : spec.contentType(MediaType.APPLICATION_JSON).bodyValue(request.body());
+
+        String endpoint = request.method() + " " + ID_SEGMENT.matcher(request.uri().split("\\?", 2)[0])
+                .replaceAll("/{id}");
+        return headers.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                .map(HttpStatusCode::is2xxSuccessful)
+                .onErrorReturn(false)
+                .doOnNext(success -> report.record(endpoint, System.nanoTime() - scheduled.due(), success))
+                .then();
+    }
+
+    /**
+     * A captured request and when it must be sent.
+     */
+    private record Scheduled(CapturedRequest request, long due) {
+    }
+}
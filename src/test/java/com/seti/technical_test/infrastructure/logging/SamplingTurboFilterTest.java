@@ -0,0 +1,55 @@
+package com.seti.technical_test.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link SamplingTurboFilter}.
+ */
+class SamplingTurboFilterTest {
+
+    private static final Marker DROPPED = MarkerFactory.getMarker("test.dropped");
+
+    private final LoggerContext context = new LoggerContext();
+
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+    @AfterEach
+    void tearDown() {
+        LogSamplingRates.setRate(DROPPED.getName(), 1.0);
+    }
+
+    /**
+     * Should sample the informational logs of the application loggers and
+     * keep their warnings.
+     */
+    @Test
+    void decide_samplesTheApplicationLoggers() {
+        LogSamplingRates.setRate(DROPPED.getName(), 0.0);
+
+        assertEquals(FilterReply.DENY, decide("com.seti.technical_test.application.service.ProductService", Level.INFO));
+        assertEquals(FilterReply.NEUTRAL, decide("com.seti.technical_test.application.service.ProductService", Level.WARN));
+    }
+
+    /**
+     * Should leave the logs of the libraries alone, whatever their marker.
+     */
+    @Test
+    void decide_ignoresTheOtherLoggers() {
+        LogSamplingRates.setRate(DROPPED.getName(), 0.0);
+
+        assertEquals(FilterReply.NEUTRAL, decide("io.r2dbc.pool.ConnectionPool", Level.INFO));
+        assertEquals(FilterReply.NEUTRAL, decide("com.seti.technical_testing.Other", Level.INFO));
+    }
+
+    private FilterReply decide(String logger, Level level) {
+        return filter.decide(DROPPED, context.getLogger(logger), level, "message", null, null);
+    }
+}
@@ -0,0 +1,111 @@
+package com.seti.technical_test.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Unit tests for {@link InstrumentedConnectionFactory}.
+ */
+class InstrumentedConnectionFactoryTest {
+
+    private final Timer timer = new SimpleMeterRegistry().timer("app.r2dbc.connection.acquire");
+
+    /**
+     * Should record the acquisition once the connection is obtained, not
+     * when the publisher is built.
+     */
+    @Test
+    void create_timesTheAcquisitionOnCompletion() {
+        Sinks.One<Connection> acquired = Sinks.one();
+        ConnectionFactory delegate = mock(ConnectionFactory.class);
+        doReturn(acquired.asMono()).when(delegate).create();
+        Connection connection = mock(Connection.class);
+
+        Mono<Connection> created = new InstrumentedConnectionFactory(delegate, timer).create();
+        assertEquals(0, timer.count());
+
+        StepVerifier.create(created)
+                .then(() -> {
+                    assertEquals(0, timer.count());
+                    acquired.tryEmitValue(connection);
+                })
+                .expectNext(connection)
+                .verifyComplete();
+
+        assertEquals(1, timer.count());
+    }
+
+    /**
+     * Should also record the acquisitions that fail.
+     */
+    @Test
+    void create_timesFailedAcquisitions() {
+        ConnectionFactory delegate = mock(ConnectionFactory.class);
+        doReturn(Mono.error(new IllegalStateException("pool exhausted"))).when(delegate).create();
+
+        StepVerifier.create(new InstrumentedConnectionFactory(delegate, timer).create())
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertEquals(1, timer.count());
+    }
+
+    /**
+     * Should expose the delegate metadata and the delegate itself.
+     */
+    @Test
+    void delegatesMetadataAndUnwrap() {
+        ConnectionFactory delegate = mock(ConnectionFactory.class);
+        ConnectionFactoryMetadata metadata = () -> "PostgreSQL";
+        doReturn(metadata).when(delegate).getMetadata();
+
+        InstrumentedConnectionFactory factory = new InstrumentedConnectionFactory(delegate, timer);
+
+        assertSame(metadata, factory.getMetadata());
+        assertSame(delegate, factory.unwrap());
+    }
+
+    /**
+     * Should dispose a disposable delegate, such as a pool.
+     */
+    @Test
+    void dispose_disposesTheDelegate() {
+        ConnectionFactory delegate = mock(ConnectionFactory.class, withSettings().extraInterfaces(Disposable.class));
+        doReturn(true).when((Disposable) delegate).isDisposed();
+
+        InstrumentedConnectionFactory factory = new InstrumentedConnectionFactory(delegate, timer);
+        factory.dispose();
+
+        verify((Disposable) delegate).dispose();
+        assertTrue(factory.isDisposed());
+    }
+
+    /**
+     * Should ignore the disposal of a delegate that cannot be disposed.
+     */
+    @Test
+    void dispose_ignoresOtherDelegates() {
+        InstrumentedConnectionFactory factory = new InstrumentedConnectionFactory(mock(ConnectionFactory.class), timer);
+
+        factory.dispose();
+
+        assertFalse(factory.isDisposed());
+    }
+}
@@ -0,0 +1,121 @@
+package com.seti.technical_test.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link LatencyInvocationHandler}.
+ */
+class LatencyInvocationHandlerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final Timer timer = registry.timer("latency");
+
+    private final Port target = mock(Port.class);
+
+    /**
+     * Should record a {@link Mono} when it completes, not when the method
+     * returns it.
+     */
+    @Test
+    void invoke_timesMonoOnCompletion() throws Exception {
+        Sinks.One<String> result = Sinks.one();
+        when(target.find(1L)).thenReturn(result.asMono());
+
+        Mono<String> found = proxy(timer, Port.class.getMethod("find", Long.class)).find(1L);
+        assertEquals(0, timer.count());
+
+        StepVerifier.create(found)
+                .then(() -> {
+                    assertEquals(0, timer.count());
+                    result.tryEmitValue("found");
+                })
+                .expectNext("found")
+                .verifyComplete();
+
+        assertEquals(1, timer.count());
+    }
+
+    /**
+     * Should record a {@link Flux} on every subscription, including the
+     * ones that end in error.
+     */
+    @Test
+    void invoke_timesFluxOnEverySubscription() throws Exception {
+        when(target.list()).thenReturn(Flux.just(1, 2), Flux.error(new IllegalStateException("boom")));
+        Port proxy = proxy(timer, Port.class.getMethod("list"));
+
+        StepVerifier.create(proxy.list())
+                .expectNext(1, 2)
+                .verifyComplete();
+        StepVerifier.create(proxy.list())
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertEquals(2, timer.count());
+    }
+
+    /**
+     * Should rethrow the exception of the target instead of the reflection
+     * wrapper.
+     */
+    @Test
+    void invoke_unwrapsInvocationTargetException() throws Exception {
+        when(target.find(1L)).thenThrow(new IllegalArgumentException("bad id"));
+        Port proxy = proxy(timer, Port.class.getMethod("find", Long.class));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> proxy.find(1L));
+
+        assertEquals("bad id", error.getMessage());
+        assertEquals(0, timer.count());
+    }
+
+    /**
+     * Should pass through the methods without a timer and non-reactive
+     * results unchanged.
+     */
+    @Test
+    void invoke_passesThroughUntimedMethods() throws Exception {
+        Mono<String> untimed = Mono.just("untimed");
+        when(target.find(2L)).thenReturn(untimed);
+        when(target.name()).thenReturn("port");
+
+        Port proxy = proxy(timer, Port.class.getMethod("name"));
+
+        assertSame(untimed, proxy.find(2L));
+        assertEquals("port", proxy.name());
+        verify(target).name();
+        assertEquals(0, timer.count());
+    }
+
+    private Port proxy(Timer timer, Method method) {
+        return (Port) Proxy.newProxyInstance(Port.class.getClassLoader(), new Class<?>[]{Port.class},
+                new LatencyInvocationHandler(target, Map.of(method, timer)));
+    }
+
+    interface Port {
+
+        Mono<String> find(Long id);
+
+        Flux<Integer> list();
+
+        String name();
+    }
+}
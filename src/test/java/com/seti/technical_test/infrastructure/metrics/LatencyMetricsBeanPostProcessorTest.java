@@ -0,0 +1,127 @@
+package com.seti.technical_test.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link LatencyMetricsBeanPostProcessor}.
+ */
+class LatencyMetricsBeanPostProcessorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ObjectProvider<MeterRegistry> meterRegistry = registryProvider();
+
+    private LatencyMetricsBeanPostProcessor postProcessor;
+
+    @BeforeEach
+    void setUp() {
+        when(meterRegistry.getIfAvailable()).thenReturn(registry);
+        postProcessor = new LatencyMetricsBeanPostProcessor(meterRegistry, "app.latency", List.of(Port.class));
+    }
+
+    /**
+     * Should proxy a monitored bean behind all its interfaces and time
+     * each call of the monitored methods.
+     */
+    @Test
+    void postProcess_proxiesMonitoredBeans() {
+        Object processed = postProcessor.postProcessAfterInitialization(new Adapter(), "adapter");
+
+        assertTrue(Proxy.isProxyClass(processed.getClass()));
+        assertInstanceOf(Lifecycle.class, processed);
+        Port port = assertInstanceOf(Port.class, processed);
+
+        StepVerifier.create(port.find(3L))
+                .expectNext("product-3")
+                .verifyComplete();
+        assertEquals("adapter", ((Lifecycle) processed).name());
+
+        Timer timer = registry.find("app.latency").tag("interface", "Port").tag("method", "find").timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        assertNull(registry.find("app.latency").tag("method", "name").timer());
+    }
+
+    /**
+     * Should register the timers when the bean is proxied, before any
+     * call.
+     */
+    @Test
+    void postProcess_registersTimersUpFront() {
+        postProcessor.postProcessAfterInitialization(new Adapter(), "adapter");
+
+        Timer timer = registry.find("app.latency").tag("interface", "Port").tag("method", "find").timer();
+        assertNotNull(timer);
+        assertEquals(0, timer.count());
+    }
+
+    /**
+     * Should return the beans not implementing a monitored interface
+     * unchanged.
+     */
+    @Test
+    void postProcess_leavesOtherBeansUnchanged() {
+        Lifecycle bean = () -> "other";
+
+        assertSame(bean, postProcessor.postProcessAfterInitialization(bean, "other"));
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    /**
+     * Should return the bean unchanged when no meter registry is available.
+     */
+    @Test
+    void postProcess_withoutRegistry_leavesTheBeanUnchanged() {
+        when(meterRegistry.getIfAvailable()).thenReturn(null);
+        Adapter bean = new Adapter();
+
+        assertSame(bean, postProcessor.postProcessAfterInitialization(bean, "adapter"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<MeterRegistry> registryProvider() {
+        return mock(ObjectProvider.class);
+    }
+
+    interface Port {
+
+        Mono<String> find(Long id);
+    }
+
+    interface Lifecycle {
+
+        String name();
+    }
+
+    static class Adapter implements Port, Lifecycle {
+
+        @Override
+        public Mono<String> find(Long id) {
+            return Mono.just("product-" + id);
+        }
+
+        @Override
+        public String name() {
+            return "adapter";
+        }
+    }
+}
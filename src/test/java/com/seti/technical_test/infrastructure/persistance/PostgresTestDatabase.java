@@ -0,0 +1,160 @@
+package com.seti.technical_test.infrastructure.persistance;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.flywaydb.core.Flyway;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Fresh, migrated PostgreSQL database for the adapter tests.
+ *
+ * <p>
+ * A single container is started for the whole test run, and every
+ * instance creates its own database in it, so tests never see each
+ * other's rows. Tests using it are skipped when Docker is not available.
+ * </p>
+ */
+public final class PostgresTestDatabase implements AutoCloseable {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static PostgreSQLContainer container;
+
+    private final String jdbcUrl;
+
+    private final ConnectionPool connectionFactory;
+
+    private PostgresTestDatabase(String jdbcUrl, ConnectionPool connectionFactory) {
+        this.jdbcUrl = jdbcUrl;
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Creates a database with the default migration placeholders.
+     *
+     * @return the migrated database
+     */
+    public static PostgresTestDatabase create() {
+        return create(Map.of());
+    }
+
+    /**
+     * Creates a database, overriding some migration placeholders.
+     *
+     * @param placeholders the placeholders to override
+     * @return the migrated database
+     */
+    public static PostgresTestDatabase create(Map<String, String> placeholders) {
+        PostgreSQLContainer postgres = container();
+        String name = "test_" + DATABASES.incrementAndGet();
+
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + name);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+
+        String jdbcUrl = "jdbc:postgresql://%s:%d/%s".formatted(postgres.getHost(),
+                postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT), name);
+        Map<String, String> values = new HashMap<>(Map.of(
+                "shard_count", "1",
+                "shard_index", "0",
+                "product_partitions", "4",
+                "id_block_size", "50",
+                "low_stock_threshold", "10"));
+        values.putAll(placeholders);
+
+        Flyway.configure()
+                .dataSource(jdbcUrl, postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .placeholders(values)
+                .load()
+                .migrate();
+
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.builder()
+                .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+                .option(ConnectionFactoryOptions.HOST, postgres.getHost())
+                .option(ConnectionFactoryOptions.PORT, postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT))
+                .option(ConnectionFactoryOptions.DATABASE, name)
+                .option(ConnectionFactoryOptions.USER, postgres.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, postgres.getPassword())
+                .build());
+
+        return new PostgresTestDatabase(jdbcUrl, new ConnectionPool(ConnectionPoolConfiguration
+                .builder(connectionFactory)
+                .maxSize(8)
+                .build()));
+    }
+
+    /**
+     * Reactive connection factory of the database.
+     *
+     * @return the pooled connection factory
+     */
+    public ConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    /**
+     * Client over the reactive connection factory.
+     *
+     * @return the database client
+     */
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    /**
+     * Transactional operator over the reactive connection factory.
+     *
+     * @return the transactional operator
+     */
+    public TransactionalOperator transactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    /**
+     * Opens a blocking connection, to hold a transaction open while the
+     * code under test runs.
+     *
+     * @return a new connection, in auto-commit mode
+     * @throws SQLException if the connection fails
+     */
+    public Connection jdbc() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl, container.getUsername(), container.getPassword());
+    }
+
+    @Override
+    public void close() {
+        connectionFactory.dispose();
+    }
+
+    private static synchronized PostgreSQLContainer container() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+
+        if (container == null) {
+            container = new PostgreSQLContainer("postgres:17");
+            container.start();
+        }
+        return container;
+    }
+}
@@ -0,0 +1,154 @@
+package com.seti.technical_test.infrastructure.persistance.adapter;
+
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import com.seti.technical_test.infrastructure.config.OutboxProperties;
+import com.seti.technical_test.infrastructure.persistance.PostgresTestDatabase;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link ChangeEventRepositoryAdapter} against a real database.
+ */
+class ChangeEventRepositoryAdapterTest {
+
+    private PostgresTestDatabase database;
+
+    private ChangeEventRepositoryAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        database = PostgresTestDatabase.create();
+        adapter = new ChangeEventRepositoryAdapter(database.databaseClient(), new ShardResolver(1),
+                new OutboxProperties(Duration.ofMillis(50), 10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    /**
+     * Should relay an event whose transaction commits after a transaction
+     * holding a higher identifier, and in transaction order.
+     */
+    @Test
+    void streamAfter_relaysTransactionsCommittedOutOfIdOrder() throws SQLException {
+        try (Connection slow = database.jdbc(); Connection fast = database.jdbc()) {
+            slow.setAutoCommit(false);
+            long first = insertEvent(slow, 1L);
+            long second = insertEvent(fast, 2L);
+            assertTrue(first < second);
+
+            StepVerifier.create(adapter.streamAfter(Map.of(0, ChangeEventPosition.START)))
+                    .expectSubscription()
+                    .expectNoEvent(Duration.ofMillis(500))
+                    .then(() -> commit(slow))
+                    .assertNext(event -> assertEquals(first, event.id()))
+                    .assertNext(event -> assertEquals(second, event.id()))
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(10));
+        }
+    }
+
+    /**
+     * Should resume a stream after the acknowledged position, which never
+     * moves backwards.
+     */
+    @Test
+    void saveOffset_resumesAfterTheAcknowledgedPosition() throws SQLException {
+        try (Connection connection = database.jdbc()) {
+            insertEvent(connection, 1L);
+            long second = insertEvent(connection, 2L);
+
+            ChangeEventPosition acknowledged = adapter.streamAfter(Map.of(0, ChangeEventPosition.START))
+                    .next()
+                    .block(Duration.ofSeconds(10))
+                    .position();
+
+            StepVerifier.create(adapter.saveOffset("search", 0, acknowledged)
+                            .then(adapter.saveOffset("search", 0, ChangeEventPosition.START))
+                            .then(adapter.findOffsets("search")))
+                    .assertNext(offsets -> assertEquals(acknowledged, offsets.get(0)))
+                    .verifyComplete();
+
+            StepVerifier.create(adapter.streamAfter(Map.of(0, acknowledged)))
+                    .assertNext(event -> assertEquals(second, event.id()))
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(10));
+        }
+    }
+
+    /**
+     * Should start a consumer that never acknowledged at the beginning.
+     */
+    @Test
+    void findOffsets_defaultsToTheStart() {
+        StepVerifier.create(adapter.findOffsets("new-consumer"))
+                .assertNext(offsets -> assertEquals(Map.of(0, ChangeEventPosition.START), offsets))
+                .verifyComplete();
+    }
+
+    /**
+     * Should return the latest event of every aggregate of the franchise
+     * recorded at or after the version, with its position.
+     */
+    @Test
+    void findByFranchiseSince_returnsTheLatestEventOfEachAggregate() throws SQLException {
+        try (Connection connection = database.jdbc()) {
+            insertEvent(connection, 1L, 7L);
+            long version = adapter.findVersion(7L).block(Duration.ofSeconds(10));
+            insertEvent(connection, 2L, 7L);
+            long latest = insertEvent(connection, 2L, 7L);
+            long other = insertEvent(connection, 3L, 7L);
+            insertEvent(connection, 4L, 8L);
+
+            StepVerifier.create(adapter.findByFranchiseSince(7L, version))
+                    .assertNext(event -> {
+                        assertEquals(latest, event.id());
+                        assertEquals(2L, event.aggregateId());
+                        assertTrue(event.position().txid() >= version);
+                    })
+                    .assertNext(event -> assertEquals(other, event.id()))
+                    .verifyComplete();
+        }
+    }
+
+    private static long insertEvent(Connection connection, long productId) throws SQLException {
+        return insertEvent(connection, productId, 1L);
+    }
+
+    private static long insertEvent(Connection connection, long productId, long franchiseId) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet inserted = statement.executeQuery("""
+                     INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, franchise_id)
+                     VALUES ('product', %d, 'UPDATED', '{}', %d)
+                     RETURNING id
+                     """.formatted(productId, franchiseId))) {
+            inserted.next();
+            return inserted.getLong("id");
+        }
+    }
+
+    private static void commit(Connection connection) {
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.seti.technical_test.infrastructure.persistance.adapter;
+
+import com.seti.technical_test.domain.model.Office;
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.persistance.analytics.StockRankingIndex;
+import com.seti.technical_test.infrastructure.persistance.cache.TopStockCache;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.entity.OfficeEntity;
+import com.seti.technical_test.infrastructure.persistance.outbox.OutboxRecorder;
+import com.seti.technical_test.infrastructure.persistance.repository.OfficeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the shard routing of {@link OfficeRepositoryAdapter}.
+ */
+class OfficeRepositoryAdapterTest {
+
+    private final OfficeRepository officeRepository = mock(OfficeRepository.class);
+
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+
+    private final OutboxRecorder outboxRecorder = mock(OutboxRecorder.class);
+
+    private OfficeRepositoryAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new OfficeRepositoryAdapter(officeRepository, new ShardResolver(2), transactionalOperator,
+                outboxRecorder, mock(TopStockCache.class), mock(StockRankingIndex.class));
+
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(outboxRecorder.office(any(), any())).thenReturn(Mono.empty());
+    }
+
+    /**
+     * Should save an office on the shard of its franchise.
+     */
+    @Test
+    void save_writesOnTheShardOfTheFranchise() {
+        when(officeRepository.save(any(OfficeEntity.class))).thenReturn(Mono.deferContextual(context ->
+                Mono.just(OfficeEntity.builder()
+                        .id(context.<Integer>get(ShardResolver.KEY) + 1L)
+                        .name("Office")
+                        .franchiseId(2L)
+                        .build())));
+
+        StepVerifier.create(adapter.save(new Office(null, "Office", 2L)))
+                .expectNext(new Office(2L, "Office", 2L))
+                .verifyComplete();
+    }
+
+    /**
+     * Should refuse to move an office to a franchise of another shard,
+     * before writing anything.
+     */
+    @Test
+    void save_rejectsAMoveAcrossShards() {
+        StepVerifier.create(adapter.save(new Office(1L, "Office", 2L)))
+                .expectError(GeneralException.class)
+                .verify();
+
+        verifyNoInteractions(officeRepository, outboxRecorder);
+    }
+}
@@ -0,0 +1,89 @@
+package com.seti.technical_test.infrastructure.persistance.adapter;
+
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.infrastructure.persistance.analytics.StockRankingIndex;
+import com.seti.technical_test.infrastructure.persistance.cache.TopStockCache;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import com.seti.technical_test.infrastructure.persistance.id.HiLoIdAllocator;
+import com.seti.technical_test.infrastructure.persistance.outbox.OutboxRecorder;
+import com.seti.technical_test.infrastructure.persistance.repository.OfficeRepository;
+import com.seti.technical_test.infrastructure.persistance.repository.ProductRepository;
+import com.seti.technical_test.infrastructure.persistance.search.ProductNameIndex;
+import com.seti.technical_test.infrastructure.persistance.writebehind.StockWriteBehindBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the stock adjustments of {@link ProductRepositoryAdapter}
+ * through the write-behind buffer.
+ */
+class ProductRepositoryAdapterTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private final StockWriteBehindBuffer buffer = mock(StockWriteBehindBuffer.class);
+
+    private final TopStockCache topStockCache = mock(TopStockCache.class);
+
+    private final StockRankingIndex stockRankingIndex = mock(StockRankingIndex.class);
+
+    private final OutboxRecorder outboxRecorder = mock(OutboxRecorder.class);
+
+    private ProductRepositoryAdapter adapter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<StockWriteBehindBuffer> bufferProvider = mock(ObjectProvider.class);
+        when(bufferProvider.getIfAvailable()).thenReturn(buffer);
+
+        adapter = new ProductRepositoryAdapter(productRepository, new ShardResolver(1), mock(DatabaseClient.class),
+                mock(HiLoIdAllocator.class), bufferProvider, mock(TransactionalOperator.class), outboxRecorder,
+                mock(OfficeRepository.class), topStockCache, mock(ProductNameIndex.class), stockRankingIndex);
+
+        when(productRepository.findById(1L)).thenReturn(Mono.empty());
+    }
+
+    /**
+     * Should invalidate the cached ranking of the office once a buffered
+     * adjustment completes.
+     */
+    @Test
+    void adjustStock_buffered_invalidatesTheOfficeRanking() {
+        when(buffer.update(eq(1L), eq(3L), any(), any())).thenReturn(Mono.just(15));
+
+        StepVerifier.create(adapter.adjustStock(new Product(1L, "Product", 10, 3L), 5))
+                .expectNext(new Product(1L, "Product", 15, 3L))
+                .verifyComplete();
+
+        verify(stockRankingIndex).put(new Product(1L, "Product", 15, 3L));
+        verify(topStockCache).invalidateOffice(3L);
+        verifyNoInteractions(outboxRecorder);
+    }
+
+    /**
+     * Should invalidate the cached ranking of the office even when the
+     * buffer refuses an adjustment that would make the stock negative.
+     */
+    @Test
+    void adjustStock_bufferedRefusal_invalidatesTheOfficeRanking() {
+        when(buffer.update(eq(1L), eq(3L), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(adapter.adjustStock(new Product(1L, "Product", 10, 3L), -20))
+                .verifyComplete();
+
+        verify(topStockCache).invalidateOffice(3L);
+    }
+}
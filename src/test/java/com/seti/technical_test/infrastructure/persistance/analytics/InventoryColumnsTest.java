@@ -0,0 +1,57 @@
+package com.seti.technical_test.infrastructure.persistance.analytics;
+
+import com.seti.technical_test.domain.model.FranchiseStockTotal;
+import com.seti.technical_test.domain.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link InventoryColumns}.
+ */
+class InventoryColumnsTest {
+
+    /**
+     * Should count the products of an office in the franchise it was moved
+     * to, including the products added before its franchise was known.
+     */
+    @Test
+    void putOffice_movesTheProductsOfTheOffice() {
+        InventoryColumns columns = new InventoryColumns(4, 4);
+        columns.putProduct(1L, "RICE", 5, 10L);
+        columns.putOffice(10L, 100L);
+        columns.putOffice(20L, 100L);
+        columns.putProduct(2L, "BEANS", 0, 20L);
+        columns.putProduct(3L, "SALT", 7, 20L);
+
+        columns.putOffice(20L, 200L);
+
+        assertEquals(List.of(new FranchiseStockTotal(200L, 7L, 2L), new FranchiseStockTotal(100L, 5L, 1L)),
+                columns.totalStockByFranchise());
+        assertEquals(List.of(new Product(2L, "BEANS", 0, 20L)), columns.findOutOfStock(200L, 10));
+        assertEquals(List.of(), columns.findOutOfStock(100L, 10));
+    }
+
+    /**
+     * Should leave deleted products out of the totals and the scans, and
+     * count them again once saved back.
+     */
+    @Test
+    void removeProduct_leavesTheProductOut() {
+        InventoryColumns columns = new InventoryColumns(4, 4);
+        columns.putOffice(10L, 100L);
+        columns.putProduct(1L, "RICE", 0, 10L);
+        columns.putProduct(2L, "BEANS", 4, 10L);
+
+        columns.removeProduct(1L);
+
+        assertEquals(1, columns.products());
+        assertEquals(List.of(new FranchiseStockTotal(100L, 4L, 1L)), columns.totalStockByFranchise());
+        assertEquals(List.of(), columns.findOutOfStock(null, 10));
+
+        columns.putProduct(1L, "RICE", 2, 10L);
+        assertEquals(List.of(new FranchiseStockTotal(100L, 6L, 2L)), columns.totalStockByFranchise());
+    }
+}
@@ -0,0 +1,105 @@
+package com.seti.technical_test.infrastructure.persistance.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link LongIntMap}.
+ */
+class LongIntMapTest {
+
+    /**
+     * Should store, replace and remove values.
+     */
+    @Test
+    void putGetRemove() {
+        LongIntMap map = new LongIntMap(8);
+
+        map.put(1L, 10);
+        map.put(2L, 20);
+        map.put(1L, 11);
+
+        assertEquals(11, map.get(1L));
+        assertEquals(20, map.get(2L));
+        assertEquals(-1, map.get(3L));
+        assertEquals(2, map.size());
+
+        assertEquals(11, map.remove(1L));
+        assertEquals(-1, map.remove(1L));
+        assertEquals(-1, map.get(1L));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Should reject identifiers that are not positive, as zero marks a
+     * free slot.
+     */
+    @Test
+    void put_rejectsNonPositiveKeys() {
+        LongIntMap map = new LongIntMap(8);
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, 1));
+        assertEquals(-1, map.get(0L));
+        assertEquals(-1, map.remove(0L));
+    }
+
+    /**
+     * Should keep every entry of a probe chain reachable after a removal
+     * in the middle of it, including chains that wrap around the table.
+     */
+    @Test
+    void remove_shiftsTheFollowingEntriesBack() {
+        LongIntMap map = new LongIntMap(8);
+        Map<Long, Integer> reference = new HashMap<>();
+
+        // a table of 16 slots holding up to 8 keys: long probe chains
+        for (long key = 1; key <= 8; key++) {
+            map.put(key, (int) key);
+            reference.put(key, (int) key);
+        }
+
+        for (long key = 1; key <= 8; key += 2) {
+            assertEquals((int) key, map.remove(key));
+            reference.remove(key);
+
+            for (Map.Entry<Long, Integer> entry : reference.entrySet()) {
+                assertEquals(entry.getValue(), map.get(entry.getKey()));
+            }
+        }
+        assertEquals(reference.size(), map.size());
+    }
+
+    /**
+     * Should agree with a {@link HashMap} after random puts and removals,
+     * across resizes.
+     */
+    @Test
+    void randomOperations_matchAHashMap() {
+        Random random = new Random(7);
+        LongIntMap map = new LongIntMap(8);
+        Map<Long, Integer> reference = new HashMap<>();
+
+        for (int operation = 0; operation < 100_000; operation++) {
+            long key = 1 + random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                int value = random.nextInt(1_000);
+                map.put(key, value);
+                reference.put(key, value);
+            } else {
+                assertEquals(reference.getOrDefault(key, -1), map.remove(key));
+                reference.remove(key);
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        for (long key = 1; key <= 2_000; key++) {
+            assertEquals(reference.getOrDefault(key, -1), map.get(key));
+        }
+    }
+}
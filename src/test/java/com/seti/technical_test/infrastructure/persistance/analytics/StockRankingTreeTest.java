@@ -0,0 +1,175 @@
+package com.seti.technical_test.infrastructure.persistance.analytics;
+
+import com.seti.technical_test.domain.model.Product;
+import com.seti.technical_test.domain.model.ProductRank;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for {@link StockRankingTree}.
+ */
+class StockRankingTreeTest {
+
+    private static final Comparator<Product> RANKING = Comparator.comparing(Product::stock).reversed()
+            .thenComparing(Product::id);
+
+    private final StockRankingTree tree = new StockRankingTree(0);
+
+    /**
+     * Should rank the products of an office by descending stock.
+     */
+    @Test
+    void rank_byDescendingStock() {
+        tree.put(1L, "A", 5, 10L);
+        tree.put(2L, "B", 9, 10L);
+        tree.put(3L, "C", 7, 10L);
+
+        assertEquals(new ProductRank(2L, 10L, 9, 1L, 3L), tree.rank(2L));
+        assertEquals(new ProductRank(3L, 10L, 7, 2L, 3L), tree.rank(3L));
+        assertEquals(new ProductRank(1L, 10L, 5, 3L, 3L), tree.rank(1L));
+        assertNull(tree.rank(4L));
+    }
+
+    /**
+     * Should order products with the same stock by id.
+     */
+    @Test
+    void rank_duplicateStocksOrderedById() {
+        tree.put(3L, "C", 5, 10L);
+        tree.put(1L, "A", 5, 10L);
+        tree.put(2L, "B", 5, 10L);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(tree.top(10L, 10)));
+        assertEquals(1L, tree.rank(1L).rank());
+        assertEquals(3L, tree.rank(3L).rank());
+    }
+
+    /**
+     * Should select the first k products of an office and the products of
+     * a stock range.
+     */
+    @Test
+    void select_topAndRange() {
+        for (long id = 1; id <= 10; id++) {
+            tree.put(id, "P" + id, (int) (id * 10), 10L);
+        }
+
+        assertEquals(List.of(10L, 9L, 8L), ids(tree.top(10L, 3)));
+        assertEquals(List.of(7L, 6L, 5L), ids(tree.between(10L, 50, 75, 10)));
+        assertEquals(List.of(7L, 6L), ids(tree.between(10L, 50, 75, 2)));
+        assertEquals(List.of(), tree.between(10L, 200, 300, 10));
+        assertEquals(List.of(), tree.top(99L, 3));
+    }
+
+    /**
+     * Should list the top products of every office of a franchise, and
+     * follow an office moved to another franchise.
+     */
+    @Test
+    void topByFranchise_followsOffices() {
+        tree.putOffice(10L, 1L);
+        tree.putOffice(20L, 1L);
+        tree.put(1L, "A", 5, 10L);
+        tree.put(2L, "B", 9, 10L);
+        tree.put(3L, "C", 7, 20L);
+
+        assertEquals(List.of(2L, 3L), ids(tree.topByFranchise(1L, 1)));
+
+        tree.putOffice(20L, 2L);
+
+        assertEquals(List.of(2L, 1L), ids(tree.topByFranchise(1L, 5)));
+        assertEquals(List.of(3L), ids(tree.topByFranchise(2L, 5)));
+    }
+
+    /**
+     * Should move a product to its new stock and office, and keep the
+     * ranks of the others.
+     */
+    @Test
+    void put_movesAnExistingProduct() {
+        tree.put(1L, "A", 5, 10L);
+        tree.put(2L, "B", 9, 10L);
+
+        tree.put(1L, "A2", 12, 10L);
+        assertEquals(List.of(1L, 2L), ids(tree.top(10L, 5)));
+        assertEquals("A2", tree.top(10L, 1).getFirst().name());
+
+        tree.put(1L, "A2", 12, 20L);
+        assertEquals(new ProductRank(2L, 10L, 9, 1L, 1L), tree.rank(2L));
+        assertEquals(new ProductRank(1L, 20L, 12, 1L, 1L), tree.rank(1L));
+        assertEquals(2, tree.size());
+    }
+
+    /**
+     * Should remove a product, reuse its node and ignore unknown ones.
+     */
+    @Test
+    void remove_updatesRanksAndReusesNodes() {
+        tree.put(1L, "A", 5, 10L);
+        tree.put(2L, "B", 9, 10L);
+        tree.put(3L, "C", 7, 10L);
+
+        tree.remove(3L);
+        tree.remove(42L);
+
+        assertNull(tree.rank(3L));
+        assertEquals(new ProductRank(1L, 10L, 5, 2L, 2L), tree.rank(1L));
+
+        tree.put(4L, "D", 6, 10L);
+        assertEquals(List.of(2L, 4L, 1L), ids(tree.top(10L, 5)));
+        assertEquals(3, tree.size());
+    }
+
+    /**
+     * Should agree with a sorted list after random puts, moves and
+     * removals.
+     */
+    @Test
+    void randomOperations_matchASortedReference() {
+        Random random = new Random(42);
+        Map<Long, Product> reference = new HashMap<>();
+
+        for (int operation = 0; operation < 20_000; operation++) {
+            long id = 1 + random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                tree.remove(id);
+                reference.remove(id);
+            } else {
+                Product product = new Product(id, "P" + id, random.nextInt(50), 1L + random.nextInt(3));
+                tree.put(id, product.name(), product.stock(), product.officeId());
+                reference.put(id, product);
+            }
+        }
+
+        assertEquals(reference.size(), tree.size());
+        for (long office = 1; office <= 3; office++) {
+            long officeId = office;
+            List<Product> expected = new ArrayList<>(reference.values().stream()
+                    .filter(product -> product.officeId() == officeId)
+                    .sorted(RANKING)
+                    .toList());
+
+            assertEquals(expected, tree.top(officeId, Integer.MAX_VALUE));
+            for (int rank = 0; rank < expected.size(); rank++) {
+                Product product = expected.get(rank);
+                assertEquals(new ProductRank(product.id(), officeId, product.stock(), rank + 1L,
+                        (long) expected.size()), tree.rank(product.id()));
+            }
+            assertEquals(expected.stream().filter(product -> product.stock() >= 10 && product.stock() <= 20).toList(),
+                    tree.between(officeId, 10, 20, Integer.MAX_VALUE));
+        }
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::id).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.seti.technical_test.infrastructure.persistance.cache;
+
+import com.seti.technical_test.domain.model.Product;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link TopStockCache}.
+ */
+class TopStockCacheTest {
+
+    private static final long FRANCHISE = 1;
+
+    private static final long OFFICE = 10;
+
+    private final TopStockCache cache = new TopStockCache(true, Duration.ofHours(1), 2);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /**
+     * Should serve a loaded ranking, also for a smaller k, until a product
+     * of one of its offices is written.
+     */
+    @Test
+    void invalidateOffice_dropsTheCachedRanking() {
+        assertEquals(ranking(), get(FRANCHISE, 5));
+        assertEquals(List.of(ranking().getFirst()), get(FRANCHISE, 1));
+        assertEquals(1, loads.get());
+
+        cache.invalidateOffice(OFFICE);
+
+        assertEquals(ranking(), get(FRANCHISE, 5));
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Should not store a ranking whose franchise was invalidated while it
+     * was loading.
+     */
+    @Test
+    void get_skipsTheStoreOfALoadRacingWithAWrite() {
+        Sinks.One<List<Product>> pending = Sinks.one();
+        CompletableFuture<List<Product>> racing = cache.get(FRANCHISE, 5, () -> Flux.just(OFFICE),
+                        () -> pending.asMono().flatMapIterable(products -> products))
+                .collectList()
+                .toFuture();
+
+        cache.invalidateOffice(OFFICE);
+        pending.tryEmitValue(ranking());
+
+        assertEquals(ranking(), racing.join());
+        assertEquals(ranking(), get(FRANCHISE, 5));
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * Should forget the generation and the offices of an invalidated
+     * franchise along with its ranking.
+     */
+    @Test
+    void invalidateFranchise_forgetsTheFranchise() {
+        get(FRANCHISE, 5);
+        assertEquals(1, cache.trackedFranchises());
+
+        cache.invalidateFranchise(OFFICE, FRANCHISE);
+
+        assertEquals(0, cache.trackedFranchises());
+        assertEquals(0, cache.trackedOffices());
+    }
+
+    /**
+     * Should track no more franchises than it caches, and sweep the offices
+     * of the franchises it does not cache, however many are queried.
+     */
+    @Test
+    void get_staysBoundedOverManyFranchises() {
+        for (long franchise = 1; franchise <= 5_000; franchise++) {
+            get(franchise, 5);
+        }
+
+        assertTrue(cache.trackedFranchises() <= 2, "franchises: " + cache.trackedFranchises());
+        assertTrue(cache.trackedOffices() <= 1_024, "offices: " + cache.trackedOffices());
+    }
+
+    private List<Product> get(long franchise, int k) {
+        long office = franchise * OFFICE;
+        return cache.get(franchise, k, () -> Flux.just(office), () -> {
+                    loads.incrementAndGet();
+                    return Flux.fromIterable(ranking(office));
+                })
+                .collectList()
+                .block();
+    }
+
+    private static List<Product> ranking() {
+        return ranking(OFFICE);
+    }
+
+    private static List<Product> ranking(long office) {
+        return List.of(new Product(1L, "RICE", 9, office), new Product(2L, "BEANS", 4, office));
+    }
+}
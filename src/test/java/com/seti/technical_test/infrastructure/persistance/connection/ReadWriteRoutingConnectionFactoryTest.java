@@ -0,0 +1,89 @@
+package com.seti.technical_test.infrastructure.persistance.connection;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ReadWriteRoutingConnectionFactory}.
+ */
+class ReadWriteRoutingConnectionFactoryTest {
+
+    private final Connection primary = mock(Connection.class);
+
+    private final Connection replica = mock(Connection.class);
+
+    private final ReplicaHealthMonitor healthMonitor = mock(ReplicaHealthMonitor.class);
+
+    private final ReadWriteRoutingConnectionFactory routing = new ReadWriteRoutingConnectionFactory(healthMonitor);
+
+    ReadWriteRoutingConnectionFactoryTest() {
+        routing.setTargetConnectionFactories(Map.of(
+                ReadWriteRoutingConnectionFactory.PRIMARY, new Target(primary),
+                "replica-0", new Target(replica)));
+        routing.setDefaultTargetConnectionFactory(new Target(primary));
+        routing.afterPropertiesSet();
+        when(healthMonitor.nextHealthyReplica()).thenReturn("replica-0");
+    }
+
+    /**
+     * Should send read-only operations to a healthy replica and the others
+     * to the primary.
+     */
+    @Test
+    void create_routesReadsToTheReplicaAndWritesToThePrimary() {
+        assertSame(replica, connection(ReadOnlyRouting.READ_ONLY));
+        assertSame(primary, connection(Context.empty()));
+    }
+
+    /**
+     * Should send the reads of a request to the primary once it has
+     * written.
+     */
+    @Test
+    void create_routesReadsAfterAWriteToThePrimary() {
+        ReadOnlyRouting.State state = new ReadOnlyRouting.State(false);
+
+        assertSame(replica, connection(ReadOnlyRouting.READ_ONLY.put(ReadOnlyRouting.State.class, state)));
+        assertSame(primary, connection(Context.of(ReadOnlyRouting.State.class, state)));
+        assertTrue(state.hasWritten());
+        assertSame(primary, connection(ReadOnlyRouting.READ_ONLY.put(ReadOnlyRouting.State.class, state)));
+    }
+
+    /**
+     * Should send reads to the primary when no replica is healthy.
+     */
+    @Test
+    void create_routesReadsToThePrimaryWithoutHealthyReplica() {
+        when(healthMonitor.nextHealthyReplica()).thenReturn(null);
+
+        assertSame(primary, connection(ReadOnlyRouting.READ_ONLY));
+    }
+
+    private Connection connection(Context context) {
+        return Mono.from(routing.create()).contextWrite(context).block();
+    }
+
+    private record Target(Connection connection) implements ConnectionFactory {
+
+        @Override
+        public Mono<Connection> create() {
+            return Mono.just(connection);
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return () -> "test";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.seti.technical_test.infrastructure.persistance.connection;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link ShardResolver}.
+ */
+class ShardResolverTest {
+
+    private final ShardResolver resolver = new ShardResolver(3);
+
+    /**
+     * Should derive the shard from the interleaved identifiers.
+     */
+    @Test
+    void shardOf_followsTheSequenceInterleaving() {
+        assertEquals(List.of(0, 1, 2, 0, 1, 2), List.of(1L, 2L, 3L, 4L, 5L, 6L).stream()
+                .map(resolver::shardOf)
+                .toList());
+    }
+
+    /**
+     * Should tell apart the saves that keep a record on its shard from the
+     * ones that would move it to another shard.
+     */
+    @Test
+    void movesAcrossShards_onlyForExistingRecordsOfAnotherShard() {
+        assertFalse(resolver.movesAcrossShards(null, 2L));
+        assertFalse(resolver.movesAcrossShards(4L, 7L));
+        assertTrue(resolver.movesAcrossShards(4L, 2L));
+        assertFalse(new ShardResolver(1).movesAcrossShards(4L, 2L));
+    }
+
+    /**
+     * Should carry the shard in the context of a scoped operation, and
+     * once per shard in the operations run on every shard.
+     */
+    @Test
+    void onShard_setsTheShardInTheContext() {
+        assertEquals(2, resolver.onShard(2, shard()).block());
+        assertEquals(List.of(0, 1, 2), resolver.onEveryShard(this::shard).sort().collectList().block());
+    }
+
+    /**
+     * Should leave the context untouched with a single shard.
+     */
+    @Test
+    void onShard_isANoOpWithASingleShard() {
+        assertEquals(-1, new ShardResolver(1).onShard(0, shard()).block());
+    }
+
+    private Mono<Integer> shard() {
+        return Mono.deferContextual(context -> Mono.just(context.<Integer>getOrDefault(ShardResolver.KEY, -1)));
+    }
+}
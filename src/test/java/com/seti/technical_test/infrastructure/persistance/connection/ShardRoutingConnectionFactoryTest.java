@@ -0,0 +1,63 @@
+package com.seti.technical_test.infrastructure.persistance.connection;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link ShardRoutingConnectionFactory}.
+ */
+class ShardRoutingConnectionFactoryTest {
+
+    private final Connection first = mock(Connection.class);
+
+    private final Connection second = mock(Connection.class);
+
+    private final ShardRoutingConnectionFactory routing = new ShardRoutingConnectionFactory();
+
+    ShardRoutingConnectionFactoryTest() {
+        routing.setTargetConnectionFactories(Map.of(0, new Target(first), 1, new Target(second)));
+        routing.setDefaultTargetConnectionFactory(new Target(first));
+        routing.afterPropertiesSet();
+    }
+
+    /**
+     * Should open the connection on the shard set by the resolver.
+     */
+    @Test
+    void create_routesToTheShardOfTheContext() {
+        ShardResolver resolver = new ShardResolver(2);
+
+        assertSame(second, resolver.onShard(1, Mono.from(routing.create())).block());
+        assertSame(first, resolver.onShard(0, Mono.from(routing.create())).block());
+    }
+
+    /**
+     * Should open the connection on the default shard without a shard in
+     * the context.
+     */
+    @Test
+    void create_routesToTheDefaultShardWithoutContext() {
+        assertSame(first, Mono.from(routing.create()).block());
+    }
+
+    private record Target(Connection connection) implements ConnectionFactory {
+
+        @Override
+        public Mono<Connection> create() {
+            return Mono.just(connection);
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return () -> "test";
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.seti.technical_test.infrastructure.persistance.dataset;
+
+import com.seti.technical_test.infrastructure.persistance.PostgresTestDatabase;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of a {@link DatasetExporter} export imported back by
+ * {@link DatasetImporter}, against real databases.
+ */
+class DatasetImporterTest {
+
+    private static final String ROWS = """
+            SELECT 'franchise' AS t, id, name, NULL::BIGINT AS parent, NULL::INTEGER AS stock FROM franchise
+            UNION ALL SELECT 'office', id, name, franchise_id, NULL FROM office
+            UNION ALL SELECT 'product', id, name, office_id, stock FROM product
+            ORDER BY 1, 2
+            """;
+
+    private static final String INDEXES = """
+            SELECT c.relname AS table_name, i.indexrelid::regclass::text AS index_name, i.indisvalid AS valid
+            FROM pg_index i
+            JOIN pg_class c ON c.oid = i.indrelid
+            WHERE c.relname IN ('franchise', 'office') OR c.relname LIKE 'product%'
+            ORDER BY 1, 2
+            """;
+
+    @TempDir
+    private Path directory;
+
+    private PostgresTestDatabase source;
+
+    private PostgresTestDatabase target;
+
+    @BeforeEach
+    void setUp() {
+        source = PostgresTestDatabase.create();
+        target = PostgresTestDatabase.create();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (PostgresTestDatabase database : new PostgresTestDatabase[]{source, target}) {
+            if (database != null) {
+                database.close();
+            }
+        }
+    }
+
+    /**
+     * Should import every exported row, rebuild every index of the
+     * partitioned product table valid on each partition, and move the
+     * sequences past the imported rows.
+     */
+    @Test
+    void importFile_roundTrip() throws SQLException {
+        seed(source, 3, 4, 25);
+        Path file = directory.resolve("dataset.bin");
+
+        DatasetReport exported = new DatasetExporter(source.databaseClient(), new ShardResolver(1),
+                source.transactionalOperator(), 40).export(file).block(Duration.ofSeconds(30));
+        DatasetReport imported = new DatasetImporter(target.databaseClient(), new ShardResolver(1), 2)
+                .importFile(file).block(Duration.ofSeconds(30));
+
+        assertEquals(3 + 12 + 300, exported.rows());
+        assertEquals(exported.rows(), imported.rows());
+        assertEquals(query(source, ROWS), query(target, ROWS));
+        assertEquals(query(source, INDEXES), query(target, INDEXES));
+
+        try (Connection connection = target.jdbc(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO franchise (name) VALUES ('New')");
+            statement.execute("INSERT INTO office (name, franchise_id) VALUES ('New', 1)");
+        }
+    }
+
+    /**
+     * Should refuse to import into a database that already has a catalog.
+     */
+    @Test
+    void importFile_rejectsAPopulatedDatabase() throws SQLException {
+        seed(source, 1, 1, 1);
+        seed(target, 1, 1, 1);
+        Path file = directory.resolve("dataset.bin");
+        new DatasetExporter(source.databaseClient(), new ShardResolver(1), source.transactionalOperator(), 40)
+                .export(file).block(Duration.ofSeconds(30));
+
+        DatasetImporter importer = new DatasetImporter(target.databaseClient(), new ShardResolver(1), 2);
+        assertThrows(IllegalStateException.class, () -> importer.importFile(file).block(Duration.ofSeconds(30)));
+    }
+
+    /**
+     * Should exit with 0 after a successful command and 1 after a failed
+     * one, without stopping the JVM.
+     */
+    @Test
+    void datasetCommand_returnsTheExitCode() throws SQLException {
+        seed(source, 1, 1, 1);
+        Path file = directory.resolve("dataset.bin");
+        DatasetExporter exporter = new DatasetExporter(source.databaseClient(), new ShardResolver(1),
+                source.transactionalOperator(), 40);
+        DatasetImporter importer = new DatasetImporter(target.databaseClient(), new ShardResolver(1), 2);
+
+        assertEquals(0, new DatasetCommand(exporter, importer, true, file).execute());
+        assertEquals(0, new DatasetCommand(exporter, importer, false, file).execute());
+        assertEquals(1, new DatasetCommand(exporter, importer, false, file).execute());
+    }
+
+    private static void seed(PostgresTestDatabase database, int franchises, int officesPerFranchise,
+                             int productsPerOffice) throws SQLException {
+        try (Connection connection = database.jdbc(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO franchise (name)
+                    SELECT 'Franchise ' || f FROM generate_series(1, %d) f
+                    """.formatted(franchises));
+            statement.execute("""
+                    INSERT INTO office (name, franchise_id)
+                    SELECT 'Office ' || f.id || '-' || o, f.id
+                    FROM franchise f, generate_series(1, %d) o
+                    """.formatted(officesPerFranchise));
+            statement.execute("""
+                    INSERT INTO product (name, stock, office_id)
+                    SELECT 'PRODUCT ' || o.id || '-' || p, p * 3 %% 17, o.id
+                    FROM office o, generate_series(1, %d) p
+                    """.formatted(productsPerOffice));
+        }
+    }
+
+    private static List<List<Object>> query(PostgresTestDatabase database, String sql) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (Connection connection = database.jdbc();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            int columns = result.getMetaData().getColumnCount();
+            while (result.next()) {
+                List<Object> row = new ArrayList<>();
+                for (int column = 1; column <= columns; column++) {
+                    row.add(result.getObject(column));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
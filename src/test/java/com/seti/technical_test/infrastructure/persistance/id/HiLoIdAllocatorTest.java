@@ -0,0 +1,114 @@
+package com.seti.technical_test.infrastructure.persistance.id;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link HiLoIdAllocator}.
+ */
+class HiLoIdAllocatorTest {
+
+    /**
+     * Should hand out the identifiers of each block in turn, spaced by the
+     * shard count, reserving a block every block size identifiers.
+     */
+    @Test
+    void nextId_stridesThroughTheBlocks() {
+        AtomicLong sequence = new AtomicLong(2);
+        AtomicInteger reservations = new AtomicInteger();
+        HiLoIdAllocator allocator = new HiLoIdAllocator(2, shard -> Mono.fromSupplier(() -> {
+            reservations.incrementAndGet();
+            return new HiLoIdAllocator.Reservation(sequence.getAndAdd(6), 6);
+        }));
+
+        StepVerifier.create(Flux.range(0, 7).concatMap(i -> allocator.nextId(1)))
+                .expectNext(2L, 4L, 6L, 8L, 10L, 12L, 14L)
+                .verifyComplete();
+        assertEquals(3, reservations.get());
+    }
+
+    /**
+     * Should reserve a single block for all the callers that exhaust the
+     * current one at the same time, and never hand out an identifier twice.
+     */
+    @Test
+    void nextId_sharesTheRefill() {
+        AtomicLong sequence = new AtomicLong(1);
+        AtomicInteger reservations = new AtomicInteger();
+        HiLoIdAllocator allocator = new HiLoIdAllocator(1, shard -> Mono.fromSupplier(() -> {
+                    reservations.incrementAndGet();
+                    return new HiLoIdAllocator.Reservation(sequence.getAndAdd(50), 50);
+                })
+                .subscribeOn(Schedulers.boundedElastic()));
+
+        List<Long> ids = Flux.range(0, 5_000)
+                .flatMap(i -> allocator.nextId(0).subscribeOn(Schedulers.parallel()), 64)
+                .collectList()
+                .block();
+
+        Set<Long> unique = new HashSet<>(ids);
+        assertEquals(5_000, unique.size());
+        assertTrue(unique.stream().allMatch(id -> id >= 1 && id <= 5_000));
+        assertEquals(100, reservations.get());
+    }
+
+    /**
+     * Should fail the callers of a fetch that reserves nothing, and try
+     * again on the next call.
+     */
+    @Test
+    void nextId_failsWhenNothingIsReserved() {
+        AtomicInteger reservations = new AtomicInteger();
+        HiLoIdAllocator allocator = new HiLoIdAllocator(1, shard -> Mono.defer(() ->
+                reservations.incrementAndGet() == 1
+                        ? Mono.empty()
+                        : Mono.just(new HiLoIdAllocator.Reservation(1, 50))));
+
+        StepVerifier.create(allocator.nextId(0))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        StepVerifier.create(allocator.nextId(0))
+                .expectNext(1L)
+                .verifyComplete();
+        assertEquals(2, reservations.get());
+    }
+
+    /**
+     * Should fail every caller waiting on a failed fetch, and start a new
+     * fetch on the next call instead of replaying the error.
+     */
+    @Test
+    void nextId_retriesAfterAFailedFetch() {
+        Sinks.One<HiLoIdAllocator.Reservation> failing = Sinks.one();
+        AtomicInteger reservations = new AtomicInteger();
+        HiLoIdAllocator allocator = new HiLoIdAllocator(1, shard -> reservations.incrementAndGet() == 1
+                ? failing.asMono()
+                : Mono.just(new HiLoIdAllocator.Reservation(51, 50)));
+
+        StepVerifier.create(Mono.zip(allocator.nextId(0), allocator.nextId(0)))
+                .expectSubscription()
+                .then(() -> failing.tryEmitError(new IllegalStateException("connection lost")))
+                .expectErrorMessage("connection lost")
+                .verify();
+        assertEquals(1, reservations.get());
+
+        StepVerifier.create(allocator.nextId(0))
+                .expectNext(51L)
+                .verifyComplete();
+        assertEquals(2, reservations.get());
+    }
+}
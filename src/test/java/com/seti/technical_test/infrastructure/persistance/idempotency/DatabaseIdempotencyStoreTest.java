@@ -0,0 +1,131 @@
+package com.seti.technical_test.infrastructure.persistance.idempotency;
+
+import com.seti.technical_test.infrastructure.persistance.PostgresTestDatabase;
+import com.seti.technical_test.infrastructure.web.IdempotencyStore;
+import com.seti.technical_test.infrastructure.web.IdempotentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Tests of {@link DatabaseIdempotencyStore} against a real database.
+ */
+class DatabaseIdempotencyStoreTest {
+
+    private static final IdempotentResponse CREATED = new IdempotentResponse(201, "application/json",
+            "{\"id\":1}".getBytes());
+
+    private static final String FINGERPRINT = "a".repeat(64);
+
+    private static final String OTHER_FINGERPRINT = "b".repeat(64);
+
+    private PostgresTestDatabase database;
+
+    @BeforeEach
+    void setUp() {
+        database = PostgresTestDatabase.create();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    /**
+     * Should let the first request of a key execute, return its response to
+     * the next ones and refuse a different request with the key.
+     */
+    @Test
+    void claim_replaysTheCompletedResponse() {
+        DatabaseIdempotencyStore store = store(Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+        assertEquals(IdempotencyStore.Claim.ACQUIRED, store.claim("k", FINGERPRINT).block());
+        store.complete("k", FINGERPRINT, CREATED).block();
+
+        IdempotentResponse stored = assertInstanceOf(IdempotencyStore.Claim.Completed.class,
+                store.claim("k", FINGERPRINT).block()).response();
+        assertEquals(201, stored.status());
+        assertEquals("application/json", stored.contentType());
+        assertArrayEquals(CREATED.body(), stored.body());
+        assertEquals(IdempotencyStore.Claim.MISMATCH, store.claim("k", OTHER_FINGERPRINT).block());
+    }
+
+    /**
+     * Should make a request poll a key in flight until it is released, then
+     * execute.
+     */
+    @Test
+    void claim_acquiresAReleasedKey() {
+        DatabaseIdempotencyStore store = store(Duration.ofMinutes(1), Duration.ofSeconds(5));
+        store.claim("k", FINGERPRINT).block();
+
+        StepVerifier.create(store.claim("k", FINGERPRINT))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(200))
+                .then(() -> store.release("k", FINGERPRINT).block())
+                .expectNext(IdempotencyStore.Claim.ACQUIRED)
+                .verifyComplete();
+    }
+
+    /**
+     * Should take over a key whose lock lapsed, as left by an instance that
+     * stopped mid-request, while a different request is still refused.
+     */
+    @Test
+    void claim_takesOverALapsedLock() {
+        DatabaseIdempotencyStore store = store(Duration.ofMillis(300), Duration.ofSeconds(5));
+        store.claim("k", FINGERPRINT).block();
+
+        assertEquals(IdempotencyStore.Claim.MISMATCH, store.claim("k", OTHER_FINGERPRINT).block());
+        StepVerifier.create(store.claim("k", FINGERPRINT))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .expectNext(IdempotencyStore.Claim.ACQUIRED)
+                .verifyComplete();
+
+        store.complete("k", FINGERPRINT, CREATED).block();
+        assertInstanceOf(IdempotencyStore.Claim.Completed.class, store.claim("k", FINGERPRINT).block());
+    }
+
+    /**
+     * Should answer a request as in progress when the key is still in flight
+     * after the wait timeout.
+     */
+    @Test
+    void claim_timesOutWhileInFlight() {
+        DatabaseIdempotencyStore store = store(Duration.ofMinutes(1), Duration.ofMillis(300));
+        store.claim("k", FINGERPRINT).block();
+
+        assertEquals(IdempotencyStore.Claim.IN_PROGRESS, store.claim("k", FINGERPRINT).block());
+    }
+
+    /**
+     * Should delete the expired keys only.
+     */
+    @Test
+    void deleteExpired_deletesTheExpiredKeys() {
+        DatabaseIdempotencyStore expiring = new DatabaseIdempotencyStore(database.databaseClient(),
+                Duration.ZERO, Duration.ofMinutes(1), Duration.ofSeconds(5), Duration.ofMinutes(10));
+        DatabaseIdempotencyStore store = store(Duration.ofMinutes(1), Duration.ofSeconds(5));
+        expiring.claim("old", FINGERPRINT).block();
+        store.claim("new", FINGERPRINT).block();
+
+        assertEquals(1L, store.deleteExpired().block());
+        assertEquals(IdempotencyStore.Claim.IN_PROGRESS, store(Duration.ofMinutes(1), Duration.ofMillis(100))
+                .claim("new", FINGERPRINT).block());
+    }
+
+    private DatabaseIdempotencyStore store(Duration lockTimeout, Duration waitTimeout) {
+        return new DatabaseIdempotencyStore(database.databaseClient(), Duration.ofHours(1), lockTimeout,
+                waitTimeout, Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,131 @@
+package com.seti.technical_test.infrastructure.persistance.search;
+
+import com.seti.technical_test.domain.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the in-memory operations of {@link ProductNameIndex}.
+ */
+class ProductNameIndexTest {
+
+    private final ProductNameIndex index = new ProductNameIndex(null, null, null, false, Duration.ZERO, 0);
+
+    /**
+     * Should return the products starting with a prefix, in name order.
+     */
+    @Test
+    void findByPrefix_returnsTheMatchesInNameOrder() {
+        index.put(new Product(1L, "CHAIR", 5, 10L));
+        index.put(new Product(2L, "CABLE", 3, 10L));
+        index.put(new Product(3L, "DESK", 7, 10L));
+        index.put(new Product(4L, "CHALK", 1, 10L));
+
+        assertEquals(List.of(
+                new Product(1L, "CHAIR", 5, 10L),
+                new Product(4L, "CHALK", 1, 10L)),
+                index.findByPrefix("CHA", null, 10));
+        assertEquals(List.of(
+                new Product(2L, "CABLE", 3, 10L),
+                new Product(1L, "CHAIR", 5, 10L),
+                new Product(4L, "CHALK", 1, 10L)),
+                index.findByPrefix("C", null, 10));
+        assertTrue(index.findByPrefix("Z", null, 10).isEmpty());
+    }
+
+    /**
+     * Should keep every product sharing a name, ordered by id.
+     */
+    @Test
+    void put_keepsProductsWithTheSameName() {
+        index.put(new Product(2L, "LAMP", 4, 10L));
+        index.put(new Product(1L, "LAMP", 6, 20L));
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(
+                new Product(1L, "LAMP", 6, 20L),
+                new Product(2L, "LAMP", 4, 10L)),
+                index.findByPrefix("LAMP", null, 10));
+    }
+
+    /**
+     * Should replace a product written again with the same name.
+     */
+    @Test
+    void put_replacesTheSameProduct() {
+        index.put(new Product(1L, "LAMP", 4, 10L));
+        index.put(new Product(1L, "LAMP", 9, 10L));
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(new Product(1L, "LAMP", 9, 10L)), index.findByPrefix("LAMP", null, 10));
+    }
+
+    /**
+     * Should drop the former name of a renamed product, and only its own.
+     */
+    @Test
+    void put_renameDropsTheFormerName() {
+        index.put(new Product(1L, "LAMP", 4, 10L));
+        index.put(new Product(2L, "LAMP", 6, 10L));
+        index.put(new Product(1L, "TABLE", 4, 10L));
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(new Product(2L, "LAMP", 6, 10L)), index.findByPrefix("LAMP", null, 10));
+        assertEquals(List.of(new Product(1L, "TABLE", 4, 10L)), index.findByPrefix("TABLE", null, 10));
+    }
+
+    /**
+     * Should remove a product without touching the others of the same
+     * name, and ignore unknown products.
+     */
+    @Test
+    void remove_dropsOnlyTheProduct() {
+        index.put(new Product(1L, "LAMP", 4, 10L));
+        index.put(new Product(2L, "LAMP", 6, 10L));
+
+        index.remove(1L);
+        index.remove(3L);
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(new Product(2L, "LAMP", 6, 10L)), index.findByPrefix("LAMP", null, 10));
+    }
+
+    /**
+     * Should only return the products of the requested office, walking
+     * past the matches of the other offices.
+     */
+    @Test
+    void findByPrefix_filtersByOffice() {
+        index.put(new Product(1L, "BOOK A", 1, 10L));
+        index.put(new Product(2L, "BOOK B", 1, 20L));
+        index.put(new Product(3L, "BOOK C", 1, 20L));
+        index.put(new Product(4L, "BOOK D", 1, 10L));
+
+        assertEquals(List.of(
+                new Product(1L, "BOOK A", 1, 10L),
+                new Product(4L, "BOOK D", 1, 10L)),
+                index.findByPrefix("BOOK", 10L, 10));
+        assertTrue(index.findByPrefix("BOOK", 30L, 10).isEmpty());
+    }
+
+    /**
+     * Should stop at the limit, counting only the matches of the office.
+     */
+    @Test
+    void findByPrefix_stopsAtTheLimit() {
+        for (long id = 1; id <= 10; id++) {
+            index.put(new Product(id, "PEN " + id, 1, id % 2 == 0 ? 10L : 20L));
+        }
+
+        assertEquals(3, index.findByPrefix("PEN", null, 3).size());
+        assertEquals(List.of(
+                new Product(10L, "PEN 10", 1, 10L),
+                new Product(2L, "PEN 2", 1, 10L)),
+                index.findByPrefix("PEN", 10L, 2));
+    }
+}
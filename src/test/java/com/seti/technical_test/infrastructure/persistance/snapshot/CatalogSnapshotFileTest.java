@@ -0,0 +1,208 @@
+package com.seti.technical_test.infrastructure.persistance.snapshot;
+
+import com.seti.technical_test.domain.model.ChangeEventPosition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link CatalogSnapshotFile} and {@link CatalogSnapshot}.
+ */
+class CatalogSnapshotFileTest {
+
+    private static final ChangeEventPosition[] POSITIONS = {
+            new ChangeEventPosition(812L, 40L),
+            ChangeEventPosition.before(95L)
+    };
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Should read back every row and the outbox positions of a committed
+     * snapshot, including names that are not ASCII.
+     */
+    @Test
+    void commit_roundTrip() {
+        CatalogSnapshotFile file = file(Duration.ofHours(1));
+        write(file, POSITIONS, 3_000);
+
+        CatalogSnapshot snapshot = file.open(POSITIONS).orElseThrow();
+
+        assertEquals(2, snapshot.shardCount());
+        assertArrayEquals(POSITIONS, snapshot.positions());
+        assertEquals(3_000, snapshot.products());
+
+        List<String> franchises = new ArrayList<>();
+        snapshot.forEachFranchise((id, name) -> franchises.add(id + ":" + name));
+        assertEquals(List.of("1:Café Ñandú", "2:B"), franchises);
+
+        List<String> offices = new ArrayList<>();
+        snapshot.forEachOffice((id, name, franchiseId) -> offices.add(id + ":" + name + ":" + franchiseId));
+        assertEquals(List.of("10:Sede 東京:1", "20:Norte:2"), offices);
+
+        List<String> products = new ArrayList<>();
+        snapshot.forEachProduct((id, name, stock, officeId) ->
+                products.add(id + ":" + name + ":" + stock + ":" + officeId));
+        assertEquals(3_000, products.size());
+        assertEquals("1:Producto 1:1:20", products.getFirst());
+        assertEquals("3000:Producto 3000:3000:10", products.getLast());
+    }
+
+    /**
+     * Should accept a snapshot taken before the current outbox positions
+     * and ignore one ahead of them or taken from another number of shards.
+     */
+    @Test
+    void open_checksThePositions() {
+        CatalogSnapshotFile file = file(Duration.ofHours(1));
+        write(file, POSITIONS, 10);
+
+        assertTrue(file.open(new ChangeEventPosition[]{
+                new ChangeEventPosition(812L, 41L), ChangeEventPosition.before(96L)}).isPresent());
+        assertFalse(file.open(new ChangeEventPosition[]{
+                new ChangeEventPosition(812L, 39L), ChangeEventPosition.before(96L)}).isPresent());
+        assertFalse(file.open(new ChangeEventPosition[]{
+                new ChangeEventPosition(900L, 1L), ChangeEventPosition.before(94L)}).isPresent());
+        assertFalse(file.open(new ChangeEventPosition[]{new ChangeEventPosition(900L, 1L)}).isPresent());
+    }
+
+    /**
+     * Should ignore a snapshot with a single corrupted byte.
+     */
+    @Test
+    void open_ignoresACorruptedFile() throws IOException {
+        CatalogSnapshotFile file = file(Duration.ofHours(1));
+        write(file, POSITIONS, 100);
+
+        Path snapshot = directory.resolve("catalog.snap");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(snapshot, bytes);
+
+        assertTrue(file.open().isEmpty());
+    }
+
+    /**
+     * Should ignore a truncated snapshot, down to an empty file.
+     */
+    @Test
+    void open_ignoresATruncatedFile() throws IOException {
+        CatalogSnapshotFile file = file(Duration.ofHours(1));
+        write(file, POSITIONS, 100);
+
+        Path snapshot = directory.resolve("catalog.snap");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        for (int length : new int[]{bytes.length - 1, bytes.length / 2, 8, 0}) {
+            Files.write(snapshot, Arrays.copyOf(bytes, length));
+            assertTrue(file.open().isEmpty(), "truncated to " + length + " bytes");
+        }
+    }
+
+    /**
+     * Should ignore a snapshot of another format, even with a valid
+     * checksum.
+     */
+    @Test
+    void read_rejectsAnotherFormat() throws IOException {
+        CatalogSnapshotFile file = file(Duration.ofHours(1));
+        write(file, POSITIONS, 10);
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(directory.resolve("catalog.snap")));
+        assertNotNull(CatalogSnapshot.read(buffer));
+
+        buffer.putInt(Integer.BYTES, CatalogSnapshotFile.FORMAT - 1);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, buffer.limit() - Integer.BYTES));
+        buffer.putInt(buffer.limit() - Integer.BYTES, (int) crc.getValue());
+
+        assertNull(CatalogSnapshot.read(buffer));
+    }
+
+    /**
+     * Should ignore a snapshot older than the maximum age.
+     */
+    @Test
+    void open_ignoresAnExpiredSnapshot() {
+        write(file(Duration.ofHours(1)), POSITIONS, 10);
+
+        assertTrue(file(Duration.ZERO.minusSeconds(1)).open().isEmpty());
+    }
+
+    /**
+     * Should refuse a row written after the following section was started.
+     */
+    @Test
+    void writer_rejectsSectionsOutOfOrder() {
+        try (CatalogSnapshotFile.Writer writer = file(Duration.ofHours(1)).create(POSITIONS)) {
+            writer.office(10L, "Sede", 1L);
+
+            assertThrows(IllegalStateException.class, () -> writer.franchise(1L, "A"));
+        }
+    }
+
+    /**
+     * Should leave neither a snapshot nor a temporary file behind when a
+     * writer is closed before being committed, and keep the previous
+     * snapshot.
+     */
+    @Test
+    void close_withoutCommitKeepsThePreviousSnapshot() throws IOException {
+        CatalogSnapshotFile file = file(Duration.ofHours(1));
+        write(file, POSITIONS, 10);
+
+        try (CatalogSnapshotFile.Writer writer = file.create(new ChangeEventPosition[]{ChangeEventPosition.START})) {
+            writer.franchise(1L, "A");
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(directory.resolve("catalog.snap")), files.toList());
+        }
+        assertEquals(10, file.open(POSITIONS).orElseThrow().products());
+    }
+
+    /**
+     * Should never restore a snapshot when disabled.
+     */
+    @Test
+    void open_disabled() {
+        write(file(Duration.ofHours(1)), POSITIONS, 10);
+
+        assertTrue(new CatalogSnapshotFile(directory, false, Duration.ofHours(1)).open().isEmpty());
+    }
+
+    private CatalogSnapshotFile file(Duration maxAge) {
+        return new CatalogSnapshotFile(directory, true, maxAge);
+    }
+
+    private static void write(CatalogSnapshotFile file, ChangeEventPosition[] positions, int products) {
+        try (CatalogSnapshotFile.Writer writer = file.create(positions)) {
+            writer.franchise(1L, "Café Ñandú");
+            writer.franchise(2L, "B");
+            writer.office(10L, "Sede 東京", 1L);
+            writer.office(20L, "Norte", 2L);
+            for (long id = 1; id <= products; id++) {
+                writer.product(id, "Producto " + id, (int) id, id % 2 == 0 ? 10L : 20L);
+            }
+            writer.commit();
+        }
+    }
+}
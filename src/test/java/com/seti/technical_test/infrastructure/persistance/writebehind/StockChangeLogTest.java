@@ -0,0 +1,102 @@
+package com.seti.technical_test.infrastructure.persistance.writebehind;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Unit tests for {@link StockChangeLog}.
+ */
+class StockChangeLogTest {
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Should read back the appended changes of each segment, list the
+     * segments in generation order and forget the deleted ones.
+     */
+    @Test
+    void read_returnsTheAppendedChanges() {
+        StockChangeLog log = new StockChangeLog(directory);
+        try (StockChangeLog.Segment later = log.open(20); StockChangeLog.Segment earlier = log.open(3)) {
+            later.append(new StockChange(1, 10, 5));
+            earlier.append(new StockChange(2, 10, -1));
+            later.append(new StockChange(1, 10, -2));
+        }
+
+        assertEquals(List.of(3L, 20L), log.generations());
+        assertEquals(List.of(new StockChange(1, 10, 5), new StockChange(1, 10, -2)), log.read(20));
+
+        log.delete(3);
+        assertEquals(List.of(20L), log.generations());
+    }
+
+    /**
+     * Should stop reading at a truncated record, left by a write that was
+     * never acknowledged.
+     */
+    @Test
+    void read_stopsAtATruncatedRecord() throws IOException {
+        StockChangeLog log = new StockChangeLog(directory);
+        try (StockChangeLog.Segment segment = log.open(1)) {
+            segment.append(new StockChange(1, 10, 5));
+            segment.append(new StockChange(2, 10, 7));
+        }
+        truncate(segment(1), StockChangeLog.RECORD_SIZE + 3);
+
+        assertEquals(List.of(new StockChange(1, 10, 5)), log.read(1));
+    }
+
+    /**
+     * Should stop reading at a record whose checksum does not match.
+     */
+    @Test
+    void read_stopsAtACorruptedRecord() throws IOException {
+        StockChangeLog log = new StockChangeLog(directory);
+        try (StockChangeLog.Segment segment = log.open(1)) {
+            segment.append(new StockChange(1, 10, 5));
+            segment.append(new StockChange(2, 10, 7));
+            segment.append(new StockChange(3, 10, 9));
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(segment(1).toFile(), "rw")) {
+            file.seek(StockChangeLog.RECORD_SIZE + Long.BYTES + Long.BYTES);
+            file.writeInt(-7);
+        }
+
+        assertEquals(List.of(new StockChange(1, 10, 5)), log.read(1));
+    }
+
+    /**
+     * Should generate a node identifier once and return it again, also
+     * from another instance over the same directory.
+     */
+    @Test
+    void nodeId_isStoredInTheDirectory() {
+        String nodeId = new StockChangeLog(directory).nodeId();
+
+        assertEquals(nodeId, new StockChangeLog(directory).nodeId());
+        assertNotEquals(nodeId, new StockChangeLog(directory.resolve("other")).nodeId());
+        assertEquals(List.of(), new StockChangeLog(directory).generations());
+    }
+
+    private Path segment(long generation) {
+        return directory.resolve("stock-" + generation + ".log");
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (RandomAccessFile handle = new RandomAccessFile(file.toFile(), "rw")) {
+            handle.setLength(size);
+        }
+        assertEquals(size, Files.size(file));
+    }
+}
@@ -0,0 +1,201 @@
+package com.seti.technical_test.infrastructure.persistance.writebehind;
+
+import com.seti.technical_test.infrastructure.persistance.PostgresTestDatabase;
+import com.seti.technical_test.infrastructure.persistance.connection.ShardResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link StockWriteBehindBuffer} against a real database.
+ */
+class StockWriteBehindBufferTest {
+
+    private static final long PRODUCT = 1;
+
+    private static final long OFFICE = 1;
+
+    @TempDir
+    private Path directory;
+
+    private PostgresTestDatabase database;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = PostgresTestDatabase.create();
+        try (Connection connection = database.jdbc(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO franchise (name) VALUES ('Franchise')");
+            statement.execute("INSERT INTO office (name, franchise_id) VALUES ('Office', 1)");
+            statement.execute("INSERT INTO product (id, name, stock, office_id) VALUES (1, 'RICE', 10, 1)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    /**
+     * Should write the buffered changes on stop and empty the log.
+     */
+    @Test
+    void stop_flushesTheBufferedChanges() throws SQLException, IOException {
+        StockWriteBehindBuffer buffer = buffer(directory, "node");
+        buffer.start();
+
+        assertEquals(15, adjust(buffer, 5));
+        assertEquals(12, adjust(buffer, -3));
+        assertEquals(10, stock());
+
+        buffer.stop();
+
+        assertEquals(12, stock());
+        assertEquals(0, buffered(directory));
+    }
+
+    /**
+     * Should replay on start the segments left by a node that stopped
+     * without flushing.
+     */
+    @Test
+    void start_replaysTheSegmentsOfACrash() throws SQLException, IOException {
+        StockWriteBehindBuffer crashed = buffer(directory, "node");
+        crashed.start();
+        adjust(crashed, 4);
+        adjust(crashed, -1);
+        Path copy = Files.createDirectory(directory.resolve("copy"));
+        for (Path segment : segments(directory)) {
+            Files.copy(segment, copy.resolve(segment.getFileName()));
+        }
+
+        StockWriteBehindBuffer restarted = buffer(copy, "node");
+        restarted.start();
+        assertEquals(3, restarted.pending(PRODUCT));
+        restarted.stop();
+
+        assertEquals(13, stock());
+        assertEquals(0, buffered(copy));
+    }
+
+    /**
+     * Should skip a generation the checkpoint already covers, as left by a
+     * crash between the write and the deletion of its segment.
+     */
+    @Test
+    void start_skipsAGenerationAlreadyWritten() throws SQLException, IOException {
+        StockWriteBehindBuffer buffer = buffer(directory, "node");
+        buffer.start();
+        adjust(buffer, 6);
+        Path copy = Files.createDirectory(directory.resolve("copy"));
+        for (Path segment : segments(directory)) {
+            Files.copy(segment, copy.resolve(segment.getFileName()));
+        }
+        buffer.stop();
+        assertEquals(16, stock());
+
+        for (Path segment : segments(copy)) {
+            Files.copy(segment, directory.resolve(segment.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        }
+        StockWriteBehindBuffer restarted = buffer(directory, "node");
+        restarted.start();
+        restarted.stop();
+
+        assertEquals(16, stock());
+        assertEquals(0, buffered(directory));
+    }
+
+    /**
+     * Should refuse a change that makes the stored stock plus the buffered
+     * changes negative, before anything is written.
+     */
+    @Test
+    void update_countsTheBufferedChanges() throws SQLException {
+        StockWriteBehindBuffer buffer = buffer(directory, "node");
+        buffer.start();
+
+        assertEquals(3, adjust(buffer, -7));
+        assertNull(adjust(buffer, -4));
+        assertEquals(0, adjust(buffer, -3));
+        buffer.stop();
+
+        assertEquals(0, stock());
+    }
+
+    /**
+     * Should not apply on flush a change that another node made negative
+     * meanwhile, instead of clamping the stock to zero.
+     */
+    @Test
+    void stop_rejectsAChangeMadeNegativeByAnotherNode() throws SQLException {
+        StockWriteBehindBuffer first = buffer(directory.resolve("first"), null);
+        StockWriteBehindBuffer second = buffer(directory.resolve("second"), null);
+        first.start();
+        second.start();
+
+        assertEquals(2, adjust(first, -8));
+        assertEquals(4, adjust(second, -6));
+        first.stop();
+        second.stop();
+
+        assertEquals(2, stock());
+    }
+
+    private StockWriteBehindBuffer buffer(Path logDirectory, String nodeId) {
+        return new StockWriteBehindBuffer(database.databaseClient(), new ShardResolver(1),
+                database.transactionalOperator(), new StockChangeLog(logDirectory), nodeId, Duration.ofHours(1),
+                Long.MAX_VALUE);
+    }
+
+    private Integer adjust(StockWriteBehindBuffer buffer, int delta) {
+        Mono<Integer> stored = database.databaseClient()
+                .sql("SELECT stock FROM product WHERE id = :id")
+                .bind("id", PRODUCT)
+                .map(row -> row.get("stock", Integer.class))
+                .one();
+        return buffer.update(PRODUCT, OFFICE, stored, stock -> stock + delta).block(Duration.ofSeconds(10));
+    }
+
+    private int stock() throws SQLException {
+        try (Connection connection = database.jdbc();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT stock FROM product WHERE id = " + PRODUCT)) {
+            assertTrue(result.next());
+            return result.getInt(1);
+        }
+    }
+
+    /**
+     * Counts the changes left in the log; the segment of the current
+     * generation stays on disk, empty.
+     */
+    private static int buffered(Path directory) {
+        StockChangeLog log = new StockChangeLog(directory);
+        return log.generations().stream().mapToInt(generation -> log.read(generation).size()).sum();
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("stock-")).toList();
+        }
+    }
+}
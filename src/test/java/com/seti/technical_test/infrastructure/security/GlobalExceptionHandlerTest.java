@@ -0,0 +1,83 @@
+package com.seti.technical_test.infrastructure.security;
+
+import com.seti.technical_test.infrastructure.exception.GeneralException;
+import com.seti.technical_test.infrastructure.exception.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Web tests for the problem details rendered by {@link GlobalExceptionHandler}.
+ */
+class GlobalExceptionHandlerTest {
+
+    private final WebTestClient client = WebTestClient.bindToController(new FailingController())
+            .controllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    /**
+     * Should render a {@link NotFoundException} as a 404 problem detail.
+     */
+    @Test
+    void notFound_rendersA404ProblemDetail() {
+        client.get().uri("/not-found")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.title").isEqualTo("Not Found")
+                .jsonPath("$.detail").isEqualTo("Product not found");
+    }
+
+    /**
+     * Should render a {@link GeneralException} as a 400 problem detail.
+     */
+    @Test
+    void general_rendersA400ProblemDetail() {
+        client.get().uri("/general")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.title").isEqualTo("Bad Request")
+                .jsonPath("$.detail").isEqualTo("The stock cannot be negative");
+    }
+
+    /**
+     * Should also handle the exceptions thrown before a publisher is
+     * returned.
+     */
+    @Test
+    void thrown_rendersAProblemDetail() {
+        client.get().uri("/thrown")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Office not found");
+    }
+
+    @RestController
+    static class FailingController {
+
+        @GetMapping("/not-found")
+        Mono<String> notFound() {
+            return Mono.error(new NotFoundException("Product not found"));
+        }
+
+        @GetMapping("/general")
+        Mono<String> general() {
+            return Mono.error(new GeneralException("The stock cannot be negative"));
+        }
+
+        @GetMapping("/thrown")
+        Mono<String> thrown() {
+            throw new NotFoundException("Office not found");
+        }
+    }
+}
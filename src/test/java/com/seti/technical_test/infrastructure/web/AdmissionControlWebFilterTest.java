@@ -0,0 +1,102 @@
+package com.seti.technical_test.infrastructure.web;
+
+import com.seti.technical_test.infrastructure.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for {@link AdmissionControlWebFilter}.
+ */
+class AdmissionControlWebFilterTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("10.0.0.1", 40000);
+
+    private final AdmissionControlWebFilter filter = new AdmissionControlWebFilter(
+            new AdmissionControlProperties(1, 2, null, null, null, null, null, null, null),
+            new SimpleMeterRegistry());
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final WebFilterChain chain = exchange -> {
+        executions.incrementAndGet();
+        return Mono.empty();
+    };
+
+    /**
+     * Should answer 429 with a Retry-After header once a client exceeds
+     * its burst.
+     */
+    @Test
+    void filter_rejectsAClientAboveItsRate() {
+        filter.filter(exchange("/api/v1/product/1", CLIENT, null), chain).block();
+        filter.filter(exchange("/api/v1/product/1", CLIENT, null), chain).block();
+
+        MockServerWebExchange rejected = exchange("/api/v1/product/1", CLIENT, null);
+        filter.filter(rejected, chain).block();
+
+        assertEquals(2, executions.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertNotNull(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    /**
+     * Should limit a client by its address, so changing the client header
+     * does not buy a new burst.
+     */
+    @Test
+    void filter_ignoresTheClientHeader() {
+        for (int request = 0; request < 3; request++) {
+            filter.filter(exchange("/api/v1/product/1", CLIENT, "client-" + request), chain).block();
+        }
+
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * Should limit each address separately.
+     */
+    @Test
+    void filter_limitsEachAddressSeparately() {
+        filter.filter(exchange("/api/v1/product/1", CLIENT, null), chain).block();
+        filter.filter(exchange("/api/v1/product/1", CLIENT, null), chain).block();
+
+        MockServerWebExchange other = exchange("/api/v1/product/1", new InetSocketAddress("10.0.0.2", 40000), null);
+        filter.filter(other, chain).block();
+
+        assertEquals(3, executions.get());
+        assertNull(other.getResponse().getStatusCode());
+    }
+
+    /**
+     * Should leave the requests outside the API untouched.
+     */
+    @Test
+    void filter_ignoresRequestsOutsideTheApi() {
+        for (int request = 0; request < 5; request++) {
+            filter.filter(exchange("/actuator/health", CLIENT, null), chain).block();
+        }
+
+        assertEquals(5, executions.get());
+    }
+
+    private static MockServerWebExchange exchange(String path, InetSocketAddress client, String clientHeader) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path).remoteAddress(client);
+        if (clientHeader != null) {
+            request.header("X-Client-Id", clientHeader);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
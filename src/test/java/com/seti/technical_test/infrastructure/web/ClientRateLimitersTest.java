@@ -0,0 +1,62 @@
+package com.seti.technical_test.infrastructure.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for {@link ClientRateLimiters}.
+ */
+class ClientRateLimitersTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    /**
+     * Should return the same limiter to every request of a client.
+     */
+    @Test
+    void get_keepsTheLimiterOfAClient() {
+        ClientRateLimiters limiters = new ClientRateLimiters(100, 10, 10, 60 * SECOND);
+
+        RateLimiter limiter = limiters.get("address:10.0.0.1", 0);
+
+        assertSame(limiter, limiters.get("address:10.0.0.1", SECOND));
+        assertEquals(1, limiters.size());
+    }
+
+    /**
+     * Should never track more clients than its capacity, forgetting the
+     * least recently seen ones, however many clients arrive.
+     */
+    @Test
+    void get_staysBounded() {
+        ClientRateLimiters limiters = new ClientRateLimiters(32, 10, 10, 60 * SECOND);
+        RateLimiter first = limiters.get("address:first", 0);
+
+        for (int client = 0; client < 10_000; client++) {
+            limiters.get("address:10.0." + client / 256 + "." + client % 256, client);
+        }
+
+        assertEquals(32, limiters.size());
+        assertNotSame(first, limiters.get("address:first", 10_000));
+    }
+
+    /**
+     * Should forget the idle clients as new ones arrive.
+     */
+    @Test
+    void get_forgetsIdleClients() {
+        ClientRateLimiters limiters = new ClientRateLimiters(10_000, 10, 10, SECOND);
+        for (int client = 0; client < 1_000; client++) {
+            limiters.get("address:" + client, 0);
+        }
+
+        for (int client = 0; client < 1_000; client++) {
+            limiters.get("address:new-" + client, 10 * SECOND);
+        }
+
+        assertEquals(1_000, limiters.size());
+    }
+}
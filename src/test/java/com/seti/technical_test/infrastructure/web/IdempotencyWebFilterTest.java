@@ -0,0 +1,180 @@
+package com.seti.technical_test.infrastructure.web;
+
+import com.seti.technical_test.infrastructure.config.IdempotencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for {@link IdempotencyWebFilter} over an
+ * {@link InMemoryIdempotencyStore}.
+ */
+class IdempotencyWebFilterTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("10.0.0.1", 40000);
+
+    private final IdempotencyWebFilter filter = new IdempotencyWebFilter(
+            new InMemoryIdempotencyStore(Duration.ofHours(1), 100, Duration.ofSeconds(5), Duration.ofMinutes(10),
+                    new SimpleMeterRegistry()),
+            new IdempotencyProperties(null, null, null, null, null, null, null),
+            new SimpleMeterRegistry());
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    /**
+     * Should execute a request once and return its response, marked as
+     * replayed, to a retry with the same key.
+     */
+    @Test
+    void filter_replaysTheFirstResponse() {
+        MockServerWebExchange first = exchange("key", "{\"name\":\"A\"}", CLIENT);
+        filter.filter(first, respond(HttpStatus.CREATED, "{\"id\":1}")).block();
+
+        MockServerWebExchange retry = exchange("key", "{\"name\":\"A\"}", CLIENT);
+        filter.filter(retry, respond(HttpStatus.CREATED, "{\"id\":2}")).block();
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode());
+        assertEquals("true", retry.getResponse().getHeaders().getFirst(IdempotencyWebFilter.REPLAYED));
+        assertEquals("{\"id\":1}", retry.getResponse().getBodyAsString().block());
+        assertNull(first.getResponse().getHeaders().getFirst(IdempotencyWebFilter.REPLAYED));
+    }
+
+    /**
+     * Should answer a key reused with another body with 422.
+     */
+    @Test
+    void filter_rejectsAKeyReusedForAnotherRequest() {
+        filter.filter(exchange("key", "{\"name\":\"A\"}", CLIENT), respond(HttpStatus.CREATED, "{}")).block();
+
+        MockServerWebExchange other = exchange("key", "{\"name\":\"B\"}", CLIENT);
+        filter.filter(other, respond(HttpStatus.CREATED, "{}")).block();
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_CONTENT, other.getResponse().getStatusCode());
+    }
+
+    /**
+     * Should make a retry wait for the request in flight with its key and
+     * return that request's response.
+     */
+    @Test
+    void filter_retryWaitsForTheRequestInFlight() {
+        Sinks.Empty<Void> done = Sinks.empty();
+        MockServerWebExchange first = exchange("key", "{}", CLIENT);
+        Disposable running = filter.filter(first, exchange -> {
+            executions.incrementAndGet();
+            return done.asMono().then(write(exchange.getResponse(), HttpStatus.CREATED, "{\"id\":1}"));
+        }).subscribe();
+
+        MockServerWebExchange retry = exchange("key", "{}", CLIENT);
+        Mono<Void> waiting = filter.filter(retry, respond(HttpStatus.CREATED, "{\"id\":2}"));
+        Disposable completing = Mono.delay(Duration.ofMillis(100)).subscribe(tick -> done.tryEmitEmpty());
+
+        waiting.block(Duration.ofSeconds(5));
+
+        assertEquals(1, executions.get());
+        assertEquals("{\"id\":1}", retry.getResponse().getBodyAsString().block());
+        running.dispose();
+        completing.dispose();
+    }
+
+    /**
+     * Should not keep a server error, so the retry executes.
+     */
+    @Test
+    void filter_releasesTheKeyOnServerError() {
+        filter.filter(exchange("key", "{}", CLIENT), respond(HttpStatus.SERVICE_UNAVAILABLE, "{}")).block();
+
+        MockServerWebExchange retry = exchange("key", "{}", CLIENT);
+        filter.filter(retry, respond(HttpStatus.CREATED, "{\"id\":1}")).block();
+
+        assertEquals(2, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode());
+        assertNull(retry.getResponse().getHeaders().getFirst(IdempotencyWebFilter.REPLAYED));
+    }
+
+    /**
+     * Should release the key of a cancelled request, so the retry executes.
+     */
+    @Test
+    void filter_releasesTheKeyOnCancel() {
+        filter.filter(exchange("key", "{}", CLIENT), exchange -> {
+            executions.incrementAndGet();
+            return Mono.never();
+        }).subscribe().dispose();
+
+        MockServerWebExchange retry = exchange("key", "{}", CLIENT);
+        filter.filter(retry, respond(HttpStatus.CREATED, "{}")).block(Duration.ofSeconds(5));
+
+        assertEquals(2, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode());
+    }
+
+    /**
+     * Should scope keys to the client, so another client's request with the
+     * same key executes instead of getting the first client's response.
+     */
+    @Test
+    void filter_scopesKeysToTheClient() {
+        filter.filter(exchange("key", "{}", CLIENT), respond(HttpStatus.CREATED, "{\"id\":1}")).block();
+
+        MockServerWebExchange other = exchange("key", "{}", new InetSocketAddress("10.0.0.2", 40000));
+        filter.filter(other, respond(HttpStatus.CREATED, "{\"id\":2}")).block();
+
+        assertEquals(2, executions.get());
+        assertEquals("{\"id\":2}", other.getResponse().getBodyAsString().block());
+    }
+
+    /**
+     * Should leave requests without a key, or outside the API, untouched.
+     */
+    @Test
+    void filter_ignoresRequestsWithoutAKey() {
+        for (int request = 0; request < 2; request++) {
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/product")
+                    .remoteAddress(CLIENT)
+                    .body("{}")), respond(HttpStatus.CREATED, "{}")).block();
+        }
+
+        assertEquals(2, executions.get());
+    }
+
+    private static MockServerWebExchange exchange(String key, String body, InetSocketAddress client) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/product")
+                .header(IdempotencyWebFilter.IDEMPOTENCY_KEY, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .remoteAddress(client)
+                .body(body));
+    }
+
+    private WebFilterChain respond(HttpStatus status, String body) {
+        return exchange -> {
+            executions.incrementAndGet();
+            return write(exchange.getResponse(), status, body);
+        };
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, HttpStatus status, String body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() ->
+                response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+}
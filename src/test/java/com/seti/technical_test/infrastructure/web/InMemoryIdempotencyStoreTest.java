@@ -0,0 +1,146 @@
+package com.seti.technical_test.infrastructure.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Unit tests for {@link InMemoryIdempotencyStore}.
+ */
+class InMemoryIdempotencyStoreTest {
+
+    private static final IdempotentResponse CREATED = new IdempotentResponse(201, "application/json",
+            "{\"id\":1}".getBytes());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Should let the first request of a key execute and return its response
+     * to the next ones.
+     */
+    @Test
+    void claim_replaysTheCompletedResponse() {
+        InMemoryIdempotencyStore store = store(Duration.ofHours(1), 10);
+
+        assertEquals(IdempotencyStore.Claim.ACQUIRED, store.claim("k", "f").block());
+        store.complete("k", "f", CREATED).block();
+
+        IdempotencyStore.Claim claim = store.claim("k", "f").block();
+        assertArrayEquals(CREATED.body(),
+                assertInstanceOf(IdempotencyStore.Claim.Completed.class, claim).response().body());
+    }
+
+    /**
+     * Should refuse a key reused by a different request, in flight or
+     * completed.
+     */
+    @Test
+    void claim_mismatch() {
+        InMemoryIdempotencyStore store = store(Duration.ofHours(1), 10);
+
+        store.claim("k", "f").block();
+        assertEquals(IdempotencyStore.Claim.MISMATCH, store.claim("k", "other").block());
+
+        store.complete("k", "f", CREATED).block();
+        assertEquals(IdempotencyStore.Claim.MISMATCH, store.claim("k", "other").block());
+    }
+
+    /**
+     * Should make a request wait for the request holding its key, and hand
+     * it the response once completed.
+     */
+    @Test
+    void claim_waitsForTheKeyInFlight() {
+        InMemoryIdempotencyStore store = store(Duration.ofHours(1), 10);
+        store.claim("k", "f").block();
+
+        StepVerifier.create(store.claim("k", "f"))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> store.complete("k", "f", CREATED).block())
+                .assertNext(claim -> assertInstanceOf(IdempotencyStore.Claim.Completed.class, claim))
+                .verifyComplete();
+    }
+
+    /**
+     * Should let a waiting request execute once the key it waits on is
+     * released.
+     */
+    @Test
+    void claim_acquiresAReleasedKey() {
+        InMemoryIdempotencyStore store = store(Duration.ofHours(1), 10);
+        store.claim("k", "f").block();
+
+        StepVerifier.create(store.claim("k", "f"))
+                .expectSubscription()
+                .then(() -> store.release("k", "f").block())
+                .expectNext(IdempotencyStore.Claim.ACQUIRED)
+                .verifyComplete();
+    }
+
+    /**
+     * Should answer a waiting request as in progress after the wait
+     * timeout.
+     */
+    @Test
+    void claim_timesOutWhileInFlight() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofHours(1), 10,
+                Duration.ofMillis(50), Duration.ofMinutes(10), meterRegistry);
+        store.claim("k", "f").block();
+
+        assertEquals(IdempotencyStore.Claim.IN_PROGRESS, store.claim("k", "f").block());
+    }
+
+    /**
+     * Should forget the oldest completed keys to make room for new ones, and
+     * refuse new keys only when every stored key is in flight.
+     */
+    @Test
+    void claim_evictsTheOldestCompletedKeys() {
+        InMemoryIdempotencyStore store = store(Duration.ofHours(1), 2);
+
+        store.claim("a", "f").block();
+        store.claim("b", "f").block();
+        store.complete("b", "f", CREATED).block();
+        store.complete("a", "f", CREATED).block();
+
+        assertEquals(IdempotencyStore.Claim.ACQUIRED, store.claim("c", "f").block());
+        assertInstanceOf(IdempotencyStore.Claim.Completed.class, store.claim("a", "f").block());
+        assertEquals(IdempotencyStore.Claim.ACQUIRED, store.claim("d", "f").block());
+        assertEquals(2.0, meterRegistry.get("app.idempotency.evicted").counter().count());
+
+        assertEquals(IdempotencyStore.Claim.FULL, store.claim("e", "f").block());
+        store.release("c", "f").block();
+        assertEquals(IdempotencyStore.Claim.ACQUIRED, store.claim("e", "f").block());
+    }
+
+    /**
+     * Should sweep the expired completed keys and nothing else.
+     */
+    @Test
+    void sweep_forgetsTheExpiredKeys() throws InterruptedException {
+        InMemoryIdempotencyStore store = store(Duration.ofMillis(50), 10);
+
+        store.claim("old", "f").block();
+        store.complete("old", "f", CREATED).block();
+        Thread.sleep(100);
+        store.claim("new", "f").block();
+        store.complete("new", "f", CREATED).block();
+        store.claim("running", "f").block();
+
+        assertEquals(1, store.sweep());
+        assertEquals(2.0, meterRegistry.get("app.idempotency.keys").gauge().value());
+        assertInstanceOf(IdempotencyStore.Claim.Completed.class, store.claim("new", "f").block());
+    }
+
+    private InMemoryIdempotencyStore store(Duration ttl, int maxEntries) {
+        return new InMemoryIdempotencyStore(ttl, maxEntries, Duration.ofSeconds(5), Duration.ofMinutes(10),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,76 @@
+package com.seti.technical_test.infrastructure.web;
+
+import com.seti.technical_test.infrastructure.tracing.TraceIdHolder;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link TraceIdWebFilter}.
+ */
+class TraceIdWebFilterTest {
+
+    private final TraceIdWebFilter filter = new TraceIdWebFilter();
+
+    private final AtomicReference<String> seen = new AtomicReference<>();
+
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        seen.set(context.get(TraceIdHolder.CONTEXT_KEY));
+        return Mono.empty();
+    });
+
+    /**
+     * Should keep a well-formed incoming trace id, in the context and in the
+     * response.
+     */
+    @Test
+    void filter_keepsAValidTraceId() {
+        MockServerWebExchange exchange = exchange("4bf92f35-77b3-4da6-a3ce-929d0e0e4736");
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals("4bf92f35-77b3-4da6-a3ce-929d0e0e4736", seen.get());
+        assertEquals(seen.get(), exchange.getResponse().getHeaders().getFirst(TraceIdWebFilter.TRACE_ID_HEADER));
+    }
+
+    /**
+     * Should replace a trace id carrying other characters, or longer than
+     * the limit, with a generated one.
+     */
+    @Test
+    void filter_replacesAnInvalidTraceId() {
+        for (String invalid : new String[]{"abc\r\nlevel=ERROR", "a b", "é", "x".repeat(65), ""}) {
+            MockServerWebExchange exchange = exchange(invalid);
+
+            filter.filter(exchange, chain).block();
+
+            assertNotEquals(invalid, seen.get());
+            assertTrue(TraceIdWebFilter.isValid(seen.get()), seen.get());
+            assertEquals(seen.get(), exchange.getResponse().getHeaders().getFirst(TraceIdWebFilter.TRACE_ID_HEADER));
+        }
+    }
+
+    /**
+     * Should generate a trace id when the request has none.
+     */
+    @Test
+    void filter_generatesAMissingTraceId() {
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/product/1")), chain).block();
+
+        assertEquals(16, seen.get().length());
+        assertTrue(TraceIdWebFilter.isValid(seen.get()));
+    }
+
+    private static MockServerWebExchange exchange(String traceId) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/product/1")
+                .header(TraceIdWebFilter.TRACE_ID_HEADER, traceId));
+    }
+}
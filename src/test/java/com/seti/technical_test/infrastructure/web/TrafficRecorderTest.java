@@ -0,0 +1,127 @@
+package com.seti.technical_test.infrastructure.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link TrafficRecorder}.
+ */
+class TrafficRecorderTest {
+
+    private static final Pattern NAME = Pattern.compile("\"name\":\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    @TempDir
+    private Path directory;
+
+    private final TrafficRecorder recorder = new TrafficRecorder(Path.of("unused"), 1 << 20, 100,
+            Duration.ofSeconds(1), Duration.ofSeconds(5), "key", new SimpleMeterRegistry());
+
+    /**
+     * Should replace every letter and digit of a name, keeping its length,
+     * spacing and punctuation, and leave the other fields untouched.
+     */
+    @Test
+    void pseudonymize_keepsTheShapeOfNames() {
+        String body = body(recorder.pseudonymize(request("/api/v1/product", "{\"name\":\"Rice 25-kg\",\"stock\":3}")));
+        String name = name(body);
+
+        assertTrue(name.matches("[A-Z]{4} [0-9]{2}-[A-Z]{2}"), name);
+        assertNotEquals("RICE 25-KG", name);
+        assertTrue(body.endsWith(",\"stock\":3}"), body);
+    }
+
+    /**
+     * Should give a word the same pseudonym whatever its case, in a body
+     * and in a search text.
+     */
+    @Test
+    void pseudonymize_ignoresCase() {
+        String lower = name(body(recorder.pseudonymize(request("/api/v1/product", "{\"name\":\"rice\"}"))));
+        String upper = name(body(recorder.pseudonymize(request("/api/v1/product", "{\"name\":\"RICE\"}"))));
+        String uri = recorder.pseudonymize(request("/api/v1/product/search?q=Rice&limit=5", "")).uri();
+
+        assertEquals(lower, upper);
+        assertEquals("/api/v1/product/search?q=" + lower + "&limit=5", uri);
+    }
+
+    /**
+     * Should decode unicode escapes before replacing the characters, so an
+     * escaped name gets the pseudonym of the plain one.
+     */
+    @Test
+    void pseudonymize_replacesEscapedCharacters() {
+        String escaped = name(body(recorder.pseudonymize(request("/api/v1/product",
+                "{\"name\":\"Caf\\u00e9\"}"))));
+        String plain = name(body(recorder.pseudonymize(request("/api/v1/product", "{\"name\":\"Café\"}"))));
+
+        assertTrue(escaped.matches("[A-Z]{4}"), escaped);
+        assertEquals(plain, escaped);
+    }
+
+    /**
+     * Should keep the body valid JSON, escaping the quotes, backslashes and
+     * control characters of the name again.
+     */
+    @Test
+    void pseudonymize_keepsTheBodyValid() {
+        String name = name(body(recorder.pseudonymize(request("/api/v1/product",
+                "{\"name\":\"A \\\"B\\\" \\\\ C\\n\"}"))));
+
+        assertTrue(name.matches("[A-Z] \\\\\"[A-Z]\\\\\" \\\\\\\\ [A-Z]\\\\u000a"), name);
+    }
+
+    /**
+     * Should write the requests in arrival order, whatever order they were
+     * answered in.
+     */
+    @Test
+    void stop_writesTheRequestsInArrivalOrder() throws IOException {
+        TrafficRecorder recorder = new TrafficRecorder(directory, 1 << 20, 100, Duration.ofSeconds(1),
+                Duration.ofSeconds(5), "key", new SimpleMeterRegistry());
+        for (long startedAt : new long[]{30, 10, 20}) {
+            recorder.record(new CapturedRequest(startedAt, "GET", "/api/v1/product/" + startedAt, new byte[0],
+                    200, 1_000));
+        }
+        recorder.stop();
+
+        List<Long> written = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory);
+             TrafficCaptureFile.Reader reader = TrafficCaptureFile.open(files.findFirst().orElseThrow())) {
+            CapturedRequest request;
+            while ((request = reader.next()) != null) {
+                written.add(request.startedAt());
+            }
+        }
+        assertEquals(List.of(10L, 20L, 30L), written);
+    }
+
+    private static CapturedRequest request(String uri, String body) {
+        return new CapturedRequest(1, "POST", uri, body.getBytes(StandardCharsets.UTF_8), 201, 1_000);
+    }
+
+    private static String body(CapturedRequest request) {
+        return new String(request.body(), StandardCharsets.UTF_8);
+    }
+
+    private static String name(String body) {
+        Matcher matcher = NAME.matcher(body);
+        assertTrue(matcher.find(), body);
+        return matcher.group(1);
+    }
+}